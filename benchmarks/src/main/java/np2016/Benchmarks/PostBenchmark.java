@@ -0,0 +1,270 @@
+package np2016.Benchmarks;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import np2016.ASTNodes.ASTFactory;
+import np2016.ASTNodes.CCSExpression;
+import np2016.CCSSemantics.CCSSemantics;
+import np2016.CCSSemantics.Transition;
+import np2016.Diagnostic.PrintDiagnostic;
+import np2016.Parser.CCSProgram;
+import np2016.Parser.Lexer;
+import np2016.Parser.Parser;
+
+/**
+ * Measures the "Post" function ({@link CCSExpression#computeTransitions}) for
+ * every kind of AST node.
+ * <p>
+ * The benchmarked term has the node type under test at its top
+ * ({@link #operator}), nested {@link #depth} times. The operands are choices of
+ * {@link #branching} prefixes with pairwise distinct actions, so every operand
+ * has {@link #branching} outgoing transitions:
+ * <ul>
+ * <li>{@code choice}: {@code O0 + O1 + ... + Od}</li>
+ * <li>{@code par}: {@code O0 | O1 | ... | Od} without synchronization</li>
+ * <li>{@code par-sync}: {@code O0 | O1 | ... | Od} where neighbouring operands
+ * can synchronize on all of their actions</li>
+ * <li>{@code res}: {@code ((O \ {r1}) \ {r2}) ...}</li>
+ * <li>{@code identifier}: {@code X0} with {@code X0 := X1}, ...,
+ * {@code Xd := O} (unguarded unfolding)</li>
+ * </ul>
+ * The post of a prefix is its single transition, whatever its continuation
+ * is, so the prefix node is measured separately without these parameters
+ * ({@link Prefix}).
+ * <p>
+ * Run the benchmarks with {@link #main} or with
+ * {@code java -jar target/benchmarks.jar -prof gc} to get the allocation rate
+ * next to the execution time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostBenchmark {
+
+    /**
+     * The node type under test.
+     */
+    @Param({"choice", "par", "par-sync", "res", "identifier"})
+    private String operator;
+
+    /**
+     * The number of outgoing transitions of every operand.
+     */
+    @Param({"1", "4", "16"})
+    private int branching;
+
+    /**
+     * How often the node type under test is nested.
+     */
+    @Param({"1", "4", "16"})
+    private int depth;
+
+    /**
+     * The semantics used to look up recursion variables.
+     */
+    private CCSSemantics semantics;
+
+    /**
+     * The benchmarked term.
+     */
+    private CCSExpression term;
+
+    /**
+     * Parses the benchmarked term.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        CCSProgram program = parse(program(this.operator, this.branching, this.depth),
+                this.operator);
+        this.semantics = new CCSSemantics(program);
+        this.term = program.getExpression();
+    }
+
+    /**
+     * Computes the outgoing transitions of the benchmarked term.
+     *
+     * @return the outgoing transitions (consumed by JMH).
+     */
+    @Benchmark
+    public List<Transition> post() {
+        return this.term.computeTransitions(this.semantics);
+    }
+
+    /**
+     * Parses a program and fails if it has errors.
+     *
+     * @param source
+     *            the source of the program.
+     * @param name
+     *            the name of the program in error messages.
+     * @return the parsed program.
+     */
+    static CCSProgram parse(final String source, final String name) {
+        PrintDiagnostic diagnostic = new PrintDiagnostic(System.err);
+        Lexer lexer = new Lexer(diagnostic, new StringReader(source), name);
+        Parser parser = new Parser(diagnostic, lexer, new ASTFactory(diagnostic));
+        CCSProgram program = parser.parseCCSProgram();
+
+        // the parser reports errors only to the diagnostic
+        if (diagnostic.hasNewErrors()) {
+            throw new IllegalStateException("cannot parse " + source);
+        }
+        return program;
+    }
+
+    /**
+     * Constructs the source of the benchmarked program.
+     *
+     * @param operator
+     *            the node type under test.
+     * @param branching
+     *            the number of outgoing transitions of every operand.
+     * @param depth
+     *            how often the node type under test is nested.
+     * @return the source of the program.
+     */
+    static String program(final String operator, final int branching,
+            final int depth) {
+        StringBuilder b = new StringBuilder();
+
+        switch (operator) {
+        case "choice":
+        case "par":
+        case "par-sync":
+            String op = "choice".equals(operator) ? " + " : " | ";
+            boolean sync = "par-sync".equals(operator);
+            for (int k = 0; k <= depth; ++k) {
+                if (k > 0) {
+                    b.append(op);
+                }
+                if (sync) {
+                    // neighbours share the action names with opposite direction
+                    b.append(operand(k / 2, branching, k % 2 == 0 ? "!" : "?"));
+                } else {
+                    b.append(operand(k, branching, ""));
+                }
+            }
+            break;
+        case "res":
+            for (int k = 0; k < depth; ++k) {
+                b.append('(');
+            }
+            b.append(operand(0, branching, ""));
+            for (int k = 0; k < depth; ++k) {
+                b.append(") \\ {r").append(k).append('}');
+            }
+            break;
+        case "identifier":
+            for (int k = 0; k < depth; ++k) {
+                b.append('X').append(k).append(" := X").append(k + 1).append('\n');
+            }
+            b.append('X').append(depth).append(" := ")
+                    .append(operand(0, branching, "")).append('\n');
+            b.append("X0");
+            break;
+        default:
+            throw new IllegalArgumentException("unknown operator " + operator);
+        }
+
+        return b.toString();
+    }
+
+    /**
+     * Constructs an operand: a choice of prefixes with distinct actions.
+     *
+     * @param index
+     *            the index of the operand, used to make actions distinct.
+     * @param branching
+     *            the number of prefixes.
+     * @param direction
+     *            {@code "!"}, {@code "?"} or {@code ""}.
+     * @return the source of the operand.
+     */
+    private static String operand(final int index, final int branching,
+            final String direction) {
+        StringBuilder b = new StringBuilder("(");
+        for (int i = 0; i < branching; ++i) {
+            if (i > 0) {
+                b.append(" + ");
+            }
+            b.append('a').append(index).append('_').append(i)
+                    .append(direction).append(".0");
+        }
+        return b.append(')').toString();
+    }
+
+    /**
+     * Measures the "Post" function of a prefix, {@code a.0}. It is a class of
+     * its own, so the parameters of the other node types do not apply.
+     */
+    @State(Scope.Benchmark)
+    public static class Prefix {
+
+        /**
+         * The semantics used to look up recursion variables.
+         */
+        private CCSSemantics semantics;
+
+        /**
+         * The benchmarked term.
+         */
+        private CCSExpression term;
+
+        /**
+         * Parses the benchmarked term.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+            CCSProgram program = parse("a.0", "prefix");
+            this.semantics = new CCSSemantics(program);
+            this.term = program.getExpression();
+        }
+
+        /**
+         * Computes the outgoing transition of the prefix.
+         *
+         * @return the outgoing transition (consumed by JMH).
+         */
+        @Benchmark
+        public List<Transition> post() {
+            return this.term.computeTransitions(this.semantics);
+        }
+    }
+
+    /**
+     * Runs all benchmarks of this class with the GC profiler.
+     *
+     * @param args
+     *            ignored.
+     * @throws RunnerException
+     *             if JMH fails.
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PostBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,449 @@
+package np2016.Benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import np2016.CCSExplorer;
+import np2016.Options;
+import np2016.ASTNodes.ASTFactory;
+import np2016.CCSSemantics.CCSSemantics;
+import np2016.CCSSemantics.LTS;
+import np2016.Diagnostic.Diagnostic;
+import np2016.Diagnostic.PrintDiagnostic;
+import np2016.Generator.ModelFamily;
+import np2016.Parser.CCSProgram;
+import np2016.Parser.Lexer;
+import np2016.Parser.Parser;
+
+/**
+ * End-to-end benchmark of the exploration engines. Explores every model of a
+ * fixed corpus with every engine, number of threads and delay and writes the
+ * results as JSON.
+ * <p>
+ * For every combination the exploration is repeated a number of times after
+ * some warm-up runs. The report contains the median run time, states and
+ * transitions per second, the peak heap usage and the speedup over the
+ * sequential engine for the same model and delay.
+ * <p>
+ * An engine is described by the command line options that select it (see
+ * {@link #ENGINES}), so new engines only need a new entry there.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar np2016.Benchmarks.ScalingBenchmark
+ *     [--threads 1,2,4,8,16] [--delays 0,100] [--runs 5] [--warmup 2]
+ *     [--out results.json] [MODEL]...
+ * </pre>
+ *
+ * Models are {@code .ccs} files, directories containing such files or
+ * generated models given as {@code <family>:<states>} (see
+ * {@link ModelFamily}; the smallest model of the family with at least the
+ * given number of states is used). The number of states of generated models is
+ * checked after every exploration. The default corpus is the directory
+ * {@code models}.
+ */
+public final class ScalingBenchmark {
+
+    /**
+     * The engines: name, options selecting the engine and whether the engine
+     * uses the number of threads. The first engine is the baseline of the
+     * speedup.
+     */
+    private static final Object[][] ENGINES = {
+        {"sequential", new String[] {"--threads", "0"}, false},
+        {"concurrent", new String[] {}, true},
+    };
+
+    /**
+     * The numbers of threads.
+     */
+    private List<Integer> threads = defaultThreads();
+
+    /**
+     * The delays (see {@code --delay}).
+     */
+    private List<Integer> delays = Arrays.asList(0, 100);
+
+    /**
+     * Number of measured runs per combination.
+     */
+    private int runs = 5;
+
+    /**
+     * Number of warm-up runs per combination.
+     */
+    private int warmup = 2;
+
+    /**
+     * The file the results are written to.
+     */
+    private String out = "results.json";
+
+    /**
+     * The models.
+     */
+    private final List<Model> models = new ArrayList<>();
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args
+     *            command line arguments (see above).
+     * @throws IOException
+     *             if a model cannot be read or the results cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        ScalingBenchmark benchmark = new ScalingBenchmark();
+        benchmark.parseArguments(args);
+        benchmark.run();
+    }
+
+    /**
+     * Returns the default numbers of threads: all powers of two up to twice
+     * the number of processors, but at least up to 16.
+     *
+     * @return the default numbers of threads.
+     */
+    private static List<Integer> defaultThreads() {
+        int max = Math.max(16, 2 * Runtime.getRuntime().availableProcessors());
+        List<Integer> threads = new ArrayList<>();
+        for (int n = 1; n <= max; n *= 2) {
+            threads.add(n);
+        }
+        return threads;
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @param args
+     *            command line arguments.
+     * @throws IOException
+     *             if a model cannot be read.
+     */
+    private void parseArguments(final String[] args) throws IOException {
+        List<String> modelNames = new ArrayList<>();
+
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+            case "--threads":
+                this.threads = parseList(args[++i]);
+                break;
+            case "--delays":
+                this.delays = parseList(args[++i]);
+                break;
+            case "--runs":
+                this.runs = Integer.parseInt(args[++i]);
+                break;
+            case "--warmup":
+                this.warmup = Integer.parseInt(args[++i]);
+                break;
+            case "--out":
+                this.out = args[++i];
+                break;
+            default:
+                modelNames.add(args[i]);
+            }
+        }
+
+        if (modelNames.isEmpty()) {
+            modelNames.add("models");
+        }
+        for (String name : modelNames) {
+            Path path = Paths.get(name);
+            String[] generated = name.split(":");
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.ccs")) {
+                    List<Path> files = new ArrayList<>();
+                    stream.forEach(files::add);
+                    files.sort(null);
+                    for (Path file : files) {
+                        this.models.add(new Model(file));
+                    }
+                }
+            } else if (generated.length == 2 && ModelFamily.forName(generated[0]) != null) {
+                this.models.add(new Model(ModelFamily.forName(generated[0]),
+                        Long.parseLong(generated[1])));
+            } else {
+                this.models.add(new Model(path));
+            }
+        }
+    }
+
+    /**
+     * Parses a comma separated list of numbers.
+     *
+     * @param list
+     *            the list.
+     * @return the numbers.
+     */
+    private static List<Integer> parseList(final String list) {
+        List<Integer> numbers = new ArrayList<>();
+        for (String n : list.split(",")) {
+            numbers.add(Integer.parseInt(n.trim()));
+        }
+        return numbers;
+    }
+
+    /**
+     * Runs all combinations and writes the results.
+     *
+     * @throws IOException
+     *             if a model cannot be read or the results cannot be written.
+     */
+    private void run() throws IOException {
+        JsonObject report = new JsonObject();
+        report.addProperty("timestamp", Instant.now().toString());
+        report.addProperty("javaVersion", System.getProperty("java.version"));
+        report.addProperty("processors", Runtime.getRuntime().availableProcessors());
+        report.addProperty("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.addProperty("runs", this.runs);
+        report.addProperty("warmup", this.warmup);
+
+        JsonArray results = new JsonArray();
+        for (Model model : this.models) {
+            CCSProgram program = parse(model);
+            if (program == null) {
+                System.err.println(String.format("Skipping %s.", model));
+                continue;
+            }
+
+            for (int delay : this.delays) {
+                double baseline = Double.NaN;
+
+                for (Object[] engine : ENGINES) {
+                    List<Integer> threadCounts = (Boolean) engine[2]
+                            ? this.threads : Arrays.asList(0);
+
+                    for (int n : threadCounts) {
+                        JsonObject result = measure(model, program,
+                                (String) engine[0], (String[]) engine[1], n, delay);
+                        double median = result.get("medianMillis").getAsDouble();
+                        if (Double.isNaN(baseline)) {
+                            baseline = median;
+                        }
+                        result.addProperty("speedup", baseline / median);
+                        results.add(result);
+
+                        System.err.println(String.format(
+                                "%s %s threads=%d delay=%d: %.1f ms, speedup %.2f",
+                                model.name, engine[0], n, delay,
+                                median, baseline / median));
+                    }
+                }
+            }
+        }
+        report.add("results", results);
+
+        try (Writer writer = Files.newBufferedWriter(Paths.get(this.out),
+                StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        }
+    }
+
+    /**
+     * Measures one combination.
+     *
+     * @param model
+     *            the model.
+     * @param program
+     *            the parsed model.
+     * @param engine
+     *            the name of the engine.
+     * @param engineOptions
+     *            the options selecting the engine.
+     * @param threadCount
+     *            the number of threads ({@code 0} if the engine does not use
+     *            threads).
+     * @param delay
+     *            the delay.
+     * @return the result of the combination.
+     */
+    private JsonObject measure(final Model model, final CCSProgram program,
+            final String engine, final String[] engineOptions,
+            final int threadCount, final int delay) {
+        List<String> args = new ArrayList<>(Arrays.asList(engineOptions));
+        if (threadCount > 0) {
+            args.add("--threads");
+            args.add(Integer.toString(threadCount));
+        }
+        args.add("--delay");
+        args.add(Integer.toString(delay));
+        if (!Options.configure(args.toArray(new String[args.size()]))) {
+            throw new IllegalArgumentException("invalid options " + args);
+        }
+
+        CCSSemantics semantics = new CCSSemantics(program);
+        for (int i = 0; i < this.warmup; ++i) {
+            explore(model, semantics);
+        }
+
+        double[] times = new double[this.runs];
+        long peakHeap = 0;
+        LTS lts = null;
+        for (int i = 0; i < this.runs; ++i) {
+            System.gc();
+            resetPeakHeap();
+
+            long start = System.nanoTime();
+            lts = explore(model, semantics);
+            times[i] = (System.nanoTime() - start) / 1e6;
+
+            peakHeap = Math.max(peakHeap, peakHeap());
+        }
+
+        double[] sorted = times.clone();
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2];
+
+        JsonObject result = new JsonObject();
+        result.addProperty("model", model.name);
+        result.addProperty("engine", engine);
+        result.addProperty("threads", threadCount);
+        result.addProperty("delay", delay);
+        result.addProperty("states", lts.getNumberOfStates());
+        result.addProperty("transitions", lts.getNumberOfTransitions());
+        JsonArray timeArray = new JsonArray();
+        for (double t : times) {
+            timeArray.add(t);
+        }
+        result.add("timesMillis", timeArray);
+        result.addProperty("medianMillis", median);
+        result.addProperty("statesPerSecond", lts.getNumberOfStates() / (median / 1e3));
+        result.addProperty("transitionsPerSecond",
+                lts.getNumberOfTransitions() / (median / 1e3));
+        result.addProperty("peakHeapBytes", peakHeap);
+        return result;
+    }
+
+    /**
+     * Explores a model with the configured engine.
+     *
+     * @param model
+     *            the model.
+     * @param semantics
+     *            the semantics of the model.
+     * @return the explored LTS.
+     */
+    private static LTS explore(final Model model, final CCSSemantics semantics) {
+        LTS lts = CCSExplorer.explore(model.name, semantics,
+                semantics.getSources().get(0));
+        if (lts == null) {
+            throw new IllegalStateException("exploration of " + model.name + " failed");
+        }
+        if (model.expectedStates >= 0 && lts.getNumberOfStates() != model.expectedStates) {
+            throw new IllegalStateException(String.format(
+                    "exploration of %s found %d instead of %d states", model.name,
+                    lts.getNumberOfStates(), model.expectedStates));
+        }
+        return lts;
+    }
+
+    /**
+     * Parses a model.
+     *
+     * @param model
+     *            the model.
+     * @return the parsed model or {@code null} if it cannot be parsed.
+     */
+    private static CCSProgram parse(final Model model) {
+        Diagnostic diagnostic = new PrintDiagnostic(System.err);
+        Lexer lexer = new Lexer(diagnostic, new StringReader(model.source), model.name);
+        return new Parser(diagnostic, lexer, new ASTFactory(diagnostic))
+                .parseCCSProgram();
+    }
+
+    /**
+     * Resets the peak usage of all heap memory pools.
+     */
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Returns the sum of the peak usages of all heap memory pools since the
+     * last reset.
+     *
+     * @return the peak heap usage in bytes.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * A model of the corpus.
+     */
+    private static final class Model {
+        /**
+         * The name of the model.
+         */
+        private final String name;
+
+        /**
+         * The source of the CCS program.
+         */
+        private final String source;
+
+        /**
+         * The known number of states or {@code -1} if unknown.
+         */
+        private final long expectedStates;
+
+        /**
+         * Reads a model from a file.
+         *
+         * @param file
+         *            the file.
+         * @throws IOException
+         *             if the file cannot be read.
+         */
+        private Model(final Path file) throws IOException {
+            this.name = file.toString();
+            this.source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            this.expectedStates = -1;
+        }
+
+        /**
+         * Generates a model.
+         *
+         * @param family
+         *            the model family.
+         * @param states
+         *            the minimal number of states.
+         */
+        private Model(final ModelFamily family, final long states) {
+            int[] parameters = family.getParametersForSize(states);
+            this.name = family.getName() + Arrays.toString(parameters);
+            this.source = family.generate(parameters);
+            this.expectedStates = family.getNumberOfStates(parameters);
+        }
+    }
+}
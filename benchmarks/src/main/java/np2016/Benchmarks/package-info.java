@@ -0,0 +1,6 @@
+/**
+ * Contains the JMH benchmarks of the CCS Explorer. The benchmarks are built as a
+ * separate project (see {@code benchmarks/pom.xml}) so that neither JMH nor its
+ * generated code end up in the program itself.
+ */
+package np2016.Benchmarks;
@@ -4,11 +4,26 @@ import np2016.CCSSemantics.CCSSemantics;
 import np2016.CCSSemantics.State;
 import np2016.CCSSemantics.Transition;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
  * This is the abstract base class for CCS expressions.
+ * <p>
+ * All operations that inspect an entire expression ({@link #equals},
+ * {@link #hashCode}, {@link #toString} and {@link #computeTransitions}) are
+ * implemented without recursion. The sub classes only describe a single node
+ * of the AST (its sub-expressions, how it is printed, which premises its rules
+ * need and how the rules combine the premise transitions); the traversal of the
+ * tree is done here with explicit stacks. Hence arbitrarily deep expressions
+ * (e.g. very long prefix chains) can be handled without depending on the size
+ * of the Java stack.
  */
 public abstract class CCSExpression {
     /**
@@ -26,9 +41,60 @@ public abstract class CCSExpression {
         return t;
     };
 
+    /**
+     * The hash code of the expression. As expressions are immutable it is
+     * computed once from the (already computed) hash codes of the
+     * sub-expressions.
+     */
+    private final int hash;
+
+    /**
+     * The number of AST nodes of the expression. It is computed once from the
+     * (already computed) sizes of the sub-expressions.
+     */
+    private final int size;
+
+    /**
+     * Constructs a CCS expression.
+     *
+     * @param hash
+     *            the hash code of the expression.
+     * @param size
+     *            the number of AST nodes of the expression.
+     */
+    protected CCSExpression(final int hash, final int size) {
+        this.hash = hash;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of AST nodes of the expression (in constant time).
+     *
+     * @return the number of AST nodes.
+     */
+    public final int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of AST nodes of a sub-expression.
+     *
+     * @param expression
+     *            the sub-expression or {@code null}.
+     * @return the number of AST nodes ({@code 0} for {@code null}).
+     */
+    protected static int sizeOf(final CCSExpression expression) {
+        return expression == null ? 0 : expression.size;
+    }
+
     /**
      * Computes a list of all outgoing transitions. This is the "Post" function
      * of a CCS expression.
+     * <p>
+     * The premises of the SOS rules are computed bottom up using an explicit
+     * stack. A recursion variable that is unfolded again while its own
+     * transitions are computed (unguarded recursion such as
+     * {@code X := X + a.0}) contributes no further transitions.
      *
      * @param semantics
      *            used to look up recursion variables.
@@ -37,5 +103,204 @@ public abstract class CCSExpression {
      * @see Transition
      * @see CCSSemantics
      */
-    public abstract List<Transition> computeTransitions(CCSSemantics semantics);
+    public final List<Transition> computeTransitions(final CCSSemantics semantics) {
+        final Deque<Derivation> stack = new ArrayDeque<>();
+        Set<CCSExpression> unfolding = null;
+
+        stack.push(new Derivation(this, semantics));
+        for (;;) {
+            Derivation top = stack.peek();
+
+            if (top.next < top.premises.length) {
+                CCSExpression premise = top.premises[top.next++];
+                if (top.expression.isUnfolding()) {
+                    if (unfolding == null) {
+                        unfolding = Collections.newSetFromMap(new IdentityHashMap<>());
+                    }
+                    if (!unfolding.add(premise)) {
+                        // unguarded recursion
+                        top.results.add(new ArrayList<>());
+                        continue;
+                    }
+                }
+                stack.push(new Derivation(premise, semantics));
+                continue;
+            }
+
+            stack.pop();
+            List<Transition> transitions =
+                    top.expression.applyRules(semantics, top.results);
+
+            if (stack.isEmpty()) {
+                return transitions;
+            }
+            if (stack.peek().expression.isUnfolding()) {
+                unfolding.remove(top.expression);
+            }
+            stack.peek().results.add(transitions);
+        }
+    }
+
+    /**
+     * Returns the expressions whose transitions are needed as premises of the
+     * SOS rules for this expression.
+     *
+     * @param semantics
+     *            used to look up recursion variables.
+     * @return the premise expressions.
+     */
+    protected abstract CCSExpression[] getPremises(CCSSemantics semantics);
+
+    /**
+     * Applies the SOS rules of this expression to the transitions of its
+     * premises.
+     *
+     * @param semantics
+     *            used to look up recursion variables.
+     * @param premises
+     *            the transitions of the premise expressions in the order given
+     *            by {@link #getPremises}.
+     * @return a list of outgoing transitions.
+     */
+    protected abstract List<Transition> applyRules(CCSSemantics semantics,
+            List<List<Transition>> premises);
+
+    /**
+     * Returns true if the premises of this expression are obtained by
+     * unfolding a recursion variable. Only such premises can lead back to an
+     * expression whose transitions are currently computed.
+     *
+     * @return true if the premises are obtained by unfolding.
+     */
+    protected boolean isUnfolding() {
+        return false;
+    }
+
+    /**
+     * Returns the direct sub-expressions of this expression. Recursion
+     * variables are not unfolded.
+     *
+     * @return the direct sub-expressions.
+     */
+    public abstract CCSExpression[] getSubExpressions();
+
+    /**
+     * Compares this node with another node of the AST without looking at the
+     * sub-expressions.
+     *
+     * @param other
+     *            the other node.
+     * @return true if both nodes have the same type and labels.
+     */
+    protected abstract boolean equalsNode(CCSExpression other);
+
+    /**
+     * Returns the parts the string representation of this expression consists
+     * of. Parts are either strings or sub-expressions.
+     *
+     * @return the parts of the string representation.
+     */
+    protected abstract Object[] getPrintParts();
+
+    @Override
+    public final boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CCSExpression)) {
+            return false;
+        }
+
+        final Deque<CCSExpression> todo = new ArrayDeque<>();
+        todo.push(this);
+        todo.push((CCSExpression) o);
+
+        while (!todo.isEmpty()) {
+            CCSExpression e2 = todo.pop();
+            CCSExpression e1 = todo.pop();
+
+            if (e1 == e2) {
+                continue;
+            }
+            if (e1.hash != e2.hash || !e1.equalsNode(e2)) {
+                return false;
+            }
+
+            CCSExpression[] sub1 = e1.getSubExpressions();
+            CCSExpression[] sub2 = e2.getSubExpressions();
+            for (int i = 0; i < sub1.length; ++i) {
+                todo.push(sub1[i]);
+                todo.push(sub2[i]);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public final int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public final String toString() {
+        final StringBuilder b = new StringBuilder();
+        final Deque<Object> todo = new ArrayDeque<>();
+        todo.push(this);
+
+        while (!todo.isEmpty()) {
+            Object part = todo.pop();
+
+            if (part instanceof CCSExpression) {
+                Object[] parts = ((CCSExpression) part).getPrintParts();
+                for (int i = parts.length - 1; i >= 0; --i) {
+                    todo.push(parts[i]);
+                }
+            } else {
+                b.append(part);
+            }
+        }
+
+        return b.toString();
+    }
+
+    /**
+     * An expression whose transitions are being computed together with the
+     * transitions of its premises computed so far.
+     */
+    private static final class Derivation {
+        /**
+         * The expression whose transitions are computed.
+         */
+        private final CCSExpression expression;
+
+        /**
+         * The premises of the expression.
+         */
+        private final CCSExpression[] premises;
+
+        /**
+         * The index of the next premise to compute.
+         */
+        private int next = 0;
+
+        /**
+         * The transitions of the premises computed so far.
+         */
+        private final List<List<Transition>> results = new ArrayList<>();
+
+        /**
+         * Starts the computation of the transitions of an expression.
+         *
+         * @param expression
+         *            the expression.
+         * @param semantics
+         *            used to look up recursion variables.
+         */
+        private Derivation(final CCSExpression expression,
+                final CCSSemantics semantics) {
+            this.expression = expression;
+            this.premises = expression.getPremises(semantics);
+        }
+    }
 }
@@ -4,6 +4,7 @@ import np2016.CCSSemantics.CCSSemantics;
 import np2016.CCSSemantics.Transition;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,16 +37,22 @@ public class ChoiceExpression extends CCSExpression {
      *            the right hand side expression.
      */
     public ChoiceExpression(final CCSExpression exp1, final CCSExpression exp2) {
-        super();
+        super(Objects.hashCode(exp1) ^ Objects.hashCode(exp2), 1 + sizeOf(exp1) + sizeOf(exp2));
         this.exp1 = exp1;
         this.exp2 = exp2;
     }
 
     @Override
-    public List<Transition> computeTransitions(final CCSSemantics semantics) {
-        // compute all "choice_l" and "choice_r" premise transitions
-        List<Transition> lhsTransitions = this.exp1.computeTransitions(semantics);
-        List<Transition> rhsTransitions = this.exp2.computeTransitions(semantics);
+    protected CCSExpression[] getPremises(final CCSSemantics semantics) {
+        return new CCSExpression[] {this.exp1, this.exp2};
+    }
+
+    @Override
+    protected List<Transition> applyRules(final CCSSemantics semantics,
+            final List<List<Transition>> premises) {
+        // all "choice_l" and "choice_r" premise transitions
+        List<Transition> lhsTransitions = premises.get(0);
+        List<Transition> rhsTransitions = premises.get(1);
 
         List<Transition> transitions;
         transitions = Stream.concat(
@@ -57,30 +64,17 @@ public class ChoiceExpression extends CCSExpression {
     }
 
     @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null) {
-            return false;
-        }
-
-        if (!(o instanceof ChoiceExpression)) {
-            return false;
-        }
-
-        ChoiceExpression e = (ChoiceExpression) o;
-
-        return this.exp1.equals(e.exp1) && this.exp2.equals(e.exp2);
+    public CCSExpression[] getSubExpressions() {
+        return new CCSExpression[] {this.exp1, this.exp2};
     }
 
     @Override
-    public int hashCode() {
-        return this.exp1.hashCode() ^ this.exp2.hashCode();
+    protected boolean equalsNode(final CCSExpression other) {
+        return other instanceof ChoiceExpression;
     }
 
     @Override
-    public String toString() {
-        return "(" + exp1.toString() + "+" + exp2.toString() + ")";
+    protected Object[] getPrintParts() {
+        return new Object[] {"(", this.exp1, "+", this.exp2, ")"};
     }
 }
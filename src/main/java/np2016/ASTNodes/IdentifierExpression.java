@@ -29,23 +29,42 @@ public class IdentifierExpression extends CCSExpression {
      *            the recursion variable name.
      */
     public IdentifierExpression(final String text) {
-        super();
+        super(text.hashCode(), 1);
 
         assert !(text.endsWith("?") || text.endsWith("!"));
 
         this.text = text;
     }
 
+    /**
+     * Returns the recursion variable name.
+     *
+     * @return the recursion variable name.
+     */
+    public String getName() {
+        return this.text;
+    }
+
     @Override
-    public List<Transition> computeTransitions(final CCSSemantics semantics) {
+    protected CCSExpression[] getPremises(final CCSSemantics semantics) {
         CCSProgram program = semantics.getProgram();
         CCSExpression e = program.getBinding(this.text);
 
         if (e == null) {
+            return new CCSExpression[0];
+        }
+
+        return new CCSExpression[] {e};
+    }
+
+    @Override
+    protected List<Transition> applyRules(final CCSSemantics semantics,
+            final List<List<Transition>> premises) {
+        if (premises.isEmpty()) {
             return new ArrayList<>();
         }
 
-        List<Transition> transitions = e.computeTransitions(semantics).stream()
+        List<Transition> transitions = premises.get(0).stream()
                 .map(this.updateStartState.apply(semantics))
                 .distinct()
                 .collect(Collectors.toList());
@@ -54,30 +73,23 @@ public class IdentifierExpression extends CCSExpression {
     }
 
     @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null) {
-            return false;
-        }
-
-        if (!(o instanceof IdentifierExpression)) {
-            return false;
-        }
-
-        IdentifierExpression e = (IdentifierExpression) o;
+    protected boolean isUnfolding() {
+        return true;
+    }
 
-        return this.text.equals(e.text);
+    @Override
+    public CCSExpression[] getSubExpressions() {
+        return new CCSExpression[0];
     }
 
     @Override
-    public int hashCode() {
-        return this.text.hashCode();
+    protected boolean equalsNode(final CCSExpression other) {
+        return other instanceof IdentifierExpression &&
+                this.text.equals(((IdentifierExpression) other).text);
     }
 
     @Override
-    public String toString() {
-        return text;
+    protected Object[] getPrintParts() {
+        return new Object[] {this.text};
     }
 }
@@ -11,34 +11,36 @@ import java.util.List;
  */
 public class NullExpression extends CCSExpression {
 
+    /**
+     * Constructs a null expression.
+     */
+    public NullExpression() {
+        super(0, 1);
+    }
+
+    @Override
+    protected CCSExpression[] getPremises(final CCSSemantics semantics) {
+        return new CCSExpression[0];
+    }
+
     @Override
-    public List<Transition> computeTransitions(final CCSSemantics semantics) {
+    protected List<Transition> applyRules(final CCSSemantics semantics,
+            final List<List<Transition>> premises) {
         return new ArrayList<>();
     }
 
     @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null) {
-            return false;
-        }
-
-        if (!(o instanceof NullExpression)) {
-            return false;
-        }
-
-        return true;
+    public CCSExpression[] getSubExpressions() {
+        return new CCSExpression[0];
     }
 
     @Override
-    public int hashCode() {
-        return 0;
+    protected boolean equalsNode(final CCSExpression other) {
+        return other instanceof NullExpression;
     }
 
     @Override
-    public String toString() {
-        return "0";
+    protected Object[] getPrintParts() {
+        return new Object[] {"0"};
     }
 }
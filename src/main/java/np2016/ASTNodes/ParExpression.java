@@ -7,6 +7,7 @@ import np2016.CCSSemantics.Transition;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -62,7 +63,7 @@ public class ParExpression extends CCSExpression {
      *            the right hand side expression.
      */
     public ParExpression(final CCSExpression exp1, final CCSExpression exp2) {
-        super();
+        super(Objects.hashCode(exp1) ^ Objects.hashCode(exp2), 1 + sizeOf(exp1) + sizeOf(exp2));
 
         this.exp1 = exp1;
         this.exp2 = exp2;
@@ -85,10 +86,16 @@ public class ParExpression extends CCSExpression {
     }
 
     @Override
-    public List<Transition> computeTransitions(final CCSSemantics semantics) {
-        // compute all "par_l" and "par_r" premise transitions
-        List<Transition> lhsTransitions = this.exp1.computeTransitions(semantics);
-        List<Transition> rhsTransitions = this.exp2.computeTransitions(semantics);
+    protected CCSExpression[] getPremises(final CCSSemantics semantics) {
+        return new CCSExpression[] {this.exp1, this.exp2};
+    }
+
+    @Override
+    protected List<Transition> applyRules(final CCSSemantics semantics,
+            final List<List<Transition>> premises) {
+        // all "par_l" and "par_r" premise transitions
+        List<Transition> lhsTransitions = premises.get(0);
+        List<Transition> rhsTransitions = premises.get(1);
 
         // compute "sync" transitions
         List<Transition> taus = new ArrayList<>();
@@ -127,30 +134,17 @@ public class ParExpression extends CCSExpression {
     }
 
     @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null) {
-            return false;
-        }
-
-        if (!(o instanceof ParExpression)) {
-            return false;
-        }
-
-        ParExpression e = (ParExpression) o;
-
-        return this.exp1.equals(e.exp1) && this.exp2.equals(e.exp2);
+    public CCSExpression[] getSubExpressions() {
+        return new CCSExpression[] {this.exp1, this.exp2};
     }
 
     @Override
-    public int hashCode() {
-        return this.exp1.hashCode() ^ this.exp2.hashCode();
+    protected boolean equalsNode(final CCSExpression other) {
+        return other instanceof ParExpression;
     }
 
     @Override
-    public String toString() {
-        return "(" + exp1.toString() + "|" + exp2.toString() + ")";
+    protected Object[] getPrintParts() {
+        return new Object[] {"(", this.exp1, "|", this.exp2, ")"};
     }
 }
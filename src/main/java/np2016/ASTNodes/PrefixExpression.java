@@ -8,6 +8,7 @@ import np2016.Options;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.IntStream;
 
 /**
@@ -36,13 +37,28 @@ public class PrefixExpression extends CCSExpression {
      * @param exp the prefixed expression.
      */
     public PrefixExpression(final String text, final CCSExpression exp) {
-        super();
+        super(text.hashCode() ^ Objects.hashCode(exp), 1 + sizeOf(exp));
         this.text = text;
         this.exp = exp;
     }
 
+    /**
+     * Returns the action of the prefix.
+     *
+     * @return the action.
+     */
+    public Action getAction() {
+        return new Action(this.text);
+    }
+
+    @Override
+    protected CCSExpression[] getPremises(final CCSSemantics semantics) {
+        return new CCSExpression[0];
+    }
+
     @Override
-    public List<Transition> computeTransitions(final CCSSemantics semantics) {
+    protected List<Transition> applyRules(final CCSSemantics semantics,
+            final List<List<Transition>> premises) {
         List<Transition> transitions;
         transitions = new ArrayList<>();
 
@@ -73,30 +89,18 @@ public class PrefixExpression extends CCSExpression {
     }
 
     @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null) {
-            return false;
-        }
-
-        if (!(o instanceof PrefixExpression)) {
-            return false;
-        }
-
-        PrefixExpression e = (PrefixExpression) o;
-
-        return this.text.equals(e.text) && this.exp.equals(e.exp);
+    public CCSExpression[] getSubExpressions() {
+        return new CCSExpression[] {this.exp};
     }
 
     @Override
-    public int hashCode() {
-        return this.text.hashCode() ^ this.exp.hashCode();
+    protected boolean equalsNode(final CCSExpression other) {
+        return other instanceof PrefixExpression &&
+                this.text.equals(((PrefixExpression) other).text);
     }
 
     @Override
-    public String toString() {
-        return text + "." + exp.toString();
+    protected Object[] getPrintParts() {
+        return new Object[] {this.text + ".", this.exp};
     }
 }
@@ -4,7 +4,9 @@ import np2016.CCSSemantics.CCSSemantics;
 import np2016.CCSSemantics.State;
 import np2016.CCSSemantics.Transition;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -110,7 +112,7 @@ public class ResExpression extends CCSExpression {
      */
     public ResExpression(final CCSExpression exp,
             final Set<String> restrictedActions) {
-        super();
+        super(Objects.hashCode(exp) ^ restrictedActions.hashCode(), 1 + sizeOf(exp));
 
         for (String action : restrictedActions) {
             assert !(action.endsWith("?") || action.endsWith("!"));
@@ -131,11 +133,26 @@ public class ResExpression extends CCSExpression {
         };
     }
 
+    /**
+     * Returns the restricted actions.
+     *
+     * @return the restricted actions (without "?" or "!").
+     */
+    public Set<String> getRestrictedActions() {
+        return Collections.unmodifiableSet(this.restrictedActions);
+    }
+
+    @Override
+    protected CCSExpression[] getPremises(final CCSSemantics semantics) {
+        return new CCSExpression[] {this.exp};
+    }
+
     @Override
-    public List<Transition> computeTransitions(final CCSSemantics semantics) {
+    protected List<Transition> applyRules(final CCSSemantics semantics,
+            final List<List<Transition>> premises) {
         List<Transition> transitions;
-        // compute all transitions for the restricted expression
-        transitions = this.exp.computeTransitions(semantics);
+        // all transitions for the restricted expression
+        transitions = premises.get(0);
 
         // filter expressions which are labeled with actions that are restricted
         // and update state labels
@@ -149,33 +166,20 @@ public class ResExpression extends CCSExpression {
     }
 
     @Override
-    public boolean equals(final Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null) {
-            return false;
-        }
-
-        if (!(o instanceof ResExpression)) {
-            return false;
-        }
-
-        ResExpression e = (ResExpression) o;
-
-        return this.exp.equals(e.exp) &&
-                this.restrictedActions.equals(e.restrictedActions);
+    public CCSExpression[] getSubExpressions() {
+        return new CCSExpression[] {this.exp};
     }
 
     @Override
-    public int hashCode() {
-        return this.exp.hashCode() ^ this.restrictedActions.hashCode();
+    protected boolean equalsNode(final CCSExpression other) {
+        return other instanceof ResExpression &&
+                this.restrictedActions.equals(((ResExpression) other).restrictedActions);
     }
 
     @Override
-    public String toString() {
-        return "(" + exp.toString() + "\\" +
+    protected Object[] getPrintParts() {
+        return new Object[] {"(", this.exp, "\\" +
                 restrictedActions.toString().replace("[", "{").replace("]", "}") +
-                ")";
+                ")"};
     }
 }
@@ -1,5 +1,7 @@
 package np2016;
 
+import np2016.Monitoring.LockProbe;
+
 /**
  * AtomicNumber is a monitor, that will be used for store the number of working
  * Threads.
@@ -8,22 +10,48 @@ public class AtomicNumber {
 
 	private int x;
 
+	/**
+	 * Measures the contention on this monitor.
+	 */
+	private LockProbe probe = LockProbe.DISABLED;
+
 	public AtomicNumber() {
 		x = 0;
 	}
 
+	/**
+	 * Sets the probe that measures the contention on this monitor. Must be
+	 * called before the number is shared between Threads.
+	 * 
+	 * @param probe
+	 *            the probe
+	 */
+	public void setProbe(LockProbe probe) {
+		this.probe = probe;
+	}
+
 	/**
 	 * Increases the number of working Threads.
 	 */
-	synchronized public void increase() {
-		x++;
+	public void increase() {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			x++;
+			probe.released(t);
+		}
 	}
 
 	/**
 	 * Cecreases the number of working Threads.
 	 */
-	synchronized public void decrease() {
-		x--;
+	public void decrease() {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			x--;
+			probe.released(t);
+		}
 	}
 
 	/**
@@ -31,7 +59,22 @@ public class AtomicNumber {
 	 * 
 	 * @return boolean
 	 */
-	synchronized public boolean check() {
-		return x == 0;
+	public boolean check() {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			boolean zero = x == 0;
+			probe.released(t);
+			return zero;
+		}
+	}
+
+	/**
+	 * Returns the number of working Threads.
+	 * 
+	 * @return int
+	 */
+	synchronized public int get() {
+		return x;
 	}
 }
@@ -7,98 +7,68 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Pattern;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 import np2016.ASTNodes.ASTFactory;
 import np2016.CCSSemantics.CCSSemantics;
 import np2016.CCSSemantics.LTS;
+import np2016.CCSSemantics.ReducedSemantics;
 import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.SymmetricSemantics;
+import np2016.CCSSemantics.TauCompressedSemantics;
 import np2016.CCSSemantics.Transition;
+import np2016.Deadlock.DeadlockDetector;
 import np2016.Diagnostic.Diagnostic;
+import np2016.CriticalSection.CriticalSectionChecker;
+import np2016.CriticalSection.CriticalSectionGraph;
+import np2016.CriticalSection.CriticalState;
+import np2016.CriticalSection.CriticalTransition;
+import np2016.CriticalSection.NestedCriticalSectionChecker;
+import np2016.CriticalSection.ShortestCounterexample;
+import np2016.CriticalSection.Trace;
 import np2016.Diagnostic.PrintDiagnostic;
+import np2016.Graph.Edge;
+import np2016.Graph.Graph;
+import np2016.Graph.Node;
+import np2016.Logic.FormulaParser;
+import np2016.Logic.ModelChecker;
+import np2016.Logic.MuCalculusChecker;
+import np2016.Logic.StateFormulaParser;
+import np2016.GraphAnalysis.Bisimulation;
+import np2016.GraphAnalysis.IndexedGraph;
+import np2016.GraphSearch.BFSGraphVisitor;
 import np2016.GraphSearch.ConcurrentGraphSearch;
 import np2016.GraphSearch.ConcurrentLTSBuilder;
 import np2016.GraphSearch.GraphSearch;
 import np2016.GraphSearch.LTSBuilder;
 import np2016.GraphSearch.SequentialBFSGraphSearch;
 import np2016.GraphSearch.SequentialLTSBuilder;
+import np2016.Monitoring.ExplorationMetrics;
+import np2016.Monitoring.ExplorationMonitor;
+import np2016.Monitoring.FlightEvents;
+import np2016.Monitoring.LockStatistics;
+import np2016.Monitoring.ProgressReporter;
 import np2016.Parser.CCSProgram;
 import np2016.Parser.Lexer;
 import np2016.Parser.Parser;
-
-/**
- * Possible exit codes.
- */
-enum ExitCode {
-	/**
-	 * Program completed its execution without errors.
-	 */
-	SUCCESS(0, "Program execution finished without errors."),
-
-	/**
-	 * An error occurred while parsing the command line arguments.
-	 */
-	ARGUMENT_ERROR(1, "The given command line arguments were erroneous.");
-
-	/**
-	 * Stores the exit code.
-	 */
-	private final int code;
-
-	/**
-	 * Stores a short description for the exit code.
-	 */
-	private final String description;
-
-	/**
-	 * Constructs an exit code.
-	 *
-	 * @param code
-	 *            the exit code.
-	 * @param description
-	 *            exit code description.
-	 */
-	ExitCode(final int code, final String description) {
-		this.code = code;
-		this.description = description;
-	}
-
-	/**
-	 * Returns the exit code.
-	 *
-	 * @return the exit code.
-	 */
-	public int getCode() {
-		return this.code;
-	}
-
-	/**
-	 * Returns the exit code description.
-	 *
-	 * @return the exit code description.
-	 */
-	public String getDescription() {
-		return this.description;
-	}
-
-	/**
-	 * Returns the exit code together with its description text.
-	 *
-	 * @return the exit code together with its description text.
-	 */
-	@Override
-	public String toString() {
-		return String.format("%d:\t%s", this.code, this.description);
-	}
-}
+import np2016.Reachability.ReachabilityQuery;
 
 /**
  * This is the class with the main program. It parses the command line arguments
@@ -117,34 +87,92 @@ public class CCSExplorer {
 	 *            command line arguments.
 	 */
 	public static void main(final String[] args) {
+		System.exit(run(args, null).getCode());
+	}
+
+	/**
+	 * Executes the program logic for the given command line arguments.
+	 * <p>
+	 * The input files are either read from disk or, for jobs executed by the
+	 * server ({@link Options#SERVER}), taken from the given contents. In the
+	 * latter case the options must have been reset before (see
+	 * {@link Options#setConfiguration}).
+	 *
+	 * @param args
+	 *            command line arguments.
+	 * @param sources
+	 *            the contents of the input files by file name or {@code null}
+	 *            if the input files should be read from disk.
+	 * @return the exit code of the program.
+	 */
+	static ExitCode run(final String[] args, final Map<String, String> sources) {
 		// parse command line arguments
 		if (!Options.parseArguments(args)) {
-			System.exit(ExitCode.ARGUMENT_ERROR.getCode());
+			return ExitCode.ARGUMENT_ERROR;
 		}
 
 		// print help message if required
 		if (Options.HELP.isSet()) {
 			Options.printUsageInformation();
-			System.exit(ExitCode.SUCCESS.getCode());
+			return ExitCode.SUCCESS;
+		}
+
+		if (sources != null && (Options.WATCH.isSet() || Options.SERVER.getNumber() != 0)) {
+			System.err.println("The options \"--watch\" and \"--server\" " +
+					"cannot be used in jobs sent to the server!");
+			return ExitCode.ARGUMENT_ERROR;
+		}
+
+		if (Options.SERVER.getNumber() != 0) {
+			// only returns if the server cannot be started
+			new ExplorerServer(Options.SERVER.getNumber(), Options.SERVER_JOBS.getNumber()).run();
+			return ExitCode.SERVER_ERROR;
+		}
+
+		if (sources == null && Options.CONNECT.getNumber() != 0) {
+			return ExplorerClient.run(Options.CONNECT.getNumber(), args);
 		}
 
 		// execute program logic according to given arguments
 		Diagnostic diagnostic = new PrintDiagnostic(System.err);
+		ExitCode exitCode = ExitCode.SUCCESS;
+
+		if (Options.WATCH.isSet()) {
+			// only returns if the files cannot be watched
+			new WatchMode(diagnostic).run(Options.getFileNames());
+			return ExitCode.WATCH_ERROR;
+		}
 
 		for (String fileName : Options.getFileNames()) {
 			System.out.print(fileName);
 			System.out.println(":");
 
-			CCSProgram program = parseInputFile(diagnostic, fileName);
+			CCSProgram program = parseInputFile(diagnostic, fileName, sources);
 			if (program == null) {
 				continue;
 			}
 
-			assignment1(fileName, program);
-			assignment2(program);
+			if (!assignment1(fileName, program)) {
+				exitCode = ExitCode.EXPLORATION_ERROR;
+			}
+			if (!assignment2(fileName, program)) {
+				exitCode = ExitCode.EXPLORATION_ERROR;
+			}
+			if (!deadlock(fileName, program)) {
+				exitCode = ExitCode.EXPLORATION_ERROR;
+			}
+			if (!reach(fileName, program)) {
+				exitCode = ExitCode.EXPLORATION_ERROR;
+			}
+			if (!ltl(fileName, program)) {
+				exitCode = ExitCode.EXPLORATION_ERROR;
+			}
+			if (!hml(fileName, program)) {
+				exitCode = ExitCode.EXPLORATION_ERROR;
+			}
 		}
 
-		System.exit(ExitCode.SUCCESS.getCode());
+		return exitCode;
 	}
 
 	/**
@@ -165,12 +193,43 @@ public class CCSExplorer {
 	 * @return the parsed CCS program or {@code null} if the file could not be
 	 *         found.
 	 */
-	private static CCSProgram parseInputFile(final Diagnostic diagnostic, final String fileName) {
-		try (Reader reader = new InputStreamReader(new FileInputStream(fileName))) {
+	static CCSProgram parseInputFile(final Diagnostic diagnostic, final String fileName) {
+		return parseInputFile(diagnostic, fileName, null);
+	}
+
+	/**
+	 * Parses the input CCS file like {@link #parseInputFile(Diagnostic, String)}
+	 * but takes the content of the file from the given map if it is not
+	 * {@code null}.
+	 *
+	 * @param diagnostic
+	 *            helper for printing error and information messages related to
+	 *            positions in the input program.
+	 * @param fileName
+	 *            name of the file that should be parsed.
+	 * @param sources
+	 *            the contents of the input files by file name or {@code null}
+	 *            if the file should be read from disk.
+	 * @return the parsed CCS program or {@code null} if the file could not be
+	 *         found.
+	 */
+	private static CCSProgram parseInputFile(final Diagnostic diagnostic, final String fileName,
+			final Map<String, String> sources) {
+		try (Reader reader = openInputFile(fileName, sources)) {
 			Lexer lexer = new Lexer(diagnostic, reader, fileName);
 			Parser parser = new Parser(diagnostic, lexer, new ASTFactory(diagnostic));
 
-			return parser.parseCCSProgram();
+			FlightEvents.Parse event = new FlightEvents.Parse();
+			event.begin();
+			CCSProgram program = parser.parseCCSProgram();
+			event.end();
+			if (event.shouldCommit()) {
+				event.fileName = fileName;
+				event.success = program != null;
+				event.commit();
+			}
+
+			return program;
 		} catch (FileNotFoundException e) {
 			System.err.println("File not found!");
 			return null;
@@ -180,39 +239,267 @@ public class CCSExplorer {
 		}
 	}
 
+	/**
+	 * Opens an input file for reading.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param sources
+	 *            the contents of the input files by file name or {@code null}
+	 *            if the file should be read from disk.
+	 * @return a reader for the content of the file.
+	 * @throws FileNotFoundException
+	 *             if the file does not exist.
+	 */
+	private static Reader openInputFile(final String fileName, final Map<String, String> sources)
+			throws FileNotFoundException {
+		if (sources == null) {
+			return new InputStreamReader(new FileInputStream(fileName));
+		}
+		if (!sources.containsKey(fileName)) {
+			throw new FileNotFoundException(fileName);
+		}
+		return new StringReader(sources.get(fileName));
+	}
+
 	/**
 	 * Explores the CCS semantics of the given CCS program and constructs the
 	 * corresponding LTS. If {@link Options#VIEW_ONLINE} is not set prints the
 	 * JSON string for the explored LTS on command line else the LTS is uploaded
 	 * to pseuCo.com and a browser window is opened to view the file.
+	 * <p>
+	 * If a cache directory is given ({@link Options#CACHE}) and it contains
+	 * the LTS of the same program, the cached LTS is used without exploring.
 	 *
 	 * @param fileName
 	 *            name of the file.
 	 * @param program
 	 *            the parsed CCS program.
+	 * @return false if the exploration was aborted by an error.
 	 */
-	private static void assignment1(final String fileName, final CCSProgram program) {
+	private static boolean assignment1(final String fileName, final CCSProgram program) {
 		if (!Options.LTS.isSet()) {
-			return;
+			return true;
 		}
 
-		CCSSemantics semantics = new CCSSemantics(program);
+		ResultCache cache = ResultCache.fromOptions();
+		String key = null;
+		if (cache != null) {
+			key = ResultCache.fingerprint(program, "lts", Options.SYMMETRY, Options.COMPRESS_TAU,
+					Options.MINIMIZE);
+			String cached = cache.get(key);
+			if (cached != null) {
+				printLTS(fileName, new JsonParser().parse(cached).getAsJsonObject());
+				return true;
+			}
+		}
+
+		Graph<State, Transition> semantics = createSemantics(program);
+		if (Options.COMPRESS_TAU.isSet()) {
+			semantics = new TauCompressedSemantics(semantics);
+		}
+		for (State state : semantics.getSources()) {
+			LTS lts = explore(fileName, semantics, state);
+			if (lts == null) {
+				return false;
+			}
+
+			JsonObject json = minimize(lts).toJSON();
+			if (cache != null) {
+				cache.put(key, json.toString());
+			}
+			printLTS(fileName, json);
+		}
+		return true;
+	}
+
+	/**
+	 * Explores the given graph starting at the given state and constructs the
+	 * corresponding LTS. Uses the sequential or the concurrent search depending
+	 * on {@link Options#THREADS}. Failures of the exploration are reported on
+	 * the command line.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param graph
+	 *            the (implicit) graph of the CCS semantics.
+	 * @param start
+	 *            the state to start the exploration at.
+	 * @return the explored LTS or {@code null} if the exploration was aborted by
+	 *         an error.
+	 */
+	public static LTS explore(final String fileName, final Graph<State, Transition> graph, final State start) {
+		ExplorationMetrics metrics = createMetrics();
 		LTSBuilder builder = null;
 		GraphSearch<State, Transition> search = null;
-		NonSense nonsense = new NonSense();
 
 		if (Options.THREADS.getNumber() == 0) {
 			// sequential solution
 			builder = new SequentialLTSBuilder();
 			search = new SequentialBFSGraphSearch<State, Transition>(builder);
 		} else {
-			builder = new ConcurrentLTSBuilder();
+			ConcurrentLTSBuilder concurrentBuilder = new ConcurrentLTSBuilder();
+			if (metrics != null) {
+				concurrentBuilder.setProbe(metrics.getLockStatistics().probe("lts-builder"));
+			}
+			builder = concurrentBuilder;
 			search = new ConcurrentGraphSearch<State, Transition>(builder);
 		}
-		
-		for (State state : semantics.getSources()) {
-			search.search(semantics, state, nonsense);
-			
+
+		Throwable failure = search(fileName, graph, start, search, metrics);
+
+		if (failure instanceof CancellationException) {
+			System.err.println(String.format("The exploration of %s was cancelled!", fileName));
+			return null;
+		}
+
+		if (failure != null) {
+			System.err.println(String.format("The exploration of %s failed!", fileName));
+			System.err.println(failure);
+			return null;
+		}
+
+		return builder.getLTS();
+	}
+
+	/**
+	 * Minimizes an explored LTS modulo the equivalence given by
+	 * {@link Options#MINIMIZE} (see {@link LTS#minimize}).
+	 *
+	 * @param lts
+	 *            the explored LTS.
+	 * @return the quotient LTS or the given LTS if no minimization is
+	 *         requested.
+	 */
+	static LTS minimize(final LTS lts) {
+		if (Options.MINIMIZE.getString() == null) {
+			return lts;
+		}
+
+		Bisimulation.Equivalence equivalence =
+				Bisimulation.Equivalence.valueOf(Options.MINIMIZE.getString().toUpperCase(Locale.ROOT));
+		return lts.minimize(equivalence, Options.THREADS.getNumber());
+	}
+
+	/**
+	 * Creates the graph of the CCS semantics of a program that is explored:
+	 * its quotient by the symmetry of parallel composition if
+	 * {@link Options#SYMMETRY} is set and the full semantics otherwise.
+	 *
+	 * @param program
+	 *            the parsed CCS program.
+	 * @return the graph of the CCS semantics.
+	 */
+	private static Graph<State, Transition> createSemantics(final CCSProgram program) {
+		CCSSemantics semantics = new CCSSemantics(program);
+		if (Options.SYMMETRY.isSet()) {
+			return new SymmetricSemantics(semantics);
+		}
+		return semantics;
+	}
+
+	/**
+	 * Maps a counterexample found on the given graph back to the full CCS
+	 * semantics if the graph is a quotient and
+	 * {@link Options#EXPAND_COUNTEREXAMPLE} is set.
+	 *
+	 * @param graph
+	 *            the graph the counterexample was found on.
+	 * @param trace
+	 *            the counterexample.
+	 * @return the counterexample to print.
+	 */
+	private static Trace expand(final Graph<State, Transition> graph, final Trace trace) {
+		if (!(graph instanceof SymmetricSemantics) || !Options.EXPAND_COUNTEREXAMPLE.isSet()) {
+			return trace;
+		}
+
+		SymmetricSemantics symmetric = (SymmetricSemantics) graph;
+		// the CCS semantics has exactly one source
+		return trace.expand(symmetric, symmetric.getSemantics().getSources().get(0));
+	}
+
+	/**
+	 * Creates the metrics of a search if any option requires them.
+	 *
+	 * @return the metrics or {@code null} if no metrics are recorded.
+	 */
+	private static ExplorationMetrics createMetrics() {
+		if (!Options.PROGRESS.isSet() && !Options.LOCK_STATS.isSet() && !Options.JMX.isSet()) {
+			return null;
+		}
+
+		ExplorationMetrics metrics = new ExplorationMetrics();
+		if (Options.LOCK_STATS.isSet()) {
+			metrics.setLockStatistics(new LockStatistics());
+		}
+		return metrics;
+	}
+
+	/**
+	 * Creates the sequential or the concurrent graph search depending on
+	 * {@link Options#THREADS}.
+	 *
+	 * @param visitor
+	 *            the visitor of the search.
+	 * @param <N>
+	 *            the node type of the searched graph.
+	 * @param <E>
+	 *            the edge type of the searched graph.
+	 * @return the graph search.
+	 */
+	private static <N extends Node<?>, E extends Edge<N, ?>> GraphSearch<N, E> createSearch(
+			final BFSGraphVisitor<N, E> visitor) {
+		if (Options.THREADS.getNumber() == 0) {
+			return new SequentialBFSGraphSearch<N, E>(visitor);
+		}
+		return new ConcurrentGraphSearch<N, E>(visitor);
+	}
+
+	/**
+	 * Runs the given graph search and waits until it is finished. Reports the
+	 * progress and registers the search for JMX if requested.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param graph
+	 *            the searched graph.
+	 * @param start
+	 *            the node to start the search at.
+	 * @param search
+	 *            the graph search.
+	 * @param metrics
+	 *            the metrics of the search or {@code null}.
+	 * @param <N>
+	 *            the node type of the searched graph.
+	 * @param <E>
+	 *            the edge type of the searched graph.
+	 * @return the failure of the search or {@code null} if it succeeded.
+	 */
+	private static <N extends Node<?>, E extends Edge<N, ?>> Throwable search(final String fileName,
+			final Graph<N, E> graph, final N start, final GraphSearch<N, E> search,
+			final ExplorationMetrics metrics) {
+		NonSense nonsense = new NonSense();
+		search.setMetrics(metrics);
+
+		// report the progress if requested, it may also be started via JMX
+		ProgressReporter reporter = null;
+		if (metrics != null) {
+			reporter = new ProgressReporter(metrics, Options.PROGRESS_INTERVAL.getNumber(), System.err);
+			if (Options.PROGRESS.isSet()) {
+				reporter.start();
+			}
+		}
+
+		ExplorationMonitor monitor = null;
+		if (Options.JMX.isSet()) {
+			monitor = new ExplorationMonitor(fileName, metrics, search::cancel, reporter);
+			monitor.register();
+		}
+
+		try {
+			search.search(graph, start, nonsense);
+
 			synchronized (nonsense) {
 				while (!search.getWatcher()) {
 					try {
@@ -222,38 +509,525 @@ public class CCSExplorer {
 					}
 				}
 			}
-			
-			LTS lts = builder.getLTS();
-			JsonObject json = lts.toJSON();
-			if (Options.VIEW_ONLINE.isSet()) {
-				viewOnline(fileName, json);
-			} else {
-				System.out.println(json.toString());
+		} finally {
+			if (monitor != null) {
+				monitor.unregister();
+			}
+			if (reporter != null) {
+				reporter.stop();
 			}
+		}
 
+		if (search.getFailure() == null && (Options.PROGRESS.isSet() || Options.LOCK_STATS.isSet())) {
+			System.err.println(metrics.toJSON().toString());
 		}
+
+		return search.getFailure();
 	}
 
 	/**
-	 * Searches for a path in the LTS which violates the specified "critical
-	 * section" property. Prints:
+	 * Prints the JSON string of the LTS on the command line or, if
+	 * {@link Options#VIEW_ONLINE} is set, uploads it to pseuCo.com.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param json
+	 *            LTS in form of a JSON object.
+	 */
+	static void printLTS(final String fileName, final JsonObject json) {
+		if (Options.VIEW_ONLINE.isSet()) {
+			viewOnline(fileName, json);
+		} else {
+			System.out.println(json.toString());
+		}
+	}
+
+	/**
+	 * Searches for a path in the CCS semantics which violates the specified
+	 * "critical section" property. The search runs on the fly and stops as
+	 * soon as a violation is found. Prints:
 	 * <ul>
-	 * <li>{@code "NOT IMPLEMENTED!"} if not implemented (and thus not
-	 * attempted).</li>
 	 * <li>{@code "NOT OK!"} if such a path <b>is</b> found.</li>
+	 * <li>{@code "NOT OK: <counterexample>"} if such a path <b>is</b> found
+	 * and {@link Options#COUNTEREXAMPLE} is set. The counterexample is a
+	 * shortest one (see {@link ShortestCounterexample}).</li>
 	 * <li>{@code "OK!"} if such a path <b>is not</b> found.</li>
 	 * </ul>
+	 * With {@link Options#POR} the actions other than {@code enter} and
+	 * {@code exit} are reordered by partial-order reduction.
 	 *
+	 * @param fileName
+	 *            name of the file.
 	 * @param program
 	 *            the parsed CCS program.
+	 * @return true if the check succeeded (or was not requested).
 	 */
-	private static void assignment2(final CCSProgram program) {
+	static boolean assignment2(final String fileName, final CCSProgram program) {
 		if (!Options.CRITICAL_SECTION.isSet()) {
-			return;
+			return true;
+		}
+
+		FlightEvents.CriticalSection event = new FlightEvents.CriticalSection();
+		event.begin();
+
+		String verdict = null;
+		try {
+			ResultCache cache = ResultCache.fromOptions();
+			String key = null;
+			if (cache != null) {
+				key = ResultCache.fingerprint(program, "critical-section", Options.COUNTEREXAMPLE,
+						Options.CS_ALGORITHM, Options.POR, Options.SYMMETRY, Options.EXPAND_COUNTEREXAMPLE);
+				verdict = cache.get(key);
+			}
+
+			if (verdict == null) {
+				Graph<State, Transition> graph = createSemantics(program);
+				if (Options.POR.isSet()) {
+					// only the order of entering and leaving critical sections matters
+					graph = new ReducedSemantics(new CCSSemantics(program),
+							a -> CriticalSectionGraph.ENTER.equals(a.toString())
+							|| CriticalSectionGraph.EXIT.equals(a.toString()));
+				}
+				// the CCS semantics has exactly one source
+				verdict = checkCriticalSection(fileName, graph, graph.getSources().get(0));
+				if (verdict == null) {
+					return false;
+				}
+				if (cache != null) {
+					cache.put(key, verdict);
+				}
+			}
+			System.out.println(verdict);
+			return true;
+		} finally {
+			// failed checks are recorded as well
+			event.end();
+			if (event.shouldCommit()) {
+				event.verdict = verdict != null ? verdict : "failed";
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Checks the "critical section" property on the given graph of the CCS
+	 * semantics (see {@link #assignment2}) with the algorithm selected by
+	 * {@link Options#CS_ALGORITHM}. Failures of the search are reported on the
+	 * command line.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param graph
+	 *            the graph of the CCS semantics (e.g. an already explored LTS).
+	 * @param start
+	 *            the initial state.
+	 * @return the verdict to print or {@code null} if the search failed.
+	 */
+	public static String checkCriticalSection(final String fileName, final Graph<State, Transition> graph,
+			final State start) {
+		Trace trace;
+		if ("ndfs".equals(Options.CS_ALGORITHM.getString())) {
+			NestedCriticalSectionChecker ndfs = new NestedCriticalSectionChecker(graph,
+					Options.THREADS.getNumber());
+			trace = ndfs.search(start);
+			if (ndfs.getFailure() != null) {
+				System.err.println(String.format("The critical section check of %s failed!", fileName));
+				System.err.println(ndfs.getFailure());
+				return null;
+			}
+		} else {
+			CriticalSectionChecker checker = new CriticalSectionChecker();
+			GraphSearch<CriticalState, CriticalTransition> search = createSearch(checker);
+
+			Throwable failure = search(fileName, new CriticalSectionGraph(graph), new CriticalState(start, false),
+					search, createMetrics());
+
+			// the checker stops the search once it found a violation
+			if (failure instanceof CancellationException) {
+				System.err.println(String.format("The critical section check of %s was cancelled!", fileName));
+				return null;
+			}
+
+			if (failure != null) {
+				System.err.println(String.format("The critical section check of %s failed!", fileName));
+				System.err.println(failure);
+				return null;
+			}
+
+			trace = checker.getViolation();
+		}
+
+		if (trace == null) {
+			return "OK!";
+		}
+		if (!Options.COUNTEREXAMPLE.isSet()) {
+			return "NOT OK!";
+		}
+
+		// the violation found first is not necessarily the shortest one
+		try {
+			trace = ShortestCounterexample.find(graph, start, Options.THREADS.getNumber());
+		} catch (RuntimeException e) {
+			System.err.println(String.format("The counterexample for %s cannot be computed!", fileName));
+			System.err.println(e);
+			return null;
+		}
+		return "NOT OK: " + expand(graph, trace);
+	}
+
+	/**
+	 * Searches the CCS semantics for deadlocks if {@link Options#DEADLOCK} is
+	 * set. Prints {@code "Deadlock: OK!"} if no state without transitions is
+	 * reachable and {@code "Deadlock: NOT OK: <trace>"} otherwise; with
+	 * {@link Options#ALL_DEADLOCKS} every deadlock is printed on a line of its
+	 * own. The LTS is not constructed; with {@link Options#POR} it is
+	 * explored with partial-order reduction.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param program
+	 *            the parsed CCS program.
+	 * @return true if the search succeeded (or was not requested).
+	 */
+	static boolean deadlock(final String fileName, final CCSProgram program) {
+		if (!Options.DEADLOCK.isSet()) {
+			return true;
+		}
+
+		ResultCache cache = ResultCache.fromOptions();
+		String key = null;
+		String verdict = null;
+		if (cache != null) {
+			key = ResultCache.fingerprint(program, "deadlock", Options.ALL_DEADLOCKS, Options.POR,
+					Options.SYMMETRY, Options.EXPAND_COUNTEREXAMPLE);
+			verdict = cache.get(key);
+		}
+
+		if (verdict == null) {
+			Graph<State, Transition> graph = createSemantics(program);
+			if (Options.POR.isSet()) {
+				// deadlocks do not depend on the order of the actions
+				graph = new ReducedSemantics(new CCSSemantics(program), a -> false);
+			}
+			// the CCS semantics has exactly one source
+			verdict = checkDeadlock(fileName, graph, graph.getSources().get(0));
+			if (verdict == null) {
+				return false;
+			}
+			if (cache != null) {
+				cache.put(key, verdict);
+			}
+		}
+		System.out.println(verdict);
+		return true;
+	}
+
+	/**
+	 * Searches the given graph of the CCS semantics for deadlocks (see
+	 * {@link #deadlock}). Failures of the search are reported on the command
+	 * line.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param graph
+	 *            the graph of the CCS semantics (e.g. an already explored LTS).
+	 * @param start
+	 *            the initial state.
+	 * @return the lines to print or {@code null} if the search failed.
+	 */
+	public static String checkDeadlock(final String fileName, final Graph<State, Transition> graph,
+			final State start) {
+		DeadlockDetector detector = new DeadlockDetector(Options.ALL_DEADLOCKS.isSet());
+		GraphSearch<State, Transition> search = createSearch(detector);
+
+		Throwable failure = search(fileName, graph, start, search, createMetrics());
+
+		// the detector stops the search once it found a deadlock
+		if (failure instanceof CancellationException) {
+			System.err.println(String.format("The deadlock search of %s was cancelled!", fileName));
+			return null;
+		}
+
+		if (failure != null) {
+			System.err.println(String.format("The deadlock search of %s failed!", fileName));
+			System.err.println(failure);
+			return null;
+		}
+
+		List<Trace> traces = new ArrayList<>();
+		for (Trace trace : detector.getTraces()) {
+			traces.add(expand(graph, trace));
+		}
+		if (traces.isEmpty()) {
+			return "Deadlock: OK!";
+		}
+		if (!Options.ALL_DEADLOCKS.isSet()) {
+			return "Deadlock: NOT OK: " + traces.get(0);
+		}
+
+		StringBuilder verdict = new StringBuilder(String.format("Deadlock: NOT OK (deadlocks: %d)", traces.size()));
+		for (Trace trace : traces) {
+			verdict.append(String.format("%n  %s", trace));
+		}
+		return verdict.toString();
+	}
+
+	/**
+	 * Answers the reachability queries given by {@link Options#REACH_ACTION}
+	 * and {@link Options#REACH_TERM}. For each query prints
+	 * {@code "Reach <query>: YES: <path>"} if a state with the property is
+	 * reachable and {@code "Reach <query>: NO!"} otherwise. The search stops
+	 * at the first such state and does not construct the LTS.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param program
+	 *            the parsed CCS program.
+	 * @return true if the searches succeeded (or were not requested).
+	 */
+	static boolean reach(final String fileName, final CCSProgram program) {
+		boolean success = true;
+		if (Options.REACH_ACTION.getString() != null) {
+			success &= reach(fileName, program, Options.REACH_ACTION);
+		}
+		if (Options.REACH_TERM.getString() != null) {
+			success &= reach(fileName, program, Options.REACH_TERM);
+		}
+		return success;
+	}
+
+	/**
+	 * Answers one reachability query (see {@link #reach(String, CCSProgram)}).
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param program
+	 *            the parsed CCS program.
+	 * @param option
+	 *            the option that specifies the query.
+	 * @return true if the search succeeded.
+	 */
+	private static boolean reach(final String fileName, final CCSProgram program, final Options option) {
+		ResultCache cache = ResultCache.fromOptions();
+		String key = null;
+		String verdict = null;
+		if (cache != null) {
+			key = ResultCache.fingerprint(program, option.getName() + "\n" + option.getString(),
+					Options.SYMMETRY);
+			verdict = cache.get(key);
+		}
+
+		if (verdict == null) {
+			// the pattern may match a term but not its canonical term
+			Graph<State, Transition> graph = option == Options.REACH_TERM
+					? new CCSSemantics(program) : createSemantics(program);
+			// the CCS semantics has exactly one source
+			verdict = checkReach(fileName, graph, graph.getSources().get(0), option);
+			if (verdict == null) {
+				return false;
+			}
+			if (cache != null) {
+				cache.put(key, verdict);
+			}
+		}
+		System.out.println(verdict);
+		return true;
+	}
+
+	/**
+	 * Answers a reachability query on the given graph of the CCS semantics
+	 * (see {@link #reach(String, CCSProgram)}). Failures of the search are
+	 * reported on the command line.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param graph
+	 *            the graph of the CCS semantics (e.g. an already explored LTS).
+	 * @param start
+	 *            the initial state.
+	 * @param option
+	 *            {@link Options#REACH_ACTION} or {@link Options#REACH_TERM}.
+	 * @return the line to print or {@code null} if the search failed.
+	 */
+	public static String checkReach(final String fileName, final Graph<State, Transition> graph,
+			final State start, final Options option) {
+		ReachabilityQuery query = option == Options.REACH_ACTION
+				? ReachabilityQuery.enabling(option.getString())
+				: ReachabilityQuery.matching(Pattern.compile(option.getString()));
+		GraphSearch<State, Transition> search = createSearch(query);
+
+		Throwable failure = search(fileName, graph, start, search, createMetrics());
+
+		// the query stops the search once it found a state
+		if (failure instanceof CancellationException) {
+			System.err.println(String.format("The reachability search of %s was cancelled!", fileName));
+			return null;
+		}
+
+		if (failure != null) {
+			System.err.println(String.format("The reachability search of %s failed!", fileName));
+			System.err.println(failure);
+			return null;
+		}
+
+		ReachabilityQuery.Witness witness = query.getWitness();
+		return String.format("Reach %s %s: %s", option == Options.REACH_ACTION ? "action" : "term",
+				option.getString(), witness == null ? "NO!" : "YES: " + witness);
+	}
+
+	/**
+	 * Checks whether all runs of the CCS semantics satisfy the LTL formula
+	 * given by {@link Options#LTL}. Prints {@code "LTL <formula>: OK!"} if
+	 * they do and {@code "LTL <formula>: NOT OK!"} otherwise (followed by a
+	 * counterexample if {@link Options#COUNTEREXAMPLE} is set).
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param program
+	 *            the parsed CCS program.
+	 * @return true if the check succeeded (or was not requested).
+	 */
+	static boolean ltl(final String fileName, final CCSProgram program) {
+		if (Options.LTL.getString() == null) {
+			return true;
+		}
+
+		ResultCache cache = ResultCache.fromOptions();
+		String key = null;
+		String verdict = null;
+		if (cache != null) {
+			key = ResultCache.fingerprint(program, "ltl\n" + FormulaParser.parse(Options.LTL.getString()),
+					Options.COUNTEREXAMPLE, Options.SYMMETRY, Options.EXPAND_COUNTEREXAMPLE);
+			verdict = cache.get(key);
+		}
+
+		if (verdict == null) {
+			Graph<State, Transition> graph = createSemantics(program);
+			// the CCS semantics has exactly one source
+			verdict = checkLTL(fileName, graph, graph.getSources().get(0));
+			if (verdict == null) {
+				return false;
+			}
+			if (cache != null) {
+				cache.put(key, verdict);
+			}
+		}
+		System.out.println(verdict);
+		return true;
+	}
+
+	/**
+	 * Checks the LTL formula given by {@link Options#LTL} on the given graph
+	 * of the CCS semantics (see {@link #ltl}). Failures of the check are
+	 * reported on the command line.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param graph
+	 *            the graph of the CCS semantics (e.g. an already explored LTS).
+	 * @param start
+	 *            the initial state.
+	 * @return the line to print or {@code null} if the check failed.
+	 */
+	public static String checkLTL(final String fileName, final Graph<State, Transition> graph,
+			final State start) {
+		String formula = Options.LTL.getString();
+		ModelChecker checker = new ModelChecker(graph, Options.THREADS.getNumber());
+		Trace trace = checker.check(start, FormulaParser.parse(formula));
+		if (checker.getFailure() != null) {
+			System.err.println(String.format("The LTL check of %s failed!", fileName));
+			System.err.println(checker.getFailure());
+			return null;
 		}
 
-		// TODO implement this!
-		System.out.println("NOT IMPLEMENTED!");
+		String verdict;
+		if (trace == null) {
+			verdict = "OK!";
+		} else {
+			verdict = Options.COUNTEREXAMPLE.isSet() ? "NOT OK: " + expand(graph, trace) : "NOT OK!";
+		}
+		return String.format("LTL %s: %s", formula, verdict);
+	}
+
+	/**
+	 * Checks whether the initial state of the CCS semantics satisfies the
+	 * formula of the modal mu-calculus given by {@link Options#HML}. Prints
+	 * {@code "HML <formula>: OK!"} if it does and
+	 * {@code "HML <formula>: NOT OK!"} otherwise. In the global mode (see
+	 * {@link Options#HML_MODE}) the LTS is explored first and all states that
+	 * satisfy the formula are printed as well.
+	 *
+	 * @param fileName
+	 *            name of the file.
+	 * @param program
+	 *            the parsed CCS program.
+	 * @return true if the check succeeded (or was not requested).
+	 */
+	static boolean hml(final String fileName, final CCSProgram program) {
+		if (Options.HML.getString() == null) {
+			return true;
+		}
+
+		ResultCache cache = ResultCache.fromOptions();
+		String key = null;
+		String verdict = null;
+		if (cache != null) {
+			key = ResultCache.fingerprint(program, "hml\n" + StateFormulaParser.parse(Options.HML.getString()),
+					Options.HML_MODE, Options.SYMMETRY);
+			verdict = cache.get(key);
+		}
+
+		if (verdict == null) {
+			Graph<State, Transition> semantics = createSemantics(program);
+			// the CCS semantics has exactly one source
+			State start = semantics.getSources().get(0);
+			Graph<State, Transition> graph = semantics;
+			if ("global".equals(Options.HML_MODE.getString())) {
+				LTS lts = explore(fileName, semantics, start);
+				if (lts == null) {
+					return false;
+				}
+				graph = lts;
+			}
+			verdict = checkHML(graph, start);
+			if (cache != null) {
+				cache.put(key, verdict);
+			}
+		}
+		System.out.println(verdict);
+		return true;
+	}
+
+	/**
+	 * Checks the formula given by {@link Options#HML} on the given graph of
+	 * the CCS semantics (see {@link #hml}).
+	 *
+	 * @param graph
+	 *            the graph of the CCS semantics (e.g. an already explored LTS).
+	 * @param start
+	 *            the initial state.
+	 * @return the lines to print.
+	 */
+	public static String checkHML(final Graph<State, Transition> graph, final State start) {
+		String formula = Options.HML.getString();
+		MuCalculusChecker checker = new MuCalculusChecker(StateFormulaParser.parse(formula),
+				Options.THREADS.getNumber());
+
+		if (!"global".equals(Options.HML_MODE.getString())) {
+			boolean holds = checker.checkLocal(graph, start);
+			return String.format("HML %s: %s", formula, holds ? "OK!" : "NOT OK!");
+		}
+
+		// the graph has the initial state as its only source
+		IndexedGraph<State, Transition> lts = IndexedGraph.of(graph, e -> true, Options.THREADS.getNumber());
+		BitSet satisfying = checker.checkGlobal(lts);
+
+		StringBuilder verdict = new StringBuilder(String.format("HML %s: %s (%d of %d states)", formula,
+				satisfying.get(lts.indexOf(start)) ? "OK!" : "NOT OK!", satisfying.cardinality(), lts.size()));
+		for (int v = satisfying.nextSetBit(0); v >= 0; v = satisfying.nextSetBit(v + 1)) {
+			verdict.append(String.format("%n  %s", lts.getNode(v)));
+		}
+		return verdict.toString();
 	}
 
 	/**
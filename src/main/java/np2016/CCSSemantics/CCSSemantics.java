@@ -2,6 +2,7 @@ package np2016.CCSSemantics;
 
 import np2016.ASTNodes.CCSExpression;
 import np2016.Graph.Graph;
+import np2016.Monitoring.FlightEvents;
 import np2016.Parser.CCSProgram;
 
 import java.util.ArrayList;
@@ -53,6 +54,16 @@ public final class CCSSemantics implements Graph<State, Transition> {
         assert state != null;
         assert state.getInfo() != null;
 
-        return state.getInfo().computeTransitions(this);
+        FlightEvents.Post event = new FlightEvents.Post();
+        event.begin();
+        List<Transition> transitions = state.getInfo().computeTransitions(this);
+        event.end();
+        if (event.shouldCommit()) {
+            event.stateSize = state.getInfo().size();
+            event.successors = transitions.size();
+            event.commit();
+        }
+
+        return transitions;
     }
 }
@@ -0,0 +1,277 @@
+package np2016.CCSSemantics;
+
+import np2016.ASTNodes.CCSExpression;
+import np2016.ASTNodes.IdentifierExpression;
+import np2016.ASTNodes.PrefixExpression;
+import np2016.Parser.CCSProgram;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Incremental exploration of the CCS semantics of a program that was derived
+ * from a previous version by editing some recursion variable definitions.
+ * <p>
+ * The outgoing transitions of a state only depend on the definitions of the
+ * recursion variables that occur unguarded (i.e. not below a prefix) in its
+ * term, and transitively in their definitions. A recursion variable is
+ * <em>affected</em> if its definition was changed, added or removed or if an
+ * affected recursion variable occurs unguarded in its definition. A state of
+ * the previous LTS is affected if its term contains an affected recursion
+ * variable unguarded.
+ * <p>
+ * {@link #explore} copies the transitions of the unaffected states from the
+ * previous LTS and explores only from the affected states (and the initial
+ * state if it is new): the transitions of these states and of the states
+ * they reach that are not in the previous LTS are computed by the "Post"
+ * function. The unaffected states are neither searched nor inserted into a
+ * visited set again. Only if the edit removed a transition, the states that
+ * are no longer reachable are dropped by a search of the updated transitions.
+ * The result is the same LTS as the exploration of the {@link CCSSemantics}
+ * of the new program.
+ */
+public final class IncrementalSemantics {
+    /**
+     * The semantics of the new program.
+     */
+    private final CCSSemantics semantics;
+
+    /**
+     * The LTS of the previous program.
+     */
+    private final LTS previous;
+
+    /**
+     * The affected recursion variables.
+     */
+    private final Set<String> affected;
+
+    /**
+     * Number of states whose transitions were taken from the previous LTS.
+     */
+    private long reused;
+
+    /**
+     * Number of states whose transitions were computed.
+     */
+    private long computed;
+
+    /**
+     * Constructs the semantics of an edited program.
+     *
+     * @param program
+     *            the edited CCS program.
+     * @param previousProgram
+     *            the CCS program before the edit.
+     * @param previous
+     *            the LTS of the CCS program before the edit.
+     */
+    public IncrementalSemantics(final CCSProgram program,
+            final CCSProgram previousProgram, final LTS previous) {
+        assert program != null && previousProgram != null && previous != null;
+
+        this.semantics = new CCSSemantics(program);
+        this.previous = previous;
+        this.affected = affectedIdentifiers(program, previousProgram);
+    }
+
+    /**
+     * Returns the affected recursion variables.
+     *
+     * @return the affected recursion variables.
+     */
+    public Set<String> getAffected() {
+        return Collections.unmodifiableSet(this.affected);
+    }
+
+    /**
+     * Returns the number of states of the last explored LTS whose transitions
+     * were taken from the previous LTS.
+     *
+     * @return the number of reused states.
+     */
+    public long getReusedStates() {
+        return this.reused;
+    }
+
+    /**
+     * Returns the number of states whose transitions were computed by the
+     * last exploration.
+     *
+     * @return the number of computed states.
+     */
+    public long getComputedStates() {
+        return this.computed;
+    }
+
+    /**
+     * Constructs the LTS of the new program from the previous LTS.
+     *
+     * @return the LTS of the new program.
+     */
+    public LTS explore() {
+        // the CCS semantics has exactly one source
+        State initial = this.semantics.getSources().get(0);
+
+        Map<State, List<Transition>> transitions = new HashMap<>();
+        Deque<State> todo = new ArrayDeque<>();
+        for (State s : this.previous.getStates()) {
+            if (Collections.disjoint(unguardedIdentifiers(s.getInfo()), this.affected)) {
+                transitions.put(s, this.previous.getEdges(s));
+            } else {
+                todo.add(s);
+            }
+        }
+        if (!this.previous.existsState(initial)) {
+            todo.add(initial);
+        }
+
+        // explore from the affected states; every state of the previous LTS
+        // is either copied or in the work list already
+        boolean removed = !initial.equals(this.previous.getInitialState());
+        Set<State> explored = new HashSet<>(todo);
+        while (!todo.isEmpty()) {
+            State s = todo.poll();
+            List<Transition> edges = this.semantics.getEdges(s);
+            if (!removed && this.previous.existsState(s)) {
+                removed = !targets(edges).containsAll(targets(this.previous.getEdges(s)));
+            }
+            transitions.put(s, edges);
+
+            for (Transition t : edges) {
+                if (!this.previous.existsState(t.getTarget()) && explored.add(t.getTarget())) {
+                    todo.add(t.getTarget());
+                }
+            }
+        }
+
+        if (removed) {
+            transitions.keySet().retainAll(reachable(transitions, initial));
+        }
+
+        this.computed = 0;
+        for (State s : transitions.keySet()) {
+            if (explored.contains(s)) {
+                ++this.computed;
+            }
+        }
+        this.reused = transitions.size() - this.computed;
+        return new LTS(initial, transitions);
+    }
+
+    /**
+     * Returns the targets of the given transitions.
+     *
+     * @param transitions
+     *            the transitions.
+     * @return the targets.
+     */
+    private static Set<State> targets(final List<Transition> transitions) {
+        Set<State> targets = new HashSet<>();
+        for (Transition t : transitions) {
+            targets.add(t.getTarget());
+        }
+        return targets;
+    }
+
+    /**
+     * Returns the states that are reachable from the initial state via the
+     * given transitions.
+     *
+     * @param transitions
+     *            the outgoing transitions of every state.
+     * @param initial
+     *            the initial state.
+     * @return the reachable states.
+     */
+    private static Set<State> reachable(final Map<State, List<Transition>> transitions,
+            final State initial) {
+        Set<State> reachable = new HashSet<>();
+        Deque<State> todo = new ArrayDeque<>();
+        reachable.add(initial);
+        todo.push(initial);
+
+        while (!todo.isEmpty()) {
+            for (Transition t : transitions.get(todo.pop())) {
+                if (reachable.add(t.getTarget())) {
+                    todo.push(t.getTarget());
+                }
+            }
+        }
+
+        return reachable;
+    }
+
+    /**
+     * Computes the affected recursion variables of an edit.
+     *
+     * @param program
+     *            the edited CCS program.
+     * @param previousProgram
+     *            the CCS program before the edit.
+     * @return the affected recursion variables.
+     */
+    private static Set<String> affectedIdentifiers(final CCSProgram program,
+            final CCSProgram previousProgram) {
+        Set<String> names = new HashSet<>(program.getIdentifiers());
+        names.addAll(previousProgram.getIdentifiers());
+
+        Set<String> affected = new HashSet<>();
+        for (String name : names) {
+            if (!Objects.equals(program.getBinding(name),
+                    previousProgram.getBinding(name))) {
+                affected.add(name);
+            }
+        }
+
+        // add the recursion variables that depend on affected ones
+        boolean changed = !affected.isEmpty();
+        while (changed) {
+            changed = false;
+            for (String name : program.getIdentifiers()) {
+                if (!affected.contains(name) && !Collections.disjoint(
+                        unguardedIdentifiers(program.getBinding(name)), affected)) {
+                    affected.add(name);
+                    changed = true;
+                }
+            }
+        }
+
+        return affected;
+    }
+
+    /**
+     * Collects the recursion variables that occur in the given expression
+     * outside of prefixes.
+     *
+     * @param expression
+     *            the expression.
+     * @return the unguarded recursion variables.
+     */
+    private static Set<String> unguardedIdentifiers(final CCSExpression expression) {
+        Set<String> identifiers = new HashSet<>();
+        Deque<CCSExpression> todo = new ArrayDeque<>();
+        todo.push(expression);
+
+        while (!todo.isEmpty()) {
+            CCSExpression e = todo.pop();
+
+            if (e instanceof IdentifierExpression) {
+                identifiers.add(((IdentifierExpression) e).getName());
+            } else if (!(e instanceof PrefixExpression)) {
+                for (CCSExpression sub : e.getSubExpressions()) {
+                    todo.push(sub);
+                }
+            }
+        }
+
+        return identifiers;
+    }
+}
@@ -3,10 +3,16 @@ package np2016.CCSSemantics;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import np2016.Graph.Graph;
+import np2016.GraphAnalysis.Bisimulation;
+import np2016.GraphAnalysis.IndexedGraph;
+import np2016.Monitoring.FlightEvents;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -42,6 +48,26 @@ public class LTS implements Graph<State, Transition> {
         this.initialState = initialState;
     }
 
+    /**
+     * Constructs an LTS from the outgoing transitions of its states. Used to
+     * update an LTS without exploring it again (see
+     * {@link IncrementalSemantics}).
+     *
+     * @param initialState
+     *            the initial state of the LTS.
+     * @param transitions
+     *            the outgoing transitions of every state of the LTS.
+     */
+    LTS(final State initialState, final Map<State, List<Transition>> transitions) {
+        assert initialState != null && transitions.containsKey(initialState);
+
+        this.edges = new ConcurrentHashMap<>(transitions.size());
+        for (Map.Entry<State, List<Transition>> entry : transitions.entrySet()) {
+            this.edges.put(entry.getKey(), new CopyOnWriteArrayList<>(entry.getValue()));
+        }
+        this.initialState = initialState;
+    }
+
     /**
      * Returns the initial state.
      *
@@ -64,6 +90,15 @@ public class LTS implements Graph<State, Transition> {
         return this.edges.containsKey(state);
     }
 
+    /**
+     * Returns the states of the LTS.
+     *
+     * @return the states (unmodifiable).
+     */
+    Set<State> getStates() {
+        return Collections.unmodifiableSet(this.edges.keySet());
+    }
+
     /**
      * Checks whether the given transition is part of the LTS.
      *
@@ -99,9 +134,18 @@ public class LTS implements Graph<State, Transition> {
         assert state != null;
         assert !this.edges.containsKey(state);
 
+        FlightEvents.LTSInsert event = new FlightEvents.LTSInsert();
+        event.begin();
+
         State newState = new State(state.getInfo());
 
         this.edges.put(newState, new CopyOnWriteArrayList<>());
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "state";
+            event.commit();
+        }
     }
 
     /**
@@ -126,6 +170,9 @@ public class LTS implements Graph<State, Transition> {
 
         assert !transitions.contains(transition);
 
+        FlightEvents.LTSInsert event = new FlightEvents.LTSInsert();
+        event.begin();
+
         Transition newTransition = new Transition(
                 start,
                 target,
@@ -133,6 +180,34 @@ public class LTS implements Graph<State, Transition> {
                 );
 
         transitions.add(newTransition);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = "transition";
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the number of states of the LTS.
+     *
+     * @return the number of states.
+     */
+    public int getNumberOfStates() {
+        return this.edges.size();
+    }
+
+    /**
+     * Returns the number of transitions of the LTS.
+     *
+     * @return the number of transitions.
+     */
+    public int getNumberOfTransitions() {
+        int transitions = 0;
+        for (List<Transition> t : this.edges.values()) {
+            transitions += t.size();
+        }
+        return transitions;
     }
 
     @Override
@@ -149,6 +224,56 @@ public class LTS implements Graph<State, Transition> {
         return new ArrayList<>(this.edges.get(state));
     }
 
+    /**
+     * Constructs the quotient of the LTS modulo an equivalence. Every block of
+     * equivalent states is represented by the state that was discovered first
+     * (in breadth-first order from the initial state) and has the transitions
+     * of all its states to the representatives of their targets. Tau
+     * transitions within a block are omitted for weak and branching
+     * bisimilarity, and only one tau transition is kept between two blocks.
+     *
+     * @param equivalence
+     *            the equivalence.
+     * @param threads
+     *            the number of threads that compute the equivalence.
+     * @return the quotient LTS.
+     */
+    public LTS minimize(final Bisimulation.Equivalence equivalence, final int threads) {
+        // the initial state gets index 0 and hence represents its block
+        IndexedGraph<State, Transition> graph = IndexedGraph.of(this, e -> true, threads);
+        Bisimulation<State, Transition> bisimulation = new Bisimulation<>(graph,
+                t -> t.getInfo().toString(), t -> t.getInfo().isWeak(), equivalence, threads);
+        boolean strong = equivalence == Bisimulation.Equivalence.STRONG;
+
+        LTS quotient = new LTS(graph.getNode(0));
+        for (int b = 1; b < bisimulation.getNumberOfBlocks(); ++b) {
+            quotient.addState(graph.getNode(bisimulation.getRepresentative(b)));
+        }
+
+        List<Map<Object, Transition>> transitions = new ArrayList<>();
+        for (int b = 0; b < bisimulation.getNumberOfBlocks(); ++b) {
+            transitions.add(new LinkedHashMap<>());
+        }
+        for (int v = 0; v < graph.size(); ++v) {
+            int b = bisimulation.getBlock(v);
+            for (int k = 0; k < graph.getOutDegree(v); ++k) {
+                Action a = graph.getEdge(v, k).getInfo();
+                int c = bisimulation.getBlock(graph.getTarget(v, k));
+                if (!strong && a.isWeak() && b == c) {
+                    continue;
+                }
+
+                Transition t = new Transition(graph.getNode(bisimulation.getRepresentative(b)),
+                        graph.getNode(bisimulation.getRepresentative(c)), a);
+                transitions.get(b).putIfAbsent(!strong && a.isWeak() ? t.getTarget() : t, t);
+            }
+        }
+        for (Map<Object, Transition> t : transitions) {
+            t.values().forEach(quotient::addTransition);
+        }
+        return quotient;
+    }
+
     /**
      * Constructs the JSON object that corresponds to the current state of the
      * LTS.
@@ -156,6 +281,9 @@ public class LTS implements Graph<State, Transition> {
      * @return the JSON object representation of the LTS.
      */
     public JsonObject toJSON() {
+        FlightEvents.LTSSerialization event = new FlightEvents.LTSSerialization();
+        event.begin();
+
         JsonObject lts = new JsonObject();
 
         lts.addProperty("initialState", this.initialState.toString());
@@ -185,6 +313,13 @@ public class LTS implements Graph<State, Transition> {
         }
         lts.add("states", states);
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.states = getNumberOfStates();
+            event.transitions = getNumberOfTransitions();
+            event.commit();
+        }
+
         return lts;
     }
 }
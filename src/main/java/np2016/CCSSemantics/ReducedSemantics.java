@@ -0,0 +1,414 @@
+package np2016.CCSSemantics;
+
+import np2016.ASTNodes.CCSExpression;
+import np2016.ASTNodes.IdentifierExpression;
+import np2016.ASTNodes.ParExpression;
+import np2016.ASTNodes.PrefixExpression;
+import np2016.ASTNodes.ResExpression;
+import np2016.Graph.Graph;
+import np2016.Parser.CCSProgram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Implicit graph representation of the CCS semantics with partial-order
+ * reduction. Instead of all interleavings of independent components only an
+ * <em>ample set</em> of the transitions of a state is explored if possible.
+ * <p>
+ * The <em>components</em> of a state are the maximal sub-terms of its term
+ * that are neither parallel nor restriction expressions. A transition of a
+ * component is <em>local</em> unless another component can ever synchronize
+ * with it, i.e. unless it is an input (output) action and the matching output
+ * (input) action occurs free in another component within the scope of the
+ * restriction that binds the channel (recursion variables are unfolded for
+ * this test). Tau actions and actions without "?" or "!" are always local.
+ * The transitions of a component whose
+ * transitions are all local form the ample set if
+ * <ul>
+ * <li>there is at least one such transition and none of them is visible,</li>
+ * <li>no target of such a transition was expanded already (cycle proviso:
+ * every cycle of the reduced graph contains a fully expanded state).</li>
+ * </ul>
+ * Otherwise all transitions are explored. Local transitions only change their
+ * component and can neither be disabled nor be enabled by the other
+ * components, so the reduced graph has the same deadlocks and the same
+ * sequences of visible actions (up to the order of independent transitions)
+ * as the full one.
+ * <p>
+ * Which states are reduced depends on the order in which they are expanded,
+ * so the size of the explored graph may differ between runs of the concurrent
+ * graph search.
+ */
+public final class ReducedSemantics implements Graph<State, Transition> {
+    /**
+     * The full semantics.
+     */
+    private final CCSSemantics semantics;
+
+    /**
+     * The visible actions, i.e. those that must not be reordered.
+     */
+    private final Predicate<? super Action> visible;
+
+    /**
+     * The ports (input or output actions) that may occur free in the
+     * unfolding of each recursion variable.
+     */
+    private final Map<String, Set<Action>> identifierPorts;
+
+    /**
+     * The states that were expanded so far.
+     */
+    private final Set<State> expanded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs the reduced semantics of a program.
+     *
+     * @param semantics
+     *            the full semantics of the program.
+     * @param visible
+     *            the visible actions (e.g. those the checked property looks
+     *            at).
+     */
+    public ReducedSemantics(final CCSSemantics semantics, final Predicate<? super Action> visible) {
+        assert semantics != null && visible != null;
+
+        this.semantics = semantics;
+        this.visible = visible;
+        this.identifierPorts = identifierPorts(semantics.getProgram());
+    }
+
+    @Override
+    public List<State> getSources() {
+        return this.semantics.getSources();
+    }
+
+    @Override
+    public List<Transition> getEdges(final State state) {
+        assert state != null;
+        assert state.getInfo() != null;
+
+        this.expanded.add(state);
+
+        List<Transition> ample = ample(state);
+        if (ample != null) {
+            return ample;
+        }
+        return this.semantics.getEdges(state);
+    }
+
+    /**
+     * Computes the smallest ample set of a state.
+     *
+     * @param state
+     *            the state.
+     * @return the ample set or {@code null} if all transitions must be
+     *         explored.
+     */
+    private List<Transition> ample(final State state) {
+        List<Component> components = components(state.getInfo());
+        if (components.size() < 2) {
+            return null;
+        }
+
+        // how many components use each port within the scope that binds it
+        Map<Context, Map<Action, Integer>> users = new HashMap<>();
+        for (Component c : components) {
+            c.ports = ports(c.expression, this.identifierPorts);
+            for (Action port : c.ports) {
+                users.computeIfAbsent(Context.binder(c.context, port.getName()), k -> new HashMap<>())
+                        .merge(port, 1, Integer::sum);
+            }
+        }
+
+        List<Transition> best = null;
+        for (Component c : components) {
+            List<Transition> ample = ample(state, c, users);
+            if (ample != null && (best == null || ample.size() < best.size())) {
+                best = ample;
+                if (best.size() == 1) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes the transitions of a state that belong to the given component
+     * if they form an ample set.
+     *
+     * @param state
+     *            the state.
+     * @param c
+     *            the component.
+     * @param users
+     *            the number of components that use each port within the
+     *            scope that binds it.
+     * @return the ample set or {@code null} if the transitions of the
+     *         component do not form an ample set.
+     */
+    private List<Transition> ample(final State state, final Component c,
+            final Map<Context, Map<Action, Integer>> users) {
+        List<Transition> ample = new ArrayList<>();
+        for (Transition t : c.expression.computeTransitions(this.semantics)) {
+            Action a = t.getInfo();
+            Context binder = a.isWeak() ? null : Context.binder(c.context, a.getName());
+            if (a.isInput() || a.isOutput()) {
+                Action co = new Action(a.getName() + (a.isInput() ? "!" : "?"));
+                int others = users.getOrDefault(binder, Collections.emptyMap()).getOrDefault(co, 0)
+                        - (c.ports.contains(co) ? 1 : 0);
+                if (others > 0) {
+                    // another component may synchronize with this transition
+                    return null;
+                }
+            }
+            if (binder != null) {
+                // the transition is never enabled
+                continue;
+            }
+            if (this.visible.test(a)) {
+                return null;
+            }
+
+            State target = new State(Context.replace(c.context, t.getTarget().getInfo()));
+            if (this.expanded.contains(target)) {
+                // the transition may close a cycle
+                return null;
+            }
+            ample.add(new Transition(state, target, a));
+        }
+        return ample.isEmpty() ? null : ample;
+    }
+
+    /**
+     * Splits a term into its components.
+     *
+     * @param expression
+     *            the term.
+     * @return the components from left to right.
+     */
+    private static List<Component> components(final CCSExpression expression) {
+        List<Component> components = new ArrayList<>();
+        Deque<Component> todo = new ArrayDeque<>();
+        todo.push(new Component(expression, null));
+
+        while (!todo.isEmpty()) {
+            Component c = todo.pop();
+            CCSExpression e = c.expression;
+
+            if (e instanceof ParExpression) {
+                CCSExpression[] sub = e.getSubExpressions();
+                todo.push(new Component(sub[1], new Context(e, 1, c.context)));
+                todo.push(new Component(sub[0], new Context(e, 0, c.context)));
+            } else if (e instanceof ResExpression) {
+                todo.push(new Component(e.getSubExpressions()[0], new Context(e, 0, c.context)));
+            } else {
+                components.add(c);
+            }
+        }
+
+        return components;
+    }
+
+    /**
+     * Computes the ports that may occur free in the unfolding of each
+     * recursion variable of a program.
+     *
+     * @param program
+     *            the program.
+     * @return the ports of each recursion variable.
+     */
+    private static Map<String, Set<Action>> identifierPorts(final CCSProgram program) {
+        Map<String, Set<Action>> ports = new HashMap<>();
+        for (String name : program.getIdentifiers()) {
+            ports.put(name, new HashSet<>());
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (String name : program.getIdentifiers()) {
+                if (ports.get(name).addAll(ports(program.getBinding(name), ports))) {
+                    changed = true;
+                }
+            }
+        }
+
+        return ports;
+    }
+
+    /**
+     * Collects the ports (input or output actions) that may occur free in an
+     * expression.
+     *
+     * @param expression
+     *            the expression.
+     * @param identifierPorts
+     *            the ports of the recursion variables (so far).
+     * @return the free ports.
+     */
+    private static Set<Action> ports(final CCSExpression expression,
+            final Map<String, Set<Action>> identifierPorts) {
+        Set<Action> ports = new HashSet<>();
+        Deque<CCSExpression> todo = new ArrayDeque<>();
+        Deque<Set<String>> hidden = new ArrayDeque<>();
+        todo.push(expression);
+        hidden.push(Collections.emptySet());
+
+        while (!todo.isEmpty()) {
+            CCSExpression e = todo.pop();
+            Set<String> h = hidden.pop();
+
+            if (e instanceof PrefixExpression) {
+                Action a = ((PrefixExpression) e).getAction();
+                if ((a.isInput() || a.isOutput()) && !h.contains(a.getName())) {
+                    ports.add(a);
+                }
+            } else if (e instanceof IdentifierExpression) {
+                for (Action port : identifierPorts.getOrDefault(
+                        ((IdentifierExpression) e).getName(), Collections.emptySet())) {
+                    if (!h.contains(port.getName())) {
+                        ports.add(port);
+                    }
+                }
+                continue;
+            } else if (e instanceof ResExpression) {
+                Set<String> restricted = new HashSet<>(h);
+                restricted.addAll(((ResExpression) e).getRestrictedActions());
+                h = restricted;
+            }
+
+            for (CCSExpression sub : e.getSubExpressions()) {
+                todo.push(sub);
+                hidden.push(h);
+            }
+        }
+
+        return ports;
+    }
+
+    /**
+     * A component of a term together with its position in the term.
+     */
+    private static final class Component {
+        /**
+         * The term of the component.
+         */
+        private final CCSExpression expression;
+
+        /**
+         * The position of the component or {@code null} if the component is
+         * the whole term.
+         */
+        private final Context context;
+
+        /**
+         * The ports that may occur free in the component.
+         */
+        private Set<Action> ports;
+
+        /**
+         * Constructs a component.
+         *
+         * @param expression
+         *            the term of the component.
+         * @param context
+         *            the position of the component.
+         */
+        private Component(final CCSExpression expression, final Context context) {
+            this.expression = expression;
+            this.context = context;
+        }
+    }
+
+    /**
+     * A parallel or restriction expression on the path from the term of a
+     * state to a component.
+     */
+    private static final class Context {
+        /**
+         * The parallel or restriction expression.
+         */
+        private final CCSExpression expression;
+
+        /**
+         * The index of the sub-expression that leads to the component.
+         */
+        private final int index;
+
+        /**
+         * The enclosing context or {@code null} at the top of the term.
+         */
+        private final Context parent;
+
+        /**
+         * Constructs a context.
+         *
+         * @param expression
+         *            the parallel or restriction expression.
+         * @param index
+         *            the index of the sub-expression that leads to the
+         *            component.
+         * @param parent
+         *            the enclosing context.
+         */
+        private Context(final CCSExpression expression, final int index, final Context parent) {
+            this.expression = expression;
+            this.index = index;
+            this.parent = parent;
+        }
+
+        /**
+         * Returns the innermost restriction that binds a channel.
+         *
+         * @param context
+         *            the context of a component or {@code null}.
+         * @param channel
+         *            the channel.
+         * @return the context of the restriction or {@code null} if the
+         *         channel is not restricted.
+         */
+        private static Context binder(final Context context, final String channel) {
+            for (Context c = context; c != null; c = c.parent) {
+                if (c.expression instanceof ResExpression &&
+                        ((ResExpression) c.expression).getRestrictedActions().contains(channel)) {
+                    return c;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Replaces the component by another expression.
+         *
+         * @param context
+         *            the context of the component or {@code null}.
+         * @param expression
+         *            the new expression.
+         * @return the resulting term of the state.
+         */
+        private static CCSExpression replace(final Context context, final CCSExpression expression) {
+            CCSExpression e = expression;
+            for (Context c = context; c != null; c = c.parent) {
+                if (c.expression instanceof ResExpression) {
+                    e = new ResExpression(e, ((ResExpression) c.expression).getRestrictedActions());
+                } else {
+                    CCSExpression[] sub = c.expression.getSubExpressions();
+                    e = c.index == 0 ? new ParExpression(e, sub[1]) : new ParExpression(sub[0], e);
+                }
+            }
+            return e;
+        }
+    }
+}
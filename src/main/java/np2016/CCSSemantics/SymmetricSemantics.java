@@ -0,0 +1,258 @@
+package np2016.CCSSemantics;
+
+import np2016.ASTNodes.CCSExpression;
+import np2016.ASTNodes.ParExpression;
+import np2016.ASTNodes.ResExpression;
+import np2016.Graph.Graph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implicit graph representation of the quotient of the CCS semantics by the
+ * symmetry of parallel composition.
+ * <p>
+ * Parallel composition is commutative and associative, so two terms that
+ * differ only in the order of the components of a parallel composition are
+ * strongly bisimilar. Every state of this graph is labeled with a
+ * <em>canonical</em> term (see {@link #canonical(CCSExpression)}) and the
+ * targets of its transitions are replaced by their canonical terms. Hence
+ * states that are equal up to a permutation of replicated components are
+ * explored only once, and the quotient satisfies the same properties of
+ * actions (deadlocks, critical sections, LTL and mu-calculus formulas) as the
+ * full semantics. Paths of the quotient can be mapped back to paths of the
+ * full semantics with {@link #expand}.
+ */
+public final class SymmetricSemantics implements Graph<State, Transition> {
+    /**
+     * The order of the components of a canonical parallel composition. The
+     * hash code is compared first as it is cheap.
+     */
+    private static final Comparator<CCSExpression> ORDER =
+            Comparator.comparingInt(CCSExpression::hashCode).thenComparing(CCSExpression::toString);
+
+    /**
+     * The full semantics.
+     */
+    private final Graph<State, Transition> semantics;
+
+    /**
+     * Constructs the quotient of a graph of the CCS semantics.
+     *
+     * @param semantics
+     *            the full semantics (e.g. {@link CCSSemantics}).
+     */
+    public SymmetricSemantics(final Graph<State, Transition> semantics) {
+        assert semantics != null;
+
+        this.semantics = semantics;
+    }
+
+    /**
+     * Returns the full semantics.
+     *
+     * @return the full semantics.
+     */
+    public Graph<State, Transition> getSemantics() {
+        return this.semantics;
+    }
+
+    @Override
+    public List<State> getSources() {
+        return this.semantics.getSources().stream()
+                .map(SymmetricSemantics::canonical)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transition> getEdges(final State state) {
+        assert state != null;
+        assert state.getInfo() != null;
+
+        return this.semantics.getEdges(state).stream()
+                .map(t -> new Transition(state, canonical(t.getTarget()), t.getInfo()))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps a path of the quotient to a path of the full semantics.
+     *
+     * @param start
+     *            the state of the full semantics to start at. Its canonical
+     *            state must be the start of the path.
+     * @param path
+     *            the path of the quotient.
+     * @return the path of the full semantics with the same actions whose
+     *         states have the canonical states of the given path.
+     */
+    public List<Transition> expand(final State start, final List<Transition> path) {
+        assert path.isEmpty() || canonical(start).equals(path.get(0).getStart());
+
+        List<Transition> expanded = new ArrayList<>(path.size());
+        State state = start;
+        for (Transition t : path) {
+            Transition next = null;
+            for (Transition u : this.semantics.getEdges(state)) {
+                if (u.getInfo().equals(t.getInfo()) && u.getInfo().isWeak() == t.getInfo().isWeak()
+                        && canonical(u.getTarget()).equals(t.getTarget())) {
+                    next = u;
+                    break;
+                }
+            }
+            // the transitions of a state and its canonical state correspond
+            assert next != null;
+
+            expanded.add(next);
+            state = next.getTarget();
+        }
+        return expanded;
+    }
+
+    /**
+     * Returns the canonical state of a state.
+     *
+     * @param state
+     *            the state.
+     * @return the state labeled with the canonical term.
+     */
+    public static State canonical(final State state) {
+        CCSExpression e = canonical(state.getInfo());
+        return e == state.getInfo() ? state : new State(e);
+    }
+
+    /**
+     * Returns the canonical term of a term: the components of every parallel
+     * composition that is not below a prefix, a choice or a recursion
+     * variable are sorted and composed from left to right (like the parser
+     * does). Two terms have the same canonical term if they differ only in
+     * the order or grouping of such components.
+     *
+     * @param expression
+     *            the term.
+     * @return the canonical term.
+     */
+    public static CCSExpression canonical(final CCSExpression expression) {
+        if (!isOperator(expression)) {
+            return expression;
+        }
+
+        final Deque<Canonicalization> stack = new ArrayDeque<>();
+        stack.push(new Canonicalization(expression));
+        for (;;) {
+            Canonicalization top = stack.peek();
+
+            if (top.next < top.parts.size()) {
+                CCSExpression part = top.parts.get(top.next++);
+                if (isOperator(part)) {
+                    stack.push(new Canonicalization(part));
+                } else {
+                    top.results.add(part);
+                }
+                continue;
+            }
+
+            stack.pop();
+            CCSExpression result = top.build();
+            if (stack.isEmpty()) {
+                return result;
+            }
+            stack.peek().results.add(result);
+        }
+    }
+
+    /**
+     * Returns whether a term is a parallel or restriction expression.
+     *
+     * @param expression
+     *            the term.
+     * @return true if the term is a parallel or restriction expression.
+     */
+    private static boolean isOperator(final CCSExpression expression) {
+        return expression instanceof ParExpression || expression instanceof ResExpression;
+    }
+
+    /**
+     * A parallel or restriction expression whose canonical term is being
+     * computed together with the canonical terms of its parts computed so far.
+     */
+    private static final class Canonicalization {
+        /**
+         * The expression.
+         */
+        private final CCSExpression expression;
+
+        /**
+         * The components of a parallel composition or the restricted
+         * expression.
+         */
+        private final List<CCSExpression> parts = new ArrayList<>();
+
+        /**
+         * The index of the next part to canonicalize.
+         */
+        private int next = 0;
+
+        /**
+         * The canonical terms of the parts computed so far.
+         */
+        private final List<CCSExpression> results = new ArrayList<>();
+
+        /**
+         * Starts the canonicalization of an expression.
+         *
+         * @param expression
+         *            a parallel or restriction expression.
+         */
+        private Canonicalization(final CCSExpression expression) {
+            this.expression = expression;
+
+            if (expression instanceof ResExpression) {
+                this.parts.add(expression.getSubExpressions()[0]);
+                return;
+            }
+
+            // flatten the nested parallel compositions from left to right
+            Deque<CCSExpression> todo = new ArrayDeque<>();
+            todo.push(expression);
+            while (!todo.isEmpty()) {
+                CCSExpression e = todo.pop();
+                if (e instanceof ParExpression) {
+                    CCSExpression[] sub = e.getSubExpressions();
+                    todo.push(sub[1]);
+                    todo.push(sub[0]);
+                } else {
+                    this.parts.add(e);
+                }
+            }
+        }
+
+        /**
+         * Builds the canonical term from the canonical terms of the parts.
+         *
+         * @return the canonical term.
+         */
+        private CCSExpression build() {
+            if (this.expression instanceof ResExpression) {
+                CCSExpression exp = this.results.get(0);
+                if (exp == this.parts.get(0)) {
+                    return this.expression;
+                }
+                return new ResExpression(exp, ((ResExpression) this.expression).getRestrictedActions());
+            }
+
+            Collections.sort(this.results, ORDER);
+            CCSExpression e = this.results.get(0);
+            for (int i = 1; i < this.results.size(); ++i) {
+                e = new ParExpression(e, this.results.get(i));
+            }
+            return e;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package np2016.CCSSemantics;
+
+import np2016.Graph.Graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implicit graph representation of the CCS semantics with compressed tau
+ * chains.
+ * <p>
+ * A state whose only transition is a tau transition is branching bisimilar
+ * to the target of that transition. Every transition of this graph therefore
+ * follows such states until it reaches a state with no, several or a visible
+ * transition (the <em>endpoint</em>) and goes directly to the endpoint. The
+ * intermediate states of a chain are neither returned as targets nor stored
+ * while the chain is followed, so they never reach the visited set of the
+ * search or the explored {@link LTS}. Only the initial state is kept even if
+ * it starts a chain.
+ * <p>
+ * A chain that ends in a cycle of tau transitions (a divergence) ends at a
+ * state on the cycle, which is found with Brent's cycle detection, so the
+ * cycle and hence the divergence is preserved. The compressed graph is
+ * branching bisimilar to the full one and has the same deadlocks.
+ */
+public final class TauCompressedSemantics implements Graph<State, Transition> {
+    /**
+     * The full semantics.
+     */
+    private final Graph<State, Transition> semantics;
+
+    /**
+     * Constructs the compressed graph of a graph of the CCS semantics.
+     *
+     * @param semantics
+     *            the full semantics (e.g. {@link CCSSemantics}).
+     */
+    public TauCompressedSemantics(final Graph<State, Transition> semantics) {
+        assert semantics != null;
+
+        this.semantics = semantics;
+    }
+
+    @Override
+    public List<State> getSources() {
+        return this.semantics.getSources();
+    }
+
+    @Override
+    public List<Transition> getEdges(final State state) {
+        assert state != null;
+        assert state.getInfo() != null;
+
+        List<Transition> edges = new ArrayList<>();
+        for (Transition t : this.semantics.getEdges(state)) {
+            State endpoint = endpoint(t.getTarget());
+            Transition u = endpoint == t.getTarget() ? t : new Transition(state, endpoint, t.getInfo());
+            if (!edges.contains(u)) {
+                edges.add(u);
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Follows the chain of states with a single tau transition that starts at
+     * a state.
+     *
+     * @param state
+     *            the state.
+     * @return the endpoint of the chain (the given state if it does not start
+     *         a chain).
+     */
+    private State endpoint(final State state) {
+        // Brent's cycle detection: the tortoise waits at the hare's position
+        // after 1, 2, 4, ... steps; if the hare meets it, it is on a cycle
+        State tortoise = state;
+        State hare = state;
+        int power = 1;
+        int length = 0;
+        for (;;) {
+            State next = tauSuccessor(hare);
+            if (next == null) {
+                return hare;
+            }
+
+            hare = next;
+            if (hare.equals(tortoise)) {
+                return hare;
+            }
+            if (++length == power) {
+                tortoise = hare;
+                power *= 2;
+                length = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the target of the only transition of a state if it is a tau
+     * transition.
+     *
+     * @param state
+     *            the state.
+     * @return the target or {@code null} if the state has no, several or a
+     *         visible transition.
+     */
+    private State tauSuccessor(final State state) {
+        List<Transition> transitions = this.semantics.getEdges(state);
+        if (transitions.size() != 1 || !transitions.get(0).getInfo().isWeak()) {
+            return null;
+        }
+        return transitions.get(0).getTarget();
+    }
+}
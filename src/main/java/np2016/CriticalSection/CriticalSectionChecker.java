@@ -0,0 +1,237 @@
+package np2016.CriticalSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import np2016.Options;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Graph;
+import np2016.GraphAnalysis.IndexedGraph;
+import np2016.GraphAnalysis.StronglyConnectedComponents;
+import np2016.GraphSearch.BFSGraphVisitor;
+
+/**
+ * Checks the "critical section" property on the fly while a
+ * {@link CriticalSectionGraph} is searched. The visitor may be used by the
+ * sequential as well as the concurrent graph search.
+ * <p>
+ * A terminal state inside a critical section is a violation that is detected
+ * as soon as the state is processed. A loop inside a critical section is
+ * detected on the fly if it is closed by an edge back to one of the last
+ * {@link #LOOP_DEPTH} ancestors in the search tree. As soon as a violation is
+ * found the search is stopped (see {@link #isDone}). All other loops are
+ * found after the search (see {@link #getViolation}) by a decomposition of
+ * the subgraph of the states inside a critical section, which is recorded
+ * during the search, into its strongly connected components.
+ */
+public final class CriticalSectionChecker
+implements BFSGraphVisitor<CriticalState, CriticalTransition> {
+
+    /**
+     * How many ancestors of a state are checked for a loop on the fly.
+     */
+    private static final int LOOP_DEPTH = 64;
+
+    /**
+     * The start state of the search.
+     */
+    private volatile CriticalState start;
+
+    /**
+     * The tree edge that discovered each state.
+     */
+    private final Map<CriticalState, CriticalTransition> parents = new ConcurrentHashMap<>();
+
+    /**
+     * The edges between states inside a critical section by start state.
+     */
+    private final Map<CriticalState, List<CriticalTransition>> insideEdges =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The first violation found.
+     */
+    private final AtomicReference<Trace> violation = new AtomicReference<>();
+
+    /**
+     * Returns whether a violation was found during the search.
+     *
+     * @return true if the search was stopped because of a violation.
+     */
+    public boolean isViolated() {
+        return this.violation.get() != null;
+    }
+
+    /**
+     * Returns a violation of the property. Must be called after the search
+     * finished. If no violation was found on the fly the recorded subgraph of
+     * the states inside a critical section is searched for a loop.
+     *
+     * @return the counterexample or {@code null} if the property is
+     *         satisfied.
+     */
+    public Trace getViolation() {
+        Trace trace = this.violation.get();
+        if (trace == null) {
+            trace = findLoop();
+        }
+        return trace;
+    }
+
+    @Override
+    public boolean isDone() {
+        return isViolated();
+    }
+
+    @Override
+    public void startVertex(final Graph<CriticalState, CriticalTransition> graph,
+            final CriticalState vertex) {
+        this.start = vertex;
+    }
+
+    @Override
+    public void discoverVertex(final Graph<CriticalState, CriticalTransition> graph,
+            final CriticalState vertex) {
+        // Do nothing.
+    }
+
+    @Override
+    public void finishVertex(final Graph<CriticalState, CriticalTransition> graph,
+            final CriticalState vertex) {
+        // Do nothing.
+    }
+
+    @Override
+    public void terminalVertex(final Graph<CriticalState, CriticalTransition> graph,
+            final CriticalState vertex) {
+        if (vertex.isInside()) {
+            found(Trace.terminal(pathTo(vertex), vertex.getInfo()));
+        }
+    }
+
+    @Override
+    public void treeEdge(final Graph<CriticalState, CriticalTransition> graph,
+            final CriticalTransition edge) {
+        this.parents.put(edge.getTarget(), edge);
+        record(edge);
+    }
+
+    @Override
+    public void nonTreeEdge(final Graph<CriticalState, CriticalTransition> graph,
+            final CriticalTransition edge) {
+        if (!record(edge)) {
+            return;
+        }
+
+        // check whether the edge closes a loop with the last ancestors
+        CriticalState target = edge.getTarget();
+        List<Transition> loop = new ArrayList<>();
+        loop.add(edge.getInfo());
+        CriticalState x = edge.getStart();
+        for (int depth = 0; depth < LOOP_DEPTH; ++depth) {
+            if (x.equals(target)) {
+                Collections.reverse(loop);
+                found(Trace.loop(pathTo(target), loop));
+                return;
+            }
+
+            CriticalTransition parent = this.parents.get(x);
+            if (parent == null || !x.isInside()) {
+                return;
+            }
+            loop.add(parent.getInfo());
+            x = parent.getStart();
+        }
+    }
+
+    /**
+     * Records an edge if it connects two states inside a critical section.
+     *
+     * @param edge
+     *            the edge.
+     * @return true if the edge was recorded.
+     */
+    private boolean record(final CriticalTransition edge) {
+        if (!edge.getStart().isInside() || !edge.getTarget().isInside()) {
+            return false;
+        }
+
+        this.insideEdges.compute(edge.getStart(), (s, edges) -> {
+            List<CriticalTransition> l = edges != null ? edges : new ArrayList<>();
+            l.add(edge);
+            return l;
+        });
+        return true;
+    }
+
+    /**
+     * Stores the first violation, which stops the search.
+     *
+     * @param trace
+     *            the violation.
+     */
+    private void found(final Trace trace) {
+        this.violation.compareAndSet(null, trace);
+    }
+
+    /**
+     * Returns the path from the start state to the given state along the tree
+     * edges.
+     *
+     * @param state
+     *            the state.
+     * @return the path.
+     */
+    private List<Transition> pathTo(final CriticalState state) {
+        List<Transition> path = new ArrayList<>();
+        CriticalState x = state;
+        while (!x.equals(this.start)) {
+            CriticalTransition parent = this.parents.get(x);
+            path.add(parent.getInfo());
+            x = parent.getStart();
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Searches the recorded subgraph of the states inside a critical section
+     * for a loop: the subgraph is decomposed into its strongly connected
+     * components (in parallel, see {@link StronglyConnectedComponents}) and a
+     * shortest loop through a state of a cyclic component is returned.
+     *
+     * @return the counterexample or {@code null} if there is no loop.
+     */
+    private Trace findLoop() {
+        IndexedGraph<CriticalState, CriticalTransition> inside = IndexedGraph.of(
+                new Graph<CriticalState, CriticalTransition>() {
+                    @Override
+                    public List<CriticalState> getSources() {
+                        return new ArrayList<>(CriticalSectionChecker.this.insideEdges.keySet());
+                    }
+
+                    @Override
+                    public List<CriticalTransition> getEdges(final CriticalState node) {
+                        return CriticalSectionChecker.this.insideEdges.getOrDefault(node,
+                                Collections.emptyList());
+                    }
+                });
+        StronglyConnectedComponents<CriticalState, CriticalTransition> components =
+                new StronglyConnectedComponents<>(inside, Options.THREADS.getNumber());
+
+        int v = components.findCyclicNode();
+        if (v < 0) {
+            return null;
+        }
+
+        List<Transition> loop = new ArrayList<>();
+        for (CriticalTransition t : components.findCycle(v)) {
+            loop.add(t.getInfo());
+        }
+        return Trace.loop(pathTo(inside.getNode(v)), loop);
+    }
+}
@@ -0,0 +1,73 @@
+package np2016.CriticalSection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Graph;
+
+/**
+ * Implicit graph representation of the product of a graph of the CCS
+ * semantics (e.g. {@link np2016.CCSSemantics.CCSSemantics} or an explored
+ * {@link np2016.CCSSemantics.LTS}) and the "inside a critical section" flag.
+ * The flag is set by an {@code enter} action and cleared by an {@code exit}
+ * action.
+ */
+public final class CriticalSectionGraph implements Graph<CriticalState, CriticalTransition> {
+
+    /**
+     * The action that enters a critical section.
+     */
+    public static final String ENTER = "enter";
+
+    /**
+     * The action that leaves a critical section.
+     */
+    public static final String EXIT = "exit";
+
+    /**
+     * The graph of the CCS semantics.
+     */
+    private final Graph<State, Transition> semantics;
+
+    /**
+     * Constructs the product graph.
+     *
+     * @param semantics
+     *            the graph of the CCS semantics.
+     */
+    public CriticalSectionGraph(final Graph<State, Transition> semantics) {
+        this.semantics = semantics;
+    }
+
+    @Override
+    public List<CriticalState> getSources() {
+        List<CriticalState> sources = new ArrayList<>();
+        for (State s : this.semantics.getSources()) {
+            sources.add(new CriticalState(s, false));
+        }
+        return sources;
+    }
+
+    @Override
+    public List<CriticalTransition> getEdges(final CriticalState state) {
+        List<Transition> transitions = this.semantics.getEdges(state.getInfo());
+        List<CriticalTransition> edges = new ArrayList<>(transitions.size());
+
+        for (Transition t : transitions) {
+            String action = t.getInfo().toString();
+            boolean inside = state.isInside();
+            if (ENTER.equals(action)) {
+                inside = true;
+            } else if (EXIT.equals(action)) {
+                inside = false;
+            }
+
+            edges.add(new CriticalTransition(state,
+                    new CriticalState(t.getTarget(), inside), t));
+        }
+
+        return edges;
+    }
+}
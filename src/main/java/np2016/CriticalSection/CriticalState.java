@@ -0,0 +1,57 @@
+package np2016.CriticalSection;
+
+import np2016.CCSSemantics.State;
+import np2016.Graph.Node;
+
+/**
+ * A state of the product of the CCS semantics and the "inside a critical
+ * section" flag.
+ */
+public final class CriticalState extends Node<State> {
+
+    /**
+     * Whether a critical section was entered and not left yet.
+     */
+    private final boolean inside;
+
+    /**
+     * Constructs a product state.
+     *
+     * @param state
+     *            the state of the CCS semantics.
+     * @param inside
+     *            whether a critical section was entered and not left yet.
+     */
+    public CriticalState(final State state, final boolean inside) {
+        super(state);
+        this.inside = inside;
+    }
+
+    /**
+     * Returns whether a critical section was entered and not left yet.
+     *
+     * @return true if inside a critical section.
+     */
+    public boolean isInside() {
+        return this.inside;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s%s", this.info, this.inside ? " [inside]" : "");
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof CriticalState)) {
+            return false;
+        }
+
+        return super.equals(o) && this.inside == ((CriticalState) o).inside;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + (this.inside ? 1 : 0);
+    }
+}
@@ -0,0 +1,27 @@
+package np2016.CriticalSection;
+
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Edge;
+
+/**
+ * A transition of the product of the CCS semantics and the "inside a critical
+ * section" flag. The corresponding transition of the CCS semantics is stored
+ * as edge information.
+ */
+public final class CriticalTransition extends Edge<CriticalState, Transition> {
+
+    /**
+     * Constructs a product transition.
+     *
+     * @param from
+     *            the start state.
+     * @param to
+     *            the target state.
+     * @param transition
+     *            the transition of the CCS semantics.
+     */
+    public CriticalTransition(final CriticalState from, final CriticalState to,
+            final Transition transition) {
+        super(transition, from, to);
+    }
+}
@@ -0,0 +1,304 @@
+package np2016.CriticalSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Edge;
+import np2016.Graph.Graph;
+import np2016.Graph.Node;
+import np2016.GraphSearch.NestedDepthFirstSearch;
+
+/**
+ * Checks the "critical section" property with the multi-core
+ * {@link NestedDepthFirstSearch} directly on the CCS semantics, without
+ * building the LTS first.
+ * <p>
+ * The searched graph is the product of the CCS semantics with a monitor that
+ * is outside or inside a critical section. Additionally, an inside
+ * configuration may guess that the critical section is never left again; it
+ * then moves to a committed copy in which {@code exit} actions are blocked.
+ * The committed configurations are accepting, so an accepting cycle exists if
+ * and only if a loop inside a critical section is reachable. Terminal states
+ * repeat a "no action" step forever, so a terminal state inside a critical
+ * section is found as an accepting cycle as well.
+ */
+public final class NestedCriticalSectionChecker {
+
+    /**
+     * The monitor is outside a critical section.
+     */
+    private static final int OUTSIDE = 0;
+
+    /**
+     * The monitor is inside a critical section.
+     */
+    private static final int INSIDE = 1;
+
+    /**
+     * The monitor is inside a critical section and guessed that it is never
+     * left again (accepting).
+     */
+    private static final int COMMITTED = 2;
+
+    /**
+     * The CCS semantics.
+     */
+    private final Graph<State, Transition> semantics;
+
+    /**
+     * The number of workers.
+     */
+    private final int workers;
+
+    /**
+     * The running search or {@code null}.
+     */
+    private volatile NestedDepthFirstSearch<Configuration, Step> search;
+
+    /**
+     * Why the last check failed or {@code null}.
+     */
+    private Throwable failure;
+
+    /**
+     * Constructs a checker.
+     *
+     * @param semantics
+     *            the CCS semantics (or an explored LTS).
+     * @param workers
+     *            the number of workers.
+     */
+    public NestedCriticalSectionChecker(final Graph<State, Transition> semantics, final int workers) {
+        this.semantics = semantics;
+        this.workers = workers;
+    }
+
+    /**
+     * Searches for a violation of the property.
+     *
+     * @param start
+     *            the initial state.
+     * @return the counterexample or {@code null} if the property is satisfied
+     *         or the search failed (see {@link #getFailure}).
+     */
+    public Trace search(final State start) {
+        NestedDepthFirstSearch<Configuration, Step> s = new NestedDepthFirstSearch<>(
+                new MonitorGraph(start), c -> c.monitor == COMMITTED, this.workers);
+
+        this.search = s;
+        NestedDepthFirstSearch.Lasso<Step> lasso = s.search();
+        this.failure = s.getFailure();
+        this.search = null;
+
+        if (lasso == null) {
+            return null;
+        }
+
+        List<Step> prefix = new ArrayList<>(lasso.getPrefix());
+        List<Step> loop = new ArrayList<>(lasso.getLoop());
+        if (loop.get(0).isStutter()) {
+            // only a terminal state stutters
+            return Trace.terminal(transitions(prefix), loop.get(0).getStart().getInfo());
+        }
+
+        // the loop is usually closed only after the guess to commit, so the
+        // end of the prefix may already run around the loop
+        while (!prefix.isEmpty()) {
+            Step last = prefix.get(prefix.size() - 1);
+            if (last.getStart().monitor == OUTSIDE
+                    || !last.getInfo().equals(loop.get(loop.size() - 1).getInfo())) {
+                break;
+            }
+            prefix.remove(prefix.size() - 1);
+            Collections.rotate(loop, 1);
+        }
+        return Trace.loop(transitions(prefix), transitions(loop));
+    }
+
+    /**
+     * Cancels the running search. It then fails with a
+     * {@link java.util.concurrent.CancellationException}.
+     */
+    public void cancel() {
+        NestedDepthFirstSearch<Configuration, Step> s = this.search;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    /**
+     * Returns why the last search failed.
+     *
+     * @return the failure or {@code null} if the search did not fail.
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Returns the transitions of the CCS semantics along a path of the
+     * product.
+     *
+     * @param path
+     *            the path.
+     * @return the transitions (without the stuttering at a terminal state).
+     */
+    private static List<Transition> transitions(final List<Step> path) {
+        List<Transition> transitions = new ArrayList<>(path.size());
+        for (Step s : path) {
+            if (!s.isStutter()) {
+                transitions.add(s.getInfo());
+            }
+        }
+        return transitions;
+    }
+
+    /**
+     * A state of the CCS semantics together with the state of the monitor.
+     */
+    private static final class Configuration extends Node<State> {
+
+        /**
+         * The state of the monitor.
+         */
+        private final int monitor;
+
+        /**
+         * Constructs a configuration.
+         *
+         * @param state
+         *            the state of the CCS semantics.
+         * @param monitor
+         *            the state of the monitor.
+         */
+        Configuration(final State state, final int monitor) {
+            super(state);
+            this.monitor = monitor;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Configuration)) {
+                return false;
+            }
+
+            return super.equals(o) && this.monitor == ((Configuration) o).monitor;
+        }
+
+        @Override
+        public int hashCode() {
+            return 3 * super.hashCode() + this.monitor;
+        }
+    }
+
+    /**
+     * A transition of the product. The corresponding transition of the CCS
+     * semantics is stored as edge information; it is {@code null} for the
+     * "no action" step of a terminal state.
+     */
+    private static final class Step extends Edge<Configuration, Transition> {
+
+        /**
+         * Constructs a step.
+         *
+         * @param from
+         *            the start configuration.
+         * @param to
+         *            the target configuration.
+         * @param transition
+         *            the transition of the CCS semantics or {@code null}.
+         */
+        Step(final Configuration from, final Configuration to, final Transition transition) {
+            super(transition, from, to);
+        }
+
+        /**
+         * Returns whether this is the "no action" step of a terminal state.
+         *
+         * @return true if the step does not correspond to a transition.
+         */
+        boolean isStutter() {
+            return this.info == null;
+        }
+    }
+
+    /**
+     * Implicit graph representation of the product of the CCS semantics and
+     * the monitor.
+     */
+    private final class MonitorGraph implements Graph<Configuration, Step> {
+
+        /**
+         * The initial state.
+         */
+        private final State start;
+
+        /**
+         * Constructs the product graph.
+         *
+         * @param start
+         *            the initial state.
+         */
+        MonitorGraph(final State start) {
+            this.start = start;
+        }
+
+        @Override
+        public List<Configuration> getSources() {
+            return Collections.singletonList(new Configuration(this.start, OUTSIDE));
+        }
+
+        @Override
+        public List<Step> getEdges(final Configuration c) {
+            List<Transition> transitions = semantics.getEdges(c.getInfo());
+            List<Step> steps = new ArrayList<>(transitions.size() + 1);
+            if (transitions.isEmpty()) {
+                step(c, null, false, steps);
+            }
+            for (Transition t : transitions) {
+                String action = t.getInfo().toString();
+                step(c, t, CriticalSectionGraph.ENTER.equals(action), steps);
+            }
+            return steps;
+        }
+
+        /**
+         * Adds the steps of a configuration for a transition.
+         *
+         * @param c
+         *            the configuration.
+         * @param t
+         *            the transition or {@code null} for the "no action" step
+         *            of a terminal state.
+         * @param enter
+         *            whether the transition enters a critical section.
+         * @param steps
+         *            receives the steps.
+         */
+        private void step(final Configuration c, final Transition t, final boolean enter,
+                final List<Step> steps) {
+            State target = t == null ? c.getInfo() : t.getTarget();
+            boolean exit = t != null && CriticalSectionGraph.EXIT.equals(t.getInfo().toString());
+
+            switch (c.monitor) {
+                case OUTSIDE:
+                    steps.add(new Step(c, new Configuration(target, enter ? INSIDE : OUTSIDE), t));
+                    break;
+                case INSIDE:
+                    steps.add(new Step(c, new Configuration(target, exit ? OUTSIDE : INSIDE), t));
+                    if (!exit) {
+                        steps.add(new Step(c, new Configuration(target, COMMITTED), t));
+                    }
+                    break;
+                default:
+                    if (!exit) {
+                        steps.add(new Step(c, new Configuration(target, COMMITTED), t));
+                    }
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package np2016.CriticalSection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Graph;
+import np2016.GraphAnalysis.IndexedGraph;
+import np2016.GraphAnalysis.ParallelBreadthFirstSearch;
+import np2016.GraphAnalysis.StronglyConnectedComponents;
+
+/**
+ * Computes a counterexample of minimal length for the "critical section"
+ * property. A counterexample is a path to a violating state, i.e. a state
+ * inside a critical section that is terminal or lies on a loop of such
+ * states, followed by the terminal state or a loop through the violating
+ * state. Its length is the length of the path plus the length of the loop;
+ * the violating state is chosen such that this sum is minimal.
+ * <p>
+ * The product of the CCS semantics with the critical section flag is searched
+ * level by level on the fly; the edges of a level are generated in parallel.
+ * The states get consecutive numbers as they are discovered and the search
+ * tree is stored as two {@code int} arrays (the number of the parent and the
+ * position of the tree edge among the edges of the parent), so it needs only
+ * a few bytes per state. For every new state inside a critical section a
+ * breadth-first search without {@code exit} actions looks for a loop back to
+ * the state that is shorter than needed to beat the best counterexample so
+ * far. If there is no loop at all, the explored states are classified at once
+ * by a decomposition into strongly connected components (see
+ * {@link StronglyConnectedComponents}); the loops of these states are found
+ * later by the {@link ParallelBreadthFirstSearch} of the decomposition. The
+ * search stops as soon as the distance of a level is not smaller than the
+ * length of the best counterexample, so the states behind that level are
+ * never explored.
+ */
+public final class ShortestCounterexample {
+
+    /**
+     * The parent of the source of a search tree.
+     */
+    private static final int ROOT = -1;
+
+    /**
+     * The product of the CCS semantics and the critical section flag.
+     */
+    private final CriticalSectionGraph product;
+
+    /**
+     * The number of threads.
+     */
+    private final int threads;
+
+    /**
+     * The edges of the explored states inside a critical section.
+     */
+    private final Map<CriticalState, List<CriticalTransition>> insideEdges = new ConcurrentHashMap<>();
+
+    /**
+     * The states inside a critical section that are known to be violating or
+     * not, i.e. all states reachable from them without an {@code exit}
+     * action were explored.
+     */
+    private final Set<CriticalState> closed = new HashSet<>();
+
+    /**
+     * The decomposition that contains each closed state that lies on a loop.
+     */
+    private final Map<CriticalState, StronglyConnectedComponents<CriticalState, CriticalTransition>> loops =
+            new HashMap<>();
+
+    /**
+     * Constructs a search.
+     *
+     * @param semantics
+     *            the CCS semantics (or an explored LTS).
+     * @param threads
+     *            the number of threads to use.
+     */
+    private ShortestCounterexample(final Graph<State, Transition> semantics, final int threads) {
+        this.product = new CriticalSectionGraph(semantics);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Computes a shortest counterexample.
+     *
+     * @param semantics
+     *            the CCS semantics (or an explored LTS).
+     * @param start
+     *            the initial state.
+     * @param threads
+     *            the number of threads to use.
+     * @return the counterexample or {@code null} if the property is
+     *         satisfied.
+     */
+    public static Trace find(final Graph<State, Transition> semantics, final State start,
+            final int threads) {
+        return new ShortestCounterexample(semantics, threads).search(new CriticalState(start, false));
+    }
+
+    /**
+     * Searches the product level by level for the violating state with the
+     * shortest counterexample.
+     *
+     * @param source
+     *            the initial state of the product.
+     * @return the counterexample or {@code null} if the property is
+     *         satisfied.
+     */
+    private Trace search(final CriticalState source) {
+        SearchTree tree = new SearchTree();
+        tree.add(source, ROOT, 0);
+        Trace best = null;
+        int length = Integer.MAX_VALUE;
+
+        ForkJoinPool pool = this.threads > 1 ? new ForkJoinPool(this.threads) : null;
+        try {
+            // the states of a level are numbered consecutively; the initial
+            // state is outside, so the prefix is never empty
+            int from = 0;
+            int to = 1;
+            for (int distance = 1; from < to && distance < length; ++distance) {
+                List<List<CriticalTransition>> edges = expand(tree.states.subList(from, to), pool);
+                for (int i = 0; i < edges.size(); ++i) {
+                    List<CriticalTransition> l = edges.get(i);
+                    for (int k = 0; k < l.size(); ++k) {
+                        tree.add(l.get(k).getTarget(), from + i, k);
+                    }
+                }
+                from = to;
+                to = tree.size();
+
+                for (int v = from; v < to; ++v) {
+                    CriticalState x = tree.states.get(v);
+                    if (!x.isInside()) {
+                        continue;
+                    }
+                    if (edges(x).isEmpty()) {
+                        if (distance < length) {
+                            best = Trace.terminal(tree.pathTo(v), x.getInfo());
+                            length = distance;
+                        }
+                        continue;
+                    }
+
+                    // only a loop with less than limit edges beats the best
+                    // counterexample
+                    int limit = length == Integer.MAX_VALUE ? Integer.MAX_VALUE : length - distance;
+                    List<CriticalTransition> loop = this.closed.contains(x) ? knownLoop(x) : findLoop(x, limit);
+                    if (loop != null && loop.size() < limit) {
+                        best = Trace.loop(tree.pathTo(v), transitions(loop));
+                        length = distance + loop.size();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Generates the edges of the states of a level.
+     *
+     * @param level
+     *            the states.
+     * @param pool
+     *            generates the edges in parallel or {@code null} to generate
+     *            them in the calling thread.
+     * @return the edges of each state, in the order of the level.
+     * @throws InterruptedException
+     *             if interrupted while waiting for the pool.
+     * @throws ExecutionException
+     *             if the generation of an edge failed.
+     */
+    private List<List<CriticalTransition>> expand(final List<CriticalState> level, final ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        if (pool == null) {
+            return level.stream().map(this::edges).collect(Collectors.toList());
+        }
+        // a parallel stream started in the pool runs on its workers
+        return pool.submit(() -> level.parallelStream().map(this::edges).collect(Collectors.toList())).get();
+    }
+
+    /**
+     * Returns the edges of a state of the product. The edges of a state
+     * inside a critical section are generated only once.
+     *
+     * @param state
+     *            the state.
+     * @return the edges.
+     */
+    private List<CriticalTransition> edges(final CriticalState state) {
+        if (!state.isInside()) {
+            return this.product.getEdges(state);
+        }
+
+        List<CriticalTransition> edges = this.insideEdges.get(state);
+        if (edges == null) {
+            edges = this.product.getEdges(state);
+            this.insideEdges.put(state, edges);
+        }
+        return edges;
+    }
+
+    /**
+     * Searches for a shortest loop through a state inside a critical section
+     * that is not closed yet and does not leave the critical section. Only
+     * loops with less than {@code limit} edges are searched for. If the
+     * search explored every state reachable without an {@code exit} action
+     * and found no loop, these states are classified (see {@link #classify}).
+     *
+     * @param v
+     *            the state.
+     * @param limit
+     *            the length of the loops that are too long.
+     * @return the edges of the loop, starting at the state, or {@code null}
+     *         if there is none with less than {@code limit} edges.
+     */
+    private List<CriticalTransition> findLoop(final CriticalState v, final int limit) {
+        SearchTree tree = new SearchTree();
+        tree.add(v, ROOT, 0);
+        int from = 0;
+        int to = 1;
+        for (int depth = 1; from < to; ++depth) {
+            if (depth >= limit) {
+                // the search was cut off, so v is not classified
+                return null;
+            }
+
+            for (int u = from; u < to; ++u) {
+                List<CriticalTransition> edges = edges(tree.states.get(u));
+                for (int k = 0; k < edges.size(); ++k) {
+                    CriticalState x = edges.get(k).getTarget();
+                    if (x.equals(v)) {
+                        List<CriticalTransition> loop = tree.edgesTo(u);
+                        loop.add(edges.get(k));
+                        return loop;
+                    }
+                    // the closed states cannot reach a state that is not
+                    // closed
+                    if (x.isInside() && !this.closed.contains(x)) {
+                        tree.add(x, u, k);
+                    }
+                }
+            }
+            from = to;
+            to = tree.size();
+        }
+
+        classify(v);
+        return null;
+    }
+
+    /**
+     * Returns a shortest loop through a closed state inside a critical
+     * section that does not leave the critical section.
+     *
+     * @param v
+     *            the state.
+     * @return the edges of the loop, starting at the state, or {@code null}
+     *         if there is none.
+     */
+    private List<CriticalTransition> knownLoop(final CriticalState v) {
+        StronglyConnectedComponents<CriticalState, CriticalTransition> components = this.loops.get(v);
+        if (components == null) {
+            return null;
+        }
+        return components.findCycle(components.getGraph().indexOf(v));
+    }
+
+    /**
+     * Classifies the states that are reachable from a state inside a critical
+     * section without an {@code exit} action. Their edges were generated by
+     * {@link #findLoop} already. As every state reachable from a closed state
+     * is closed, the loops of these states are the cycles of the subgraph of
+     * the states that are not closed yet.
+     *
+     * @param root
+     *            the state.
+     */
+    private void classify(final CriticalState root) {
+        IndexedGraph<CriticalState, CriticalTransition> region = IndexedGraph.of(
+                new Graph<CriticalState, CriticalTransition>() {
+                    @Override
+                    public List<CriticalState> getSources() {
+                        return Collections.singletonList(root);
+                    }
+
+                    @Override
+                    public List<CriticalTransition> getEdges(final CriticalState node) {
+                        return edges(node);
+                    }
+                }, e -> e.getTarget().isInside() && !this.closed.contains(e.getTarget()));
+        StronglyConnectedComponents<CriticalState, CriticalTransition> components =
+                new StronglyConnectedComponents<>(region, this.threads);
+
+        for (int v = 0; v < region.size(); ++v) {
+            CriticalState x = region.getNode(v);
+            if (components.isCyclic(components.getComponent(v))) {
+                this.loops.put(x, components);
+            }
+            this.closed.add(x);
+        }
+    }
+
+    /**
+     * Returns the transitions of the CCS semantics along a path of the
+     * product.
+     *
+     * @param path
+     *            the path.
+     * @return the transitions.
+     */
+    private static List<Transition> transitions(final List<CriticalTransition> path) {
+        List<Transition> transitions = new ArrayList<>(path.size());
+        for (CriticalTransition t : path) {
+            transitions.add(t.getInfo());
+        }
+        return transitions;
+    }
+
+    /**
+     * A breadth-first search tree of the product. The states are numbered in
+     * the order of their discovery; the tree edge of each state is stored as
+     * the number of its start state and its position among the edges of the
+     * start state, and is generated again when a path is needed.
+     */
+    private final class SearchTree {
+
+        /**
+         * The numbers of the states.
+         */
+        private final Map<CriticalState, Integer> numbers = new HashMap<>();
+
+        /**
+         * The states by number.
+         */
+        private final List<CriticalState> states = new ArrayList<>();
+
+        /**
+         * The number of the parent of each state.
+         */
+        private int[] parents = new int[16];
+
+        /**
+         * The position of the tree edge of each state among the edges of its
+         * parent.
+         */
+        private int[] positions = new int[16];
+
+        /**
+         * Returns the number of states.
+         *
+         * @return the number of states.
+         */
+        int size() {
+            return this.states.size();
+        }
+
+        /**
+         * Adds a state unless it was discovered before.
+         *
+         * @param state
+         *            the state.
+         * @param parent
+         *            the number of the parent or {@link #ROOT}.
+         * @param position
+         *            the position of the tree edge among the edges of the
+         *            parent.
+         */
+        void add(final CriticalState state, final int parent, final int position) {
+            int n = this.states.size();
+            if (this.numbers.putIfAbsent(state, n) != null) {
+                return;
+            }
+
+            if (n == this.parents.length) {
+                this.parents = Arrays.copyOf(this.parents, 2 * n);
+                this.positions = Arrays.copyOf(this.positions, 2 * n);
+            }
+            this.states.add(state);
+            this.parents[n] = parent;
+            this.positions[n] = position;
+        }
+
+        /**
+         * Returns the tree edges from the source to a state.
+         *
+         * @param v
+         *            the number of the state.
+         * @return the edges.
+         */
+        List<CriticalTransition> edgesTo(final int v) {
+            List<CriticalTransition> path = new ArrayList<>();
+            for (int x = v; this.parents[x] != ROOT; x = this.parents[x]) {
+                path.add(edges(this.states.get(this.parents[x])).get(this.positions[x]));
+            }
+            Collections.reverse(path);
+            return path;
+        }
+
+        /**
+         * Returns the transitions of the CCS semantics along the tree edges
+         * from the source to a state.
+         *
+         * @param v
+         *            the number of the state.
+         * @return the transitions.
+         */
+        List<Transition> pathTo(final int v) {
+            return transitions(edgesTo(v));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package np2016.CriticalSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.SymmetricSemantics;
+import np2016.CCSSemantics.Transition;
+
+/**
+ * A counterexample of the "critical section" property: a finite path from the
+ * initial state that enters a critical section without leaving it, followed
+ * by either a terminal state or a loop without {@code exit} action.
+ */
+public final class Trace {
+
+    /**
+     * The finite path from the initial state.
+     */
+    private final List<Transition> prefix;
+
+    /**
+     * The loop or {@code null} if the path ends in a terminal state.
+     */
+    private final List<Transition> loop;
+
+    /**
+     * The terminal state or {@code null} if the path ends in a loop.
+     */
+    private final State terminal;
+
+    /**
+     * Constructs a counterexample.
+     *
+     * @param prefix
+     *            the finite path from the initial state.
+     * @param loop
+     *            the loop or {@code null}.
+     * @param terminal
+     *            the terminal state or {@code null}.
+     */
+    private Trace(final List<Transition> prefix, final List<Transition> loop,
+            final State terminal) {
+        assert (loop == null) != (terminal == null);
+
+        this.prefix = Collections.unmodifiableList(new ArrayList<>(prefix));
+        this.loop = loop == null ? null : Collections.unmodifiableList(new ArrayList<>(loop));
+        this.terminal = terminal;
+    }
+
+    /**
+     * Constructs a counterexample that ends in a terminal state.
+     *
+     * @param prefix
+     *            the finite path from the initial state to the terminal state.
+     * @param terminal
+     *            the terminal state.
+     * @return the counterexample.
+     */
+    public static Trace terminal(final List<Transition> prefix, final State terminal) {
+        return new Trace(prefix, null, terminal);
+    }
+
+    /**
+     * Constructs a counterexample that ends in a loop.
+     *
+     * @param prefix
+     *            the finite path from the initial state to the start of the
+     *            loop.
+     * @param loop
+     *            the loop.
+     * @return the counterexample.
+     */
+    public static Trace loop(final List<Transition> prefix, final List<Transition> loop) {
+        assert !loop.isEmpty();
+
+        return new Trace(prefix, loop, null);
+    }
+
+    /**
+     * Returns the finite path from the initial state.
+     *
+     * @return the path.
+     */
+    public List<Transition> getPrefix() {
+        return this.prefix;
+    }
+
+    /**
+     * Returns the loop.
+     *
+     * @return the loop or {@code null} if the path ends in a terminal state.
+     */
+    public List<Transition> getLoop() {
+        return this.loop;
+    }
+
+    /**
+     * Returns the terminal state.
+     *
+     * @return the terminal state or {@code null} if the path ends in a loop.
+     */
+    public State getTerminal() {
+        return this.terminal;
+    }
+
+    /**
+     * Maps a counterexample of the quotient of the CCS semantics to a
+     * counterexample of the full semantics. The loop of the quotient may end
+     * in a permutation of its start, so it is repeated until the states of
+     * the full semantics repeat as well.
+     *
+     * @param semantics
+     *            the quotient this counterexample belongs to.
+     * @param start
+     *            the initial state of the full semantics.
+     * @return the counterexample of the full semantics.
+     */
+    public Trace expand(final SymmetricSemantics semantics, final State start) {
+        List<Transition> prefix = semantics.expand(start, this.prefix);
+        State state = end(start, prefix);
+        if (this.terminal != null) {
+            return terminal(prefix, state);
+        }
+
+        // the states at which the loop was started so far
+        Map<State, Integer> starts = new HashMap<>();
+        List<List<Transition>> loops = new ArrayList<>();
+        while (!starts.containsKey(state)) {
+            starts.put(state, loops.size());
+            List<Transition> loop = semantics.expand(state, this.loop);
+            loops.add(loop);
+            state = end(state, loop);
+        }
+
+        List<Transition> loop = new ArrayList<>();
+        for (int i = 0; i < loops.size(); ++i) {
+            (i < starts.get(state) ? prefix : loop).addAll(loops.get(i));
+        }
+        return loop(prefix, loop);
+    }
+
+    /**
+     * Returns the last state of a path.
+     *
+     * @param start
+     *            the start of the path.
+     * @param path
+     *            the path.
+     * @return the last state.
+     */
+    private static State end(final State start, final List<Transition> path) {
+        return path.isEmpty() ? start : path.get(path.size() - 1).getTarget();
+    }
+
+    /**
+     * Formats the counterexample as specified by assignment 2, e.g.
+     * {@code (enter.0,enter).(0)} or {@code (enter.X,enter).(X,a)}.
+     *
+     * @return the formatted counterexample.
+     */
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        appendPairs(b, this.prefix);
+        b.append('.');
+        if (this.terminal != null) {
+            b.append(String.format("(%s)", this.terminal.getInfo().toString()));
+        } else {
+            appendPairs(b, this.loop);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Appends the pairs of states and actions of the given transitions.
+     *
+     * @param b
+     *            the string builder.
+     * @param transitions
+     *            the transitions.
+     */
+    private static void appendPairs(final StringBuilder b, final List<Transition> transitions) {
+        for (Transition t : transitions) {
+            b.append(String.format("(%s,%s)", t.getStart().getInfo().toString(),
+                    t.getInfo().toString()));
+        }
+    }
+}
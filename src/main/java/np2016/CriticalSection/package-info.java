@@ -0,0 +1,14 @@
+/**
+ * Contains the "critical section" analysis (assignment 2). The property
+ * "every critical section that was entered with an {@code enter} action is
+ * also left with an {@code exit} action" is checked on the fly while the CCS
+ * semantics is explored: the explored graph is the product of the CCS
+ * semantics with a flag that tells whether a critical section was entered and
+ * not left yet. A violation is a reachable product state with this flag set
+ * that is terminal or lies on a loop of such states.
+ * <p>
+ * Alternatively, {@link np2016.CriticalSection.NestedCriticalSectionChecker}
+ * checks the property with the multi-core
+ * {@link np2016.GraphSearch.NestedDepthFirstSearch}.
+ */
+package np2016.CriticalSection;
@@ -0,0 +1,143 @@
+package np2016.Deadlock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.CriticalSection.Trace;
+import np2016.Graph.Graph;
+import np2016.GraphSearch.BFSGraphVisitor;
+
+/**
+ * Detects deadlocks, i.e. reachable states without outgoing transitions,
+ * while the CCS semantics is searched. The visitor may be used by the
+ * sequential as well as the concurrent graph search.
+ * <p>
+ * Only the edge that discovered each state is recorded, which is enough to
+ * construct a trace from the start state to every deadlock. Unless all
+ * deadlocks are requested the search is stopped at the first one (see
+ * {@link #isDone}).
+ */
+public final class DeadlockDetector implements BFSGraphVisitor<State, Transition> {
+
+    /**
+     * Whether the search continues after the first deadlock.
+     */
+    private final boolean all;
+
+    /**
+     * The start state of the search.
+     */
+    private volatile State start;
+
+    /**
+     * The tree edge that discovered each state.
+     */
+    private final Map<State, Transition> parents = new ConcurrentHashMap<>();
+
+    /**
+     * The deadlocks found.
+     */
+    private final Queue<State> deadlocks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a deadlock detector.
+     *
+     * @param all
+     *            true to find all deadlocks, false to stop at the first one.
+     */
+    public DeadlockDetector(final boolean all) {
+        this.all = all;
+    }
+
+    /**
+     * Returns whether a deadlock was found.
+     *
+     * @return true if a deadlock was found.
+     */
+    public boolean isDeadlocked() {
+        return !this.deadlocks.isEmpty();
+    }
+
+    /**
+     * Returns traces from the start state to the deadlocks found. Must be
+     * called after the search finished.
+     *
+     * @return the traces (ordered by their textual representation, empty if
+     *         no deadlock was found, only the first one unless all deadlocks
+     *         are requested).
+     */
+    public List<Trace> getTraces() {
+        List<Trace> traces = new ArrayList<>();
+        for (State s : this.deadlocks) {
+            traces.add(Trace.terminal(pathTo(s), s));
+            if (!this.all) {
+                // other workers may have found deadlocks before they stopped
+                break;
+            }
+        }
+        traces.sort((a, b) -> a.toString().compareTo(b.toString()));
+        return traces;
+    }
+
+    @Override
+    public boolean isDone() {
+        return !this.all && isDeadlocked();
+    }
+
+    @Override
+    public void startVertex(final Graph<State, Transition> graph, final State vertex) {
+        this.start = vertex;
+    }
+
+    @Override
+    public void discoverVertex(final Graph<State, Transition> graph, final State vertex) {
+        // Do nothing.
+    }
+
+    @Override
+    public void finishVertex(final Graph<State, Transition> graph, final State vertex) {
+        // Do nothing.
+    }
+
+    @Override
+    public void terminalVertex(final Graph<State, Transition> graph, final State vertex) {
+        this.deadlocks.add(vertex);
+    }
+
+    @Override
+    public void treeEdge(final Graph<State, Transition> graph, final Transition edge) {
+        this.parents.put(edge.getTarget(), edge);
+    }
+
+    @Override
+    public void nonTreeEdge(final Graph<State, Transition> graph, final Transition edge) {
+        // Do nothing.
+    }
+
+    /**
+     * Returns the path from the start state to the given state along the tree
+     * edges.
+     *
+     * @param state
+     *            the state.
+     * @return the path.
+     */
+    private List<Transition> pathTo(final State state) {
+        List<Transition> path = new ArrayList<>();
+        State x = state;
+        while (!x.equals(this.start)) {
+            Transition parent = this.parents.get(x);
+            path.add(parent);
+            x = parent.getStart();
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains the deadlock detection: a search of the CCS semantics for
+ * reachable states without outgoing transitions that records only the search
+ * tree, so the LTS is not constructed.
+ */
+package np2016.Deadlock;
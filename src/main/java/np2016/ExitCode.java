@@ -0,0 +1,98 @@
+package np2016;
+
+/**
+ * Possible exit codes.
+ */
+enum ExitCode {
+	/**
+	 * Program completed its execution without errors.
+	 */
+	SUCCESS(0, "Program execution finished without errors."),
+
+	/**
+	 * An error occurred while parsing the command line arguments.
+	 */
+	ARGUMENT_ERROR(1, "The given command line arguments were erroneous."),
+
+	/**
+	 * The exploration of at least one input file was aborted by an error.
+	 */
+	EXPLORATION_ERROR(2, "The exploration of an input file failed."),
+
+	/**
+	 * The input files could not be watched for changes.
+	 */
+	WATCH_ERROR(3, "The input files could not be watched."),
+
+	/**
+	 * The server could not be started or the connection to the server failed.
+	 */
+	SERVER_ERROR(4, "The server could not be started or reached.");
+
+	/**
+	 * Stores the exit code.
+	 */
+	private final int code;
+
+	/**
+	 * Stores a short description for the exit code.
+	 */
+	private final String description;
+
+	/**
+	 * Constructs an exit code.
+	 *
+	 * @param code
+	 *            the exit code.
+	 * @param description
+	 *            exit code description.
+	 */
+	ExitCode(final int code, final String description) {
+		this.code = code;
+		this.description = description;
+	}
+
+	/**
+	 * Returns the exit code.
+	 *
+	 * @return the exit code.
+	 */
+	public int getCode() {
+		return this.code;
+	}
+
+	/**
+	 * Returns the exit code description.
+	 *
+	 * @return the exit code description.
+	 */
+	public String getDescription() {
+		return this.description;
+	}
+
+	/**
+	 * Returns the exit code with the given numerical value.
+	 *
+	 * @param code
+	 *            the numerical value.
+	 * @return the exit code or {@code null} if there is no such exit code.
+	 */
+	public static ExitCode forCode(final int code) {
+		for (ExitCode e : values()) {
+			if (e.code == code) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the exit code together with its description text.
+	 *
+	 * @return the exit code together with its description text.
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d:\t%s", this.code, this.description);
+	}
+}
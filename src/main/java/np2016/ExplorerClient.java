@@ -0,0 +1,107 @@
+package np2016;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Implements the {@code --connect} functionality. Sends the command line
+ * arguments and the contents of the input files to the server (see
+ * {@link ExplorerServer}) and replays its output. The output and exit code are
+ * the same as if the job had been executed locally.
+ */
+final class ExplorerClient {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private ExplorerClient() {
+    }
+
+    /**
+     * Lets the server execute a job.
+     *
+     * @param port
+     *            the port the server listens on.
+     * @param args
+     *            the command line arguments of the job. The server ignores
+     *            {@link Options#CONNECT}.
+     * @return the exit code of the job.
+     */
+    static ExitCode run(final int port, final String[] args) {
+        JsonObject request = new JsonObject();
+        JsonArray argArray = new JsonArray();
+        for (String arg : args) {
+            argArray.add(arg);
+        }
+        request.add(ExplorerServer.ARGS, argArray);
+
+        JsonObject files = new JsonObject();
+        for (String fileName : Options.getFileNames()) {
+            try {
+                byte[] content = Files.readAllBytes(Paths.get(fileName));
+                files.addProperty(fileName, new String(content, Charset.defaultCharset()));
+            } catch (IOException e) {
+                // the server reports the missing file
+                continue;
+            }
+        }
+        request.add(ExplorerServer.FILES, files);
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8);
+            writer.write(request.toString());
+            writer.write('\n');
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonObject message = new JsonParser().parse(line).getAsJsonObject();
+
+                if (message.has(ExplorerServer.OUT)) {
+                    byte[] b = Base64.getDecoder().decode(
+                            message.get(ExplorerServer.OUT).getAsString());
+                    System.out.write(b, 0, b.length);
+                    System.out.flush();
+                } else if (message.has(ExplorerServer.ERR)) {
+                    byte[] b = Base64.getDecoder().decode(
+                            message.get(ExplorerServer.ERR).getAsString());
+                    System.err.write(b, 0, b.length);
+                    System.err.flush();
+                } else if (message.has(ExplorerServer.EXIT)) {
+                    ExitCode exitCode = ExitCode.forCode(
+                            message.get(ExplorerServer.EXIT).getAsInt());
+                    return exitCode == null ? ExitCode.SERVER_ERROR : exitCode;
+                }
+            }
+
+            System.err.println("The server closed the connection unexpectedly!");
+            return ExitCode.SERVER_ERROR;
+        } catch (IOException e) {
+            System.err.println(String.format(
+                    "The server on port %d cannot be reached (%s)!",
+                    port, e.getMessage()));
+            return ExitCode.SERVER_ERROR;
+        } catch (JsonParseException | IllegalStateException | IllegalArgumentException e) {
+            System.err.println("Received an erroneous response!");
+            return ExitCode.SERVER_ERROR;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package np2016;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Implements the {@code --server} functionality. The server listens on a TCP
+ * port of the loopback interface and executes the jobs sent by clients (see
+ * {@link ExplorerClient}) in its warm JVM. Jobs are executed by a fixed pool
+ * of threads, so several jobs may run at the same time; every job uses its own
+ * option values (see {@link Options#setConfiguration}).
+ * <p>
+ * The protocol is line based, every line is a JSON object:
+ * <ul>
+ * <li>The client sends one request with the command line arguments
+ * ({@code "args"}, an array of strings) and the contents of the input files
+ * ({@code "files"}, an object mapping file names to contents).</li>
+ * <li>The server streams the output of the job back as it is written. Every
+ * message contains either {@code "out"} or {@code "err"}, the Base64 encoded
+ * bytes written to standard output or standard error, respectively.</li>
+ * <li>The last message contains the exit code of the job ({@code "exit"}).</li>
+ * </ul>
+ * Paths given in options (e.g. {@link Options#CACHE}) are interpreted by the
+ * server, i.e. relative to its working directory.
+ */
+final class ExplorerServer {
+
+    /**
+     * Request member containing the command line arguments.
+     */
+    static final String ARGS = "args";
+
+    /**
+     * Request member containing the contents of the input files.
+     */
+    static final String FILES = "files";
+
+    /**
+     * Message member containing bytes written to standard output.
+     */
+    static final String OUT = "out";
+
+    /**
+     * Message member containing bytes written to standard error.
+     */
+    static final String ERR = "err";
+
+    /**
+     * Message member containing the exit code.
+     */
+    static final String EXIT = "exit";
+
+    /**
+     * Maximal number of pending connections.
+     */
+    private static final int BACKLOG = 50;
+
+    /**
+     * The port the server listens on.
+     */
+    private final int port;
+
+    /**
+     * The number of jobs that are executed at the same time.
+     */
+    private final int jobs;
+
+    /**
+     * Constructs a server.
+     *
+     * @param port
+     *            the port the server listens on.
+     * @param jobs
+     *            the number of jobs that are executed at the same time.
+     */
+    ExplorerServer(final int port, final int jobs) {
+        this.port = port;
+        this.jobs = jobs;
+    }
+
+    /**
+     * Runs the server. Only returns if the server cannot listen on its port.
+     */
+    void run() {
+        PrintStream log = System.err;
+        RedirectableOutputStream out = new RedirectableOutputStream(System.out);
+        RedirectableOutputStream err = new RedirectableOutputStream(System.err);
+        ExecutorService pool = Executors.newFixedThreadPool(this.jobs);
+
+        try (ServerSocket server = new ServerSocket(this.port, BACKLOG,
+                InetAddress.getLoopbackAddress())) {
+            System.setOut(new PrintStream(out, true));
+            System.setErr(new PrintStream(err, true));
+            log.println(String.format("Listening on port %d.", this.port));
+
+            for (;;) {
+                Socket socket = server.accept();
+                pool.execute(() -> handle(socket, out, err, log));
+            }
+        } catch (IOException e) {
+            log.println(String.format("The server cannot listen on port %d (%s)!",
+                    this.port, e.getMessage()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Reads a job from a connection, executes it and sends back its output.
+     *
+     * @param socket
+     *            the connection to the client.
+     * @param out
+     *            the standard output of the program.
+     * @param err
+     *            the standard error of the program.
+     * @param log
+     *            stream for messages of the server itself.
+     */
+    private static void handle(final Socket socket,
+            final RedirectableOutputStream out,
+            final RedirectableOutputStream err, final PrintStream log) {
+        try (Socket s = socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    s.getInputStream(), StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+
+            JsonObject request = new JsonParser().parse(line).getAsJsonObject();
+            JsonArray argArray = request.getAsJsonArray(ARGS);
+            String[] args = new String[argArray.size()];
+            for (int i = 0; i < args.length; ++i) {
+                args[i] = argArray.get(i).getAsString();
+            }
+            Map<String, String> sources = new HashMap<>();
+            for (Map.Entry<String, JsonElement> file :
+                    request.getAsJsonObject(FILES).entrySet()) {
+                sources.put(file.getKey(), file.getValue().getAsString());
+            }
+
+            Connection connection = new Connection(s.getOutputStream());
+            ExitCode exitCode = execute(args, sources, connection, out, err);
+
+            JsonObject message = new JsonObject();
+            message.addProperty(EXIT, exitCode.getCode());
+            connection.send(message);
+        } catch (IOException | JsonParseException | IllegalStateException |
+                ClassCastException | NullPointerException e) {
+            log.println(String.format("A job could not be executed (%s)!", e));
+        }
+    }
+
+    /**
+     * Executes a job with its own options and output streams.
+     *
+     * @param args
+     *            the command line arguments of the job.
+     * @param sources
+     *            the contents of the input files by file name.
+     * @param connection
+     *            the connection to the client.
+     * @param out
+     *            the standard output of the program.
+     * @param err
+     *            the standard error of the program.
+     * @return the exit code of the job.
+     */
+    private static ExitCode execute(final String[] args,
+            final Map<String, String> sources, final Connection connection,
+            final RedirectableOutputStream out,
+            final RedirectableOutputStream err) {
+        out.redirect(new BufferedOutputStream(new MessageStream(connection, OUT)));
+        err.redirect(new BufferedOutputStream(new MessageStream(connection, ERR)));
+        Options.setConfiguration(new Options.Configuration());
+
+        try {
+            return CCSExplorer.run(args, sources);
+        } catch (RuntimeException | Error e) {
+            e.printStackTrace();
+            return ExitCode.EXPLORATION_ERROR;
+        } finally {
+            System.out.flush();
+            System.err.flush();
+            Options.setConfiguration(null);
+            out.redirect(null);
+            err.redirect(null);
+        }
+    }
+
+    /**
+     * The connection to a client. Messages may be sent by several threads.
+     */
+    private static final class Connection {
+        /**
+         * Writer for the messages.
+         */
+        private final Writer writer;
+
+        /**
+         * Constructs a connection.
+         *
+         * @param stream
+         *            the output stream of the socket.
+         */
+        private Connection(final OutputStream stream) {
+            this.writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Sends a message.
+         *
+         * @param message
+         *            the message.
+         * @throws IOException
+         *             if the client cannot be reached.
+         */
+        private synchronized void send(final JsonObject message)
+                throws IOException {
+            this.writer.write(message.toString());
+            this.writer.write('\n');
+            this.writer.flush();
+        }
+    }
+
+    /**
+     * Output stream that sends all written bytes as messages to a client.
+     */
+    private static final class MessageStream extends OutputStream {
+        /**
+         * The connection to the client.
+         */
+        private final Connection connection;
+
+        /**
+         * The message member containing the bytes.
+         */
+        private final String member;
+
+        /**
+         * Constructs a message stream.
+         *
+         * @param connection
+         *            the connection to the client.
+         * @param member
+         *            the message member containing the bytes.
+         */
+        private MessageStream(final Connection connection, final String member) {
+            this.connection = connection;
+            this.member = member;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            JsonObject message = new JsonObject();
+            message.addProperty(this.member, Base64.getEncoder()
+                    .encodeToString(Arrays.copyOfRange(b, off, off + len)));
+            this.connection.send(message);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package np2016.Generator;
+
+/**
+ * Families of scalable CCS models. Every family generates a CCS program from a
+ * few integer parameters and knows the number of reachable states of the
+ * generated program (i.e. the number of states of its LTS).
+ */
+public enum ModelFamily {
+    /**
+     * A bridge like the one of {@code test.ccs}: persons on both sides cross a
+     * bridge that may only be used in one direction at a time and by at most
+     * {@code capacity} persons.
+     * <p>
+     * Every person is off the bridge or in one of two positions on it. With
+     * {@code g = sum_{k=0}^{min(persons, capacity)} binom(persons, k) 2^k}
+     * configurations for one side, the program has {@code 2g - 1} states (the
+     * configuration with an empty bridge is shared by both sides).
+     */
+    BRIDGE("bridge", new String[] {"persons", "capacity"}, new int[] {1, 1}) {
+        @Override
+        String program(final int[] p) {
+            int persons = p[0];
+            int capacity = p[1];
+            StringBuilder b = new StringBuilder();
+
+            b.append("Bridge := enterL?.BridgeL1 + enterR?.BridgeR1\n");
+            for (String side : new String[] {"R", "L"}) {
+                for (int k = 1; k <= capacity; ++k) {
+                    String lower = k == 1 ? "Bridge" : "Bridge" + side + (k - 1);
+                    b.append("Bridge").append(side).append(k).append(" := leave")
+                            .append(side).append("?.").append(lower);
+                    if (k < capacity) {
+                        b.append(" + enter").append(side).append("?.Bridge")
+                                .append(side).append(k + 1);
+                    }
+                    b.append('\n');
+                }
+                b.append("Person").append(side).append(" := enter").append(side)
+                        .append("!.cross").append(side).append(".leave").append(side)
+                        .append("!.Person").append(side).append('\n');
+            }
+
+            b.append('(');
+            for (String side : new String[] {"R", "L"}) {
+                for (int i = 0; i < persons; ++i) {
+                    b.append("Person").append(side).append(" | ");
+                }
+            }
+            b.append("Bridge) \\ {enterL, enterR, leaveL, leaveR}\n");
+            return b.toString();
+        }
+
+        @Override
+        long states(final int[] p) {
+            long side = 0;
+            long binomial = 1;
+            long power = 1;
+            for (int k = 0; k <= Math.min(p[0], p[1]); ++k) {
+                side += binomial * power;
+                binomial = binomial * (p[0] - k) / (k + 1);
+                power *= 2;
+            }
+            return 2 * side - 1;
+        }
+
+        @Override
+        int[] scaled(final int n) {
+            return new int[] {n, n};
+        }
+    },
+
+    /**
+     * Dining philosophers. Philosopher {@code i} thinks, takes fork {@code i}
+     * and fork {@code i + 1}, eats and puts both forks back. The program
+     * deadlocks if all philosophers hold their first fork.
+     * <p>
+     * A philosopher has six local states. The reachable configurations are
+     * all cyclic sequences of local states in which no fork is held by both
+     * of its neighbours, except the one in which every philosopher holds only
+     * its second fork (every philosopher would have needed that fork before
+     * its neighbour). The former are counted with the trace of the {@code n}th
+     * power of the compatibility matrix of neighbouring local states.
+     */
+    PHILOSOPHERS("philosophers", new String[] {"philosophers"}, new int[] {2}) {
+        @Override
+        String program(final int[] p) {
+            int n = p[0];
+            StringBuilder b = new StringBuilder();
+
+            for (int i = 1; i <= n; ++i) {
+                int j = i % n + 1;
+                b.append("Fork").append(i).append(" := take").append(i)
+                        .append("?.put").append(i).append("?.Fork").append(i).append('\n');
+                b.append("Phil").append(i).append(" := think.take").append(i)
+                        .append("!.take").append(j).append("!.eat.put").append(i)
+                        .append("!.put").append(j).append("!.Phil").append(i).append('\n');
+            }
+
+            b.append('(');
+            for (int i = 1; i <= n; ++i) {
+                b.append("Phil").append(i).append(" | ");
+            }
+            for (int i = 1; i <= n; ++i) {
+                b.append("Fork").append(i).append(i < n ? " | " : "");
+            }
+            b.append(") \\ {");
+            for (int i = 1; i <= n; ++i) {
+                b.append("take").append(i).append(", put").append(i)
+                        .append(i < n ? ", " : "");
+            }
+            b.append("}\n");
+            return b.toString();
+        }
+
+        @Override
+        long states(final int[] p) {
+            // local states: 0 thinking, 1 hungry, 2 has first fork, 3 has both
+            // forks, 4 has eaten, 5 has put the first fork back
+            final int local = 6;
+            long[][] compatible = new long[local][local];
+            for (int left = 0; left < local; ++left) {
+                for (int right = 0; right < local; ++right) {
+                    boolean leftHoldsSecond = left >= 3;
+                    boolean rightHoldsFirst = right >= 2 && right <= 4;
+                    compatible[left][right] = leftHoldsSecond && rightHoldsFirst ? 0 : 1;
+                }
+            }
+
+            long[][] power = new long[local][local];
+            for (int i = 0; i < local; ++i) {
+                power[i][i] = 1;
+            }
+            for (int k = 0; k < p[0]; ++k) {
+                long[][] next = new long[local][local];
+                for (int i = 0; i < local; ++i) {
+                    for (int j = 0; j < local; ++j) {
+                        for (int l = 0; l < local; ++l) {
+                            next[i][j] += power[i][l] * compatible[l][j];
+                        }
+                    }
+                }
+                power = next;
+            }
+
+            long trace = 0;
+            for (int i = 0; i < local; ++i) {
+                trace += power[i][i];
+            }
+            return trace - 1;
+        }
+
+        @Override
+        int[] scaled(final int n) {
+            return new int[] {n + 1};
+        }
+    },
+
+    /**
+     * A token ring. Station {@code i} waits for the token, enters and exits
+     * its critical section and passes the token on. Independently of the
+     * token every station alternates between working and resting.
+     * <p>
+     * The token is at one of the {@code n} stations in one of three positions
+     * and every station works or rests, so the program has
+     * {@code 3n * 2^n} states.
+     */
+    TOKEN_RING("token-ring", new String[] {"stations"}, new int[] {2}) {
+        @Override
+        String program(final int[] p) {
+            int n = p[0];
+            StringBuilder b = new StringBuilder();
+
+            for (int i = 1; i <= n; ++i) {
+                int j = i % n + 1;
+                b.append("Station").append(i).append(" := token").append(i)
+                        .append("?.enter.exit.token").append(j).append("!.Station")
+                        .append(i).append('\n');
+                b.append("Work").append(i).append(" := work").append(i)
+                        .append(".Rest").append(i).append('\n');
+                b.append("Rest").append(i).append(" := rest").append(i)
+                        .append(".Work").append(i).append('\n');
+            }
+
+            b.append("(enter.exit.token").append(1 % n + 1).append("!.Station1");
+            for (int i = 2; i <= n; ++i) {
+                b.append(" | Station").append(i);
+            }
+            for (int i = 1; i <= n; ++i) {
+                b.append(" | Work").append(i);
+            }
+            b.append(") \\ {");
+            for (int i = 1; i <= n; ++i) {
+                b.append("token").append(i).append(i < n ? ", " : "");
+            }
+            b.append("}\n");
+            return b.toString();
+        }
+
+        @Override
+        long states(final int[] p) {
+            return 3L * p[0] << p[0];
+        }
+
+        @Override
+        int[] scaled(final int n) {
+            return new int[] {n + 1};
+        }
+    },
+
+    /**
+     * Producers and consumers that communicate over a buffer of the given
+     * capacity.
+     * <p>
+     * The buffer holds between {@code 0} and {@code capacity} items and every
+     * producer and consumer is in one of two local states, so the program
+     * has {@code (capacity + 1) * 2^(producers + consumers)} states.
+     */
+    BUFFER("buffer", new String[] {"capacity", "producers", "consumers"},
+            new int[] {1, 1, 1}) {
+        @Override
+        String program(final int[] p) {
+            int capacity = p[0];
+            StringBuilder b = new StringBuilder();
+
+            b.append("Producer := produce.put!.Producer\n");
+            b.append("Consumer := get?.consume.Consumer\n");
+            for (int k = 0; k <= capacity; ++k) {
+                b.append("Buffer").append(k).append(" := ");
+                if (k < capacity) {
+                    b.append("put?.Buffer").append(k + 1);
+                }
+                if (k > 0) {
+                    b.append(k < capacity ? " + " : "")
+                            .append("get!.Buffer").append(k - 1);
+                }
+                b.append('\n');
+            }
+
+            b.append('(');
+            for (int i = 0; i < p[1]; ++i) {
+                b.append("Producer | ");
+            }
+            for (int i = 0; i < p[2]; ++i) {
+                b.append("Consumer | ");
+            }
+            b.append("Buffer0) \\ {put, get}\n");
+            return b.toString();
+        }
+
+        @Override
+        long states(final int[] p) {
+            return (p[0] + 1L) << (p[1] + p[2]);
+        }
+
+        @Override
+        int[] scaled(final int n) {
+            return new int[] {n, n, n};
+        }
+    },
+
+    /**
+     * Independent copies of a deep prefix chain {@code a.a.(...).a.0}.
+     * <p>
+     * Every copy is at one of {@code length + 1} positions, so the program
+     * has {@code (length + 1)^copies} states.
+     */
+    CHAIN("chain", new String[] {"length", "copies"}, new int[] {0, 1}) {
+        @Override
+        String program(final int[] p) {
+            StringBuilder chain = new StringBuilder();
+            for (int i = 0; i < p[0]; ++i) {
+                chain.append("a.");
+            }
+            chain.append('0');
+
+            StringBuilder b = new StringBuilder();
+            for (int i = 0; i < p[1]; ++i) {
+                b.append(i > 0 ? " | " : "").append(chain);
+            }
+            return b.append('\n').toString();
+        }
+
+        @Override
+        long states(final int[] p) {
+            long states = 1;
+            for (int i = 0; i < p[1]; ++i) {
+                states *= p[0] + 1;
+            }
+            return states;
+        }
+
+        @Override
+        int[] scaled(final int n) {
+            return new int[] {n, 2};
+        }
+    };
+
+    /**
+     * The name of the family.
+     */
+    private final String name;
+
+    /**
+     * The names of the parameters.
+     */
+    private final String[] parameters;
+
+    /**
+     * The minimal values of the parameters.
+     */
+    private final int[] minimum;
+
+    /**
+     * Constructs a family.
+     *
+     * @param name
+     *            the name of the family.
+     * @param parameters
+     *            the names of the parameters.
+     * @param minimum
+     *            the minimal values of the parameters.
+     */
+    ModelFamily(final String name, final String[] parameters, final int[] minimum) {
+        this.name = name;
+        this.parameters = parameters;
+        this.minimum = minimum;
+    }
+
+    /**
+     * Returns the name of the family.
+     *
+     * @return the name of the family.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the names of the parameters.
+     *
+     * @return the names of the parameters.
+     */
+    public String[] getParameters() {
+        return this.parameters.clone();
+    }
+
+    /**
+     * Returns the family with the given name.
+     *
+     * @param name
+     *            the name of the family.
+     * @return the family or {@code null} if there is no such family.
+     */
+    public static ModelFamily forName(final String name) {
+        for (ModelFamily f : values()) {
+            if (f.name.equals(name)) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generates a CCS program of this family.
+     *
+     * @param parameters
+     *            the values of the parameters.
+     * @return the source of the CCS program.
+     * @throws IllegalArgumentException
+     *             if the number of parameters is wrong or a parameter is too
+     *             small.
+     */
+    public String generate(final int... parameters) {
+        check(parameters);
+        return program(parameters);
+    }
+
+    /**
+     * Returns the number of reachable states of the generated CCS program.
+     *
+     * @param parameters
+     *            the values of the parameters.
+     * @return the number of states.
+     * @throws IllegalArgumentException
+     *             if the number of parameters is wrong or a parameter is too
+     *             small.
+     */
+    public long getNumberOfStates(final int... parameters) {
+        check(parameters);
+        return states(parameters);
+    }
+
+    /**
+     * Chooses parameters such that the generated program has at least the
+     * given number of states. The family is scaled along a single dimension
+     * and the smallest such program is chosen.
+     *
+     * @param states
+     *            the minimal number of states.
+     * @return the values of the parameters.
+     */
+    public int[] getParametersForSize(final long states) {
+        int n = 1;
+        while (states(scaled(n)) < states) {
+            ++n;
+        }
+        return scaled(n);
+    }
+
+    /**
+     * Checks the values of the parameters.
+     *
+     * @param parameters
+     *            the values of the parameters.
+     * @throws IllegalArgumentException
+     *             if the number of parameters is wrong or a parameter is too
+     *             small.
+     */
+    private void check(final int[] parameters) {
+        if (parameters.length != this.parameters.length) {
+            throw new IllegalArgumentException(String.format(
+                    "%s expects %d parameters", this.name, this.parameters.length));
+        }
+        for (int i = 0; i < parameters.length; ++i) {
+            if (parameters[i] < this.minimum[i]) {
+                throw new IllegalArgumentException(String.format(
+                        "%s must be at least %d", this.parameters[i], this.minimum[i]));
+            }
+        }
+    }
+
+    /**
+     * Generates a CCS program of this family from valid parameters.
+     *
+     * @param parameters
+     *            the values of the parameters.
+     * @return the source of the CCS program.
+     */
+    abstract String program(int[] parameters);
+
+    /**
+     * Computes the number of states for valid parameters.
+     *
+     * @param parameters
+     *            the values of the parameters.
+     * @return the number of states.
+     */
+    abstract long states(int[] parameters);
+
+    /**
+     * Returns the parameters of the {@code n}th program of this family along
+     * the dimension the family is scaled in. The number of states grows with
+     * {@code n}.
+     *
+     * @param n
+     *            a positive number.
+     * @return the values of the parameters.
+     */
+    abstract int[] scaled(int n);
+}
@@ -0,0 +1,85 @@
+package np2016.Generator;
+
+/**
+ * Command line front end of the model families. Prints a generated CCS
+ * program on standard output and its number of states on standard error.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * java -cp &lt;path to jar&gt; np2016.Generator.ModelGenerator &lt;family&gt; &lt;parameter&gt;...
+ * java -cp &lt;path to jar&gt; np2016.Generator.ModelGenerator &lt;family&gt; --states &lt;number&gt;
+ * java -cp &lt;path to jar&gt; np2016.Generator.ModelGenerator --list
+ * </pre>
+ *
+ * With {@code --states} the smallest program of the family with at least the
+ * given number of states is generated.
+ */
+public final class ModelGenerator {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private ModelGenerator() {
+    }
+
+    /**
+     * Generates a CCS program.
+     *
+     * @param args
+     *            command line arguments (see above).
+     */
+    public static void main(final String[] args) {
+        if (args.length == 0 || "--list".equals(args[0])) {
+            printFamilies();
+            System.exit(args.length == 0 ? 1 : 0);
+        }
+
+        ModelFamily family = ModelFamily.forName(args[0]);
+        if (family == null) {
+            System.err.println(String.format("Unknown model family (%s)!", args[0]));
+            printFamilies();
+            System.exit(1);
+        }
+
+        try {
+            int[] parameters;
+            if (args.length == 3 && "--states".equals(args[1])) {
+                parameters = family.getParametersForSize(Long.parseLong(args[2]));
+            } else {
+                parameters = new int[args.length - 1];
+                for (int i = 1; i < args.length; ++i) {
+                    parameters[i - 1] = Integer.parseInt(args[i]);
+                }
+            }
+
+            System.out.print(family.generate(parameters));
+
+            StringBuilder b = new StringBuilder(family.getName());
+            String[] names = family.getParameters();
+            for (int i = 0; i < names.length; ++i) {
+                b.append(' ').append(names[i]).append('=').append(parameters[i]);
+            }
+            System.err.println(String.format("%s: %d states", b,
+                    family.getNumberOfStates(parameters)));
+        } catch (NumberFormatException e) {
+            System.err.println(String.format("\"%s\" is not a valid number!",
+                    e.getMessage()));
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(String.format("Invalid parameters (%s)!", e.getMessage()));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints the available families and their parameters.
+     */
+    private static void printFamilies() {
+        System.err.println("Model families:");
+        for (ModelFamily f : ModelFamily.values()) {
+            System.err.println(String.format("    %s %s", f.getName(),
+                    String.join(" ", f.getParameters())));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains a generator for scalable families of CCS models whose number of
+ * reachable states is known in advance. The models feed benchmarks and
+ * correctness checks of the exploration.
+ */
+package np2016.Generator;
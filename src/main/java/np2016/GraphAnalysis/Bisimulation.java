@@ -0,0 +1,674 @@
+package np2016.GraphAnalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import np2016.Graph.Edge;
+import np2016.Graph.Graph;
+import np2016.Graph.Node;
+
+/**
+ * The coarsest bisimulation of an {@link IndexedGraph} whose edges are
+ * labeled with actions. It is computed by parallel partition refinement with
+ * signatures:
+ * <ol>
+ * <li>Initially all nodes are in one block.</li>
+ * <li>The signature of a node is its block together with the set of pairs of
+ * an (interned) label and a block it can reach with that label (see
+ * {@link Equivalence}). The signatures of all nodes are computed in
+ * parallel.</li>
+ * <li>Nodes with equal signatures form the blocks of the next partition. The
+ * refinement stops when the number of blocks does not change any more.</li>
+ * </ol>
+ * For weak and branching bisimulation the strongly connected components of
+ * the internal edges are collapsed first (in parallel, see
+ * {@link StronglyConnectedComponents}), as their nodes are always equivalent.
+ * The remaining internal edges form an acyclic graph, so the signatures can
+ * be computed from the signatures of the internal successors, level by level
+ * from the nodes without internal edges, instead of saturating the graph with
+ * the transitive closure of the internal edges.
+ * <p>
+ * Blocks are numbered in the order of their first node, so the result does
+ * not depend on the number of threads.
+ *
+ * @param <N>
+ *            the node type of the graph.
+ * @param <E>
+ *            the edge type of the graph.
+ */
+public final class Bisimulation<N extends Node<?>, E extends Edge<N, ?>> {
+
+    /**
+     * The equivalences that can be computed.
+     */
+    public enum Equivalence {
+        /**
+         * Strong bisimilarity: the signature of a node consists of the pairs
+         * {@code (a, B)} of its edges {@code v -a-> w} with {@code w} in
+         * {@code B}.
+         */
+        STRONG,
+
+        /**
+         * Weak bisimilarity: internal edges are not observable. The
+         * signature of a node consists of the pairs {@code (a, B)} with
+         * {@code v -i*-> -a-> -i*-> w} and {@code w} in {@code B} and the
+         * pairs {@code (i, B)} with {@code v -i*-> w} and {@code w} in
+         * {@code B}.
+         */
+        WEAK,
+
+        /**
+         * Branching bisimilarity: like weak bisimilarity, but the internal
+         * edges before an action must stay in the block of the node, and
+         * internal edges inside the block are not observable.
+         */
+        BRANCHING
+    }
+
+    /**
+     * The label of all internal edges.
+     */
+    private static final int INTERNAL = 0;
+
+    /**
+     * The equivalence.
+     */
+    private final Equivalence equivalence;
+
+    /**
+     * The node of the collapsed graph each node belongs to.
+     */
+    private final int[] collapsed;
+
+    /**
+     * The edges of collapsed node {@code x} are stored at the positions
+     * {@code offsets[x]} to {@code offsets[x + 1] - 1}.
+     */
+    private int[] offsets;
+
+    /**
+     * The target of each edge of the collapsed graph.
+     */
+    private int[] targets;
+
+    /**
+     * The interned label of each edge of the collapsed graph
+     * ({@link #INTERNAL} for internal edges).
+     */
+    private int[] labels;
+
+    /**
+     * The collapsed nodes grouped by the length of their longest path of
+     * internal edges, shortest first.
+     */
+    private int[][] levels;
+
+    /**
+     * The block of each collapsed node.
+     */
+    private int[] block;
+
+    /**
+     * The blocks that each collapsed node reaches by internal edges (only
+     * used during the refinement for weak bisimilarity).
+     */
+    private int[][] reachable;
+
+    /**
+     * The (label, block) pairs of each collapsed node (only used during the
+     * refinement).
+     */
+    private long[][] pairs;
+
+    /**
+     * The first node of each block.
+     */
+    private int[] representatives;
+
+    /**
+     * Computes the coarsest strong bisimulation of a graph.
+     *
+     * @param graph
+     *            the graph.
+     * @param label
+     *            returns the label of an edge; edges whose labels are equal
+     *            are matched.
+     * @param threads
+     *            the number of threads.
+     */
+    public Bisimulation(final IndexedGraph<N, E> graph, final Function<? super E, ?> label,
+            final int threads) {
+        this(graph, label, e -> false, Equivalence.STRONG, threads);
+    }
+
+    /**
+     * Computes the coarsest bisimulation of a graph.
+     *
+     * @param graph
+     *            the graph.
+     * @param label
+     *            returns the label of an edge; edges whose labels are equal
+     *            are matched.
+     * @param internal
+     *            selects the internal edges; they are matched regardless of
+     *            their labels (and with their labels for
+     *            {@link Equivalence#STRONG}).
+     * @param equivalence
+     *            the equivalence.
+     * @param threads
+     *            the number of threads.
+     */
+    public Bisimulation(final IndexedGraph<N, E> graph, final Function<? super E, ?> label,
+            final Predicate<? super E> internal, final Equivalence equivalence, final int threads) {
+        this.equivalence = equivalence;
+        this.collapsed = new int[graph.size()];
+
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            collapse(graph, label, equivalence == Equivalence.STRONG ? e -> false : internal, threads);
+            refine(pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        // number the blocks by their first node
+        int[] ids = new int[this.representatives.length];
+        Arrays.fill(ids, -1);
+        int blocks = 0;
+        for (int v = 0; v < graph.size(); ++v) {
+            int b = this.block[this.collapsed[v]];
+            if (ids[b] < 0) {
+                ids[b] = blocks;
+                this.representatives[blocks++] = v;
+            }
+        }
+        for (int x = 0; x < this.block.length; ++x) {
+            this.block[x] = ids[this.block[x]];
+        }
+    }
+
+    /**
+     * Returns the equivalence.
+     *
+     * @return the equivalence.
+     */
+    public Equivalence getEquivalence() {
+        return this.equivalence;
+    }
+
+    /**
+     * Returns the number of blocks, i.e. the number of nodes of the quotient.
+     *
+     * @return the number of blocks.
+     */
+    public int getNumberOfBlocks() {
+        return this.representatives.length;
+    }
+
+    /**
+     * Returns the block of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @return the block (between {@code 0} and
+     *         {@code getNumberOfBlocks() - 1}).
+     */
+    public int getBlock(final int v) {
+        return this.block[this.collapsed[v]];
+    }
+
+    /**
+     * Returns the node with the smallest index in a block.
+     *
+     * @param b
+     *            the block.
+     * @return the index of the node.
+     */
+    public int getRepresentative(final int b) {
+        return this.representatives[b];
+    }
+
+    /**
+     * Collapses the strongly connected components of the internal edges and
+     * interns the labels of the remaining edges.
+     *
+     * @param graph
+     *            the graph.
+     * @param label
+     *            returns the label of an edge.
+     * @param internal
+     *            selects the internal edges.
+     * @param threads
+     *            the number of threads.
+     */
+    private void collapse(final IndexedGraph<N, E> graph, final Function<? super E, ?> label,
+            final Predicate<? super E> internal, final int threads) {
+        int n = graph.size();
+
+        // the graph of the internal edges has the same node indices, as all
+        // nodes are sources (in the same order)
+        List<N> nodes = IntStream.range(0, n).mapToObj(graph::getNode).collect(Collectors.toList());
+        IndexedGraph<N, E> internalGraph = IndexedGraph.of(new Graph<N, E>() {
+            @Override
+            public List<N> getSources() {
+                return nodes;
+            }
+
+            @Override
+            public List<E> getEdges(final N node) {
+                int v = graph.indexOf(node);
+                List<E> edges = new ArrayList<>();
+                for (int k = 0; k < graph.getOutDegree(v); ++k) {
+                    edges.add(graph.getEdge(v, k));
+                }
+                return edges;
+            }
+        }, internal, threads);
+        StronglyConnectedComponents<N, E> components = new StronglyConnectedComponents<>(internalGraph, threads);
+
+        // number the components by their first node
+        int[] ids = new int[components.getNumberOfComponents()];
+        Arrays.fill(ids, -1);
+        int size = 0;
+        for (int v = 0; v < n; ++v) {
+            int c = components.getComponent(v);
+            if (ids[c] < 0) {
+                ids[c] = size++;
+            }
+            this.collapsed[v] = ids[c];
+        }
+
+        // the edges of all members, without internal edges inside a component
+        Map<Object, Integer> interned = new HashMap<>();
+        List<List<long[]>> edges = new ArrayList<>();
+        for (int x = 0; x < size; ++x) {
+            edges.add(new ArrayList<>());
+        }
+        int m = 0;
+        for (int v = 0; v < n; ++v) {
+            int x = this.collapsed[v];
+            for (int k = 0; k < graph.getOutDegree(v); ++k) {
+                E e = graph.getEdge(v, k);
+                int y = this.collapsed[graph.getTarget(v, k)];
+                int l;
+                if (internal.test(e)) {
+                    if (x == y) {
+                        continue;
+                    }
+                    l = INTERNAL;
+                } else {
+                    Object key = label.apply(e);
+                    Integer id = interned.get(key);
+                    if (id == null) {
+                        // 0 is the label of the internal edges
+                        id = interned.size() + 1;
+                        interned.put(key, id);
+                    }
+                    l = id;
+                }
+                edges.get(x).add(new long[] {l, y});
+                ++m;
+            }
+        }
+
+        this.offsets = new int[size + 1];
+        this.targets = new int[m];
+        this.labels = new int[m];
+        for (int x = 0; x < size; ++x) {
+            int i = this.offsets[x];
+            for (long[] e : edges.get(x)) {
+                this.labels[i] = (int) e[0];
+                this.targets[i] = (int) e[1];
+                ++i;
+            }
+            this.offsets[x + 1] = i;
+        }
+
+        this.levels = levels(size);
+    }
+
+    /**
+     * Groups the collapsed nodes by the length of their longest path of
+     * internal edges.
+     *
+     * @param size
+     *            the number of collapsed nodes.
+     * @return the levels, shortest paths first.
+     */
+    private int[][] levels(final int size) {
+        // the internal edges are acyclic, so the nodes can be sorted
+        // topologically, starting with the nodes without internal edges
+        int[] pending = new int[size];
+        List<List<Integer>> predecessors = new ArrayList<>();
+        for (int x = 0; x < size; ++x) {
+            predecessors.add(new ArrayList<>());
+        }
+        for (int x = 0; x < size; ++x) {
+            for (int i = this.offsets[x]; i < this.offsets[x + 1]; ++i) {
+                if (this.labels[i] == INTERNAL) {
+                    ++pending[x];
+                    predecessors.get(this.targets[i]).add(x);
+                }
+            }
+        }
+
+        List<int[]> levels = new ArrayList<>();
+        int[] level = IntStream.range(0, size).filter(x -> pending[x] == 0).toArray();
+        while (level.length > 0) {
+            levels.add(level);
+            List<Integer> next = new ArrayList<>();
+            for (int x : level) {
+                for (int p : predecessors.get(x)) {
+                    if (--pending[p] == 0) {
+                        next.add(p);
+                    }
+                }
+            }
+            level = next.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return levels.toArray(new int[levels.size()][]);
+    }
+
+    /**
+     * Refines the partition until it is stable.
+     *
+     * @param pool
+     *            computes the signatures or {@code null} to compute them in
+     *            the calling thread.
+     */
+    private void refine(final ForkJoinPool pool) {
+        int n = this.offsets.length - 1;
+        this.block = new int[n];
+        this.pairs = new long[n][];
+        this.reachable = this.equivalence == Equivalence.WEAK ? new int[n][] : null;
+        int blocks = n == 0 ? 0 : 1;
+
+        for (;;) {
+            if (this.reachable != null) {
+                // the targets of the other edges may be in any level
+                for (int[] level : this.levels) {
+                    forEach(pool, level.length, i -> reachable(level[i]));
+                }
+            }
+            for (int[] level : this.levels) {
+                // the internal successors are in the previous levels
+                forEach(pool, level.length, i -> signature(level[i]));
+            }
+
+            Map<Signature, Integer> ids = new HashMap<>();
+            int[] next = new int[n];
+            for (int x = 0; x < n; ++x) {
+                Signature s = new Signature(this.block[x], this.pairs[x]);
+                Integer id = ids.get(s);
+                if (id == null) {
+                    id = ids.size();
+                    ids.put(s, id);
+                }
+                next[x] = id;
+            }
+
+            this.block = next;
+            if (ids.size() == blocks) {
+                break;
+            }
+            blocks = ids.size();
+        }
+
+        this.pairs = null;
+        this.reachable = null;
+        this.representatives = new int[blocks];
+    }
+
+    /**
+     * Computes the blocks that a collapsed node reaches by internal edges
+     * with respect to the current partition. The blocks of its internal
+     * successors must be computed already.
+     *
+     * @param x
+     *            the collapsed node.
+     */
+    private void reachable(final int x) {
+        LongSet result = new LongSet();
+        result.add(this.block[x]);
+        for (int i = this.offsets[x]; i < this.offsets[x + 1]; ++i) {
+            if (this.labels[i] == INTERNAL) {
+                result.addAll(this.reachable[this.targets[i]]);
+            }
+        }
+        this.reachable[x] = result.toIntArray();
+    }
+
+    /**
+     * Computes the (label, block) pairs of a collapsed node with respect to
+     * the current partition. The pairs of its internal successors (and for
+     * weak bisimilarity the reachable blocks of all nodes) must be computed
+     * already.
+     *
+     * @param x
+     *            the collapsed node.
+     */
+    private void signature(final int x) {
+        LongSet result = new LongSet();
+        switch (this.equivalence) {
+            case STRONG:
+                for (int i = this.offsets[x]; i < this.offsets[x + 1]; ++i) {
+                    result.add(pair(this.labels[i], this.block[this.targets[i]]));
+                }
+                break;
+
+            case WEAK:
+                for (int i = this.offsets[x]; i < this.offsets[x + 1]; ++i) {
+                    int t = this.targets[i];
+                    if (this.labels[i] == INTERNAL) {
+                        result.addAll(this.pairs[t]);
+                    } else {
+                        for (int b : this.reachable[t]) {
+                            result.add(pair(this.labels[i], b));
+                        }
+                    }
+                }
+                for (int b : this.reachable[x]) {
+                    result.add(pair(INTERNAL, b));
+                }
+                break;
+
+            default:
+                for (int i = this.offsets[x]; i < this.offsets[x + 1]; ++i) {
+                    int t = this.targets[i];
+                    if (this.labels[i] == INTERNAL && this.block[t] == this.block[x]) {
+                        // inert: the target can do whatever it can do
+                        result.addAll(this.pairs[t]);
+                    } else {
+                        result.add(pair(this.labels[i], this.block[t]));
+                    }
+                }
+                break;
+        }
+        this.pairs[x] = result.toArray();
+    }
+
+    /**
+     * Encodes a (label, block) pair.
+     *
+     * @param label
+     *            the label.
+     * @param block
+     *            the block.
+     * @return the pair.
+     */
+    private static long pair(final int label, final int block) {
+        return (long) label << Integer.SIZE | block;
+    }
+
+    /**
+     * Runs an action for every index, in parallel if there is a pool.
+     *
+     * @param pool
+     *            the pool or {@code null}.
+     * @param n
+     *            the number of indices.
+     * @param action
+     *            the action (must be thread-safe).
+     */
+    private static void forEach(final ForkJoinPool pool, final int n, final IntConsumer action) {
+        if (pool == null || n == 1) {
+            IntStream.range(0, n).forEach(action);
+            return;
+        }
+
+        try {
+            // a parallel stream started in the pool runs on its workers
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * A growable set of longs that is sorted when it is read.
+     */
+    private static final class LongSet {
+
+        /**
+         * The elements (with duplicates).
+         */
+        private long[] values = new long[8];
+
+        /**
+         * The number of elements.
+         */
+        private int size = 0;
+
+        /**
+         * Adds an element.
+         *
+         * @param value
+         *            the element.
+         */
+        private void add(final long value) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, 2 * this.size);
+            }
+            this.values[this.size++] = value;
+        }
+
+        /**
+         * Adds elements.
+         *
+         * @param values
+         *            the elements.
+         */
+        private void addAll(final long[] values) {
+            for (long value : values) {
+                add(value);
+            }
+        }
+
+        /**
+         * Adds elements.
+         *
+         * @param values
+         *            the elements.
+         */
+        private void addAll(final int[] values) {
+            for (int value : values) {
+                add(value);
+            }
+        }
+
+        /**
+         * Returns the sorted and distinct elements.
+         *
+         * @return the elements.
+         */
+        private long[] toArray() {
+            Arrays.sort(this.values, 0, this.size);
+            int distinct = 0;
+            for (int i = 0; i < this.size; ++i) {
+                if (distinct == 0 || this.values[i] != this.values[distinct - 1]) {
+                    this.values[distinct++] = this.values[i];
+                }
+            }
+            return Arrays.copyOf(this.values, distinct);
+        }
+
+        /**
+         * Returns the sorted and distinct elements, which must be ints.
+         *
+         * @return the elements.
+         */
+        private int[] toIntArray() {
+            return Arrays.stream(toArray()).mapToInt(v -> (int) v).toArray();
+        }
+    }
+
+    /**
+     * The signature of a node: its block and the set of its (label, block)
+     * pairs.
+     */
+    private static final class Signature {
+
+        /**
+         * The block of the node.
+         */
+        private final int block;
+
+        /**
+         * The sorted and distinct (label, block) pairs.
+         */
+        private final long[] pairs;
+
+        /**
+         * The hash code.
+         */
+        private final int hash;
+
+        /**
+         * Constructs a signature.
+         *
+         * @param block
+         *            the block of the node.
+         * @param pairs
+         *            the sorted and distinct (label, block) pairs.
+         */
+        private Signature(final int block, final long[] pairs) {
+            this.block = block;
+            this.pairs = pairs;
+            this.hash = 31 * block + Arrays.hashCode(pairs);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+
+            Signature s = (Signature) o;
+            return this.block == s.block && Arrays.equals(this.pairs, s.pairs);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
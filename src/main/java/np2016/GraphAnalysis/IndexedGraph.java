@@ -0,0 +1,478 @@
+package np2016.GraphAnalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import np2016.Graph.Edge;
+import np2016.Graph.Graph;
+import np2016.Graph.Node;
+
+/**
+ * Compact representation of a finite graph: the nodes are numbered from
+ * {@code 0} to {@code size() - 1} and the edges are stored in compressed
+ * sparse row format, in forward and in backward direction.
+ *
+ * @param <N>
+ *            the node type of the graph.
+ * @param <E>
+ *            the edge type of the graph.
+ */
+public final class IndexedGraph<N extends Node<?>, E extends Edge<N, ?>> {
+
+    /**
+     * The nodes by index.
+     */
+    private final List<N> nodes;
+
+    /**
+     * The indices of the nodes.
+     */
+    private final Map<N, Integer> indices;
+
+    /**
+     * The edges of node {@code v} are stored at the positions
+     * {@code offsets[v]} to {@code offsets[v + 1] - 1}.
+     */
+    private final int[] offsets;
+
+    /**
+     * The target of each edge.
+     */
+    private final int[] targets;
+
+    /**
+     * The original edges.
+     */
+    private final List<E> edges;
+
+    /**
+     * The incoming edges of node {@code v} are stored at the positions
+     * {@code reverseOffsets[v]} to {@code reverseOffsets[v + 1] - 1}.
+     */
+    private final int[] reverseOffsets;
+
+    /**
+     * The start of each incoming edge.
+     */
+    private final int[] sources;
+
+    /**
+     * Constructs an indexed graph.
+     *
+     * @param nodes
+     *            the nodes by index.
+     * @param indices
+     *            the indices of the nodes.
+     * @param offsets
+     *            the offsets of the outgoing edges.
+     * @param targets
+     *            the target of each edge.
+     * @param edges
+     *            the original edges.
+     */
+    private IndexedGraph(final List<N> nodes, final Map<N, Integer> indices,
+            final int[] offsets, final int[] targets, final List<E> edges) {
+        this.nodes = nodes;
+        this.indices = indices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edges = edges;
+
+        // count the incoming edges and fill them in
+        int n = nodes.size();
+        this.reverseOffsets = new int[n + 1];
+        for (int t : targets) {
+            ++this.reverseOffsets[t + 1];
+        }
+        for (int v = 0; v < n; ++v) {
+            this.reverseOffsets[v + 1] += this.reverseOffsets[v];
+        }
+        this.sources = new int[targets.length];
+        int[] next = new int[n];
+        for (int v = 0; v < n; ++v) {
+            for (int i = offsets[v]; i < offsets[v + 1]; ++i) {
+                int t = targets[i];
+                this.sources[this.reverseOffsets[t] + next[t]++] = v;
+            }
+        }
+    }
+
+    /**
+     * Constructs the indexed graph of all nodes and edges reachable from the
+     * sources of the given graph.
+     *
+     * @param graph
+     *            the graph (must be finite).
+     * @param <N>
+     *            the node type of the graph.
+     * @param <E>
+     *            the edge type of the graph.
+     * @return the indexed graph.
+     */
+    public static <N extends Node<?>, E extends Edge<N, ?>> IndexedGraph<N, E> of(
+            final Graph<N, E> graph) {
+        return of(graph, e -> true);
+    }
+
+    /**
+     * Constructs the indexed graph of all nodes reachable from the sources of
+     * the given graph via the edges that satisfy the given filter.
+     *
+     * @param graph
+     *            the graph (must be finite).
+     * @param filter
+     *            selects the edges.
+     * @param <N>
+     *            the node type of the graph.
+     * @param <E>
+     *            the edge type of the graph.
+     * @return the indexed graph.
+     */
+    public static <N extends Node<?>, E extends Edge<N, ?>> IndexedGraph<N, E> of(
+            final Graph<N, E> graph, final Predicate<? super E> filter) {
+        return of(graph, filter, 1);
+    }
+
+    /**
+     * Constructs the indexed graph of all nodes reachable from the sources of
+     * the given graph via the edges that satisfy the given filter. The edges
+     * of each breadth-first level are generated by the given number of
+     * threads in parallel; the numbering of the nodes does not depend on the
+     * number of threads.
+     *
+     * @param graph
+     *            the graph (must be finite and thread-safe if
+     *            {@code threads > 1}).
+     * @param filter
+     *            selects the edges.
+     * @param threads
+     *            the number of threads.
+     * @param <N>
+     *            the node type of the graph.
+     * @param <E>
+     *            the edge type of the graph.
+     * @return the indexed graph.
+     */
+    public static <N extends Node<?>, E extends Edge<N, ?>> IndexedGraph<N, E> of(
+            final Graph<N, E> graph, final Predicate<? super E> filter, final int threads) {
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            return build(graph, filter, pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Constructs an indexed graph level by level.
+     *
+     * @param graph
+     *            the graph.
+     * @param filter
+     *            selects the edges.
+     * @param pool
+     *            generates the edges of a level or {@code null} to generate
+     *            them in the calling thread.
+     * @param <N>
+     *            the node type of the graph.
+     * @param <E>
+     *            the edge type of the graph.
+     * @return the indexed graph.
+     */
+    private static <N extends Node<?>, E extends Edge<N, ?>> IndexedGraph<N, E> build(
+            final Graph<N, E> graph, final Predicate<? super E> filter, final ForkJoinPool pool) {
+        List<N> nodes = new ArrayList<>();
+        Map<N, Integer> indices = new HashMap<>();
+        for (N s : graph.getSources()) {
+            if (!indices.containsKey(s)) {
+                indices.put(s, nodes.size());
+                nodes.add(s);
+            }
+        }
+
+        // the nodes are numbered in breadth-first order, so the edges of
+        // node v are generated when the level of v is processed
+        List<E> edges = new ArrayList<>();
+        int[] offsets = new int[16];
+        int[] targets = new int[16];
+        int levelStart = 0;
+        List<List<E>> level = Collections.emptyList();
+        for (int v = 0; v < nodes.size(); ++v) {
+            if (v == levelStart + level.size()) {
+                // the next level consists of all nodes discovered so far
+                levelStart = v;
+                level = expand(graph, new ArrayList<>(nodes.subList(v, nodes.size())), pool);
+            }
+
+            offsets = ensureCapacity(offsets, v + 2);
+            offsets[v] = edges.size();
+            for (E e : level.get(v - levelStart)) {
+                if (!filter.test(e)) {
+                    continue;
+                }
+
+                N target = e.getTarget();
+                Integer t = indices.get(target);
+                if (t == null) {
+                    t = nodes.size();
+                    indices.put(target, t);
+                    nodes.add(target);
+                }
+
+                targets = ensureCapacity(targets, edges.size() + 1);
+                targets[edges.size()] = t;
+                edges.add(e);
+            }
+        }
+        offsets = ensureCapacity(offsets, nodes.size() + 1);
+        offsets[nodes.size()] = edges.size();
+
+        return new IndexedGraph<>(Collections.unmodifiableList(nodes), indices,
+                Arrays.copyOf(offsets, nodes.size() + 1),
+                Arrays.copyOf(targets, edges.size()),
+                Collections.unmodifiableList(edges));
+    }
+
+    /**
+     * Generates the edges of the given nodes.
+     *
+     * @param graph
+     *            the graph.
+     * @param nodes
+     *            the nodes.
+     * @param pool
+     *            generates the edges or {@code null} to generate them in the
+     *            calling thread.
+     * @param <N>
+     *            the node type of the graph.
+     * @param <E>
+     *            the edge type of the graph.
+     * @return the edges of each node.
+     */
+    private static <N extends Node<?>, E extends Edge<N, ?>> List<List<E>> expand(
+            final Graph<N, E> graph, final List<N> nodes, final ForkJoinPool pool) {
+        if (pool == null || nodes.size() == 1) {
+            List<List<E>> edges = new ArrayList<>(nodes.size());
+            for (N n : nodes) {
+                edges.add(graph.getEdges(n));
+            }
+            return edges;
+        }
+
+        try {
+            // a parallel stream started in the pool runs on its workers
+            return pool.submit(() -> nodes.parallelStream()
+                    .map(graph::getEdges)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Grows an array if it is too small.
+     *
+     * @param array
+     *            the array.
+     * @param capacity
+     *            the required capacity.
+     * @return the array or a larger copy of it.
+     */
+    private static int[] ensureCapacity(final int[] array, final int capacity) {
+        if (capacity <= array.length) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of nodes.
+     */
+    public int size() {
+        return this.nodes.size();
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges.
+     */
+    public int getNumberOfEdges() {
+        return this.targets.length;
+    }
+
+    /**
+     * Returns the node with the given index.
+     *
+     * @param v
+     *            the index.
+     * @return the node.
+     */
+    public N getNode(final int v) {
+        return this.nodes.get(v);
+    }
+
+    /**
+     * Returns the index of the given node.
+     *
+     * @param node
+     *            the node.
+     * @return the index or {@code -1} if the node is not part of the graph.
+     */
+    public int indexOf(final N node) {
+        Integer v = this.indices.get(node);
+        return v == null ? -1 : v;
+    }
+
+    /**
+     * Returns the number of outgoing edges of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @return the number of outgoing edges.
+     */
+    public int getOutDegree(final int v) {
+        return this.offsets[v + 1] - this.offsets[v];
+    }
+
+    /**
+     * Returns the target of an outgoing edge of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @param k
+     *            the number of the edge ({@code 0 <= k < getOutDegree(v)}).
+     * @return the index of the target.
+     */
+    public int getTarget(final int v, final int k) {
+        return this.targets[this.offsets[v] + k];
+    }
+
+    /**
+     * Returns an outgoing edge of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @param k
+     *            the number of the edge ({@code 0 <= k < getOutDegree(v)}).
+     * @return the edge.
+     */
+    public E getEdge(final int v, final int k) {
+        return this.edges.get(this.offsets[v] + k);
+    }
+
+    /**
+     * Returns the number of incoming edges of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @return the number of incoming edges.
+     */
+    public int getInDegree(final int v) {
+        return this.reverseOffsets[v + 1] - this.reverseOffsets[v];
+    }
+
+    /**
+     * Returns the start of an incoming edge of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @param k
+     *            the number of the edge ({@code 0 <= k < getInDegree(v)}).
+     * @return the index of the start.
+     */
+    public int getSource(final int v, final int k) {
+        return this.sources[this.reverseOffsets[v] + k];
+    }
+
+    /**
+     * Returns the start of an edge given by its position in
+     * {@link #targets()}.
+     *
+     * @param position
+     *            the position of the edge.
+     * @return the index of the start.
+     */
+    int sourceOf(final int position) {
+        // the last node whose edges start at or before the position
+        int lo = 0;
+        int hi = this.nodes.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (this.offsets[mid] <= position) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns an edge given by its position in {@link #targets()}.
+     *
+     * @param position
+     *            the position of the edge.
+     * @return the edge.
+     */
+    E edgeAt(final int position) {
+        return this.edges.get(position);
+    }
+
+    /**
+     * Returns the offsets of the outgoing edges (for the analyses of this
+     * package).
+     *
+     * @return the offsets.
+     */
+    int[] offsets() {
+        return this.offsets;
+    }
+
+    /**
+     * Returns the targets of the edges (for the analyses of this package).
+     *
+     * @return the targets.
+     */
+    int[] targets() {
+        return this.targets;
+    }
+
+    /**
+     * Returns the offsets of the incoming edges (for the analyses of this
+     * package).
+     *
+     * @return the offsets.
+     */
+    int[] reverseOffsets() {
+        return this.reverseOffsets;
+    }
+
+    /**
+     * Returns the starts of the incoming edges (for the analyses of this
+     * package).
+     *
+     * @return the starts.
+     */
+    int[] sources() {
+        return this.sources;
+    }
+}
@@ -0,0 +1,237 @@
+package np2016.GraphAnalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import np2016.Graph.Edge;
+import np2016.Graph.Node;
+
+/**
+ * Level-synchronous parallel breadth-first search on an
+ * {@link IndexedGraph} that finds a shortest path to a target node.
+ * <p>
+ * The nodes of a level are split into chunks that are expanded in parallel.
+ * The search tree is stored as one {@code int} per node (the position of the
+ * tree edge in the edge array of the graph) plus one bit that tells whether
+ * the node was reached in an earlier level, so it needs only a few bytes per
+ * node. Among the edges of a level the one with the smallest position wins,
+ * so the search tree and the found path do not depend on the number of
+ * threads.
+ *
+ * @param <N>
+ *            the node type of the graph.
+ * @param <E>
+ *            the edge type of the graph.
+ */
+public final class ParallelBreadthFirstSearch<N extends Node<?>, E extends Edge<N, ?>> {
+
+    /**
+     * The number of nodes of a level that are expanded by one task.
+     */
+    private static final int CHUNK = 256;
+
+    /**
+     * The tree edge of a node that was not reached.
+     */
+    private static final int UNREACHED = -1;
+
+    /**
+     * The tree edge of the source.
+     */
+    private static final int SOURCE = -2;
+
+    /**
+     * The searched graph.
+     */
+    private final IndexedGraph<N, E> graph;
+
+    /**
+     * The number of threads.
+     */
+    private final int threads;
+
+    /**
+     * The position of the tree edge of each node.
+     */
+    private AtomicIntegerArray parent;
+
+    /**
+     * The position of the edge that reached the target or {@code -1}.
+     */
+    private int found = -1;
+
+    /**
+     * Constructs a breadth-first search.
+     *
+     * @param graph
+     *            the graph.
+     * @param threads
+     *            the number of threads.
+     */
+    public ParallelBreadthFirstSearch(final IndexedGraph<N, E> graph, final int threads) {
+        this.graph = graph;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Searches for a shortest non-empty path from the source to a target
+     * node. The path only passes nodes that are followed; the source and the
+     * target need not be followed. So a shortest cycle through {@code v} is
+     * found with {@code search(v, follow, t -> t == v)}.
+     *
+     * @param source
+     *            the index of the source.
+     * @param follow
+     *            selects the nodes the path may pass.
+     * @param target
+     *            selects the target nodes.
+     * @return the index of the reached target or {@code -1} if no target is
+     *         reachable.
+     */
+    public int search(final int source, final IntPredicate follow, final IntPredicate target) {
+        int[] offsets = this.graph.offsets();
+        int[] targets = this.graph.targets();
+        int n = this.graph.size();
+
+        this.parent = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; ++v) {
+            this.parent.set(v, UNREACHED);
+        }
+        this.parent.set(source, SOURCE);
+        BitSet settled = new BitSet(n);
+        settled.set(source);
+
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        ForkJoinPool pool = this.threads > 1 ? new ForkJoinPool(this.threads) : null;
+        try {
+            int[] level = {source};
+            while (level.length > 0) {
+                int[] current = level;
+                int chunks = (current.length + CHUNK - 1) / CHUNK;
+                int[][] next = new int[chunks][];
+
+                IntStream indices = IntStream.range(0, chunks);
+                Runnable expand = () -> (pool == null ? indices : indices.parallel()).forEach(i -> {
+                    int[] discovered = new int[16];
+                    int count = 0;
+                    for (int j = i * CHUNK; j < Math.min(current.length, (i + 1) * CHUNK); ++j) {
+                        int x = current[j];
+                        for (int e = offsets[x]; e < offsets[x + 1]; ++e) {
+                            int t = targets[e];
+                            if (target.test(t)) {
+                                min(best, e);
+                            }
+                            if (settled.get(t) || !follow.test(t)) {
+                                continue;
+                            }
+                            if (claim(t, e)) {
+                                if (count == discovered.length) {
+                                    discovered = Arrays.copyOf(discovered, 2 * count);
+                                }
+                                discovered[count++] = t;
+                            }
+                        }
+                    }
+                    next[i] = Arrays.copyOf(discovered, count);
+                });
+                if (pool == null) {
+                    expand.run();
+                } else {
+                    // a parallel stream started in the pool runs on its workers
+                    pool.submit(expand).get();
+                }
+
+                if (best.get() != Integer.MAX_VALUE) {
+                    this.found = best.get();
+                    return targets[this.found];
+                }
+
+                level = IntStream.range(0, chunks).flatMap(i -> Arrays.stream(next[i])).toArray();
+                for (int v : level) {
+                    settled.set(v);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        this.found = -1;
+        return -1;
+    }
+
+    /**
+     * Returns the path found by the last {@link #search}.
+     *
+     * @return the edges of the path or {@code null} if no target was found.
+     */
+    public List<E> getPath() {
+        if (this.found < 0) {
+            return null;
+        }
+
+        List<E> path = new ArrayList<>();
+        int e = this.found;
+        while (e != SOURCE) {
+            path.add(this.graph.edgeAt(e));
+            e = this.parent.get(this.graph.sourceOf(e));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Makes an edge the tree edge of its target unless an edge with a smaller
+     * position of the same level reached it.
+     *
+     * @param t
+     *            the target.
+     * @param e
+     *            the position of the edge.
+     * @return true if the target was not reached before in this level.
+     */
+    private boolean claim(final int t, final int e) {
+        while (true) {
+            int current = this.parent.get(t);
+            if (current != UNREACHED && current <= e) {
+                return false;
+            }
+            if (this.parent.compareAndSet(t, current, e)) {
+                return current == UNREACHED;
+            }
+        }
+    }
+
+    /**
+     * Lowers a shared minimum.
+     *
+     * @param min
+     *            the minimum.
+     * @param value
+     *            the new value.
+     */
+    private static void min(final AtomicInteger min, final int value) {
+        int current = min.get();
+        while (value < current && !min.compareAndSet(current, value)) {
+            current = min.get();
+        }
+    }
+}
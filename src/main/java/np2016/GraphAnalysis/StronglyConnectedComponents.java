@@ -0,0 +1,491 @@
+package np2016.GraphAnalysis;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import np2016.Graph.Edge;
+import np2016.Graph.Node;
+
+/**
+ * Decomposition of an {@link IndexedGraph} into its strongly connected
+ * components. The decomposition is computed in parallel by the
+ * Forward-Backward algorithm with trimming:
+ * <ol>
+ * <li>Nodes without incoming or without outgoing edges inside the current
+ * partition are components of their own; they are removed repeatedly.</li>
+ * <li>For a pivot node the set F of nodes reachable from it and the set B of
+ * nodes that reach it are computed. F &cap; B is the component of the
+ * pivot.</li>
+ * <li>Every other component lies completely in F \ B, in B \ F or in the rest
+ * of the partition, so these three partitions are decomposed independently
+ * (and in parallel).</li>
+ * </ol>
+ * All searches are iterative, so arbitrarily large graphs can be decomposed.
+ *
+ * @param <N>
+ *            the node type of the graph.
+ * @param <E>
+ *            the edge type of the graph.
+ */
+public final class StronglyConnectedComponents<N extends Node<?>, E extends Edge<N, ?>> {
+
+    /**
+     * Partitions with fewer nodes are decomposed by the task that created
+     * them instead of a new task.
+     */
+    private static final int FORK_THRESHOLD = 1024;
+
+    /**
+     * The partition label of nodes that are already assigned to a component.
+     */
+    private static final int DONE = -1;
+
+    /**
+     * The component of nodes that were not selected.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The decomposed graph.
+     */
+    private final IndexedGraph<N, E> graph;
+
+    /**
+     * The number of threads.
+     */
+    private final int threads;
+
+    /**
+     * The component of each node.
+     */
+    private final int[] component;
+
+    /**
+     * The number of nodes of each component.
+     */
+    private final int[] sizes;
+
+    /**
+     * Whether each component contains a cycle.
+     */
+    private final boolean[] cyclic;
+
+    /**
+     * The current partition of each node (only used during the
+     * decomposition).
+     */
+    private int[] partition;
+
+    /**
+     * Scratch space for the number of incoming and outgoing edges inside the
+     * partition (only used during the decomposition).
+     */
+    private int[] inDegree;
+
+    /**
+     * @see #inDegree
+     */
+    private int[] outDegree;
+
+    /**
+     * Source of fresh partition labels.
+     */
+    private final AtomicInteger labels = new AtomicInteger(1);
+
+    /**
+     * Source of fresh component numbers.
+     */
+    private final AtomicInteger components = new AtomicInteger();
+
+    /**
+     * The number of tasks that are not finished yet.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Is counted down when all tasks are finished.
+     */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    /**
+     * The first exception that terminated a task.
+     */
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    /**
+     * Decomposes the given graph into its strongly connected components.
+     *
+     * @param graph
+     *            the graph.
+     * @param threads
+     *            the number of threads to use.
+     */
+    public StronglyConnectedComponents(final IndexedGraph<N, E> graph, final int threads) {
+        this(graph, v -> true, threads);
+    }
+
+    /**
+     * Decomposes the subgraph induced by the selected nodes of the given graph
+     * into its strongly connected components. The other nodes belong to no
+     * component.
+     *
+     * @param graph
+     *            the graph.
+     * @param nodes
+     *            selects the nodes of the subgraph.
+     * @param threads
+     *            the number of threads to use.
+     */
+    public StronglyConnectedComponents(final IndexedGraph<N, E> graph, final IntPredicate nodes,
+            final int threads) {
+        this.graph = graph;
+        this.threads = threads;
+
+        int n = graph.size();
+        this.component = new int[n];
+        this.partition = new int[n];
+        this.inDegree = new int[n];
+        this.outDegree = new int[n];
+
+        int[] selected = IntStream.range(0, n).filter(nodes).toArray();
+        for (int v = 0; v < n; ++v) {
+            if (!nodes.test(v)) {
+                this.partition[v] = DONE;
+                this.component[v] = NONE;
+            }
+        }
+
+        if (selected.length > 0) {
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+            try {
+                this.pending.set(1);
+                pool.execute(new Decomposition(0, selected));
+                this.finished.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                pool.shutdown();
+            }
+            if (this.failure.get() != null) {
+                throw this.failure.get();
+            }
+        }
+
+        this.partition = null;
+        this.inDegree = null;
+        this.outDegree = null;
+
+        // sizes and cycles of the components
+        this.sizes = new int[this.components.get()];
+        this.cyclic = new boolean[this.sizes.length];
+        for (int v = 0; v < n; ++v) {
+            int c = this.component[v];
+            if (c == NONE) {
+                continue;
+            }
+            if (++this.sizes[c] > 1) {
+                this.cyclic[c] = true;
+            }
+            for (int k = 0; k < graph.getOutDegree(v); ++k) {
+                if (graph.getTarget(v, k) == v) {
+                    this.cyclic[c] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the decomposed graph.
+     *
+     * @return the graph.
+     */
+    public IndexedGraph<N, E> getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Returns the number of components.
+     *
+     * @return the number of components.
+     */
+    public int getNumberOfComponents() {
+        return this.sizes.length;
+    }
+
+    /**
+     * Returns the component of a node.
+     *
+     * @param v
+     *            the index of the node.
+     * @return the number of the component or {@code -1} if the node was not
+     *         selected.
+     */
+    public int getComponent(final int v) {
+        return this.component[v];
+    }
+
+    /**
+     * Returns the number of nodes of a component.
+     *
+     * @param c
+     *            the number of the component.
+     * @return the number of nodes.
+     */
+    public int getSize(final int c) {
+        return this.sizes[c];
+    }
+
+    /**
+     * Returns whether a component contains a cycle, i.e. whether it has more
+     * than one node or its node has an edge to itself.
+     *
+     * @param c
+     *            the number of the component.
+     * @return true if the component contains a cycle.
+     */
+    public boolean isCyclic(final int c) {
+        return this.cyclic[c];
+    }
+
+    /**
+     * Returns a node that lies on a cycle.
+     *
+     * @return the index of the node or {@code -1} if the graph is acyclic.
+     */
+    public int findCyclicNode() {
+        for (int v = 0; v < this.component.length; ++v) {
+            if (this.component[v] != NONE && this.cyclic[this.component[v]]) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a shortest cycle through the given node (see
+     * {@link ParallelBreadthFirstSearch}). The node must lie on a cycle (see
+     * {@link #isCyclic}).
+     *
+     * @param v
+     *            the index of the node.
+     * @return the edges of the cycle, starting at the node.
+     */
+    public List<E> findCycle(final int v) {
+        assert this.cyclic[this.component[v]];
+
+        int c = this.component[v];
+        ParallelBreadthFirstSearch<N, E> search = new ParallelBreadthFirstSearch<>(this.graph,
+                this.threads);
+        search.search(v, t -> this.component[t] == c, t -> t == v);
+        return search.getPath();
+    }
+
+    /**
+     * Decomposes a partition of the graph. Large partitions that result from
+     * the decomposition are handed to new tasks, small ones are decomposed by
+     * this task.
+     */
+    private final class Decomposition extends RecursiveAction {
+
+        /**
+         * Serial version (tasks are never serialized).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The label of the partition.
+         */
+        private final int label;
+
+        /**
+         * The nodes of the partition.
+         */
+        private final int[] nodes;
+
+        /**
+         * Constructs the decomposition of a partition.
+         *
+         * @param label
+         *            the label of the partition.
+         * @param nodes
+         *            the nodes of the partition.
+         */
+        Decomposition(final int label, final int[] nodes) {
+            this.label = label;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                Deque<Decomposition> local = new ArrayDeque<>();
+                local.push(this);
+                while (!local.isEmpty()) {
+                    Decomposition d = local.pop();
+                    for (Decomposition child : decompose(d.label, d.nodes)) {
+                        if (child.nodes.length >= FORK_THRESHOLD) {
+                            pending.incrementAndGet();
+                            child.fork();
+                        } else {
+                            local.push(child);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    finished.countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the trivial components and the component of a pivot node from a
+     * partition.
+     *
+     * @param label
+     *            the label of the partition.
+     * @param nodes
+     *            the nodes of the partition.
+     * @return the remaining partitions.
+     */
+    private List<Decomposition> decompose(final int label, final int[] nodes) {
+        int[] offsets = this.graph.offsets();
+        int[] targets = this.graph.targets();
+        int[] reverseOffsets = this.graph.reverseOffsets();
+        int[] sources = this.graph.sources();
+        int[] part = this.partition;
+
+        // trimming
+        Deque<Integer> trim = new ArrayDeque<>();
+        for (int v : nodes) {
+            int in = 0;
+            for (int i = reverseOffsets[v]; i < reverseOffsets[v + 1]; ++i) {
+                if (part[sources[i]] == label) {
+                    ++in;
+                }
+            }
+            int out = 0;
+            for (int i = offsets[v]; i < offsets[v + 1]; ++i) {
+                if (part[targets[i]] == label) {
+                    ++out;
+                }
+            }
+            this.inDegree[v] = in;
+            this.outDegree[v] = out;
+            if (in == 0 || out == 0) {
+                trim.add(v);
+            }
+        }
+        while (!trim.isEmpty()) {
+            int v = trim.poll();
+            if (part[v] != label) {
+                continue;
+            }
+            part[v] = DONE;
+            this.component[v] = this.components.getAndIncrement();
+
+            for (int i = offsets[v]; i < offsets[v + 1]; ++i) {
+                int t = targets[i];
+                if (part[t] == label && --this.inDegree[t] == 0) {
+                    trim.add(t);
+                }
+            }
+            for (int i = reverseOffsets[v]; i < reverseOffsets[v + 1]; ++i) {
+                int s = sources[i];
+                if (part[s] == label && --this.outDegree[s] == 0) {
+                    trim.add(s);
+                }
+            }
+        }
+
+        int pivot = -1;
+        for (int v : nodes) {
+            if (part[v] == label) {
+                pivot = v;
+                break;
+            }
+        }
+        if (pivot < 0) {
+            return Collections.emptyList();
+        }
+
+        // forward search from the pivot
+        int forward = this.labels.getAndIncrement();
+        Deque<Integer> todo = new ArrayDeque<>();
+        part[pivot] = forward;
+        todo.add(pivot);
+        while (!todo.isEmpty()) {
+            int x = todo.poll();
+            for (int i = offsets[x]; i < offsets[x + 1]; ++i) {
+                int t = targets[i];
+                if (part[t] == label) {
+                    part[t] = forward;
+                    todo.add(t);
+                }
+            }
+        }
+
+        // backward search from the pivot, F and B intersect in its component
+        int backward = this.labels.getAndIncrement();
+        int c = this.components.getAndIncrement();
+        part[pivot] = DONE;
+        this.component[pivot] = c;
+        todo.add(pivot);
+        while (!todo.isEmpty()) {
+            int x = todo.poll();
+            for (int i = reverseOffsets[x]; i < reverseOffsets[x + 1]; ++i) {
+                int s = sources[i];
+                if (part[s] == forward) {
+                    part[s] = DONE;
+                    this.component[s] = c;
+                    todo.add(s);
+                } else if (part[s] == label) {
+                    part[s] = backward;
+                    todo.add(s);
+                }
+            }
+        }
+
+        // the remaining partitions
+        List<Decomposition> result = new ArrayList<>(3);
+        for (int l : new int[] {forward, backward, label}) {
+            int count = 0;
+            for (int v : nodes) {
+                if (part[v] == l) {
+                    ++count;
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+
+            int[] rest = new int[count];
+            int j = 0;
+            for (int v : nodes) {
+                if (part[v] == l) {
+                    rest[j++] = v;
+                }
+            }
+            int fresh = l == label ? this.labels.getAndIncrement() : l;
+            for (int v : rest) {
+                part[v] = fresh;
+            }
+            result.add(new Decomposition(fresh, rest));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Contains reusable analyses of finite graphs (e.g. an explored
+ * {@link np2016.CCSSemantics.LTS}). The analyses work on an
+ * {@link np2016.GraphAnalysis.IndexedGraph}, a compact array representation
+ * of a graph, and are iterative so they do not overflow the stack on large
+ * graphs.
+ */
+package np2016.GraphAnalysis;
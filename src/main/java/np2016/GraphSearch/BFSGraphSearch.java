@@ -2,6 +2,7 @@ package np2016.GraphSearch;
 
 import np2016.Graph.Edge;
 import np2016.Graph.Node;
+import np2016.Monitoring.ExplorationMetrics;
 
 /**
  * Specifies an abstract BFS (breadth-first-search) based graph search. It
@@ -20,6 +21,12 @@ implements GraphSearch<N, E> {
      */
     protected final BFSGraphVisitor<N, E> visitor;
 
+    /**
+     * The metrics the search reports to or {@code null} if no metrics are
+     * recorded.
+     */
+    protected ExplorationMetrics metrics;
+
     /**
      * Constructs a new BFS based graph search (the search is not started yet).
      *
@@ -29,4 +36,9 @@ implements GraphSearch<N, E> {
     protected BFSGraphSearch(final BFSGraphVisitor<N, E> visitor) {
         this.visitor = visitor;
     }
+
+    @Override
+    public void setMetrics(final ExplorationMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
@@ -47,6 +47,17 @@ public interface BFSGraphVisitor<N extends Node<?>, E extends Edge<N, ?>> {
      */
     void finishVertex(Graph<N, E> graph, N vertex);
 
+    /**
+     * Is called by the graph search for every node that turned out to have no
+     * outgoing edges, immediately after its edges were generated.
+     *
+     * @param graph
+     *            the searched graph.
+     * @param vertex
+     *            the terminal node.
+     */
+    void terminalVertex(Graph<N, E> graph, N vertex);
+
     /**
      * Is called by the graph search for every edge for which the target node is
      * already discovered (hence the name "non-tree" since the target node must
@@ -71,4 +82,16 @@ public interface BFSGraphVisitor<N extends Node<?>, E extends Edge<N, ?>> {
      *            the found edge.
      */
     void treeEdge(Graph<N, E> graph, E edge);
+
+    /**
+     * Is called by the graph search after every processed node. Once it
+     * returns true the search stops as soon as possible (see
+     * {@link GraphSearch#stop}), e.g. because the visitor found the node it
+     * was looking for. By default the whole graph is searched.
+     *
+     * @return true if the search should stop.
+     */
+    default boolean isDone() {
+        return false;
+    }
 }
@@ -2,7 +2,9 @@ package np2016.GraphSearch;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 import np2016.AtomicNumber;
 import np2016.NonSense;
@@ -12,6 +14,10 @@ import np2016.WorkList;
 import np2016.Graph.Edge;
 import np2016.Graph.Graph;
 import np2016.Graph.Node;
+import np2016.Monitoring.FlightEvents;
+import np2016.Monitoring.LockProbe;
+import np2016.Monitoring.LockStatistics;
+import np2016.Monitoring.LockStatistics.WorkerTimes;
 
 /**
  * Concurrent graph search implementation. Uses a {@link BFSGraphVisitor} to
@@ -75,6 +81,39 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 	 */
 	private ArrayList<Thread> destroyer;
 
+	/**
+	 * The first exception or error that terminated a Worker. If this is set,
+	 * the search is aborted.
+	 */
+	private volatile Throwable failure;
+
+	/**
+	 * Set if the search was stopped because it is complete. The Workers then
+	 * stop without emptying the worklist.
+	 */
+	private volatile boolean stopped;
+
+	/**
+	 * Measures the waiting and holding times of all synchronization points
+	 * and the times of the Workers.
+	 */
+	private LockStatistics lockStatistics = LockStatistics.DISABLED;
+
+	/**
+	 * Measures the contention on lock1.
+	 */
+	private LockProbe lock1Probe = LockProbe.DISABLED;
+
+	/**
+	 * Measures the contention on lock2.
+	 */
+	private LockProbe lock2Probe = LockProbe.DISABLED;
+
+	/**
+	 * Measures the contention on the visited Set.
+	 */
+	private LockProbe visitedProbe = LockProbe.DISABLED;
+
 	/**
 	 * @param visitor
 	 */
@@ -96,15 +135,35 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 		// handle the start node
 		this.visitor.startVertex(graph, startVertex);
 
+		// expose the worklist and the working Threads to the metrics
+		if (this.metrics != null) {
+			this.metrics.setFrontierGauge(todo::size);
+			this.metrics.setWorkerGauge(activWorker::get, numberOfThreads);
+			this.metrics.stateDiscovered();
+
+			lockStatistics = this.metrics.getLockStatistics();
+			lock1Probe = lockStatistics.probe("lock1");
+			lock2Probe = lockStatistics.probe("lock2");
+			visitedProbe = lockStatistics.probe("visited");
+			todo.setProbe(lockStatistics.probe("worklist"));
+			activWorker.setProbe(lockStatistics.probe("activWorker"));
+		}
+
 		// store the start node in the worklist
 		todo.offer(startVertex);
 
 		// start as many Workers as the given number of Threads and add their
 		// references in destroyer.
 		for (int i = 0; i < numberOfThreads; i++) {
+			final String name = "worker-" + i;
 			Thread thread = new Thread(new Runnable() {
 				public void run() {
-					workOnGraph(graph);
+					WorkerTimes times = lockStatistics.registerWorker(name);
+					try {
+						workOnGraph(graph, times);
+					} finally {
+						times.finish();
+					}
 				}
 			});
 			destroyer.add(thread);
@@ -120,14 +179,20 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 		Thread watcherThread = new Thread(new Runnable() {
 			public void run() {
 
+				long t = lock1Probe.enter();
 				synchronized (lock1) {
-					while (atomarCheck()) {
+					t = lock1Probe.acquired(t);
+					long waited = 0;
+					while (failure == null && !stopped && atomarCheck()) {
 						try {
+							long since = lock1Probe.now();
 							lock1.wait();
+							waited += lock1Probe.now() - since;
 						} catch (InterruptedException e) {
 							e.printStackTrace();
 						}
 					}
+					lock1Probe.released(t, waited);
 				}
 
 				for (int i = 0; i < destroyer.size(); i++) {
@@ -148,67 +213,121 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 	 * 
 	 * @param graph
 	 *            Abstract graph representation
+	 * @param times
+	 *            the times of this Worker
 	 */
-	private void workOnGraph(Graph<N, E> graph) {
-		while (true) {
+	private void workOnGraph(Graph<N, E> graph, WorkerTimes times) {
+		while (failure == null && !stopped) {
 			// The Worker first checks, whether the worklist is empty. If it's
 			// the fall, then he currently has nothing to do and waits for a
 			// notify of any Worker, which add a node in the worklist.
 			// Before he do it, he may send a notify to the Watcher-thread, iff
 			// no task is available for some Worker.
+			long t2 = lock2Probe.enter();
 			synchronized (lock2) {
+				t2 = lock2Probe.acquired(t2);
+				long waited = 0;
 				while (todo.isEmpty()) {
 					try {
+						long t1 = lock1Probe.enter();
 						synchronized (lock1) {
+							t1 = lock1Probe.acquired(t1);
 							if (activWorker.check()) {
 								lock1.notify();
 							}
+							lock1Probe.released(t1);
 						}
+						long since = times.now();
 						lock2.wait();
+						waited += times.idleSince(since);
 					} catch (InterruptedException e) {
 						return;
 					}
 				}
+				lock2Probe.released(t2, waited);
 			}
 
 			// increment the number of working thread.
 			activWorker.increase();
-			// get the first node in the worklist
-			// add the node to the visited set
-			N next = (N) todo.poll();
-			remember(next);
-
-			// make sure that next is not null
-			if (next != null) {
-				// generate the outgoing edges of the node next
-				for (E edge : graph.getEdges(next)) {
-					N target = edge.getTarget();
-					// check whether the reached state is already discovered
-					if (!alreadyWorked(graph, edge)) {
-						// not discovered => add to the worklist
-						todo.offer(target);
-						// notify another waiting Worker that there is a
-						// available task now but only the unlucky one (^_^)
-						synchronized (lock2) {
-							lock2.notify();
-						}
-					} else {
-						// discovered => tell the visitor there is a non-tree
-						// edge
-						this.visitor.nonTreeEdge(graph, edge);
+			try {
+				// get the first node in the worklist
+				// add the node to the visited set
+				N next = (N) todo.poll();
+				remember(next);
+
+				// make sure that next is not null
+				if (next != null) {
+					// generate the outgoing edges of the node next
+					long post = this.metrics != null ? System.nanoTime() : 0;
+					List<E> edges = graph.getEdges(next);
+					if (this.metrics != null) {
+						this.metrics.stateProcessed(System.nanoTime() - post, edges.size());
 					}
 
+					if (edges.isEmpty()) {
+						this.visitor.terminalVertex(graph, next);
+					}
+
+					for (E edge : edges) {
+						N target = edge.getTarget();
+						// check whether the reached state is already discovered
+						if (!alreadyWorked(graph, edge)) {
+							// not discovered => add to the worklist
+							todo.offer(target);
+							// notify another waiting Worker that there is a
+							// available task now but only the unlucky one (^_^)
+							long t = lock2Probe.enter();
+							synchronized (lock2) {
+								t = lock2Probe.acquired(t);
+								lock2.notify();
+								lock2Probe.released(t);
+							}
+						} else {
+							// discovered => tell the visitor there is a non-tree
+							// edge
+							this.visitor.nonTreeEdge(graph, edge);
+						}
+
+					}
 				}
+			} catch (RuntimeException | Error e) {
+				// do not lose the Worker silently, abort the whole search
+				fail(e);
+				return;
+			} finally {
+				// the Worker has finished with the node, so we decrease the
+				// number of working Thread
+				activWorker.decrease();
 			}
 
-			// the Worker has finished with the node, so we decrease the number
-			// of working Thread
-			activWorker.decrease();
+			if (this.visitor.isDone()) {
+				stop();
+			}
 
 		}
 
 	}
 
+	/**
+	 * Aborts the search because a Worker was terminated by the given exception
+	 * or error. Only the first failure is kept. The Watcher-thread is woken
+	 * up, it interrupts all other Workers.
+	 *
+	 * @param e
+	 *            the exception or error that terminated the Worker.
+	 */
+	private void fail(Throwable e) {
+		long t = lock1Probe.enter();
+		synchronized (lock1) {
+			t = lock1Probe.acquired(t);
+			if (failure == null) {
+				failure = e;
+			}
+			lock1.notify();
+			lock1Probe.released(t);
+		}
+	}
+
 	/**
 	 * Checks, whether the target node is already contained in the visited Set.
 	 * If yes return true, else add this one and call treeEdge.
@@ -219,13 +338,31 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 	 *            the edge type of the graph that is being searched.
 	 * @return boolean
 	 */
-	synchronized private boolean alreadyWorked(Graph<N, E> graph, E edge) {
-		if (!visited.contains(edge.getTarget())) {
-			visited.add(edge.getTarget());
-			this.visitor.treeEdge(graph, edge);
-			return false;
+	private boolean alreadyWorked(Graph<N, E> graph, E edge) {
+		long t = visitedProbe.enter();
+		synchronized (this) {
+			t = visitedProbe.acquired(t);
+			try {
+				FlightEvents.VisitedInsert event = new FlightEvents.VisitedInsert();
+				event.begin();
+				if (!visited.contains(edge.getTarget())) {
+					visited.add(edge.getTarget());
+					event.end();
+					if (event.shouldCommit()) {
+						event.visited = visited.size();
+						event.commit();
+					}
+					this.visitor.treeEdge(graph, edge);
+					if (this.metrics != null) {
+						this.metrics.stateDiscovered();
+					}
+					return false;
+				}
+				return true;
+			} finally {
+				visitedProbe.released(t);
+			}
 		}
-		return true;
 	}
 
 	/**
@@ -234,8 +371,13 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 	 * @param node
 	 *            the node type of the graph that is being searched.
 	 */
-	synchronized private void remember(N node) {
-		visited.add(node);
+	private void remember(N node) {
+		long t = visitedProbe.enter();
+		synchronized (this) {
+			t = visitedProbe.acquired(t);
+			visited.add(node);
+			visitedProbe.released(t);
+		}
 	}
 
 	@Override
@@ -243,6 +385,29 @@ public class ConcurrentGraphSearch<N extends Node<?>, E extends Edge<N, ?>> exte
 		return watcher.getWatcher();
 	}
 
+	@Override
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	@Override
+	public void cancel() {
+		// a cancellation aborts the search like a failed Worker
+		fail(new CancellationException("The search was cancelled."));
+	}
+
+	@Override
+	public void stop() {
+		// wake up the Watcher-thread, it interrupts all Workers
+		long t = lock1Probe.enter();
+		synchronized (lock1) {
+			t = lock1Probe.acquired(t);
+			stopped = true;
+			lock1.notify();
+			lock1Probe.released(t);
+		}
+	}
+
 	/**
 	 * Checks atomarily, whether the number of working Threads is egal to 0 
 	 * and todo is empty (We return the negated value).
@@ -4,6 +4,7 @@ import np2016.CCSSemantics.LTS;
 import np2016.CCSSemantics.State;
 import np2016.CCSSemantics.Transition;
 import np2016.Graph.Graph;
+import np2016.Monitoring.LockProbe;
 
 /**
  * Concurrent implementation of the {@link LTSBuilder}.
@@ -12,20 +13,46 @@ import np2016.Graph.Graph;
  */
 public class ConcurrentLTSBuilder extends LTSBuilder {
 
+	/**
+	 * Measures the contention on this monitor.
+	 */
+	private LockProbe probe = LockProbe.DISABLED;
+
+	/**
+	 * Sets the probe that measures the contention on this monitor. Must be
+	 * called before the search is started.
+	 * 
+	 * @param probe
+	 *            the probe
+	 */
+	public void setProbe(LockProbe probe) {
+		this.probe = probe;
+	}
+
 	@Override
 	synchronized public void startVertex(final Graph<State, Transition> graph, final State state) {
 		this.lts = new LTS(state);
 	}
 
 	@Override
-	synchronized public void nonTreeEdge(final Graph<State, Transition> graph, final Transition transition) {
-		this.lts.addTransition(transition);
+	public void nonTreeEdge(final Graph<State, Transition> graph, final Transition transition) {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			this.lts.addTransition(transition);
+			probe.released(t);
+		}
 	}
 
 	@Override
-	synchronized public void treeEdge(final Graph<State, Transition> graph, final Transition transition) {
-		this.lts.addState(transition.getTarget());
-		this.lts.addTransition(transition);
+	public void treeEdge(final Graph<State, Transition> graph, final Transition transition) {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			this.lts.addState(transition.getTarget());
+			this.lts.addTransition(transition);
+			probe.released(t);
+		}
 	}
 
 	@Override
@@ -4,6 +4,7 @@ import np2016.NonSense;
 import np2016.Graph.Edge;
 import np2016.Graph.Graph;
 import np2016.Graph.Node;
+import np2016.Monitoring.ExplorationMetrics;
 
 /**
  * Specifies an abstract graph search. All a graph search is capable of is
@@ -31,4 +32,37 @@ public interface GraphSearch<N extends Node<?>, E extends Edge<N, ?>> {
 	 * @return boolean
 	 */
 	boolean getWatcher();
+
+	/**
+	 * Returns the exception or error that aborted the search (e.g. a
+	 * {@link StackOverflowError} or {@link OutOfMemoryError} in a worker
+	 * thread).
+	 *
+	 * @return the failure or {@code null} if the search was not aborted.
+	 */
+	Throwable getFailure();
+
+	/**
+	 * Sets the metrics the search reports its progress to. Must be called
+	 * before the search is started.
+	 *
+	 * @param metrics
+	 *            the metrics or {@code null} if no metrics should be recorded.
+	 */
+	void setMetrics(ExplorationMetrics metrics);
+
+	/**
+	 * Cancels the search. May be called from any thread at any time. The
+	 * search terminates as soon as possible; afterwards {@link #getFailure()}
+	 * returns a {@link java.util.concurrent.CancellationException}.
+	 */
+	void cancel();
+
+	/**
+	 * Stops the search because it is complete, e.g. because the node searched
+	 * for was found. May be called from any thread at any time. The search
+	 * terminates as soon as possible without processing the remaining nodes;
+	 * unlike {@link #cancel()} this is not a failure.
+	 */
+	void stop();
 }
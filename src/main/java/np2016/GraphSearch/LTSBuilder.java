@@ -49,6 +49,12 @@ public abstract class LTSBuilder implements BFSGraphVisitor<State, Transition> {
         // Do nothing. Override this method as needed.
     }
 
+    @Override
+    public void terminalVertex(final Graph<State, Transition> graph,
+            final State state) {
+        // Do nothing. Override this method as needed.
+    }
+
     @Override
     public void nonTreeEdge(final Graph<State, Transition> graph,
             final Transition edge) {
@@ -0,0 +1,503 @@
+package np2016.GraphSearch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import np2016.Graph.Edge;
+import np2016.Graph.Graph;
+import np2016.Graph.Node;
+
+/**
+ * Multi-core nested depth-first search (CNDFS, Evangelista et al. 2012) for a
+ * reachable accepting cycle, i.e. a cycle through a node that satisfies the
+ * acceptance condition. The graph is explored on the fly from its sources.
+ * <p>
+ * Every worker runs the outer ("blue") and the inner ("red") search with its
+ * own order of the successors. The workers share which nodes are completely
+ * explored (blue) and which cannot lie on an accepting cycle (red), so they
+ * split the work without a shared stack. The first worker that finds an
+ * accepting cycle or finishes its search stops the others. Both searches are
+ * iterative, so long paths do not overflow the stack.
+ *
+ * @param <N>
+ *            the node type of the graph.
+ * @param <E>
+ *            the edge type of the graph.
+ */
+public final class NestedDepthFirstSearch<N extends Node<?>, E extends Edge<N, ?>> {
+
+    /**
+     * Colour of a node whose successors are completely explored by some
+     * worker.
+     */
+    private static final int BLUE = 1;
+
+    /**
+     * Colour of a node that does not lie on an accepting cycle.
+     */
+    private static final int RED = 2;
+
+    /**
+     * The searched graph.
+     */
+    private final Graph<N, E> graph;
+
+    /**
+     * The acceptance condition.
+     */
+    private final Predicate<? super N> accepting;
+
+    /**
+     * The number of workers.
+     */
+    private final int workers;
+
+    /**
+     * The shared colours of the nodes.
+     */
+    private final Map<N, Integer> colours = new ConcurrentHashMap<>();
+
+    /**
+     * The accepting cycle found.
+     */
+    private final AtomicReference<Lasso<E>> lasso = new AtomicReference<>();
+
+    /**
+     * The first failure of a worker.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Is counted down by the first worker that finishes.
+     */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    /**
+     * Whether the workers shall stop.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a nested depth-first search.
+     *
+     * @param graph
+     *            the graph (must be thread-safe if {@code workers > 1}).
+     * @param accepting
+     *            the acceptance condition.
+     * @param workers
+     *            the number of workers.
+     */
+    public NestedDepthFirstSearch(final Graph<N, E> graph, final Predicate<? super N> accepting,
+            final int workers) {
+        this.graph = graph;
+        this.accepting = accepting;
+        this.workers = Math.max(1, workers);
+    }
+
+    /**
+     * Searches for an accepting cycle reachable from the sources of the
+     * graph.
+     *
+     * @return the accepting cycle or {@code null} if there is none or the
+     *         search failed (see {@link #getFailure}).
+     */
+    public Lasso<E> search() {
+        List<N> sources = this.graph.getSources();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < this.workers; ++i) {
+            Worker worker = new Worker(sources, i);
+            threads.add(new Thread(() -> {
+                try {
+                    worker.run();
+                } catch (RuntimeException | Error e) {
+                    this.failure.compareAndSet(null, e);
+                } finally {
+                    this.finished.countDown();
+                }
+            }, "NDFS-" + i));
+        }
+        threads.forEach(Thread::start);
+
+        try {
+            this.finished.await();
+        } catch (InterruptedException e) {
+            this.failure.compareAndSet(null, e);
+        }
+        this.stopped = true;
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                this.failure.compareAndSet(null, e);
+            }
+        }
+
+        return this.lasso.get();
+    }
+
+    /**
+     * Stops the search. It then fails with a {@link CancellationException}
+     * unless an accepting cycle was found before.
+     */
+    public void cancel() {
+        this.failure.compareAndSet(null, new CancellationException("The search was cancelled."));
+        this.stopped = true;
+        this.finished.countDown();
+    }
+
+    /**
+     * Returns why the search failed.
+     *
+     * @return the failure or {@code null} if the search did not fail.
+     */
+    public Throwable getFailure() {
+        return this.lasso.get() != null ? null : this.failure.get();
+    }
+
+    /**
+     * Reports an accepting cycle and stops the search.
+     *
+     * @param found
+     *            the accepting cycle.
+     */
+    private void found(final Lasso<E> found) {
+        if (this.lasso.compareAndSet(null, found)) {
+            this.stopped = true;
+        }
+    }
+
+    /**
+     * Returns whether a node has the given colour.
+     *
+     * @param n
+     *            the node.
+     * @param colour
+     *            the colour.
+     * @return true if the node has the colour.
+     */
+    private boolean is(final N n, final int colour) {
+        Integer c = this.colours.get(n);
+        return c != null && (c & colour) != 0;
+    }
+
+    /**
+     * Adds a colour to a node.
+     *
+     * @param n
+     *            the node.
+     * @param colour
+     *            the colour.
+     */
+    private void paint(final N n, final int colour) {
+        this.colours.merge(n, colour, (a, b) -> a | b);
+    }
+
+    /**
+     * A path from a source to an accepting cycle.
+     *
+     * @param <E>
+     *            the edge type of the graph.
+     */
+    public static final class Lasso<E> {
+
+        /**
+         * The path from the source to the cycle.
+         */
+        private final List<E> prefix;
+
+        /**
+         * The cycle.
+         */
+        private final List<E> loop;
+
+        /**
+         * Constructs a lasso.
+         *
+         * @param prefix
+         *            the path from the source to the cycle.
+         * @param loop
+         *            the cycle.
+         */
+        Lasso(final List<E> prefix, final List<E> loop) {
+            this.prefix = Collections.unmodifiableList(prefix);
+            this.loop = Collections.unmodifiableList(loop);
+        }
+
+        /**
+         * Returns the path from the source to the cycle.
+         *
+         * @return the edges of the path (may be empty).
+         */
+        public List<E> getPrefix() {
+            return this.prefix;
+        }
+
+        /**
+         * Returns the cycle. It starts at the end of the prefix and contains
+         * an accepting node.
+         *
+         * @return the edges of the cycle (not empty).
+         */
+        public List<E> getLoop() {
+            return this.loop;
+        }
+    }
+
+    /**
+     * A node on the stack of a search together with the edge it was reached
+     * by and its remaining successors.
+     *
+     * @param <N>
+     *            the node type of the graph.
+     * @param <E>
+     *            the edge type of the graph.
+     */
+    private static final class Frame<N, E> {
+
+        /**
+         * The node.
+         */
+        private final N node;
+
+        /**
+         * The edge the node was reached by ({@code null} for a source).
+         */
+        private final E via;
+
+        /**
+         * The outgoing edges.
+         */
+        private final List<E> edges;
+
+        /**
+         * The next outgoing edge to visit.
+         */
+        private int next;
+
+        /**
+         * Constructs a stack frame.
+         *
+         * @param node
+         *            the node.
+         * @param via
+         *            the edge the node was reached by.
+         * @param edges
+         *            the outgoing edges.
+         */
+        Frame(final N node, final E via, final List<E> edges) {
+            this.node = node;
+            this.via = via;
+            this.edges = edges;
+        }
+    }
+
+    /**
+     * One worker of the search.
+     */
+    private final class Worker {
+
+        /**
+         * The sources of the graph.
+         */
+        private final List<N> sources;
+
+        /**
+         * Permutes the successors; {@code null} for the first worker, which
+         * keeps the order of the graph.
+         */
+        private final Random random;
+
+        /**
+         * The stack of the outer search.
+         */
+        private final List<Frame<N, E>> blue = new ArrayList<>();
+
+        /**
+         * The nodes on the stack of the outer search ("cyan") and their
+         * positions on the stack.
+         */
+        private final Map<N, Integer> cyan = new HashMap<>();
+
+        /**
+         * Constructs a worker.
+         *
+         * @param sources
+         *            the sources of the graph.
+         * @param id
+         *            the number of the worker.
+         */
+        Worker(final List<N> sources, final int id) {
+            this.random = id == 0 ? null : new Random(id);
+            this.sources = order(new ArrayList<>(sources));
+        }
+
+        /**
+         * Runs the outer search from every source.
+         */
+        void run() {
+            for (N source : this.sources) {
+                if (stopped) {
+                    return;
+                }
+                if (!is(source, BLUE)) {
+                    blue(source);
+                }
+            }
+        }
+
+        /**
+         * Runs the outer search from a source.
+         *
+         * @param source
+         *            the source.
+         */
+        private void blue(final N source) {
+            push(source, null);
+
+            while (!this.blue.isEmpty() && !stopped) {
+                Frame<N, E> f = this.blue.get(this.blue.size() - 1);
+                if (f.next < f.edges.size()) {
+                    E edge = f.edges.get(f.next++);
+                    N t = edge.getTarget();
+                    Integer position = this.cyan.get(t);
+                    if (position != null) {
+                        if (accepting.test(f.node) || accepting.test(t)) {
+                            found(lasso(position, Collections.emptyList(), edge));
+                        }
+                    } else if (!is(t, BLUE)) {
+                        push(t, edge);
+                    }
+                    continue;
+                }
+
+                N n = f.node;
+                paint(n, BLUE);
+                if (accepting.test(n)) {
+                    red(n, f.edges);
+                }
+                this.blue.remove(this.blue.size() - 1);
+                this.cyan.remove(n);
+            }
+        }
+
+        /**
+         * Pushes a node on the stack of the outer search.
+         *
+         * @param n
+         *            the node.
+         * @param via
+         *            the edge it was reached by.
+         */
+        private void push(final N n, final E via) {
+            this.cyan.put(n, this.blue.size());
+            this.blue.add(new Frame<>(n, via, order(new ArrayList<>(graph.getEdges(n)))));
+        }
+
+        /**
+         * Runs the inner search from an accepting node whose outer search just
+         * finished. It looks for a cycle back to the stack of the outer
+         * search. Afterwards all visited nodes are red.
+         *
+         * @param seed
+         *            the accepting node.
+         * @param edges
+         *            its outgoing edges.
+         */
+        private void red(final N seed, final List<E> edges) {
+            Set<N> visited = new HashSet<>();
+            List<Frame<N, E>> stack = new ArrayList<>();
+            visited.add(seed);
+            stack.add(new Frame<>(seed, null, edges));
+
+            while (!stack.isEmpty() && !stopped) {
+                Frame<N, E> f = stack.get(stack.size() - 1);
+                if (f.next == f.edges.size()) {
+                    stack.remove(stack.size() - 1);
+                    continue;
+                }
+
+                E edge = f.edges.get(f.next++);
+                N t = edge.getTarget();
+                Integer position = this.cyan.get(t);
+                if (position != null) {
+                    List<E> path = new ArrayList<>();
+                    for (Frame<N, E> g : stack.subList(1, stack.size())) {
+                        path.add(g.via);
+                    }
+                    found(lasso(position, path, edge));
+                    return;
+                }
+                if (!is(t, RED) && visited.add(t)) {
+                    stack.add(new Frame<>(t, edge, order(new ArrayList<>(graph.getEdges(t)))));
+                }
+            }
+
+            // wait until the other workers finished the accepting nodes they
+            // are searching from
+            for (N n : visited) {
+                while (!n.equals(seed) && accepting.test(n) && !is(n, RED) && !stopped) {
+                    Thread.yield();
+                }
+            }
+            for (N n : visited) {
+                paint(n, RED);
+            }
+        }
+
+        /**
+         * Permutes a list for this worker.
+         *
+         * @param list
+         *            the list (is modified).
+         * @param <T>
+         *            the element type.
+         * @return the permuted list.
+         */
+        private <T> List<T> order(final List<T> list) {
+            if (this.random != null) {
+                Collections.shuffle(list, this.random);
+            }
+            return list;
+        }
+
+        /**
+         * Constructs the lasso for a cycle that leaves the top of the stack of
+         * the outer search and closes at a node on that stack.
+         *
+         * @param position
+         *            the position of the node closing the cycle.
+         * @param path
+         *            the edges leading from the top of the stack to the start
+         *            of the last edge.
+         * @param last
+         *            the edge that closes the cycle.
+         * @return the lasso.
+         */
+        private Lasso<E> lasso(final int position, final List<E> path, final E last) {
+            List<E> prefix = new ArrayList<>();
+            for (Frame<N, E> f : this.blue.subList(1, position + 1)) {
+                prefix.add(f.via);
+            }
+
+            List<E> loop = new ArrayList<>();
+            for (Frame<N, E> f : this.blue.subList(position + 1, this.blue.size())) {
+                loop.add(f.via);
+            }
+            loop.addAll(path);
+            loop.add(last);
+            return new Lasso<>(prefix, loop);
+        }
+    }
+}
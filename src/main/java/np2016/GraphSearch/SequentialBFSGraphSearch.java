@@ -2,13 +2,17 @@ package np2016.GraphSearch;
 
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import np2016.NonSense;
 import np2016.Graph.Edge;
 import np2016.Graph.Graph;
 import np2016.Graph.Node;
+import np2016.Monitoring.FlightEvents;
 
 /**
  * Sequential BFS (breadth-first-search) graph search implementation. Uses a
@@ -23,6 +27,16 @@ public final class SequentialBFSGraphSearch
 <N extends Node<?>, E extends Edge<N, ?>>
 extends BFSGraphSearch<N, E> {
 
+    /**
+     * Set if the search was cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Set if the search was stopped because it is complete.
+     */
+    private volatile boolean stopped;
+
     /**
      * Constructs a new sequential BFS graph search.
      *
@@ -39,6 +53,14 @@ extends BFSGraphSearch<N, E> {
         final Set<N> visited = new HashSet<N>();
         // stores all nodes that still need processing
         final Queue<N> todo = new LinkedList<>();
+        // size of the queue as seen by the metrics
+        final AtomicInteger frontier = new AtomicInteger();
+
+        if (this.metrics != null) {
+            this.metrics.setFrontierGauge(frontier::get);
+            this.metrics.setWorkerGauge(() -> 1, 1);
+            this.metrics.stateDiscovered();
+        }
 
         // handle the start node
         this.visitor.startVertex(graph, startVertex);
@@ -47,23 +69,44 @@ extends BFSGraphSearch<N, E> {
         todo.offer(startVertex);
 
         // process nodes as long as there are nodes in the queue
-        while (todo.peek() != null) {
+        while (todo.peek() != null && !this.cancelled && !this.stopped) {
             // get the first node in the queue and generate the outgoing edges
             // add the node to the visited set
             N next = todo.poll();
             visited.add(next);
 
-            for (E edge : graph.getEdges(next)) {
+            long post = this.metrics != null ? System.nanoTime() : 0;
+            List<E> edges = graph.getEdges(next);
+            if (this.metrics != null) {
+                this.metrics.stateProcessed(System.nanoTime() - post, edges.size());
+            }
+
+            if (edges.isEmpty()) {
+                this.visitor.terminalVertex(graph, next);
+            }
+
+            for (E edge : edges) {
 
                 // check whether the reached state is already discovered (a node
                 // counts as discovered if it is in the visited set or
                 // the queue)
                 N target = edge.getTarget();
+                FlightEvents.VisitedInsert event = new FlightEvents.VisitedInsert();
+                event.begin();
                 if (!visited.contains(target) && !todo.contains(target)) {
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.visited = visited.size() + todo.size() + 1;
+                        event.commit();
+                    }
+
                     // not discovered => add to the queue,
                     // also tell the visitor (discovered node and tree edge)
                     this.visitor.treeEdge(graph, edge);
                     this.visitor.discoverVertex(graph, target);
+                    if (this.metrics != null) {
+                        this.metrics.stateDiscovered();
+                    }
 
                     todo.offer(target);
                 } else {
@@ -74,6 +117,11 @@ extends BFSGraphSearch<N, E> {
 
             // done processing the node => tell the visitor
             this.visitor.finishVertex(graph, next);
+            frontier.lazySet(todo.size());
+
+            if (this.visitor.isDone()) {
+                stop();
+            }
         }
     }
 
@@ -82,4 +130,20 @@ extends BFSGraphSearch<N, E> {
 		return true;
 	}
 
+	@Override
+	public Throwable getFailure() {
+		// failures of the sequential search are thrown directly
+		return cancelled ? new CancellationException("The search was cancelled.") : null;
+	}
+
+	@Override
+	public void cancel() {
+		cancelled = true;
+	}
+
+	@Override
+	public void stop() {
+		stopped = true;
+	}
+
 }
@@ -0,0 +1,383 @@
+package np2016.Logic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import np2016.CCSSemantics.Action;
+
+/**
+ * Büchi automaton that accepts exactly the runs satisfying an LTL formula. It
+ * is constructed with the tableau construction of Gerth, Peled, Vardi and
+ * Wolper ("Simple on-the-fly automatic verification of linear temporal
+ * logic", 1995), which yields a generalized Büchi automaton with one
+ * acceptance set per "until" subformula. It is then degeneralized with a
+ * counter.
+ * <p>
+ * The states are labelled: a state constrains the action performed at the
+ * position of the run it is visited at (see {@link #isEnabled}).
+ */
+public final class BuchiAutomaton {
+
+    /**
+     * The initial states.
+     */
+    private final int[] initial;
+
+    /**
+     * The successors of each state.
+     */
+    private final int[][] successors;
+
+    /**
+     * The literals each state requires.
+     */
+    private final Formula[][] labels;
+
+    /**
+     * Whether each state is accepting.
+     */
+    private final boolean[] accepting;
+
+    /**
+     * Constructs an automaton.
+     *
+     * @param initial
+     *            the initial states.
+     * @param successors
+     *            the successors of each state.
+     * @param labels
+     *            the literals each state requires.
+     * @param accepting
+     *            whether each state is accepting.
+     */
+    private BuchiAutomaton(final int[] initial, final int[][] successors,
+            final Formula[][] labels, final boolean[] accepting) {
+        this.initial = initial;
+        this.successors = successors;
+        this.labels = labels;
+        this.accepting = accepting;
+    }
+
+    /**
+     * Constructs the automaton of a formula.
+     *
+     * @param formula
+     *            the formula.
+     * @return the automaton that accepts the runs satisfying the formula.
+     */
+    public static BuchiAutomaton of(final Formula formula) {
+        Formula f = formula.toNegationNormalForm();
+        List<TableauNode> nodes = expand(f);
+
+        List<Formula> untils = new ArrayList<>();
+        collectUntils(f, untils);
+
+        // acceptance sets: a node satisfies "g U h" if it does not promise it
+        // or it fulfils it
+        int k = untils.size();
+        boolean[][] fair = new boolean[Math.max(k, 1)][nodes.size()];
+        for (int q = 0; q < nodes.size(); ++q) {
+            Set<Formula> old = nodes.get(q).old;
+            for (int j = 0; j < k; ++j) {
+                Formula u = untils.get(j);
+                fair[j][q] = !old.contains(u) || old.contains(u.getRight());
+            }
+            if (k == 0) {
+                fair[0][q] = true;
+            }
+        }
+
+        // degeneralization: state (q, i) waits for acceptance set i
+        int sets = Math.max(k, 1);
+        int size = nodes.size() * sets;
+        int[][] successors = new int[size][];
+        Formula[][] labels = new Formula[size][];
+        boolean[] accepting = new boolean[size];
+        for (int q = 0; q < nodes.size(); ++q) {
+            List<Integer> next = new ArrayList<>();
+            for (int p = 0; p < nodes.size(); ++p) {
+                if (nodes.get(p).incoming.contains(q)) {
+                    next.add(p);
+                }
+            }
+            Formula[] label = nodes.get(q).literals();
+
+            for (int i = 0; i < sets; ++i) {
+                int s = q * sets + i;
+                int j = fair[i][q] ? (i + 1) % sets : i;
+                successors[s] = next.stream().mapToInt(p -> p * sets + j).toArray();
+                labels[s] = label;
+                accepting[s] = i == 0 && fair[0][q];
+            }
+        }
+
+        List<Integer> initial = new ArrayList<>();
+        for (int q = 0; q < nodes.size(); ++q) {
+            if (nodes.get(q).incoming.contains(TableauNode.INIT)) {
+                initial.add(q * sets);
+            }
+        }
+
+        return new BuchiAutomaton(initial.stream().mapToInt(Integer::intValue).toArray(),
+                successors, labels, accepting);
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of states.
+     */
+    public int size() {
+        return this.successors.length;
+    }
+
+    /**
+     * Returns the initial states.
+     *
+     * @return the initial states.
+     */
+    public int[] getInitialStates() {
+        return this.initial.clone();
+    }
+
+    /**
+     * Returns the successors of a state.
+     *
+     * @param q
+     *            the state.
+     * @return the successors.
+     */
+    public int[] getSuccessors(final int q) {
+        return this.successors[q].clone();
+    }
+
+    /**
+     * Returns whether a state is accepting.
+     *
+     * @param q
+     *            the state.
+     * @return true if the state is accepting.
+     */
+    public boolean isAccepting(final int q) {
+        return this.accepting[q];
+    }
+
+    /**
+     * Returns whether a state allows the given action at its position.
+     *
+     * @param q
+     *            the state.
+     * @param action
+     *            the action or {@code null} for the position after the end
+     *            of a finite run, where no action is performed.
+     * @return true if the action is allowed.
+     */
+    public boolean isEnabled(final int q, final Action action) {
+        for (Formula l : this.labels[q]) {
+            switch (l.getOperator()) {
+                case ACTION:
+                    if (action == null || !l.matches(action)) {
+                        return false;
+                    }
+                    break;
+                case NOT:
+                    if (action != null && l.getLeft().matches(action)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the "until" subformulas of a formula.
+     *
+     * @param f
+     *            the formula.
+     * @param untils
+     *            receives the subformulas.
+     */
+    private static void collectUntils(final Formula f, final List<Formula> untils) {
+        if (f == null) {
+            return;
+        }
+        if (f.getOperator() == Formula.Operator.UNTIL && !untils.contains(f)) {
+            untils.add(f);
+        }
+        collectUntils(f.getLeft(), untils);
+        collectUntils(f.getRight(), untils);
+    }
+
+    /**
+     * Runs the tableau construction.
+     *
+     * @param formula
+     *            the formula in negation normal form.
+     * @return the nodes of the automaton.
+     */
+    private static List<TableauNode> expand(final Formula formula) {
+        List<TableauNode> nodes = new ArrayList<>();
+        Deque<TableauNode> todo = new ArrayDeque<>();
+
+        TableauNode start = new TableauNode();
+        start.incoming.add(TableauNode.INIT);
+        start.pending.add(formula);
+        todo.push(start);
+
+        while (!todo.isEmpty()) {
+            TableauNode node = todo.pop();
+
+            if (node.pending.isEmpty()) {
+                TableauNode existing = null;
+                for (TableauNode n : nodes) {
+                    if (n.old.equals(node.old) && n.next.equals(node.next)) {
+                        existing = n;
+                        break;
+                    }
+                }
+                if (existing != null) {
+                    existing.incoming.addAll(node.incoming);
+                    continue;
+                }
+
+                int id = nodes.size();
+                nodes.add(node);
+                TableauNode successor = new TableauNode();
+                successor.incoming.add(id);
+                successor.pending.addAll(node.next);
+                todo.push(successor);
+                continue;
+            }
+
+            Formula f = node.pending.iterator().next();
+            node.pending.remove(f);
+            if (node.old.contains(f)) {
+                todo.push(node);
+                continue;
+            }
+
+            switch (f.getOperator()) {
+                case FALSE:
+                    // contradiction, the node is discarded
+                    break;
+                case TRUE:
+                case ACTION:
+                case NOT:
+                    Formula negation = f.getOperator() == Formula.Operator.ACTION ? Formula.not(f)
+                            : f.getOperator() == Formula.Operator.NOT ? f.getLeft() : null;
+                    if (negation == null || !node.old.contains(negation)) {
+                        node.old.add(f);
+                        todo.push(node);
+                    }
+                    break;
+                case AND:
+                    node.require(f.getLeft());
+                    node.require(f.getRight());
+                    node.old.add(f);
+                    todo.push(node);
+                    break;
+                case NEXT:
+                    node.next.add(f.getLeft());
+                    node.old.add(f);
+                    todo.push(node);
+                    break;
+                default:
+                    TableauNode first = node.copy();
+                    TableauNode second = node.copy();
+                    if (f.getOperator() == Formula.Operator.OR) {
+                        first.require(f.getLeft());
+                        second.require(f.getRight());
+                    } else if (f.getOperator() == Formula.Operator.UNTIL) {
+                        first.require(f.getLeft());
+                        first.next.add(f);
+                        second.require(f.getRight());
+                    } else {
+                        first.require(f.getRight());
+                        first.next.add(f);
+                        second.require(f.getLeft());
+                        second.require(f.getRight());
+                    }
+                    first.old.add(f);
+                    second.old.add(f);
+                    todo.push(second);
+                    todo.push(first);
+                    break;
+            }
+        }
+
+        return nodes;
+    }
+
+    /**
+     * A node of the tableau construction.
+     */
+    private static final class TableauNode {
+
+        /**
+         * The pseudo predecessor of the initial nodes.
+         */
+        static final int INIT = -1;
+
+        /**
+         * The predecessors.
+         */
+        private final Set<Integer> incoming = new LinkedHashSet<>();
+
+        /**
+         * The formulas that still have to be processed.
+         */
+        private final Set<Formula> pending = new LinkedHashSet<>();
+
+        /**
+         * The formulas that hold at the position of the node.
+         */
+        private final Set<Formula> old = new LinkedHashSet<>();
+
+        /**
+         * The formulas that hold at the next position.
+         */
+        private final Set<Formula> next = new LinkedHashSet<>();
+
+        /**
+         * Adds a formula that has to hold unless it was already processed.
+         *
+         * @param f
+         *            the formula.
+         */
+        void require(final Formula f) {
+            if (!this.old.contains(f)) {
+                this.pending.add(f);
+            }
+        }
+
+        /**
+         * Returns a copy of this node.
+         *
+         * @return the copy.
+         */
+        TableauNode copy() {
+            TableauNode n = new TableauNode();
+            n.incoming.addAll(this.incoming);
+            n.pending.addAll(this.pending);
+            n.old.addAll(this.old);
+            n.next.addAll(this.next);
+            return n;
+        }
+
+        /**
+         * Returns the literals that hold at the position of the node.
+         *
+         * @return the literals.
+         */
+        Formula[] literals() {
+            return this.old.stream().filter(Formula::isLiteral).toArray(Formula[]::new);
+        }
+    }
+}
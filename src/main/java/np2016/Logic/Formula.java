@@ -0,0 +1,430 @@
+package np2016.Logic;
+
+import java.util.Objects;
+
+import np2016.CCSSemantics.Action;
+
+/**
+ * A formula of linear temporal logic (LTL) over actions. The atomic formula
+ * {@code a} holds at a position of a run if the action performed at this
+ * position is {@code a}; the atomic formula {@code tau} holds for every
+ * internal action. Formulas are immutable.
+ * <p>
+ * The derived operators are expressed by the basic ones:
+ * {@code F f = true U f}, {@code G f = false R f} and
+ * {@code f -> g = !f || g}.
+ */
+public final class Formula {
+
+    /**
+     * The name of the atomic formula that holds for internal actions.
+     */
+    public static final String TAU = "tau";
+
+    /**
+     * The operators of formulas.
+     */
+    public enum Operator {
+        /**
+         * Holds always.
+         */
+        TRUE,
+
+        /**
+         * Holds never.
+         */
+        FALSE,
+
+        /**
+         * Holds if the action is performed.
+         */
+        ACTION,
+
+        /**
+         * Negation.
+         */
+        NOT,
+
+        /**
+         * Conjunction.
+         */
+        AND,
+
+        /**
+         * Disjunction.
+         */
+        OR,
+
+        /**
+         * Holds if the operand holds at the next position.
+         */
+        NEXT,
+
+        /**
+         * Holds if the right operand holds eventually and the left one holds
+         * until then.
+         */
+        UNTIL,
+
+        /**
+         * Holds if the right operand holds up to and including the first
+         * position where the left one holds (forever if there is none).
+         */
+        RELEASE
+    }
+
+    /**
+     * The operator.
+     */
+    private final Operator operator;
+
+    /**
+     * The action of an atomic formula.
+     */
+    private final String action;
+
+    /**
+     * The (left) operand.
+     */
+    private final Formula left;
+
+    /**
+     * The right operand.
+     */
+    private final Formula right;
+
+    /**
+     * Constructs a formula.
+     *
+     * @param operator
+     *            the operator.
+     * @param action
+     *            the action of an atomic formula.
+     * @param left
+     *            the (left) operand.
+     * @param right
+     *            the right operand.
+     */
+    private Formula(final Operator operator, final String action, final Formula left,
+            final Formula right) {
+        this.operator = operator;
+        this.action = action;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Returns the formula that holds always.
+     *
+     * @return {@code true}.
+     */
+    public static Formula tt() {
+        return new Formula(Operator.TRUE, null, null, null);
+    }
+
+    /**
+     * Returns the formula that holds never.
+     *
+     * @return {@code false}.
+     */
+    public static Formula ff() {
+        return new Formula(Operator.FALSE, null, null, null);
+    }
+
+    /**
+     * Returns an atomic formula.
+     *
+     * @param action
+     *            the action (e.g. {@code "a"}, {@code "a!"} or {@code "tau"}).
+     * @return the atomic formula.
+     */
+    public static Formula action(final String action) {
+        return new Formula(Operator.ACTION, action, null, null);
+    }
+
+    /**
+     * Returns the negation of a formula.
+     *
+     * @param f
+     *            the formula.
+     * @return {@code !f}.
+     */
+    public static Formula not(final Formula f) {
+        return new Formula(Operator.NOT, null, f, null);
+    }
+
+    /**
+     * Returns the conjunction of two formulas.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code f && g}.
+     */
+    public static Formula and(final Formula f, final Formula g) {
+        return new Formula(Operator.AND, null, f, g);
+    }
+
+    /**
+     * Returns the disjunction of two formulas.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code f || g}.
+     */
+    public static Formula or(final Formula f, final Formula g) {
+        return new Formula(Operator.OR, null, f, g);
+    }
+
+    /**
+     * Returns the implication of two formulas.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code !f || g}.
+     */
+    public static Formula implies(final Formula f, final Formula g) {
+        return or(not(f), g);
+    }
+
+    /**
+     * Returns the "next" formula.
+     *
+     * @param f
+     *            the formula.
+     * @return {@code X f}.
+     */
+    public static Formula next(final Formula f) {
+        return new Formula(Operator.NEXT, null, f, null);
+    }
+
+    /**
+     * Returns the "until" formula.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code f U g}.
+     */
+    public static Formula until(final Formula f, final Formula g) {
+        return new Formula(Operator.UNTIL, null, f, g);
+    }
+
+    /**
+     * Returns the "release" formula.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code f R g}.
+     */
+    public static Formula release(final Formula f, final Formula g) {
+        return new Formula(Operator.RELEASE, null, f, g);
+    }
+
+    /**
+     * Returns the "eventually" formula.
+     *
+     * @param f
+     *            the formula.
+     * @return {@code F f = true U f}.
+     */
+    public static Formula eventually(final Formula f) {
+        return until(tt(), f);
+    }
+
+    /**
+     * Returns the "always" formula.
+     *
+     * @param f
+     *            the formula.
+     * @return {@code G f = false R f}.
+     */
+    public static Formula always(final Formula f) {
+        return release(ff(), f);
+    }
+
+    /**
+     * Returns the operator.
+     *
+     * @return the operator.
+     */
+    public Operator getOperator() {
+        return this.operator;
+    }
+
+    /**
+     * Returns the action of an atomic formula.
+     *
+     * @return the action or {@code null} if the formula is not atomic.
+     */
+    public String getAction() {
+        return this.action;
+    }
+
+    /**
+     * Returns the (left) operand.
+     *
+     * @return the operand or {@code null}.
+     */
+    public Formula getLeft() {
+        return this.left;
+    }
+
+    /**
+     * Returns the right operand.
+     *
+     * @return the operand or {@code null}.
+     */
+    public Formula getRight() {
+        return this.right;
+    }
+
+    /**
+     * Returns whether this is a literal, i.e. {@code true}, {@code false}, an
+     * atomic formula or a negated atomic formula.
+     *
+     * @return true if this is a literal.
+     */
+    public boolean isLiteral() {
+        switch (this.operator) {
+            case TRUE:
+            case FALSE:
+            case ACTION:
+                return true;
+            case NOT:
+                return this.left.operator == Operator.ACTION;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns whether an atomic formula holds for the given action.
+     *
+     * @param a
+     *            the action.
+     * @return true if the atomic formula holds.
+     */
+    public boolean matches(final Action a) {
+        assert this.operator == Operator.ACTION;
+
+        return matches(this.action, a);
+    }
+
+    /**
+     * Returns whether an action written in a formula denotes the given action.
+     *
+     * @param action
+     *            the action written in the formula (e.g. {@code "a!"} or
+     *            {@code "tau"}).
+     * @param a
+     *            the action.
+     * @return true if {@code action} denotes {@code a}.
+     */
+    static boolean matches(final String action, final Action a) {
+        if (TAU.equals(action) && a.isWeak()) {
+            return true;
+        }
+        return action.equals(a.toString());
+    }
+
+    /**
+     * Returns an equivalent formula in negation normal form, i.e. negations
+     * only occur in front of atomic formulas.
+     *
+     * @return the formula in negation normal form.
+     */
+    public Formula toNegationNormalForm() {
+        switch (this.operator) {
+            case TRUE:
+            case FALSE:
+            case ACTION:
+                return this;
+            case NOT:
+                return this.left.negate();
+            case NEXT:
+                return new Formula(this.operator, null, this.left.toNegationNormalForm(), null);
+            default:
+                return new Formula(this.operator, null, this.left.toNegationNormalForm(),
+                        this.right.toNegationNormalForm());
+        }
+    }
+
+    /**
+     * Returns the negation of this formula in negation normal form. Runs are
+     * infinite, so "next" is dual to itself.
+     *
+     * @return the negated formula in negation normal form.
+     */
+    private Formula negate() {
+        switch (this.operator) {
+            case TRUE:
+                return ff();
+            case FALSE:
+                return tt();
+            case ACTION:
+                return not(this);
+            case NOT:
+                return this.left.toNegationNormalForm();
+            case AND:
+                return or(this.left.negate(), this.right.negate());
+            case OR:
+                return and(this.left.negate(), this.right.negate());
+            case NEXT:
+                return next(this.left.negate());
+            case UNTIL:
+                return release(this.left.negate(), this.right.negate());
+            default:
+                return until(this.left.negate(), this.right.negate());
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof Formula)) {
+            return false;
+        }
+
+        Formula f = (Formula) o;
+        return this.operator == f.operator && Objects.equals(this.action, f.action)
+                && Objects.equals(this.left, f.left) && Objects.equals(this.right, f.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.operator, this.action, this.left, this.right);
+    }
+
+    @Override
+    public String toString() {
+        switch (this.operator) {
+            case TRUE:
+                return "true";
+            case FALSE:
+                return "false";
+            case ACTION:
+                return FormulaParser.isPlainAction(this.action)
+                        ? this.action : String.format("\"%s\"", this.action);
+            case NOT:
+                return String.format("!%s", this.left);
+            case AND:
+                return String.format("(%s && %s)", this.left, this.right);
+            case OR:
+                return String.format("(%s || %s)", this.left, this.right);
+            case NEXT:
+                return String.format("X %s", this.left);
+            case UNTIL:
+                return String.format("(%s U %s)", this.left, this.right);
+            default:
+                return String.format("(%s R %s)", this.left, this.right);
+        }
+    }
+}
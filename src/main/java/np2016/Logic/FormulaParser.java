@@ -0,0 +1,179 @@
+package np2016.Logic;
+
+/**
+ * Parser for LTL formulas over actions. The grammar is (from the lowest to the
+ * highest precedence):
+ *
+ * <pre>
+ * implication := disjunction [ "-&gt;" implication ]
+ * disjunction := conjunction { "||" conjunction }
+ * conjunction := binary { "&amp;&amp;" binary }
+ * binary      := unary [ ( "U" | "R" ) binary ]
+ * unary       := ( "!" | "X" | "F" | "G" ) unary | primary
+ * primary     := "true" | "false" | action | "(" implication ")"
+ * </pre>
+ *
+ * An action is written like in a CCS program (e.g. {@code a}, {@code a!} or
+ * {@code a?}). Actions that clash with a keyword or contain other characters
+ * are written in double quotes (e.g. {@code "X"}).
+ */
+public final class FormulaParser extends TextParser {
+
+    /**
+     * Constructs a parser.
+     *
+     * @param text
+     *            the text to parse.
+     */
+    private FormulaParser(final String text) {
+        super(text);
+    }
+
+    /**
+     * Parses a formula.
+     *
+     * @param text
+     *            the text of the formula.
+     * @return the formula.
+     * @throws IllegalArgumentException
+     *             if the text is not a formula.
+     */
+    public static Formula parse(final String text) {
+        FormulaParser parser = new FormulaParser(text);
+        Formula f = parser.implication();
+        parser.expectEnd();
+        return f;
+    }
+
+    /**
+     * Returns whether an action can be written without quotes.
+     *
+     * @param action
+     *            the action.
+     * @return true if the action needs no quotes.
+     */
+    static boolean isPlainAction(final String action) {
+        return isIdentifier(action) && !isKeyword(action);
+    }
+
+    /**
+     * Returns whether a word is a keyword.
+     *
+     * @param word
+     *            the word.
+     * @return true if the word is a keyword.
+     */
+    private static boolean isKeyword(final String word) {
+        switch (word) {
+            case "true":
+            case "false":
+            case "X":
+            case "F":
+            case "G":
+            case "U":
+            case "R":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses an implication.
+     *
+     * @return the formula.
+     */
+    private Formula implication() {
+        Formula f = disjunction();
+        if (accept("->")) {
+            return Formula.implies(f, implication());
+        }
+        return f;
+    }
+
+    /**
+     * Parses a disjunction.
+     *
+     * @return the formula.
+     */
+    private Formula disjunction() {
+        Formula f = conjunction();
+        while (accept("||")) {
+            f = Formula.or(f, conjunction());
+        }
+        return f;
+    }
+
+    /**
+     * Parses a conjunction.
+     *
+     * @return the formula.
+     */
+    private Formula conjunction() {
+        Formula f = binary();
+        while (accept("&&")) {
+            f = Formula.and(f, binary());
+        }
+        return f;
+    }
+
+    /**
+     * Parses an "until" or "release" formula.
+     *
+     * @return the formula.
+     */
+    private Formula binary() {
+        Formula f = unary();
+        if (acceptKeyword("U")) {
+            return Formula.until(f, binary());
+        }
+        if (acceptKeyword("R")) {
+            return Formula.release(f, binary());
+        }
+        return f;
+    }
+
+    /**
+     * Parses a formula with a unary operator.
+     *
+     * @return the formula.
+     */
+    private Formula unary() {
+        if (accept("!")) {
+            return Formula.not(unary());
+        }
+        if (acceptKeyword("X")) {
+            return Formula.next(unary());
+        }
+        if (acceptKeyword("F")) {
+            return Formula.eventually(unary());
+        }
+        if (acceptKeyword("G")) {
+            return Formula.always(unary());
+        }
+        return primary();
+    }
+
+    /**
+     * Parses a constant, an action or a formula in parentheses.
+     *
+     * @return the formula.
+     */
+    private Formula primary() {
+        if (accept("(")) {
+            Formula f = implication();
+            expect(")");
+            return f;
+        }
+        if (acceptKeyword("true")) {
+            return Formula.tt();
+        }
+        if (acceptKeyword("false")) {
+            return Formula.ff();
+        }
+        if (isKeyword(word())) {
+            throw error("unexpected '%s'", word());
+        }
+        return Formula.action(action());
+    }
+}
@@ -0,0 +1,125 @@
+package np2016.Logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.CriticalSection.Trace;
+import np2016.Graph.Graph;
+import np2016.GraphSearch.NestedDepthFirstSearch;
+
+/**
+ * On-the-fly LTL model checker for the CCS semantics. A formula holds if no
+ * run satisfies its negation, i.e. if the product of the CCS semantics with
+ * the {@link BuchiAutomaton} of the negated formula (see
+ * {@link ProductGraph}) has no reachable accepting cycle. The product is
+ * searched with the multi-core {@link NestedDepthFirstSearch}, which stops as
+ * soon as an accepting cycle is found.
+ */
+public final class ModelChecker {
+
+    /**
+     * The CCS semantics.
+     */
+    private final Graph<State, Transition> semantics;
+
+    /**
+     * The number of threads.
+     */
+    private final int threads;
+
+    /**
+     * The running search or {@code null}.
+     */
+    private volatile NestedDepthFirstSearch<ProductState, ProductTransition> search;
+
+    /**
+     * Why the last check failed or {@code null}.
+     */
+    private Throwable failure;
+
+    /**
+     * Constructs a model checker.
+     *
+     * @param semantics
+     *            the CCS semantics (or an explored LTS).
+     * @param threads
+     *            the number of threads.
+     */
+    public ModelChecker(final Graph<State, Transition> semantics, final int threads) {
+        this.semantics = semantics;
+        this.threads = threads;
+    }
+
+    /**
+     * Checks whether all runs from the given state satisfy a formula.
+     *
+     * @param start
+     *            the initial state.
+     * @param formula
+     *            the formula.
+     * @return a run that violates the formula or {@code null} if the formula
+     *         holds or the check failed (see {@link #getFailure}).
+     */
+    public Trace check(final State start, final Formula formula) {
+        BuchiAutomaton automaton = BuchiAutomaton.of(Formula.not(formula));
+        NestedDepthFirstSearch<ProductState, ProductTransition> s = new NestedDepthFirstSearch<>(
+                new ProductGraph(this.semantics, start, automaton),
+                p -> automaton.isAccepting(p.getAutomatonState()), this.threads);
+
+        this.search = s;
+        NestedDepthFirstSearch.Lasso<ProductTransition> lasso = s.search();
+        this.failure = s.getFailure();
+        this.search = null;
+
+        if (lasso == null) {
+            return null;
+        }
+
+        List<Transition> prefix = transitions(lasso.getPrefix());
+        if (lasso.getLoop().get(0).isStutter()) {
+            // only a terminal state stutters
+            return Trace.terminal(prefix, lasso.getLoop().get(0).getStart().getInfo());
+        }
+        return Trace.loop(prefix, transitions(lasso.getLoop()));
+    }
+
+    /**
+     * Cancels the running check. It then fails with a
+     * {@link java.util.concurrent.CancellationException}.
+     */
+    public void cancel() {
+        NestedDepthFirstSearch<ProductState, ProductTransition> s = this.search;
+        if (s != null) {
+            s.cancel();
+        }
+    }
+
+    /**
+     * Returns why the last check failed.
+     *
+     * @return the failure or {@code null} if the check did not fail.
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * Returns the transitions of the CCS semantics along a path of the
+     * product.
+     *
+     * @param path
+     *            the path.
+     * @return the transitions (without the stuttering at a terminal state).
+     */
+    private static List<Transition> transitions(final List<ProductTransition> path) {
+        List<Transition> transitions = new ArrayList<>(path.size());
+        for (ProductTransition t : path) {
+            if (!t.isStutter()) {
+                transitions.add(t.getInfo());
+            }
+        }
+        return transitions;
+    }
+}
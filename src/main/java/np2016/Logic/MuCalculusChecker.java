@@ -0,0 +1,694 @@
+package np2016.Logic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Graph;
+import np2016.GraphAnalysis.IndexedGraph;
+
+/**
+ * Model checker for the modal mu-calculus (see {@link StateFormula}). It
+ * works in one of two modes:
+ * <ul>
+ * <li>{@link #checkGlobal global}: computes the set of all states of an
+ * explored LTS that satisfy the formula. The sets are bit sets over the
+ * indices of an {@link IndexedGraph}; the fixpoints are computed by
+ * iteration, where each step evaluates the modalities for blocks of 64 states
+ * in parallel.</li>
+ * <li>{@link #checkLocal local}: decides whether the initial state satisfies
+ * the formula and explores the CCS semantics only as far as needed. The
+ * formula and the states induce a boolean equation system that is solved by
+ * a worklist algorithm (Liu and Smolka, "Simple linear-time algorithms for
+ * minimal fixed points", 1998), which stops as soon as the value of the
+ * initial state is known. This requires an alternation-free formula; other
+ * formulas are checked globally on the states reachable from the initial
+ * state.</li>
+ * </ul>
+ */
+public final class MuCalculusChecker {
+
+    /**
+     * No subformula.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The number of threads.
+     */
+    private final int threads;
+
+    /**
+     * The subformulas in pre-order; subformula {@code 0} is the formula.
+     */
+    private final List<StateFormula> subformulas = new ArrayList<>();
+
+    /**
+     * The (left) operand of each subformula.
+     */
+    private final List<Integer> left = new ArrayList<>();
+
+    /**
+     * The right operand of each subformula.
+     */
+    private final List<Integer> right = new ArrayList<>();
+
+    /**
+     * The fixpoint that binds each variable.
+     */
+    private final List<Integer> binder = new ArrayList<>();
+
+    /**
+     * The end (exclusive) of the subtree of each subformula in pre-order.
+     */
+    private final List<Integer> end = new ArrayList<>();
+
+    /**
+     * Whether each subformula is closed.
+     */
+    private final List<Boolean> closed = new ArrayList<>();
+
+    /**
+     * Constructs a model checker for a formula.
+     *
+     * @param formula
+     *            the formula (must be closed).
+     * @param threads
+     *            the number of threads.
+     */
+    public MuCalculusChecker(final StateFormula formula, final int threads) {
+        this.threads = threads;
+        index(formula, new ArrayList<>());
+    }
+
+    /**
+     * Numbers the subformulas of a formula.
+     *
+     * @param f
+     *            the formula.
+     * @param scope
+     *            the enclosing fixpoints, innermost last.
+     * @return the index of the formula.
+     */
+    private int index(final StateFormula f, final List<Integer> scope) {
+        int i = this.subformulas.size();
+        this.subformulas.add(f);
+        this.left.add(NONE);
+        this.right.add(NONE);
+        this.binder.add(NONE);
+        this.end.add(NONE);
+        this.closed.add(f.getFreeVariables().isEmpty());
+
+        if (f.getOperator() == StateFormula.Operator.VARIABLE) {
+            for (int k = scope.size() - 1; k >= 0; --k) {
+                if (this.subformulas.get(scope.get(k)).getVariable().equals(f.getVariable())) {
+                    this.binder.set(i, scope.get(k));
+                    break;
+                }
+            }
+            if (this.binder.get(i) == NONE) {
+                throw new IllegalArgumentException("unbound variable " + f.getVariable());
+            }
+        }
+        if (f.isFixpoint()) {
+            scope.add(i);
+        }
+        if (f.getLeft() != null) {
+            this.left.set(i, index(f.getLeft(), scope));
+        }
+        if (f.getRight() != null) {
+            this.right.set(i, index(f.getRight(), scope));
+        }
+        if (f.isFixpoint()) {
+            scope.remove(scope.size() - 1);
+        }
+        this.end.set(i, this.subformulas.size());
+        return i;
+    }
+
+    /**
+     * Returns whether the formula is alternation-free, i.e. no fixpoint
+     * depends on an enclosing fixpoint of the other kind. Only those formulas
+     * are checked locally.
+     *
+     * @return true if the formula is alternation-free.
+     */
+    public boolean isAlternationFree() {
+        for (int f = 0; f < this.subformulas.size(); ++f) {
+            if (!this.subformulas.get(f).isFixpoint()) {
+                continue;
+            }
+            StateFormula.Operator kind = this.subformulas.get(f).getOperator();
+            for (int g = f + 1; g < this.end.get(f); ++g) {
+                StateFormula inner = this.subformulas.get(g);
+                if (inner.isFixpoint() && inner.getOperator() != kind && !this.closed.get(g)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the states of an explored graph that satisfy the formula.
+     *
+     * @param graph
+     *            the graph.
+     * @return the indices of the satisfying states.
+     */
+    public BitSet checkGlobal(final IndexedGraph<State, Transition> graph) {
+        ForkJoinPool pool = this.threads > 1 ? new ForkJoinPool(this.threads) : null;
+        try {
+            return new GlobalEvaluation(graph, pool).evaluate(0);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Decides whether a state satisfies the formula.
+     *
+     * @param semantics
+     *            the CCS semantics (or an explored LTS).
+     * @param start
+     *            the state.
+     * @return true if the state satisfies the formula.
+     */
+    public boolean checkLocal(final Graph<State, Transition> semantics, final State start) {
+        if (!isAlternationFree()) {
+            IndexedGraph<State, Transition> graph = IndexedGraph.of(
+                    new Graph<State, Transition>() {
+                        @Override
+                        public List<State> getSources() {
+                            return Collections.singletonList(start);
+                        }
+
+                        @Override
+                        public List<Transition> getEdges(final State node) {
+                            return semantics.getEdges(node);
+                        }
+                    }, e -> true, this.threads);
+            return checkGlobal(graph).get(0);
+        }
+        return new LocalEvaluation(semantics).solve(start, 0);
+    }
+
+    /**
+     * The evaluation of the formula on all states of an explored graph.
+     */
+    private final class GlobalEvaluation {
+
+        /**
+         * The graph.
+         */
+        private final IndexedGraph<State, Transition> graph;
+
+        /**
+         * Evaluates the modalities or {@code null} to evaluate them in the
+         * calling thread.
+         */
+        private final ForkJoinPool pool;
+
+        /**
+         * The position of the first outgoing edge of each state.
+         */
+        private final int[] offsets;
+
+        /**
+         * The current approximation of each fixpoint.
+         */
+        private final BitSet[] values;
+
+        /**
+         * The value of each closed fixpoint once it is computed.
+         */
+        private final BitSet[] results;
+
+        /**
+         * The edges that match the action of each modality once they are
+         * computed.
+         */
+        private final BitSet[] labels;
+
+        /**
+         * Constructs an evaluation.
+         *
+         * @param graph
+         *            the graph.
+         * @param pool
+         *            evaluates the modalities or {@code null}.
+         */
+        GlobalEvaluation(final IndexedGraph<State, Transition> graph, final ForkJoinPool pool) {
+            this.graph = graph;
+            this.pool = pool;
+            this.offsets = new int[graph.size() + 1];
+            for (int v = 0; v < graph.size(); ++v) {
+                this.offsets[v + 1] = this.offsets[v] + graph.getOutDegree(v);
+            }
+            this.values = new BitSet[subformulas.size()];
+            this.results = new BitSet[subformulas.size()];
+            this.labels = new BitSet[subformulas.size()];
+        }
+
+        /**
+         * Computes the states that satisfy a subformula under the current
+         * approximations of the fixpoints.
+         *
+         * @param f
+         *            the subformula.
+         * @return the satisfying states (must not be modified).
+         */
+        BitSet evaluate(final int f) {
+            BitSet result;
+            switch (subformulas.get(f).getOperator()) {
+                case TRUE:
+                    result = new BitSet();
+                    result.set(0, this.graph.size());
+                    return result;
+                case FALSE:
+                    return new BitSet();
+                case AND:
+                    result = (BitSet) evaluate(left.get(f)).clone();
+                    result.and(evaluate(right.get(f)));
+                    return result;
+                case OR:
+                    result = (BitSet) evaluate(left.get(f)).clone();
+                    result.or(evaluate(right.get(f)));
+                    return result;
+                case DIAMOND:
+                    return modality(f, true);
+                case BOX:
+                    return modality(f, false);
+                case VARIABLE:
+                    return this.values[binder.get(f)];
+                default:
+                    return fixpoint(f);
+            }
+        }
+
+        /**
+         * Computes a fixpoint by iteration.
+         *
+         * @param f
+         *            the fixpoint.
+         * @return the satisfying states.
+         */
+        private BitSet fixpoint(final int f) {
+            if (this.results[f] != null) {
+                return this.results[f];
+            }
+
+            BitSet x = new BitSet();
+            if (subformulas.get(f).getOperator() == StateFormula.Operator.NU) {
+                x.set(0, this.graph.size());
+            }
+            while (true) {
+                this.values[f] = x;
+                BitSet y = evaluate(left.get(f));
+                if (y.equals(x)) {
+                    break;
+                }
+                x = y;
+            }
+            this.values[f] = null;
+
+            // a closed fixpoint does not depend on the enclosing ones
+            if (closed.get(f)) {
+                this.results[f] = x;
+            }
+            return x;
+        }
+
+        /**
+         * Computes the states that satisfy a modality.
+         *
+         * @param f
+         *            the modality.
+         * @param diamond
+         *            true for a diamond, false for a box.
+         * @return the satisfying states.
+         */
+        private BitSet modality(final int f, final boolean diamond) {
+            BitSet operand = evaluate(left.get(f));
+            BitSet matching = labels(f);
+            return parallel(v -> {
+                for (int k = 0; k < this.graph.getOutDegree(v); ++k) {
+                    if (matching.get(this.offsets[v] + k)
+                            && operand.get(this.graph.getTarget(v, k)) == diamond) {
+                        return diamond;
+                    }
+                }
+                return !diamond;
+            });
+        }
+
+        /**
+         * Returns the edges that match the action of a modality.
+         *
+         * @param f
+         *            the modality.
+         * @return the positions of the matching edges.
+         */
+        private BitSet labels(final int f) {
+            if (this.labels[f] == null) {
+                StateFormula modality = subformulas.get(f);
+                BitSet matching = new BitSet();
+                for (int v = 0; v < this.graph.size(); ++v) {
+                    for (int k = 0; k < this.graph.getOutDegree(v); ++k) {
+                        if (modality.matches(this.graph.getEdge(v, k).getInfo())) {
+                            matching.set(this.offsets[v] + k);
+                        }
+                    }
+                }
+                this.labels[f] = matching;
+            }
+            return this.labels[f];
+        }
+
+        /**
+         * Computes the states that satisfy a predicate. The states are split
+         * into blocks of 64, which are computed in parallel if there is a
+         * pool.
+         *
+         * @param p
+         *            the predicate (must be thread-safe).
+         * @return the states that satisfy the predicate.
+         */
+        private BitSet parallel(final IntPredicate p) {
+            int n = this.graph.size();
+            long[] words = new long[(n + Long.SIZE - 1) / Long.SIZE];
+            IntConsumer block = w -> {
+                long word = 0;
+                for (int v = w * Long.SIZE; v < Math.min(n, (w + 1) * Long.SIZE); ++v) {
+                    if (p.test(v)) {
+                        word |= 1L << (v - w * Long.SIZE);
+                    }
+                }
+                // each block is written by exactly one task
+                words[w] = word;
+            };
+
+            if (this.pool == null || words.length == 1) {
+                IntStream.range(0, words.length).forEach(block);
+            } else {
+                try {
+                    // a parallel stream started in the pool runs on its
+                    // workers
+                    this.pool.submit(() -> IntStream.range(0, words.length).parallel()
+                            .forEach(block)).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return BitSet.valueOf(words);
+        }
+    }
+
+    /**
+     * A variable of the boolean equation system: whether a state satisfies
+     * a subformula.
+     */
+    private static final class Variable {
+
+        /**
+         * The state.
+         */
+        private final State state;
+
+        /**
+         * The subformula.
+         */
+        private final int formula;
+
+        /**
+         * The current value.
+         */
+        private boolean value;
+
+        /**
+         * The variables the value depends on or {@code null} if they are not
+         * computed yet or the value is known.
+         */
+        private Variable[] dependencies;
+
+        /**
+         * The variables whose value depends on this one.
+         */
+        private final List<Variable> dependents = new ArrayList<>();
+
+        /**
+         * Whether the variable is in the worklist.
+         */
+        private boolean queued;
+
+        /**
+         * Constructs a variable.
+         *
+         * @param state
+         *            the state.
+         * @param formula
+         *            the subformula.
+         * @param value
+         *            the initial value.
+         */
+        Variable(final State state, final int formula, final boolean value) {
+            this.state = state;
+            this.formula = formula;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The local evaluation of the formula in one state.
+     */
+    private final class LocalEvaluation {
+
+        /**
+         * The CCS semantics.
+         */
+        private final Graph<State, Transition> semantics;
+
+        /**
+         * The final values of the variables solved so far.
+         */
+        private final Map<State, Boolean[]> known = new HashMap<>();
+
+        /**
+         * Constructs an evaluation.
+         *
+         * @param semantics
+         *            the CCS semantics.
+         */
+        LocalEvaluation(final Graph<State, Transition> semantics) {
+            this.semantics = semantics;
+        }
+
+        /**
+         * Solves the equations of a subformula whose fixpoints are all of the
+         * same kind, except for closed ones, which are solved recursively.
+         *
+         * @param s
+         *            the state.
+         * @param f
+         *            the subformula (must be closed).
+         * @return true if the state satisfies the subformula.
+         */
+        boolean solve(final State s, final int f) {
+            // the variables start at the bottom of the lattice of the
+            // fixpoints, which is "true" for greatest fixpoints
+            boolean initial = subformulas.get(f).getOperator() == StateFormula.Operator.NU;
+            Map<State, Variable[]> variables = new HashMap<>();
+            Deque<Variable> worklist = new ArrayDeque<>();
+            Variable root = variable(s, f, initial, variables, worklist);
+
+            while (!worklist.isEmpty() && root.value == initial) {
+                Variable x = worklist.pop();
+                x.queued = false;
+                if (x.dependencies == null) {
+                    x.dependencies = dependencies(x, initial, variables, worklist);
+                    for (Variable d : x.dependencies) {
+                        d.dependents.add(x);
+                    }
+                }
+
+                if (evaluate(x) != x.value) {
+                    // every value changes at most once
+                    x.value = !x.value;
+                    for (Variable d : x.dependents) {
+                        enqueue(d, worklist);
+                    }
+                }
+            }
+
+            // values that changed are final; if the worklist is empty, so
+            // are all others
+            boolean complete = worklist.isEmpty();
+            for (Variable[] vs : variables.values()) {
+                for (Variable v : vs) {
+                    if (v != null && (complete || v.value != initial)) {
+                        this.known.computeIfAbsent(v.state, t -> new Boolean[subformulas.size()])
+                                [v.formula] = v.value;
+                    }
+                }
+            }
+            return root.value;
+        }
+
+        /**
+         * Returns the variable for a state and a subformula and creates it if
+         * necessary.
+         *
+         * @param s
+         *            the state.
+         * @param f
+         *            the subformula.
+         * @param initial
+         *            the initial value of new variables.
+         * @param variables
+         *            the variables of the current system.
+         * @param worklist
+         *            receives new variables.
+         * @return the variable.
+         */
+        private Variable variable(final State s, final int f, final boolean initial,
+                final Map<State, Variable[]> variables, final Deque<Variable> worklist) {
+            Variable[] vs = variables.computeIfAbsent(s, t -> new Variable[subformulas.size()]);
+            if (vs[f] != null) {
+                return vs[f];
+            }
+
+            Boolean[] values = this.known.get(s);
+            StateFormula g = subformulas.get(f);
+            if (values != null && values[f] != null) {
+                vs[f] = new Variable(s, f, values[f]);
+                vs[f].dependencies = new Variable[0];
+            } else if (g.isFixpoint() && (g.getOperator() == StateFormula.Operator.NU) != initial) {
+                // the formula is alternation-free, so the fixpoint is closed
+                vs[f] = new Variable(s, f, solve(s, f));
+                vs[f].dependencies = new Variable[0];
+            } else {
+                vs[f] = new Variable(s, f, initial);
+                enqueue(vs[f], worklist);
+            }
+            return vs[f];
+        }
+
+        /**
+         * Computes the variables the value of a variable depends on.
+         *
+         * @param x
+         *            the variable.
+         * @param initial
+         *            the initial value of new variables.
+         * @param variables
+         *            the variables of the current system.
+         * @param worklist
+         *            receives new variables.
+         * @return the dependencies.
+         */
+        private Variable[] dependencies(final Variable x, final boolean initial,
+                final Map<State, Variable[]> variables, final Deque<Variable> worklist) {
+            int f = x.formula;
+            StateFormula g = subformulas.get(f);
+            switch (g.getOperator()) {
+                case TRUE:
+                case FALSE:
+                    return new Variable[0];
+                case AND:
+                case OR:
+                    return new Variable[] {
+                        variable(x.state, left.get(f), initial, variables, worklist),
+                        variable(x.state, right.get(f), initial, variables, worklist)
+                    };
+                case DIAMOND:
+                case BOX:
+                    List<Variable> successors = new ArrayList<>();
+                    for (Transition t : this.semantics.getEdges(x.state)) {
+                        if (g.matches(t.getInfo())) {
+                            successors.add(variable(t.getTarget(), left.get(f), initial,
+                                    variables, worklist));
+                        }
+                    }
+                    return successors.toArray(new Variable[successors.size()]);
+                case VARIABLE:
+                    return new Variable[] {
+                        variable(x.state, binder.get(f), initial, variables, worklist)
+                    };
+                default:
+                    return new Variable[] {
+                        variable(x.state, left.get(f), initial, variables, worklist)
+                    };
+            }
+        }
+
+        /**
+         * Evaluates the equation of a variable with the current values of its
+         * dependencies.
+         *
+         * @param x
+         *            the variable.
+         * @return the new value.
+         */
+        private boolean evaluate(final Variable x) {
+            switch (subformulas.get(x.formula).getOperator()) {
+                case TRUE:
+                    return true;
+                case FALSE:
+                    return false;
+                case AND:
+                case BOX:
+                    for (Variable d : x.dependencies) {
+                        if (!d.value) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case OR:
+                case DIAMOND:
+                    for (Variable d : x.dependencies) {
+                        if (d.value) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    return x.dependencies[0].value;
+            }
+        }
+
+        /**
+         * Adds a variable to the worklist unless it is already there.
+         *
+         * @param x
+         *            the variable.
+         * @param worklist
+         *            the worklist.
+         */
+        private void enqueue(final Variable x, final Deque<Variable> worklist) {
+            if (!x.queued) {
+                x.queued = true;
+                worklist.push(x);
+            }
+        }
+    }
+}
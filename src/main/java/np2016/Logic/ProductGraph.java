@@ -0,0 +1,86 @@
+package np2016.Logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Graph;
+
+/**
+ * The product of the CCS semantics and a {@link BuchiAutomaton}, explored on
+ * the fly. A product state moves with a transition of the CCS semantics if the
+ * automaton state allows its action. A terminal state of the CCS semantics
+ * stays where it is forever (without performing an action), so finite runs
+ * are treated like infinite ones.
+ */
+public final class ProductGraph implements Graph<ProductState, ProductTransition> {
+
+    /**
+     * The CCS semantics.
+     */
+    private final Graph<State, Transition> semantics;
+
+    /**
+     * The initial state of the CCS semantics.
+     */
+    private final State start;
+
+    /**
+     * The automaton.
+     */
+    private final BuchiAutomaton automaton;
+
+    /**
+     * Constructs the product.
+     *
+     * @param semantics
+     *            the CCS semantics (or an explored LTS).
+     * @param start
+     *            the initial state of the CCS semantics.
+     * @param automaton
+     *            the automaton.
+     */
+    public ProductGraph(final Graph<State, Transition> semantics, final State start,
+            final BuchiAutomaton automaton) {
+        this.semantics = semantics;
+        this.start = start;
+        this.automaton = automaton;
+    }
+
+    @Override
+    public List<ProductState> getSources() {
+        List<ProductState> sources = new ArrayList<>();
+        for (int q : this.automaton.getInitialStates()) {
+            sources.add(new ProductState(this.start, q));
+        }
+        return sources;
+    }
+
+    @Override
+    public List<ProductTransition> getEdges(final ProductState state) {
+        int q = state.getAutomatonState();
+        List<Transition> transitions = this.semantics.getEdges(state.getInfo());
+        List<ProductTransition> edges = new ArrayList<>();
+
+        if (transitions.isEmpty()) {
+            if (this.automaton.isEnabled(q, null)) {
+                for (int p : this.automaton.getSuccessors(q)) {
+                    edges.add(new ProductTransition(state,
+                            new ProductState(state.getInfo(), p), null));
+                }
+            }
+            return edges;
+        }
+
+        for (Transition t : transitions) {
+            if (!this.automaton.isEnabled(q, t.getInfo())) {
+                continue;
+            }
+            for (int p : this.automaton.getSuccessors(q)) {
+                edges.add(new ProductTransition(state, new ProductState(t.getTarget(), p), t));
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,56 @@
+package np2016.Logic;
+
+import np2016.CCSSemantics.State;
+import np2016.Graph.Node;
+
+/**
+ * A state of the product of the CCS semantics and a {@link BuchiAutomaton}.
+ */
+public final class ProductState extends Node<State> {
+
+    /**
+     * The state of the automaton.
+     */
+    private final int automatonState;
+
+    /**
+     * Constructs a product state.
+     *
+     * @param state
+     *            the state of the CCS semantics.
+     * @param automatonState
+     *            the state of the automaton.
+     */
+    public ProductState(final State state, final int automatonState) {
+        super(state);
+        this.automatonState = automatonState;
+    }
+
+    /**
+     * Returns the state of the automaton.
+     *
+     * @return the state of the automaton.
+     */
+    public int getAutomatonState() {
+        return this.automatonState;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%d]", this.info, this.automatonState);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof ProductState)) {
+            return false;
+        }
+
+        return super.equals(o) && this.automatonState == ((ProductState) o).automatonState;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + this.automatonState;
+    }
+}
@@ -0,0 +1,38 @@
+package np2016.Logic;
+
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Edge;
+
+/**
+ * A transition of the product of the CCS semantics and a
+ * {@link BuchiAutomaton}. The corresponding transition of the CCS semantics is
+ * stored as edge information; it is {@code null} for the transitions that
+ * extend a finite run at a terminal state.
+ */
+public final class ProductTransition extends Edge<ProductState, Transition> {
+
+    /**
+     * Constructs a product transition.
+     *
+     * @param from
+     *            the start state.
+     * @param to
+     *            the target state.
+     * @param transition
+     *            the transition of the CCS semantics or {@code null}.
+     */
+    public ProductTransition(final ProductState from, final ProductState to,
+            final Transition transition) {
+        super(transition, from, to);
+    }
+
+    /**
+     * Returns whether this transition extends a finite run at a terminal
+     * state.
+     *
+     * @return true if no action is performed.
+     */
+    public boolean isStutter() {
+        return getInfo() == null;
+    }
+}
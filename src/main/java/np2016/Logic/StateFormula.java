@@ -0,0 +1,404 @@
+package np2016.Logic;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import np2016.CCSSemantics.Action;
+
+/**
+ * A formula of the modal mu-calculus, i.e. Hennessy-Milner logic with least
+ * and greatest fixpoints, over the actions of the CCS semantics. A formula
+ * holds or does not hold in a state:
+ * <ul>
+ * <li>{@code <a> f} holds if the state has an {@code a} transition to a state
+ * where {@code f} holds,</li>
+ * <li>{@code [a] f} holds if {@code f} holds in all states reached by an
+ * {@code a} transition,</li>
+ * <li>{@code mu X. f} and {@code nu X. f} are the least and the greatest
+ * solution of {@code X = f}.</li>
+ * </ul>
+ * The action of a modality is written like in {@link Formula}; the action
+ * {@code null} (written {@code -}) stands for every action. Formulas are
+ * immutable and negation free; {@link #negate} returns the dual formula.
+ */
+public final class StateFormula {
+
+    /**
+     * The operators of formulas.
+     */
+    public enum Operator {
+        /**
+         * Holds always.
+         */
+        TRUE,
+
+        /**
+         * Holds never.
+         */
+        FALSE,
+
+        /**
+         * Conjunction.
+         */
+        AND,
+
+        /**
+         * Disjunction.
+         */
+        OR,
+
+        /**
+         * Holds if some successor by the action satisfies the operand.
+         */
+        DIAMOND,
+
+        /**
+         * Holds if all successors by the action satisfy the operand.
+         */
+        BOX,
+
+        /**
+         * Least fixpoint.
+         */
+        MU,
+
+        /**
+         * Greatest fixpoint.
+         */
+        NU,
+
+        /**
+         * A variable bound by an enclosing fixpoint.
+         */
+        VARIABLE
+    }
+
+    /**
+     * The operator.
+     */
+    private final Operator operator;
+
+    /**
+     * The action of a modality ({@code null} for every action) or the name of
+     * a variable.
+     */
+    private final String name;
+
+    /**
+     * The (left) operand.
+     */
+    private final StateFormula left;
+
+    /**
+     * The right operand.
+     */
+    private final StateFormula right;
+
+    /**
+     * Constructs a formula.
+     *
+     * @param operator
+     *            the operator.
+     * @param name
+     *            the action of a modality or the name of a variable.
+     * @param left
+     *            the (left) operand.
+     * @param right
+     *            the right operand.
+     */
+    private StateFormula(final Operator operator, final String name, final StateFormula left,
+            final StateFormula right) {
+        this.operator = operator;
+        this.name = name;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Returns the formula that holds always.
+     *
+     * @return {@code true}.
+     */
+    public static StateFormula tt() {
+        return new StateFormula(Operator.TRUE, null, null, null);
+    }
+
+    /**
+     * Returns the formula that holds never.
+     *
+     * @return {@code false}.
+     */
+    public static StateFormula ff() {
+        return new StateFormula(Operator.FALSE, null, null, null);
+    }
+
+    /**
+     * Returns the conjunction of two formulas.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code f && g}.
+     */
+    public static StateFormula and(final StateFormula f, final StateFormula g) {
+        return new StateFormula(Operator.AND, null, f, g);
+    }
+
+    /**
+     * Returns the disjunction of two formulas.
+     *
+     * @param f
+     *            the left formula.
+     * @param g
+     *            the right formula.
+     * @return {@code f || g}.
+     */
+    public static StateFormula or(final StateFormula f, final StateFormula g) {
+        return new StateFormula(Operator.OR, null, f, g);
+    }
+
+    /**
+     * Returns the "diamond" formula.
+     *
+     * @param action
+     *            the action or {@code null} for every action.
+     * @param f
+     *            the formula.
+     * @return {@code <action> f}.
+     */
+    public static StateFormula diamond(final String action, final StateFormula f) {
+        return new StateFormula(Operator.DIAMOND, action, f, null);
+    }
+
+    /**
+     * Returns the "box" formula.
+     *
+     * @param action
+     *            the action or {@code null} for every action.
+     * @param f
+     *            the formula.
+     * @return {@code [action] f}.
+     */
+    public static StateFormula box(final String action, final StateFormula f) {
+        return new StateFormula(Operator.BOX, action, f, null);
+    }
+
+    /**
+     * Returns the least fixpoint formula.
+     *
+     * @param variable
+     *            the bound variable.
+     * @param f
+     *            the body.
+     * @return {@code mu variable. f}.
+     */
+    public static StateFormula mu(final String variable, final StateFormula f) {
+        return new StateFormula(Operator.MU, variable, f, null);
+    }
+
+    /**
+     * Returns the greatest fixpoint formula.
+     *
+     * @param variable
+     *            the bound variable.
+     * @param f
+     *            the body.
+     * @return {@code nu variable. f}.
+     */
+    public static StateFormula nu(final String variable, final StateFormula f) {
+        return new StateFormula(Operator.NU, variable, f, null);
+    }
+
+    /**
+     * Returns a variable.
+     *
+     * @param name
+     *            the name.
+     * @return the variable.
+     */
+    public static StateFormula variable(final String name) {
+        return new StateFormula(Operator.VARIABLE, name, null, null);
+    }
+
+    /**
+     * Returns the operator.
+     *
+     * @return the operator.
+     */
+    public Operator getOperator() {
+        return this.operator;
+    }
+
+    /**
+     * Returns the action of a modality.
+     *
+     * @return the action or {@code null} for every action.
+     */
+    public String getAction() {
+        return this.operator == Operator.DIAMOND || this.operator == Operator.BOX
+                ? this.name : null;
+    }
+
+    /**
+     * Returns the variable bound by a fixpoint or the name of a variable.
+     *
+     * @return the variable or {@code null}.
+     */
+    public String getVariable() {
+        return isFixpoint() || this.operator == Operator.VARIABLE ? this.name : null;
+    }
+
+    /**
+     * Returns the (left) operand.
+     *
+     * @return the operand or {@code null}.
+     */
+    public StateFormula getLeft() {
+        return this.left;
+    }
+
+    /**
+     * Returns the right operand.
+     *
+     * @return the operand or {@code null}.
+     */
+    public StateFormula getRight() {
+        return this.right;
+    }
+
+    /**
+     * Returns whether this is a least or greatest fixpoint formula.
+     *
+     * @return true if this is a fixpoint formula.
+     */
+    public boolean isFixpoint() {
+        return this.operator == Operator.MU || this.operator == Operator.NU;
+    }
+
+    /**
+     * Returns whether the action of a modality covers the given action.
+     *
+     * @param a
+     *            the action.
+     * @return true if the modality looks at transitions with this action.
+     */
+    public boolean matches(final Action a) {
+        assert this.operator == Operator.DIAMOND || this.operator == Operator.BOX;
+
+        return this.name == null || Formula.matches(this.name, a);
+    }
+
+    /**
+     * Returns the variables that occur free in this formula.
+     *
+     * @return the free variables.
+     */
+    public Set<String> getFreeVariables() {
+        Set<String> free = new LinkedHashSet<>();
+        switch (this.operator) {
+            case TRUE:
+            case FALSE:
+                break;
+            case VARIABLE:
+                free.add(this.name);
+                break;
+            case MU:
+            case NU:
+                free.addAll(this.left.getFreeVariables());
+                free.remove(this.name);
+                break;
+            default:
+                free.addAll(this.left.getFreeVariables());
+                if (this.right != null) {
+                    free.addAll(this.right.getFreeVariables());
+                }
+                break;
+        }
+        return free;
+    }
+
+    /**
+     * Returns the negation of this formula. The variables keep their names:
+     * the negation of {@code mu X. f} is {@code nu X. g} where {@code g} is
+     * the negation of {@code f} with {@code !X} renamed to {@code X}, so the
+     * result is only the negation if this formula is closed.
+     *
+     * @return the dual formula.
+     */
+    public StateFormula negate() {
+        switch (this.operator) {
+            case TRUE:
+                return ff();
+            case FALSE:
+                return tt();
+            case AND:
+                return or(this.left.negate(), this.right.negate());
+            case OR:
+                return and(this.left.negate(), this.right.negate());
+            case DIAMOND:
+                return box(this.name, this.left.negate());
+            case BOX:
+                return diamond(this.name, this.left.negate());
+            case MU:
+                return nu(this.name, this.left.negate());
+            case NU:
+                return mu(this.name, this.left.negate());
+            default:
+                return this;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof StateFormula)) {
+            return false;
+        }
+
+        StateFormula f = (StateFormula) o;
+        return this.operator == f.operator && Objects.equals(this.name, f.name)
+                && Objects.equals(this.left, f.left) && Objects.equals(this.right, f.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.operator, this.name, this.left, this.right);
+    }
+
+    @Override
+    public String toString() {
+        switch (this.operator) {
+            case TRUE:
+                return "true";
+            case FALSE:
+                return "false";
+            case AND:
+                return String.format("(%s && %s)", this.left, this.right);
+            case OR:
+                return String.format("(%s || %s)", this.left, this.right);
+            case DIAMOND:
+                return String.format("<%s> %s", label(), this.left);
+            case BOX:
+                return String.format("[%s] %s", label(), this.left);
+            case MU:
+                return String.format("(mu %s. %s)", this.name, this.left);
+            case NU:
+                return String.format("(nu %s. %s)", this.name, this.left);
+            default:
+                return this.name;
+        }
+    }
+
+    /**
+     * Returns the action of a modality as it is written.
+     *
+     * @return the written action.
+     */
+    private String label() {
+        if (this.name == null) {
+            return "-";
+        }
+        return TextParser.isIdentifier(this.name) ? this.name : String.format("\"%s\"", this.name);
+    }
+}
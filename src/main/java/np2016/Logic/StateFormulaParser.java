@@ -0,0 +1,212 @@
+package np2016.Logic;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Parser for formulas of the modal mu-calculus (see {@link StateFormula}).
+ * The grammar is (from the lowest to the highest precedence):
+ *
+ * <pre>
+ * implication := disjunction [ "-&gt;" implication ]
+ * disjunction := conjunction { "||" conjunction }
+ * conjunction := unary { "&amp;&amp;" unary }
+ * unary       := "!" unary | "&lt;" label "&gt;" unary | "[" label "]" unary
+ *              | ( "mu" | "nu" ) variable "." implication | primary
+ * primary     := "true" | "false" | variable | "(" implication ")"
+ * label       := action | "-"
+ * </pre>
+ *
+ * Actions are written like in {@link FormulaParser}; the label {@code -}
+ * stands for every action. The body of a fixpoint extends as far to the right
+ * as possible. Every variable must be bound by an enclosing fixpoint, and a
+ * negated formula (also the left side of an implication) must not contain
+ * free variables, so that all fixpoints are well-defined.
+ */
+public final class StateFormulaParser extends TextParser {
+
+    /**
+     * The variables bound at the current position, innermost first.
+     */
+    private final Deque<String> bound = new ArrayDeque<>();
+
+    /**
+     * Constructs a parser.
+     *
+     * @param text
+     *            the text to parse.
+     */
+    private StateFormulaParser(final String text) {
+        super(text);
+    }
+
+    /**
+     * Parses a formula.
+     *
+     * @param text
+     *            the text of the formula.
+     * @return the formula.
+     * @throws IllegalArgumentException
+     *             if the text is not a formula.
+     */
+    public static StateFormula parse(final String text) {
+        StateFormulaParser parser = new StateFormulaParser(text);
+        StateFormula f = parser.implication();
+        parser.expectEnd();
+        return f;
+    }
+
+    /**
+     * Returns whether a word is a keyword.
+     *
+     * @param word
+     *            the word.
+     * @return true if the word is a keyword.
+     */
+    private static boolean isKeyword(final String word) {
+        switch (word) {
+            case "true":
+            case "false":
+            case "mu":
+            case "nu":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses an implication.
+     *
+     * @return the formula.
+     */
+    private StateFormula implication() {
+        StateFormula f = disjunction();
+        if (accept("->")) {
+            return StateFormula.or(negate(f), implication());
+        }
+        return f;
+    }
+
+    /**
+     * Parses a disjunction.
+     *
+     * @return the formula.
+     */
+    private StateFormula disjunction() {
+        StateFormula f = conjunction();
+        while (accept("||")) {
+            f = StateFormula.or(f, conjunction());
+        }
+        return f;
+    }
+
+    /**
+     * Parses a conjunction.
+     *
+     * @return the formula.
+     */
+    private StateFormula conjunction() {
+        StateFormula f = unary();
+        while (accept("&&")) {
+            f = StateFormula.and(f, unary());
+        }
+        return f;
+    }
+
+    /**
+     * Parses a formula with a prefix operator.
+     *
+     * @return the formula.
+     */
+    private StateFormula unary() {
+        if (accept("!")) {
+            return negate(unary());
+        }
+        if (accept("<")) {
+            String action = label();
+            expect(">");
+            return StateFormula.diamond(action, unary());
+        }
+        if (accept("[")) {
+            String action = label();
+            expect("]");
+            return StateFormula.box(action, unary());
+        }
+
+        boolean least = acceptKeyword("mu");
+        if (least || acceptKeyword("nu")) {
+            String variable = word();
+            if (variable.isEmpty() || isKeyword(variable)) {
+                throw error("expected a variable");
+            }
+            action();
+            expect(".");
+
+            this.bound.push(variable);
+            StateFormula body = implication();
+            this.bound.pop();
+            return least ? StateFormula.mu(variable, body) : StateFormula.nu(variable, body);
+        }
+        return primary();
+    }
+
+    /**
+     * Parses a constant, a variable or a formula in parentheses.
+     *
+     * @return the formula.
+     */
+    private StateFormula primary() {
+        if (accept("(")) {
+            StateFormula f = implication();
+            expect(")");
+            return f;
+        }
+        if (acceptKeyword("true")) {
+            return StateFormula.tt();
+        }
+        if (acceptKeyword("false")) {
+            return StateFormula.ff();
+        }
+
+        String variable = word();
+        if (variable.isEmpty() || isKeyword(variable)) {
+            throw error("expected a formula");
+        }
+        if (!this.bound.contains(variable)) {
+            throw error("unbound variable '%s'", variable);
+        }
+        action();
+        return StateFormula.variable(variable);
+    }
+
+    /**
+     * Parses the action of a modality.
+     *
+     * @return the action or {@code null} for every action.
+     */
+    private String label() {
+        if (accept("-")) {
+            return null;
+        }
+        return action();
+    }
+
+    /**
+     * Negates a formula that was just parsed.
+     *
+     * @param f
+     *            the formula.
+     * @return the negation.
+     * @throws IllegalArgumentException
+     *             if the formula contains free variables.
+     */
+    private StateFormula negate(final StateFormula f) {
+        Set<String> free = f.getFreeVariables();
+        if (!free.isEmpty()) {
+            throw error("negated variable '%s'", free.iterator().next());
+        }
+        return f.negate();
+    }
+}
@@ -0,0 +1,182 @@
+package np2016.Logic;
+
+/**
+ * Base class of the recursive descent parsers for formulas. Provides the
+ * scanning of symbols, keywords and actions. An action is written like in a
+ * CCS program (e.g. {@code a}, {@code a!} or {@code a?}) or in double quotes
+ * (e.g. {@code "X"}).
+ */
+abstract class TextParser {
+
+    /**
+     * The parsed text.
+     */
+    private final String text;
+
+    /**
+     * The position of the next character.
+     */
+    private int position;
+
+    /**
+     * Constructs a parser.
+     *
+     * @param text
+     *            the text to parse.
+     */
+    TextParser(final String text) {
+        this.text = text;
+    }
+
+    /**
+     * Returns whether a string is an identifier in the sense of CCS, i.e. can
+     * be written without quotes if it is not a keyword.
+     *
+     * @param s
+     *            the string.
+     * @return true if the string is an identifier.
+     */
+    static boolean isIdentifier(final String s) {
+        if (s.isEmpty() || !Character.isJavaIdentifierStart(s.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (!Character.isJavaIdentifierPart(c) && !(i == s.length() - 1
+                    && (c == '?' || c == '!'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fails if the text was not parsed completely.
+     *
+     * @throws IllegalArgumentException
+     *             if there are characters left.
+     */
+    final void expectEnd() {
+        skipWhitespace();
+        if (this.position < this.text.length()) {
+            throw error("unexpected '%c'", this.text.charAt(this.position));
+        }
+    }
+
+    /**
+     * Parses an action, either plain or in double quotes.
+     *
+     * @return the action.
+     * @throws IllegalArgumentException
+     *             if no action follows.
+     */
+    final String action() {
+        skipWhitespace();
+        if (accept("\"")) {
+            int end = this.text.indexOf('"', this.position);
+            if (end < 0) {
+                throw error("unterminated action");
+            }
+            String action = this.text.substring(this.position, end);
+            this.position = end + 1;
+            return action;
+        }
+
+        String word = word();
+        if (word.isEmpty()) {
+            throw error("expected an action");
+        }
+        this.position += word.length();
+        return word;
+    }
+
+    /**
+     * Returns the identifier at the current position (without consuming it).
+     *
+     * @return the identifier (empty if there is none).
+     */
+    final String word() {
+        skipWhitespace();
+        int end = this.position;
+        if (end < this.text.length() && Character.isJavaIdentifierStart(this.text.charAt(end))) {
+            do {
+                ++end;
+            } while (end < this.text.length()
+                    && Character.isJavaIdentifierPart(this.text.charAt(end)));
+            if (end < this.text.length()
+                    && (this.text.charAt(end) == '?' || this.text.charAt(end) == '!')) {
+                ++end;
+            }
+        }
+        return this.text.substring(this.position, end);
+    }
+
+    /**
+     * Consumes the given symbol if it follows.
+     *
+     * @param symbol
+     *            the symbol.
+     * @return true if the symbol was consumed.
+     */
+    final boolean accept(final String symbol) {
+        skipWhitespace();
+        if (this.text.startsWith(symbol, this.position)) {
+            this.position += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the given symbol or fails.
+     *
+     * @param symbol
+     *            the symbol.
+     * @throws IllegalArgumentException
+     *             if the symbol does not follow.
+     */
+    final void expect(final String symbol) {
+        if (!accept(symbol)) {
+            throw error("expected '%s'", symbol);
+        }
+    }
+
+    /**
+     * Consumes the given keyword if it follows as a whole word.
+     *
+     * @param keyword
+     *            the keyword.
+     * @return true if the keyword was consumed.
+     */
+    final boolean acceptKeyword(final String keyword) {
+        if (word().equals(keyword)) {
+            this.position += keyword.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Skips whitespace.
+     */
+    private void skipWhitespace() {
+        while (this.position < this.text.length()
+                && Character.isWhitespace(this.text.charAt(this.position))) {
+            ++this.position;
+        }
+    }
+
+    /**
+     * Constructs the exception for a syntax error at the current position.
+     *
+     * @param format
+     *            the message format.
+     * @param args
+     *            the arguments of the message.
+     * @return the exception.
+     */
+    final IllegalArgumentException error(final String format, final Object... args) {
+        return new IllegalArgumentException(String.format("%s at position %d",
+                String.format(format, args), this.position + 1));
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Contains the model checkers for temporal logics over actions. LTL
+ * {@link np2016.Logic.Formula formulas} are read by their
+ * {@link np2016.Logic.FormulaParser parser}, translated to
+ * {@link np2016.Logic.BuchiAutomaton Büchi automata} and checked by the
+ * on-the-fly {@link np2016.Logic.ModelChecker emptiness check} of the product
+ * with the CCS semantics. {@link np2016.Logic.StateFormula Formulas of the
+ * modal mu-calculus} are checked by the
+ * {@link np2016.Logic.MuCalculusChecker}, globally or locally.
+ */
+package np2016.Logic;
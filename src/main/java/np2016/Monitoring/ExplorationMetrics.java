@@ -0,0 +1,307 @@
+package np2016.Monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Metrics of a single exploration. The counters are updated by the graph
+ * search (possibly from several worker threads at once) and may be read at any
+ * time, e.g. by a {@link ProgressReporter}.
+ * <p>
+ * The latency of the "Post" function is recorded in a histogram with
+ * power-of-two buckets: bucket {@code k} counts the calls that took less than
+ * {@code 2^k} but at least {@code 2^(k-1)} nanoseconds.
+ */
+public final class ExplorationMetrics {
+
+    /**
+     * Number of buckets of the latency histogram.
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * Number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The time the exploration started.
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Number of discovered states.
+     */
+    private final LongAdder discovered = new LongAdder();
+
+    /**
+     * Number of processed states (i.e. states whose transitions were
+     * generated).
+     */
+    private final LongAdder processed = new LongAdder();
+
+    /**
+     * Number of generated transitions.
+     */
+    private final LongAdder transitions = new LongAdder();
+
+    /**
+     * Total time spent in the "Post" function in nanoseconds.
+     */
+    private final LongAdder postNanos = new LongAdder();
+
+    /**
+     * The latency histogram of the "Post" function.
+     */
+    private final AtomicLongArray postHistogram = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Largest observed size of the frontier.
+     */
+    private final LongAccumulator maxFrontier = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Returns the current size of the frontier.
+     */
+    private volatile IntSupplier frontier = () -> 0;
+
+    /**
+     * Returns the current number of active workers.
+     */
+    private volatile IntSupplier activeWorkers = () -> 0;
+
+    /**
+     * Total number of workers.
+     */
+    private volatile int workers = 1;
+
+    /**
+     * The lock and worker statistics or {@code null} if they are not
+     * recorded.
+     */
+    private volatile LockStatistics lockStatistics;
+
+    /**
+     * Records the discovery of a state.
+     */
+    public void stateDiscovered() {
+        this.discovered.increment();
+    }
+
+    /**
+     * Records that the transitions of a state were generated.
+     *
+     * @param nanos
+     *            the time the "Post" function took in nanoseconds.
+     * @param successors
+     *            the number of generated transitions.
+     */
+    public void stateProcessed(final long nanos, final int successors) {
+        this.processed.increment();
+        this.transitions.add(successors);
+        this.postNanos.add(nanos);
+        this.postHistogram.incrementAndGet(bucket(nanos));
+    }
+
+    /**
+     * Sets the gauge for the size of the frontier (i.e. the number of
+     * discovered but not yet processed states).
+     *
+     * @param gauge
+     *            returns the current size of the frontier.
+     */
+    public void setFrontierGauge(final IntSupplier gauge) {
+        this.frontier = gauge;
+    }
+
+    /**
+     * Sets the gauge for the number of active workers.
+     *
+     * @param gauge
+     *            returns the current number of active workers.
+     * @param total
+     *            the total number of workers.
+     */
+    public void setWorkerGauge(final IntSupplier gauge, final int total) {
+        this.activeWorkers = gauge;
+        this.workers = total;
+    }
+
+    /**
+     * Sets the lock and worker statistics that are included in the summary.
+     *
+     * @param statistics
+     *            the statistics.
+     */
+    public void setLockStatistics(final LockStatistics statistics) {
+        this.lockStatistics = statistics;
+    }
+
+    /**
+     * Returns the lock and worker statistics.
+     *
+     * @return the statistics or {@link LockStatistics#DISABLED} if they are
+     *         not recorded.
+     */
+    public LockStatistics getLockStatistics() {
+        LockStatistics statistics = this.lockStatistics;
+        return statistics != null ? statistics : LockStatistics.DISABLED;
+    }
+
+    /**
+     * Returns the number of discovered states.
+     *
+     * @return the number of discovered states.
+     */
+    public long getDiscoveredStates() {
+        return this.discovered.sum();
+    }
+
+    /**
+     * Returns the number of processed states.
+     *
+     * @return the number of processed states.
+     */
+    public long getProcessedStates() {
+        return this.processed.sum();
+    }
+
+    /**
+     * Returns the number of generated transitions.
+     *
+     * @return the number of generated transitions.
+     */
+    public long getTransitions() {
+        return this.transitions.sum();
+    }
+
+    /**
+     * Samples the current size of the frontier.
+     *
+     * @return the current size of the frontier.
+     */
+    public int getFrontier() {
+        int size = this.frontier.getAsInt();
+        this.maxFrontier.accumulate(size);
+        return size;
+    }
+
+    /**
+     * Samples the current number of active workers.
+     *
+     * @return the current number of active workers.
+     */
+    public int getActiveWorkers() {
+        return this.activeWorkers.getAsInt();
+    }
+
+    /**
+     * Returns the total number of workers.
+     *
+     * @return the number of workers.
+     */
+    public int getWorkers() {
+        return this.workers;
+    }
+
+    /**
+     * Returns the time since the exploration started in nanoseconds.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - this.startNanos;
+    }
+
+    /**
+     * Returns a one-line description of the current progress.
+     *
+     * @return the progress line.
+     */
+    public String toProgressLine() {
+        double seconds = getElapsedNanos() / NANOS_PER_SECOND;
+        long processedStates = getProcessedStates();
+        long processedTransitions = getTransitions();
+        int active = getActiveWorkers();
+
+        return String.format(
+                "%.1fs: %d states discovered, %d processed (%.0f/s), " +
+                "%d transitions (%.0f/s), frontier %d, workers %d active / %d idle, " +
+                "post mean %.1f us",
+                seconds, getDiscoveredStates(), processedStates,
+                processedStates / seconds, processedTransitions,
+                processedTransitions / seconds, getFrontier(), active,
+                this.workers - active, meanPostNanos() / 1e3);
+    }
+
+    /**
+     * Constructs the JSON summary of the metrics.
+     *
+     * @return the JSON summary.
+     */
+    public JsonObject toJSON() {
+        long elapsed = getElapsedNanos();
+        double seconds = elapsed / NANOS_PER_SECOND;
+        getFrontier();
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        summary.addProperty("statesDiscovered", getDiscoveredStates());
+        summary.addProperty("statesProcessed", getProcessedStates());
+        summary.addProperty("transitions", getTransitions());
+        summary.addProperty("statesPerSecond", getProcessedStates() / seconds);
+        summary.addProperty("transitionsPerSecond", getTransitions() / seconds);
+        summary.addProperty("maxFrontier", this.maxFrontier.get());
+        summary.addProperty("workers", this.workers);
+
+        JsonObject post = new JsonObject();
+        post.addProperty("meanNanos", meanPostNanos());
+        JsonArray histogram = new JsonArray();
+        for (int k = 0; k < BUCKETS; ++k) {
+            long count = this.postHistogram.get(k);
+            if (count > 0) {
+                JsonObject bucket = new JsonObject();
+                bucket.addProperty("belowNanos", 1L << k);
+                bucket.addProperty("count", count);
+                histogram.add(bucket);
+            }
+        }
+        post.add("histogram", histogram);
+        summary.add("postLatency", post);
+
+        if (this.lockStatistics != null) {
+            JsonObject contention = this.lockStatistics.toJSON();
+            summary.add("locks", contention.get("locks"));
+            summary.add("workerTimes", contention.get("workers"));
+        }
+
+        return summary;
+    }
+
+    /**
+     * Returns the mean latency of the "Post" function.
+     *
+     * @return the mean latency in nanoseconds.
+     */
+    private double meanPostNanos() {
+        long count = getProcessedStates();
+        return count == 0 ? 0 : (double) this.postNanos.sum() / count;
+    }
+
+    /**
+     * Returns the histogram bucket of a latency.
+     *
+     * @param nanos
+     *            the latency in nanoseconds.
+     * @return the bucket.
+     */
+    private static int bucket(final long nanos) {
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+    }
+}
@@ -0,0 +1,180 @@
+package np2016.Monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * JMX MBean of a running exploration. While the exploration runs it is
+ * registered at the platform MBean server under the name
+ * {@code np2016:type=Exploration,id=<n>,file=<file name>}, so it can be
+ * inspected and cancelled with any JMX client (e.g. JConsole).
+ */
+public final class ExplorationMonitor implements ExplorationMonitorMBean {
+
+    /**
+     * Source of the unique ids of the explorations.
+     */
+    private static final AtomicLong IDS = new AtomicLong();
+
+    /**
+     * The name of the explored file.
+     */
+    private final String fileName;
+
+    /**
+     * The metrics of the exploration.
+     */
+    private final ExplorationMetrics metrics;
+
+    /**
+     * Cancels the exploration.
+     */
+    private final Runnable canceller;
+
+    /**
+     * The progress reporter of the exploration (not necessarily running).
+     */
+    private final ProgressReporter reporter;
+
+    /**
+     * The name the MBean is registered under or {@code null} if it is not
+     * registered.
+     */
+    private ObjectName name;
+
+    /**
+     * Constructs the MBean of an exploration.
+     *
+     * @param fileName
+     *            the name of the explored file.
+     * @param metrics
+     *            the metrics of the exploration.
+     * @param canceller
+     *            cancels the exploration.
+     * @param reporter
+     *            the progress reporter of the exploration.
+     */
+    public ExplorationMonitor(final String fileName, final ExplorationMetrics metrics,
+            final Runnable canceller, final ProgressReporter reporter) {
+        this.fileName = fileName;
+        this.metrics = metrics;
+        this.canceller = canceller;
+        this.reporter = reporter;
+    }
+
+    /**
+     * Registers the MBean at the platform MBean server.
+     *
+     * @return true if the MBean was registered.
+     */
+    public synchronized boolean register() {
+        assert this.name == null;
+
+        try {
+            ObjectName n = new ObjectName(String.format(
+                    "np2016:type=Exploration,id=%d,file=%s",
+                    IDS.incrementAndGet(), ObjectName.quote(this.fileName)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, n);
+            this.name = n;
+            return true;
+        } catch (JMException e) {
+            System.err.println(String.format(
+                    "The exploration of %s cannot be registered for JMX (%s)!",
+                    this.fileName, e.getMessage()));
+            return false;
+        }
+    }
+
+    /**
+     * Unregisters the MBean from the platform MBean server. Does nothing if it
+     * is not registered.
+     */
+    public synchronized void unregister() {
+        if (this.name == null) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(this.name);
+        } catch (JMException e) {
+            // already unregistered
+        }
+        this.name = null;
+    }
+
+    @Override
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.metrics.getElapsedNanos());
+    }
+
+    @Override
+    public long getStates() {
+        return this.metrics.getDiscoveredStates();
+    }
+
+    @Override
+    public long getProcessedStates() {
+        return this.metrics.getProcessedStates();
+    }
+
+    @Override
+    public long getTransitions() {
+        return this.metrics.getTransitions();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return this.metrics.getFrontier();
+    }
+
+    @Override
+    public int getBusyThreads() {
+        return this.metrics.getActiveWorkers();
+    }
+
+    @Override
+    public int getThreads() {
+        return this.metrics.getWorkers();
+    }
+
+    @Override
+    public long getHeapBytesPerState() {
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        return used / Math.max(1, getStates());
+    }
+
+    @Override
+    public long getProgressInterval() {
+        return this.reporter.isRunning() ? this.reporter.getInterval() : 0;
+    }
+
+    @Override
+    public void setProgressInterval(final long interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("The progress interval must be non-negative!");
+        }
+
+        if (interval == 0) {
+            this.reporter.stop();
+        } else {
+            this.reporter.setInterval(interval);
+            this.reporter.start();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        this.canceller.run();
+    }
+}
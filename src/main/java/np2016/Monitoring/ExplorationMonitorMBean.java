@@ -0,0 +1,96 @@
+package np2016.Monitoring;
+
+/**
+ * Management interface of a running exploration (see
+ * {@link ExplorationMonitor}).
+ */
+public interface ExplorationMonitorMBean {
+
+    /**
+     * Returns the name of the explored file.
+     *
+     * @return the file name.
+     */
+    String getFileName();
+
+    /**
+     * Returns the time since the exploration started.
+     *
+     * @return the elapsed time in milliseconds.
+     */
+    long getElapsedMillis();
+
+    /**
+     * Returns the number of discovered states.
+     *
+     * @return the number of discovered states.
+     */
+    long getStates();
+
+    /**
+     * Returns the number of states whose transitions were generated.
+     *
+     * @return the number of processed states.
+     */
+    long getProcessedStates();
+
+    /**
+     * Returns the number of generated transitions.
+     *
+     * @return the number of transitions.
+     */
+    long getTransitions();
+
+    /**
+     * Returns the number of discovered but not yet processed states.
+     *
+     * @return the queue depth.
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the number of workers that are currently processing a state.
+     *
+     * @return the number of busy workers.
+     */
+    int getBusyThreads();
+
+    /**
+     * Returns the total number of workers.
+     *
+     * @return the number of workers.
+     */
+    int getThreads();
+
+    /**
+     * Returns the used heap divided by the number of discovered states. As the
+     * used heap includes garbage and the memory of everything else in the JVM,
+     * this is only an upper bound of the memory a state occupies.
+     *
+     * @return the used heap per state in bytes.
+     */
+    long getHeapBytesPerState();
+
+    /**
+     * Returns the interval between two progress reports.
+     *
+     * @return the interval in milliseconds or {@code 0} if the progress is not
+     *         reported.
+     */
+    long getProgressInterval();
+
+    /**
+     * Changes the interval between two progress reports. Reporting is started
+     * if it is not running yet.
+     *
+     * @param interval
+     *            the interval in milliseconds or {@code 0} to stop reporting.
+     */
+    void setProgressInterval(long interval);
+
+    /**
+     * Cancels the exploration. The exploration terminates as soon as possible
+     * and is reported as failed.
+     */
+    void cancel();
+}
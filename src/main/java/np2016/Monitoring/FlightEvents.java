@@ -0,0 +1,184 @@
+package np2016.Monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the exploration phases. Events are only
+ * recorded if a recording is running (e.g. started with
+ * {@code -XX:StartFlightRecording}). An event is emitted as follows:
+ *
+ * <pre>
+ * FlightEvents.Post event = new FlightEvents.Post();
+ * event.begin();
+ * ...
+ * event.end();
+ * if (event.shouldCommit()) {
+ *     event.successors = ...;
+ *     event.commit();
+ * }
+ * </pre>
+ *
+ * If no recording is running {@code shouldCommit} returns {@code false}, the
+ * event object does not escape and is removed by the JIT compiler, so the
+ * fields are never computed and the overhead is negligible.
+ * <p>
+ * The events require a JVM that ships the {@code jdk.jfr} module (Java 11 or
+ * later, Java 8 from update 262).
+ */
+public final class FlightEvents {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private FlightEvents() {
+    }
+
+    /**
+     * Parsing of an input file.
+     */
+    @Name("np2016.Parse")
+    @Label("Parse")
+    @Category({"CCSExplorer", "Parsing"})
+    @Description("Lexing and parsing of an input file")
+    @StackTrace(false)
+    public static final class Parse extends Event {
+
+        /**
+         * The name of the input file.
+         */
+        @Label("File")
+        public String fileName;
+
+        /**
+         * Whether a program was parsed.
+         */
+        @Label("Success")
+        public boolean success;
+    }
+
+    /**
+     * A call of the "Post" function, i.e. the generation of the transitions of
+     * a state.
+     */
+    @Name("np2016.Post")
+    @Label("Post")
+    @Category({"CCSExplorer", "Exploration"})
+    @Description("Generation of the outgoing transitions of a state")
+    @StackTrace(false)
+    public static final class Post extends Event {
+
+        /**
+         * The number of AST nodes of the state.
+         */
+        @Label("State Size")
+        public int stateSize;
+
+        /**
+         * The number of generated transitions.
+         */
+        @Label("Successors")
+        public int successors;
+    }
+
+    /**
+     * A state is handed over between the workers via the work queue.
+     */
+    @Name("np2016.WorkQueue")
+    @Label("Work Queue")
+    @Category({"CCSExplorer", "Exploration"})
+    @Description("A state is added to or taken from the work queue")
+    @StackTrace(false)
+    public static final class WorkQueue extends Event {
+
+        /**
+         * {@code "offer"} or {@code "poll"}.
+         */
+        @Label("Operation")
+        public String operation;
+
+        /**
+         * The size of the work queue after the operation.
+         */
+        @Label("Queue Size")
+        public int queueSize;
+    }
+
+    /**
+     * A newly discovered state is inserted into the visited set.
+     */
+    @Name("np2016.VisitedInsert")
+    @Label("Visited Set Insert")
+    @Category({"CCSExplorer", "Exploration"})
+    @Description("A newly discovered state is inserted into the visited set")
+    @StackTrace(false)
+    public static final class VisitedInsert extends Event {
+
+        /**
+         * The size of the visited set after the insertion.
+         */
+        @Label("Visited States")
+        public int visited;
+    }
+
+    /**
+     * A state or transition is inserted into the LTS.
+     */
+    @Name("np2016.LTSInsert")
+    @Label("LTS Insert")
+    @Category({"CCSExplorer", "LTS"})
+    @Description("A state or transition is inserted into the LTS")
+    @StackTrace(false)
+    public static final class LTSInsert extends Event {
+
+        /**
+         * {@code "state"} or {@code "transition"}.
+         */
+        @Label("Kind")
+        public String kind;
+    }
+
+    /**
+     * Serialization of an LTS to JSON.
+     */
+    @Name("np2016.LTSSerialization")
+    @Label("LTS Serialization")
+    @Category({"CCSExplorer", "LTS"})
+    @Description("Construction of the JSON representation of an LTS")
+    @StackTrace(false)
+    public static final class LTSSerialization extends Event {
+
+        /**
+         * The number of states of the LTS.
+         */
+        @Label("States")
+        public int states;
+
+        /**
+         * The number of transitions of the LTS.
+         */
+        @Label("Transitions")
+        public int transitions;
+    }
+
+    /**
+     * The "critical section" analysis of a program.
+     */
+    @Name("np2016.CriticalSection")
+    @Label("Critical Section Analysis")
+    @Category({"CCSExplorer", "Analysis"})
+    @Description("Check of the \"critical section\" condition")
+    @StackTrace(false)
+    public static final class CriticalSection extends Event {
+
+        /**
+         * The printed verdict or {@code "failed"} if the check failed.
+         */
+        @Label("Verdict")
+        public String verdict;
+    }
+}
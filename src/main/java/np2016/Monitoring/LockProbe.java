@@ -0,0 +1,163 @@
+package np2016.Monitoring;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Measures a single synchronization point: how often it is acquired, how long
+ * threads wait to acquire it and how long they hold it. A synchronized block
+ * is instrumented as follows:
+ *
+ * <pre>
+ * long t = probe.enter();
+ * synchronized (lock) {
+ *     t = probe.acquired(t);
+ *     ...
+ *     probe.released(t);
+ * }
+ * </pre>
+ *
+ * The {@link #DISABLED} probe does not measure anything and does not even read
+ * the clock, so instrumented code does not need to check whether measuring is
+ * enabled.
+ */
+public final class LockProbe {
+
+    /**
+     * A probe that does not measure anything.
+     */
+    public static final LockProbe DISABLED = new LockProbe(null, null);
+
+    /**
+     * The name of the synchronization point.
+     */
+    private final String name;
+
+    /**
+     * The statistics the waiting times are attributed to the current worker
+     * in or {@code null} if the probe is disabled.
+     */
+    private final LockStatistics statistics;
+
+    /**
+     * Number of acquisitions.
+     */
+    private final LongAdder acquisitions = new LongAdder();
+
+    /**
+     * Total time spent waiting for the acquisition in nanoseconds.
+     */
+    private final LongAdder waitNanos = new LongAdder();
+
+    /**
+     * Longest time spent waiting for an acquisition in nanoseconds.
+     */
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Total time the synchronization point was held in nanoseconds.
+     */
+    private final LongAdder holdNanos = new LongAdder();
+
+    /**
+     * Constructs a probe.
+     *
+     * @param name
+     *            the name of the synchronization point.
+     * @param statistics
+     *            the statistics the probe belongs to or {@code null} for the
+     *            disabled probe.
+     */
+    LockProbe(final String name, final LockStatistics statistics) {
+        this.name = name;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the current time if the probe is enabled. Used to measure the
+     * time spent in {@link Object#wait} (see {@link #released(long, long)}).
+     *
+     * @return the current time.
+     */
+    public long now() {
+        return this.statistics == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Must be called immediately before the synchronization point is entered.
+     *
+     * @return the current time.
+     */
+    public long enter() {
+        return now();
+    }
+
+    /**
+     * Must be called immediately after the synchronization point is acquired.
+     *
+     * @param enter
+     *            the value returned by {@link #enter}.
+     * @return the current time.
+     */
+    public long acquired(final long enter) {
+        if (this.statistics == null) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        long waited = now - enter;
+        this.acquisitions.increment();
+        this.waitNanos.add(waited);
+        this.maxWaitNanos.accumulate(waited);
+        this.statistics.blocked(waited);
+        return now;
+    }
+
+    /**
+     * Must be called immediately before the synchronization point is released.
+     *
+     * @param acquired
+     *            the value returned by {@link #acquired}.
+     */
+    public void released(final long acquired) {
+        released(acquired, 0);
+    }
+
+    /**
+     * Must be called immediately before the synchronization point is released.
+     * The given time during which the monitor was released temporarily (i.e.
+     * spent in {@link Object#wait}) does not count as holding time.
+     *
+     * @param acquired
+     *            the value returned by {@link #acquired}.
+     * @param excluded
+     *            the time spent in {@link Object#wait} in nanoseconds.
+     */
+    public void released(final long acquired, final long excluded) {
+        if (this.statistics == null) {
+            return;
+        }
+
+        this.holdNanos.add(System.nanoTime() - acquired - excluded);
+    }
+
+    /**
+     * Constructs the JSON summary of the probe.
+     *
+     * @return the JSON summary.
+     */
+    JsonObject toJSON() {
+        long count = this.acquisitions.sum();
+        JsonObject json = new JsonObject();
+        json.addProperty("name", this.name);
+        json.addProperty("acquisitions", count);
+        json.addProperty("waitNanos", this.waitNanos.sum());
+        json.addProperty("maxWaitNanos", this.maxWaitNanos.get());
+        json.addProperty("meanWaitNanos", count == 0 ? 0 : (double) this.waitNanos.sum() / count);
+        json.addProperty("holdNanos", this.holdNanos.sum());
+        json.addProperty("meanHoldNanos", count == 0 ? 0 : (double) this.holdNanos.sum() / count);
+        return json;
+    }
+}
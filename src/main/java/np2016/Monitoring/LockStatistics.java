@@ -0,0 +1,236 @@
+package np2016.Monitoring;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Collects the {@link LockProbe}s of all synchronization points of an
+ * exploration together with the times of the workers. The time of a worker is
+ * split into
+ * <ul>
+ * <li>idle time: waiting for work,</li>
+ * <li>blocked time: waiting to acquire a synchronization point and</li>
+ * <li>busy time: everything else.</li>
+ * </ul>
+ * The {@link #DISABLED} statistics do not measure anything.
+ */
+public final class LockStatistics {
+
+    /**
+     * Statistics that do not measure anything.
+     */
+    public static final LockStatistics DISABLED = new LockStatistics(false);
+
+    /**
+     * Whether anything is measured.
+     */
+    private final boolean enabled;
+
+    /**
+     * The probes by name.
+     */
+    private final Map<String, LockProbe> probes = new LinkedHashMap<>();
+
+    /**
+     * The times of all registered workers.
+     */
+    private final List<WorkerTimes> workers = new ArrayList<>();
+
+    /**
+     * The times of the worker running in the current thread.
+     */
+    private final ThreadLocal<WorkerTimes> current = new ThreadLocal<>();
+
+    /**
+     * Constructs enabled statistics.
+     */
+    public LockStatistics() {
+        this(true);
+    }
+
+    /**
+     * Constructs statistics.
+     *
+     * @param enabled
+     *            whether anything is measured.
+     */
+    private LockStatistics(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the probe of the synchronization point with the given name.
+     * Creates it if necessary.
+     *
+     * @param name
+     *            the name of the synchronization point.
+     * @return the probe.
+     */
+    public synchronized LockProbe probe(final String name) {
+        if (!this.enabled) {
+            return LockProbe.DISABLED;
+        }
+        return this.probes.computeIfAbsent(name, n -> new LockProbe(n, this));
+    }
+
+    /**
+     * Registers the current thread as a worker. Its time is measured from now
+     * until {@link WorkerTimes#finish} is called.
+     *
+     * @param name
+     *            the name of the worker.
+     * @return the times of the worker.
+     */
+    public WorkerTimes registerWorker(final String name) {
+        WorkerTimes times = new WorkerTimes(name, this.enabled);
+        if (this.enabled) {
+            this.current.set(times);
+            synchronized (this) {
+                this.workers.add(times);
+            }
+        }
+        return times;
+    }
+
+    /**
+     * Attributes a waiting time to the worker running in the current thread.
+     *
+     * @param nanos
+     *            the time waited in nanoseconds.
+     */
+    void blocked(final long nanos) {
+        WorkerTimes times = this.current.get();
+        if (times != null) {
+            times.blocked += nanos;
+        }
+    }
+
+    /**
+     * Constructs the JSON summary of all probes and workers.
+     *
+     * @return the JSON summary.
+     */
+    public synchronized JsonObject toJSON() {
+        JsonArray locks = new JsonArray();
+        for (LockProbe p : this.probes.values()) {
+            locks.add(p.toJSON());
+        }
+
+        JsonArray times = new JsonArray();
+        for (WorkerTimes w : this.workers) {
+            times.add(w.toJSON());
+        }
+
+        JsonObject json = new JsonObject();
+        json.add("locks", locks);
+        json.add("workers", times);
+        return json;
+    }
+
+    /**
+     * The times of a single worker. All times are only updated by the thread
+     * of the worker.
+     */
+    public static final class WorkerTimes {
+
+        /**
+         * The name of the worker.
+         */
+        private final String name;
+
+        /**
+         * Whether anything is measured.
+         */
+        private final boolean enabled;
+
+        /**
+         * The time the worker started.
+         */
+        private final long start;
+
+        /**
+         * The time the worker finished or {@code 0} if it is still running.
+         */
+        private volatile long end;
+
+        /**
+         * Time spent waiting for work in nanoseconds.
+         */
+        private volatile long idle;
+
+        /**
+         * Time spent waiting for synchronization points in nanoseconds.
+         */
+        private volatile long blocked;
+
+        /**
+         * Constructs the times of a worker that starts now.
+         *
+         * @param name
+         *            the name of the worker.
+         * @param enabled
+         *            whether anything is measured.
+         */
+        private WorkerTimes(final String name, final boolean enabled) {
+            this.name = name;
+            this.enabled = enabled;
+            this.start = enabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Returns the current time if anything is measured. Used to measure
+         * idle times.
+         *
+         * @return the current time.
+         */
+        public long now() {
+            return this.enabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records that the worker waited for work since the given time.
+         *
+         * @param since
+         *            the value returned by {@link #now} before waiting.
+         * @return the time waited in nanoseconds.
+         */
+        public long idleSince(final long since) {
+            if (!this.enabled) {
+                return 0;
+            }
+            long waited = System.nanoTime() - since;
+            this.idle += waited;
+            return waited;
+        }
+
+        /**
+         * Records that the worker is finished.
+         */
+        public void finish() {
+            if (this.enabled) {
+                this.end = System.nanoTime();
+            }
+        }
+
+        /**
+         * Constructs the JSON summary of the times.
+         *
+         * @return the JSON summary.
+         */
+        private JsonObject toJSON() {
+            long total = (this.end != 0 ? this.end : System.nanoTime()) - this.start;
+            JsonObject json = new JsonObject();
+            json.addProperty("name", this.name);
+            json.addProperty("totalNanos", total);
+            json.addProperty("busyNanos", total - this.idle - this.blocked);
+            json.addProperty("idleNanos", this.idle);
+            json.addProperty("blockedNanos", this.blocked);
+            return json;
+        }
+    }
+}
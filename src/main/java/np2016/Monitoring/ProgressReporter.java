@@ -0,0 +1,131 @@
+package np2016.Monitoring;
+
+import java.io.PrintStream;
+
+/**
+ * Periodically prints the progress of an exploration. The reporter runs in a
+ * daemon thread of its own between {@link #start} and {@link #stop}.
+ */
+public final class ProgressReporter {
+
+    /**
+     * The metrics of the exploration.
+     */
+    private final ExplorationMetrics metrics;
+
+    /**
+     * The interval between two reports in milliseconds.
+     */
+    private long interval;
+
+    /**
+     * The stream the reports are printed on.
+     */
+    private final PrintStream out;
+
+    /**
+     * The reporting thread.
+     */
+    private Thread thread;
+
+    /**
+     * Constructs a progress reporter.
+     *
+     * @param metrics
+     *            the metrics of the exploration.
+     * @param interval
+     *            the interval between two reports in milliseconds.
+     * @param out
+     *            the stream the reports are printed on.
+     */
+    public ProgressReporter(final ExplorationMetrics metrics, final long interval,
+            final PrintStream out) {
+        this.metrics = metrics;
+        this.interval = interval;
+        this.out = out;
+    }
+
+    /**
+     * Starts reporting. Does nothing if reporting is already running.
+     */
+    public synchronized void start() {
+        if (this.thread != null) {
+            return;
+        }
+
+        this.thread = new Thread(() -> {
+            try {
+                for (;;) {
+                    synchronized (this) {
+                        // wait for the next report, the interval may change
+                        // in the meantime
+                        long last = System.currentTimeMillis();
+                        long now;
+                        while ((now = System.currentTimeMillis()) < last + this.interval) {
+                            wait(last + this.interval - now);
+                        }
+                    }
+                    this.out.println(this.metrics.toProgressLine());
+                }
+            } catch (InterruptedException e) {
+                // stopped
+            }
+        }, "progress-reporter");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the interval between two reports.
+     *
+     * @return the interval in milliseconds.
+     */
+    public synchronized long getInterval() {
+        return this.interval;
+    }
+
+    /**
+     * Changes the interval between two reports. If reporting is running the
+     * next report is printed at most the new interval after the previous one.
+     *
+     * @param interval
+     *            the interval in milliseconds, must be positive.
+     */
+    public synchronized void setInterval(final long interval) {
+        assert interval > 0;
+
+        this.interval = interval;
+        notifyAll();
+    }
+
+    /**
+     * Returns whether reporting is running.
+     *
+     * @return true if reporting is running.
+     */
+    public synchronized boolean isRunning() {
+        return this.thread != null;
+    }
+
+    /**
+     * Stops reporting and waits until the reporting thread is terminated.
+     */
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            t = this.thread;
+            this.thread = null;
+        }
+        if (t == null) {
+            return;
+        }
+
+        // the reporting thread needs the monitor to terminate
+        t.interrupt();
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
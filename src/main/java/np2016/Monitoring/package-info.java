@@ -0,0 +1,6 @@
+/**
+ * Contains the instrumentation of the exploration: counters, gauges and
+ * latency histograms that are updated by the graph searches and reported while
+ * the exploration runs.
+ */
+package np2016.Monitoring;
@@ -2,9 +2,15 @@ package np2016;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import np2016.Logic.FormulaParser;
+import np2016.Logic.StateFormulaParser;
 
 /**
  * Parser and global storage for program options. Is also capable of printing a
@@ -24,6 +30,12 @@ import java.util.TreeMap;
  * Options.THREADS.getNumber()
  * }
  * </pre>
+ * <p>
+ * The option values and input files are stored in a {@link Configuration}.
+ * Usually the whole program shares one configuration. A thread may use a
+ * configuration of its own (see {@link #setConfiguration}) which is then also
+ * used by all threads it starts. This allows several program runs in the same
+ * JVM at the same time (see {@link ExplorerServer}).
  */
 public enum Options {
     /*
@@ -61,6 +73,35 @@ public enum Options {
             "Opens the explored LTS on pseuCo.com (does not print the LTS). " +
             "[requires --lts]"),
 
+    /**
+     * Requires {@link #LTS} to be set. Specifies an equivalence
+     * ({@code "strong"}, {@code "weak"} or {@code "branching"} for strong,
+     * weak or branching bisimilarity); the explored LTS is
+     * replaced by its quotient modulo the equivalence (see
+     * {@link np2016.CCSSemantics.LTS#minimize}) before it is printed. If not
+     * given, the LTS is not minimized.
+     * <p>
+     * Default value: {@code null}
+     */
+    MINIMIZE("minimize",
+            null,
+            "Minimizes the LTS modulo the given equivalence (\"strong\", " +
+            "\"weak\" or \"branching\") before it is printed. " +
+            "[requires --lts]"),
+
+    /**
+     * Requires {@link #LTS} to be set. If set chains of states whose only
+     * transition is a tau transition are skipped during the exploration (see
+     * {@link np2016.CCSSemantics.TauCompressedSemantics}): the explored LTS
+     * contains only the endpoints of such chains.
+     * <p>
+     * Default value: {@code false}
+     */
+    COMPRESS_TAU("compress-tau",
+            false,
+            "Skips states whose only transition is a tau transition while " +
+            "the LTS is explored. [requires --lts]"),
+
     /**
      * If set the program should execute the critical section exploration (i.e.
      * assignment 2) and print whether the condition (specified by the
@@ -75,16 +116,72 @@ public enum Options {
             "Checks whether the \"critical section\" condition is met."),
 
     /**
-     * Requires {@link #CRITICAL_SECTION} to be set. Additionally, prints a
-     * counterexample that shows that the condition is met. The format is
-     * specified by assignment 2.
+     * Requires {@link #CRITICAL_SECTION} or {@link #LTL} to be set.
+     * Additionally, prints a counterexample that shows that the condition or
+     * the formula is not met. The format is specified by assignment 2. The
+     * counterexample for the condition is a path to a violating state followed
+     * by a loop (or the terminal state) that is as short as possible in total.
      * <p>
      * Default value: {@code false}
      */
     COUNTEREXAMPLE("counterexample",
             false,
             "Prints a counterexample if the \"critical section\" condition " +
-            "is not met. [requires --critical-section]"),
+            "(a shortest one) or the LTL formula is not met. " +
+            "[requires --critical-section or --ltl]"),
+
+    /**
+     * Requires {@link #LTS} to be set. If set the program does not terminate
+     * after processing the input files but keeps watching them. Whenever a
+     * file changes it is processed again; the LTS is then re-explored
+     * incrementally starting from the previous LTS.
+     * <p>
+     * Default value: {@code false}
+     */
+    WATCH("watch",
+            false,
+            "Keeps watching the input files and re-explores them " +
+            "incrementally whenever they change. [requires --lts]"),
+
+    /**
+     * If set the progress of the exploration (discovered and processed
+     * states, transitions, size of the frontier, active workers and latency
+     * of the "Post" function) is printed on the error stream periodically
+     * (see {@link #PROGRESS_INTERVAL}). A summary of these metrics is printed
+     * in JSON format when the exploration is finished.
+     * <p>
+     * Default value: {@code false}
+     */
+    PROGRESS("progress",
+            false,
+            "Periodically reports the progress of the exploration and " +
+            "prints a summary of its metrics."),
+
+    /**
+     * If set the concurrent exploration measures for every synchronization
+     * point how often it is acquired and how long the threads wait for and
+     * hold it, as well as the busy, idle and blocked time of every worker.
+     * The results are part of the summary printed on the error stream when
+     * the exploration is finished.
+     * <p>
+     * Default value: {@code false}
+     */
+    LOCK_STATS("lock-stats",
+            false,
+            "Measures the lock contention and the busy, idle and blocked " +
+            "times of the workers and prints them after the exploration."),
+
+    /**
+     * If set every exploration is registered as a JMX MBean while it runs.
+     * The MBean exposes the live counters of the exploration and allows to
+     * cancel it or to change the interval of the progress reports.
+     * <p>
+     * Default value: {@code false}
+     */
+    JMX("jmx",
+            false,
+            "Registers every running exploration as a JMX MBean that can " +
+            "be monitored and cancelled."),
 
     /*
      * arguments expecting a number
@@ -109,13 +206,232 @@ public enum Options {
     DELAY("delay",
             0,
             "Specifies how long the CCS semantics is delayed before " +
-            "returning the transitions for \"prefix\".");
+            "returning the transitions for \"prefix\"."),
+
+    /**
+     * Specifies the maximal size of the result cache in MiB. If the cache
+     * directory grows beyond this size the least recently used entries are
+     * removed. Only relevant if {@link #CACHE} is given.
+     * <p>
+     * Default value: {@code 64}
+     */
+    CACHE_SIZE("cache-size",
+            64,
+            "Specifies the maximal size of the result cache in MiB. " +
+            "[requires --cache]"),
+
+    /**
+     * If not {@code 0} the program runs as a server that listens on the given
+     * local TCP port. The server executes the jobs sent by clients (see
+     * {@link #CONNECT}) in a warm JVM and streams their output back.
+     * <p>
+     * Default value: {@code 0}
+     */
+    SERVER("server",
+            0,
+            "Runs a server on the given local port that executes the " +
+            "jobs sent with --connect."),
+
+    /**
+     * Specifies how many jobs the server (see {@link #SERVER}) executes at the
+     * same time.
+     * <p>
+     * Default value: {@code 4}
+     */
+    SERVER_JOBS("server-jobs",
+            4,
+            "Specifies how many jobs the server executes at the same time. " +
+            "[requires --server]"),
+
+    /**
+     * If not {@code 0} the program does not do any work itself but sends all
+     * other options and the input files to the server (see {@link #SERVER})
+     * listening on the given local TCP port. The output and exit code of the
+     * server are the same as if the program ran locally.
+     * <p>
+     * Default value: {@code 0}
+     */
+    CONNECT("connect",
+            0,
+            "Lets the server on the given local port do the work."),
+
+    /**
+     * Specifies the interval between two progress reports in milliseconds.
+     * Only relevant if {@link #PROGRESS} is given.
+     * <p>
+     * Default value: {@code 1000}
+     */
+    PROGRESS_INTERVAL("progress-interval",
+            1000,
+            "Specifies the interval between two progress reports in " +
+            "milliseconds. [requires --progress]"),
 
     /*
      * arguments expecting a string
-     *
-     * NONE
      */
+    /**
+     * Specifies a directory in which results are cached across program runs.
+     * Results for unchanged programs (and options) are then served from the
+     * cache without exploring the CCS semantics again. If not given, no cache
+     * is used.
+     * <p>
+     * Default value: {@code null}
+     */
+    CACHE("cache",
+            null,
+            "Caches results in the given directory and reuses them for " +
+            "unchanged programs."),
+
+    /**
+     * Specifies the algorithm that checks the "critical section" condition:
+     * {@code "search"} searches the product of the CCS semantics with the
+     * critical section monitor with the engine selected by {@link #THREADS};
+     * {@code "ndfs"} runs a multi-core nested depth-first search on the CCS
+     * semantics with {@link #THREADS} workers. Only relevant if
+     * {@link #CRITICAL_SECTION} is given.
+     * <p>
+     * Default value: {@code "search"}
+     */
+    CS_ALGORITHM("cs-algorithm",
+            "search",
+            "Specifies the algorithm that checks the \"critical section\" " +
+            "condition (\"search\" or \"ndfs\"). " +
+            "[requires --critical-section]"),
+
+    /**
+     * Specifies an LTL formula over actions (see
+     * {@link np2016.Logic.FormulaParser}) that is checked for every input
+     * file. Prints {@code "OK!"} if all runs satisfy the formula and
+     * {@code "NOT OK!"} otherwise (with a counterexample if
+     * {@link #COUNTEREXAMPLE} is set). If not given, no formula is checked.
+     * <p>
+     * Default value: {@code null}
+     */
+    LTL("ltl",
+            null,
+            "Checks whether all runs satisfy the given LTL formula over " +
+            "actions."),
+
+    /**
+     * Specifies a formula of the modal mu-calculus (see
+     * {@link np2016.Logic.StateFormulaParser}) that is checked for every
+     * input file. Prints {@code "OK!"} if the initial state satisfies the
+     * formula and {@code "NOT OK!"} otherwise. If not given, no formula is
+     * checked.
+     * <p>
+     * Default value: {@code null}
+     */
+    HML("hml",
+            null,
+            "Checks whether the initial state satisfies the given formula " +
+            "of Hennessy-Milner logic with fixpoints."),
+
+    /**
+     * Specifies how the {@link #HML} formula is evaluated: {@code "local"}
+     * explores the CCS semantics only as far as needed to decide the initial
+     * state; {@code "global"} explores the LTS and computes all states that
+     * satisfy the formula, which are printed as well.
+     * <p>
+     * Default value: {@code "local"}
+     */
+    HML_MODE("hml-mode",
+            "local",
+            "Specifies how the formula is evaluated (\"local\" or " +
+            "\"global\"). [requires --hml]"),
+
+    /**
+     * If set the program searches for a deadlock, i.e. a reachable state
+     * without outgoing transitions. Prints {@code "OK!"} if there is none and
+     * {@code "NOT OK: "} followed by a trace to the first deadlock found
+     * otherwise. The search stops at the first deadlock and does not construct
+     * the LTS.
+     * <p>
+     * Default value: {@code false}
+     */
+    DEADLOCK("deadlock",
+            false,
+            "Searches for a reachable state without transitions and prints a " +
+            "trace to it."),
+
+    /**
+     * Requires {@link #DEADLOCK} to be set. Additionally, the search continues
+     * after the first deadlock and prints a trace to every deadlock.
+     * <p>
+     * Default value: {@code false}
+     */
+    ALL_DEADLOCKS("all-deadlocks",
+            false,
+            "Prints a trace to every reachable state without transitions. " +
+            "[requires --deadlock]"),
+
+    /**
+     * If set the deadlock search and the "critical section" check explore
+     * the CCS semantics with partial-order reduction (see
+     * {@link np2016.CCSSemantics.ReducedSemantics}): of the interleavings of
+     * independent components only one is explored where possible. The
+     * verdicts are the same, but the traces may differ.
+     * <p>
+     * Default value: {@code false}
+     */
+    POR("por",
+            false,
+            "Explores the CCS semantics with partial-order reduction for " +
+            "the deadlock and critical section checks. " +
+            "[requires --deadlock or --critical-section]"),
+
+    /**
+     * If set the quotient of the CCS semantics by the symmetry of parallel
+     * composition is explored (see
+     * {@link np2016.CCSSemantics.SymmetricSemantics}): states that differ
+     * only in the order of the components of parallel compositions are
+     * identified and labeled with a canonical term. Applies to the LTS and
+     * to all checks except {@link #REACH_TERM}.
+     * <p>
+     * Default value: {@code false}
+     */
+    SYMMETRY("symmetry",
+            false,
+            "Identifies states that differ only in the order of parallel " +
+            "components (the LTS is the quotient)."),
+
+    /**
+     * Requires {@link #SYMMETRY} to be set. Additionally, counterexamples
+     * and deadlock traces are mapped back to the states of the full CCS
+     * semantics.
+     * <p>
+     * Default value: {@code false}
+     */
+    EXPAND_COUNTEREXAMPLE("expand-counterexample",
+            false,
+            "Prints counterexamples and deadlock traces with the states of " +
+            "the full CCS semantics. [requires --symmetry]"),
+
+    /**
+     * Specifies an action (written like in an {@link #LTL} formula, e.g.
+     * {@code a!} or {@code tau}). The CCS semantics is searched for a state
+     * that enables the action and a path to the first one found is printed.
+     * The search stops as soon as such a state is found. If not given, no
+     * such state is searched.
+     * <p>
+     * Default value: {@code null}
+     */
+    REACH_ACTION("reach-action",
+            null,
+            "Searches for a reachable state that enables the given action " +
+            "and prints a path to it."),
+
+    /**
+     * Specifies a regular expression. The CCS semantics is searched for a
+     * state whose term contains a match of the expression and a path to the
+     * first one found is printed. The search stops as soon as such a state is
+     * found. If not given, no such state is searched.
+     * <p>
+     * Default value: {@code null}
+     */
+    REACH_TERM("reach-term",
+            null,
+            "Searches for a reachable state whose term matches the given " +
+            "regular expression and prints a path to it.");
 
     /*
      * global state
@@ -136,15 +452,28 @@ public enum Options {
     private static Map<String, Options> stringArguments = new TreeMap<>();
 
     /**
-     * Stores all specified input (CCS) files.
+     * The configuration of all threads that do not use a configuration of
+     * their own.
      */
-    private static List<String> files = new ArrayList<>();
+    private static final Configuration GLOBAL = new Configuration();
+
+    /**
+     * The configuration of the current thread. Threads inherit the
+     * configuration of the thread that started them.
+     */
+    private static final InheritableThreadLocal<Configuration> CURRENT =
+            new InheritableThreadLocal<>();
 
     /**
      * Length of the strings " &lt;NUMBER&gt;" and " &lt;STRING&gt;".
      */
     private static final int ARG_STR_LENGTH = 9;
 
+    /**
+     * The largest valid TCP port.
+     */
+    private static final int MAX_PORT = 65535;
+
     // static initializations
     static {
         for (final Options o : Options.values()) {
@@ -182,23 +511,10 @@ public enum Options {
      */
     private final String description;
 
-    /*
-     * state
-     */
     /**
-     * Used for options of type {@code FLAG} to store their value.
+     * Stores the default value of an option.
      */
-    private boolean booleanValue;
-
-    /**
-     * Used for options of type {@code NUMBER} to store their value.
-     */
-    private int intValue;
-
-    /**
-     * Used for options of type {@code STRING} to store their value.
-     */
-    private String stringValue;
+    private final Object defaultValue;
 
     /**
      * Constructs a {@code FLAG} option.
@@ -213,7 +529,7 @@ public enum Options {
     Options(final String name, final boolean value, final String description) {
         this.name = name;
         this.type = Type.FLAG;
-        this.booleanValue = value;
+        this.defaultValue = value;
         this.description = description;
     }
 
@@ -230,7 +546,7 @@ public enum Options {
     Options(final String name, final int value, final String description) {
         this.name = name;
         this.type = Type.NUMBER;
-        this.intValue = value;
+        this.defaultValue = value;
         this.description = description;
     }
 
@@ -247,7 +563,7 @@ public enum Options {
     Options(final String name, final String value, final String description) {
         this.name = name;
         this.type = Type.STRING;
-        this.stringValue = value;
+        this.defaultValue = value;
         this.description = description;
     }
 
@@ -257,7 +573,48 @@ public enum Options {
      * @return list of the specified input (CCS) files.
      */
     public static List<String> getFileNames() {
-        return Collections.unmodifiableList(files);
+        return Collections.unmodifiableList(current().files);
+    }
+
+    /**
+     * Lets the current thread (and all threads it starts from now on) use the
+     * given configuration instead of the global one.
+     *
+     * @param configuration
+     *            the configuration or {@code null} to use the global
+     *            configuration again.
+     */
+    static void setConfiguration(final Configuration configuration) {
+        if (configuration == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(configuration);
+        }
+    }
+
+    /**
+     * Lets the current thread (and all threads it starts from now on) use a
+     * new configuration that is described by the given command line
+     * arguments. This allows other programs (e.g. benchmarks) to configure the
+     * explorer.
+     *
+     * @param args
+     *            command line arguments.
+     * @return false if an error occurred while parsing the arguments.
+     */
+    public static boolean configure(final String... args) {
+        setConfiguration(new Configuration());
+        return parseArguments(args);
+    }
+
+    /**
+     * Returns the configuration used by the current thread.
+     *
+     * @return the configuration used by the current thread.
+     */
+    private static Configuration current() {
+        Configuration configuration = CURRENT.get();
+        return configuration == null ? GLOBAL : configuration;
     }
 
     /**
@@ -275,7 +632,7 @@ public enum Options {
             }
 
             if (parseFileNames) {
-                files.add(args[i]);
+                current().files.add(args[i]);
                 continue;
             }
 
@@ -356,15 +713,158 @@ public enum Options {
             return false;
         }
 
+        if (CACHE_SIZE.getNumber() < 0) {
+            System.err.println("The cache size must be non-negative!");
+            return false;
+        }
+
+        if (SERVER.getNumber() < 0 || SERVER.getNumber() > MAX_PORT ||
+                CONNECT.getNumber() < 0 || CONNECT.getNumber() > MAX_PORT) {
+            System.err.println(String.format(
+                    "The port must be between 1 and %d!", MAX_PORT));
+            return false;
+        }
+
+        if (PROGRESS_INTERVAL.getNumber() < 1) {
+            System.err.println("The progress interval must be positive!");
+            return false;
+        }
+
+        if (SERVER_JOBS.getNumber() < 1) {
+            System.err.println("The number of server jobs must be positive!");
+            return false;
+        }
+
+        if (!"search".equals(CS_ALGORITHM.getString()) &&
+                !"ndfs".equals(CS_ALGORITHM.getString())) {
+            System.err.println("The critical section algorithm must be " +
+                    "\"search\" or \"ndfs\"!");
+            return false;
+        }
+
+        if (LTL.getString() != null) {
+            try {
+                FormulaParser.parse(LTL.getString());
+            } catch (IllegalArgumentException e) {
+                System.err.println(String.format(
+                        "The LTL formula is invalid: %s!", e.getMessage()));
+                return false;
+            }
+        }
+
+        if (HML.getString() != null) {
+            try {
+                StateFormulaParser.parse(HML.getString());
+            } catch (IllegalArgumentException e) {
+                System.err.println(String.format(
+                        "The HML formula is invalid: %s!", e.getMessage()));
+                return false;
+            }
+        }
+
+        if (MINIMIZE.getString() != null &&
+                !"strong".equals(MINIMIZE.getString()) &&
+                !"weak".equals(MINIMIZE.getString()) &&
+                !"branching".equals(MINIMIZE.getString())) {
+            System.err.println("The equivalence must be \"strong\", " +
+                    "\"weak\" or \"branching\"!");
+            return false;
+        }
+
+        if (!"local".equals(HML_MODE.getString()) &&
+                !"global".equals(HML_MODE.getString())) {
+            System.err.println("The HML mode must be \"local\" or " +
+                    "\"global\"!");
+            return false;
+        }
+
+        if (REACH_TERM.getString() != null) {
+            try {
+                Pattern.compile(REACH_TERM.getString());
+            } catch (PatternSyntaxException e) {
+                System.err.println(String.format(
+                        "The term pattern is invalid: %s!", e.getDescription()));
+                return false;
+            }
+        }
+
+        if (SERVER.getNumber() != 0 && CONNECT.getNumber() != 0) {
+            System.out.println("The options \"--server\" and \"--connect\" " +
+                    "cannot be given at the same time!");
+            return false;
+        }
+
         if (VIEW_ONLINE.isSet() && !LTS.isSet()) {
             System.out.println("If \"--view-online\" is specified \"--lts\" " +
                     "must be given as well!");
             return false;
         }
 
-        if (COUNTEREXAMPLE.isSet() && !CRITICAL_SECTION.isSet()) {
+        if (MINIMIZE.getString() != null && !LTS.isSet()) {
+            System.out.println("If \"--minimize\" is specified \"--lts\" " +
+                    "must be given as well!");
+            return false;
+        }
+
+        if (COMPRESS_TAU.isSet() && !LTS.isSet()) {
+            System.out.println("If \"--compress-tau\" is specified \"--lts\" " +
+                    "must be given as well!");
+            return false;
+        }
+
+        if (COMPRESS_TAU.isSet() && WATCH.isSet()) {
+            System.out.println("The options \"--compress-tau\" and \"--watch\" " +
+                    "cannot be given at the same time!");
+            return false;
+        }
+
+        if (WATCH.isSet() && !LTS.isSet()) {
+            System.out.println("If \"--watch\" is specified \"--lts\" " +
+                    "must be given as well!");
+            return false;
+        }
+
+        if (ALL_DEADLOCKS.isSet() && !DEADLOCK.isSet()) {
+            System.out.println("If \"--all-deadlocks\" is specified " +
+                    "\"--deadlock\" must be given as well!");
+            return false;
+        }
+
+        if (POR.isSet() && !DEADLOCK.isSet() && !CRITICAL_SECTION.isSet()) {
+            System.out.println("If \"--por\" is specified \"--deadlock\" " +
+                    "or \"--critical-section\" must be given as well!");
+            return false;
+        }
+
+        if (POR.isSet() && CRITICAL_SECTION.isSet() &&
+                "ndfs".equals(CS_ALGORITHM.getString())) {
+            System.out.println("The options \"--por\" and " +
+                    "\"--cs-algorithm ndfs\" cannot be given at the same time!");
+            return false;
+        }
+
+        if (SYMMETRY.isSet() && POR.isSet()) {
+            System.out.println("The options \"--symmetry\" and \"--por\" " +
+                    "cannot be given at the same time!");
+            return false;
+        }
+
+        if (SYMMETRY.isSet() && WATCH.isSet()) {
+            System.out.println("The options \"--symmetry\" and \"--watch\" " +
+                    "cannot be given at the same time!");
+            return false;
+        }
+
+        if (EXPAND_COUNTEREXAMPLE.isSet() && !SYMMETRY.isSet()) {
+            System.out.println("If \"--expand-counterexample\" is specified " +
+                    "\"--symmetry\" must be given as well!");
+            return false;
+        }
+
+        if (COUNTEREXAMPLE.isSet() && !CRITICAL_SECTION.isSet() &&
+                LTL.getString() == null) {
             System.out.println("If \"--counterexample\" is specified " +
-                    "\"--critical-section\" must be given as well!");
+                    "\"--critical-section\" or \"--ltl\" must be given as well!");
             return false;
         }
 
@@ -461,7 +961,7 @@ public enum Options {
     public boolean isSet() {
         assert this.type == Type.FLAG;
 
-        return this.booleanValue;
+        return (Boolean) current().get(this);
     }
 
     /**
@@ -472,7 +972,7 @@ public enum Options {
     public int getNumber() {
         assert this.type == Type.NUMBER;
 
-        return this.intValue;
+        return (Integer) current().get(this);
     }
 
     /**
@@ -483,7 +983,16 @@ public enum Options {
     public String getString() {
         assert this.type == Type.STRING;
 
-        return this.stringValue;
+        return (String) current().get(this);
+    }
+
+    /**
+     * Returns the value of the option in text form regardless of its type.
+     *
+     * @return the value of the option in text form.
+     */
+    String getValue() {
+        return String.valueOf(current().get(this));
     }
 
     /**
@@ -505,7 +1014,7 @@ public enum Options {
     private void set(final boolean value) {
         assert this.type == Type.FLAG;
 
-        this.booleanValue = value;
+        current().values.put(this, value);
     }
 
     /**
@@ -518,7 +1027,7 @@ public enum Options {
     private void set(final int value) {
         assert this.type == Type.NUMBER;
 
-        this.intValue = value;
+        current().values.put(this, value);
     }
 
     /**
@@ -531,7 +1040,37 @@ public enum Options {
     private void set(final String value) {
         assert this.type == Type.STRING;
 
-        this.stringValue = value;
+        current().values.put(this, value);
+    }
+
+    /**
+     * The values of all options and the input files of a program run. Options
+     * that were not specified have their default value.
+     */
+    static final class Configuration {
+        /**
+         * Stores the values of the specified options.
+         */
+        private final Map<Options, Object> values = new EnumMap<>(Options.class);
+
+        /**
+         * Stores all specified input (CCS) files.
+         */
+        private final List<String> files = new ArrayList<>();
+
+        /**
+         * Returns the value of an option.
+         *
+         * @param option
+         *            the option.
+         * @return the value of the option.
+         */
+        private Object get(final Options option) {
+            if (this.values.containsKey(option)) {
+                return this.values.get(option);
+            }
+            return option.defaultValue;
+        }
     }
 
     /**
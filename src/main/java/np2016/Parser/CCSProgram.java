@@ -2,8 +2,11 @@ package np2016.Parser;
 
 import np2016.ASTNodes.CCSExpression;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Representation of an entire CCS program. This involves the recursion variable
@@ -74,6 +77,33 @@ public class CCSProgram {
         return this.evaluation.get(name);
     }
 
+    /**
+     * Returns the names of all defined recursion variables.
+     *
+     * @return the names of all defined recursion variables.
+     */
+    public Set<String> getIdentifiers() {
+        return Collections.unmodifiableSet(this.evaluation.keySet());
+    }
+
+    /**
+     * Returns a normalized string representation of the program. Unlike
+     * {@link #toString} the recursion variable definitions are listed in
+     * lexicographic order, so two programs with the same definitions and the
+     * same global CCS expression have the same normalized representation
+     * regardless of the formatting and order of the input file.
+     *
+     * @return the normalized string representation of the program.
+     */
+    public String toNormalizedString() {
+        StringBuilder b = new StringBuilder();
+        for (String key : new TreeSet<>(evaluation.keySet())) {
+            b.append(key + " := " + evaluation.get(key).toString() + "\n");
+        }
+        b.append(exp.toString());
+        return b.toString();
+    }
+
     @Override
     public String toString() {
         StringBuilder b = new StringBuilder();
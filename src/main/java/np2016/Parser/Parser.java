@@ -5,7 +5,11 @@ import np2016.ASTNodes.CCSExpression;
 import np2016.Diagnostic.Diagnostic;
 import np2016.Diagnostic.Locatable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -111,75 +115,130 @@ public class Parser {
 
     /**
      * Parses an entire CCS expression.
+     * <p>
+     * The expression is parsed without recursion. Prefixes that still wait for
+     * their prefixed expression and bracketed expressions that are still open
+     * are kept on an explicit stack of {@link Frame}s. Hence the depth of the
+     * Java stack does not grow with the length of prefix chains or with the
+     * nesting depth of parentheses and the input is parsed in linear time. The
+     * constructed AST is the same as the one of a recursive descent parser for
+     * the grammar
+     *
+     * <pre>
+     * expr   ::= choice ('|' choice)*
+     * choice ::= res ('+' res)*
+     * res    ::= base ('\' '{' [id (',' id)*] '}')?
+     * base   ::= '0' | id | id '.' base | '(' expr ')'
+     * </pre>
      *
      * @return the parsed CCS expression.
      */
     public CCSExpression parseCCSExpression() {
-        CCSExpression exp1 = parseCCSChoiceExpression();
-        while (peek(TokenType.PAR)) {
-            nextToken();
-            CCSExpression exp2 = parseCCSChoiceExpression();
-            exp1 = factory.createParExpression(exp1, exp2);
+        final Deque<Frame> open = new ArrayDeque<>();
+        Frame frame = new Frame();
+
+        for (;;) {
+            // collect all prefixes in front of the next ground expression
+            while (peek(TokenType.IDENTIFIER) &&
+                    lookAhead.getType() == TokenType.DOT) {
+                frame.prefixes.add(token.getText());
+                nextToken();
+                nextToken();
+            }
+
+            CCSExpression exp = parseCCSGroundExpression();
+            if (exp == null && peek(TokenType.PAREN_L)) {
+                // the bracketed expression is parsed in a new frame
+                nextToken();
+                open.push(frame);
+                frame = new Frame();
+                continue;
+            }
+
+            // close the ground expression and every bracketed expression that
+            // ends right after it
+            for (;;) {
+                for (int i = frame.prefixes.size() - 1; i >= 0; --i) {
+                    exp = factory.createPrefixExpression(frame.prefixes.get(i), exp);
+                }
+                frame.prefixes.clear();
+
+                exp = parseCCSRestriction(exp);
+
+                frame.choice = frame.hasChoice ?
+                        factory.createChoiceExpression(frame.choice, exp) : exp;
+                frame.hasChoice = true;
+                if (accept(TokenType.CHOICE)) {
+                    break;
+                }
+
+                frame.par = frame.hasPar ?
+                        factory.createParExpression(frame.par, frame.choice) :
+                            frame.choice;
+                frame.hasPar = true;
+                frame.choice = null;
+                frame.hasChoice = false;
+                if (accept(TokenType.PAR)) {
+                    break;
+                }
+
+                // the expression of the current frame is complete
+                exp = frame.par;
+                if (open.isEmpty()) {
+                    return exp;
+                }
+                expect(TokenType.PAREN_R);
+                frame = open.pop();
+            }
         }
-        return exp1;
     }
 
     /**
-     * Parses a choice expression.
+     * Parses the optional restriction set following an expression (i.e.
+     * {@code \ {a, b}}).
      *
-     * @return the parsed choice expression.
+     * @param exp
+     *            the expression that might be restricted.
+     * @return the restriction expression or {@code exp} itself if no
+     *         restriction follows.
      */
-    private CCSExpression parseCCSChoiceExpression() {
-        CCSExpression exp1 = parseCCSResExpression();
-        while (peek(TokenType.CHOICE)) {
-            nextToken();
-            CCSExpression exp2 = parseCCSResExpression();
-            exp1 = factory.createChoiceExpression(exp1, exp2);
+    private CCSExpression parseCCSRestriction(final CCSExpression exp) {
+        if (!peek(TokenType.RES)) {
+            return exp;
         }
-        return exp1;
-    }
 
-    /**
-     * Parses a restriction expression.
-     *
-     * @return the parsed restriction expression.
-     */
-    private CCSExpression parseCCSResExpression() {
-        CCSExpression exp = parseCCSBaseExpression();
-        if (peek(TokenType.RES)) {
-            Set<String> res = new HashSet<>();
+        Set<String> res = new HashSet<>();
 
-            nextToken();
-            expect(TokenType.BRACE_L);
+        nextToken();
+        expect(TokenType.BRACE_L);
 
-            if (peek(TokenType.IDENTIFIER)) {
+        if (peek(TokenType.IDENTIFIER)) {
+            res.add(token.getText());
+            nextToken();
+        }
+        while (peek(TokenType.COMMA)) {
+            nextToken();
+            if (!peek(TokenType.IDENTIFIER)) {
+                diagnostic.printNote(token, "Expected another identifier.");
+            } else {
                 res.add(token.getText());
                 nextToken();
             }
-            while (peek(TokenType.COMMA)) {
-                nextToken();
-                if (!peek(TokenType.IDENTIFIER)) {
-                    diagnostic.printNote(token, "Expected another identifier.");
-                } else {
-                    res.add(token.getText());
-                    nextToken();
-                }
-            }
+        }
 
-            expect(TokenType.BRACE_R);
+        expect(TokenType.BRACE_R);
 
-            exp = factory.createResExpression(exp, res);
-        }
-        return exp;
+        return factory.createResExpression(exp, res);
     }
 
     /**
-     * Parses a ground expression (i.e. null, prefix, a recursion variable or an
-     * entire bracketed CCS expression).
+     * Parses a ground expression that is neither a prefix nor bracketed (i.e.
+     * null or a recursion variable). Does not consume an opening parenthesis.
      *
-     * @return the parsed ground expression.
+     * @return the parsed ground expression or {@code null} if the current
+     *         token is an opening parenthesis or a syntax error occurred.
      */
-    private CCSExpression parseCCSBaseExpression() {
+    private CCSExpression parseCCSGroundExpression() {
         final Locatable loc = token;
         CCSExpression result = null;
         switch (token.getType()) {
@@ -188,21 +247,10 @@ public class Parser {
             nextToken();
             break;
         case IDENTIFIER:
-            String text = token.getText();
-            if (lookAhead.getType() == TokenType.DOT) {
-                nextToken();
-                nextToken();
-                CCSExpression exp = parseCCSBaseExpression();
-                return factory.createPrefixExpression(text, exp);
-            } else {
-                result = factory.createIdentifierExpression(text);
-                nextToken();
-                break;
-            }
-        case PAREN_L:
+            result = factory.createIdentifierExpression(token.getText());
             nextToken();
-            result = parseCCSExpression();
-            expect(TokenType.PAREN_R);
+            break;
+        case PAREN_L:
             break;
         default:
             diagnostic.printError(loc, "Syntax error, got '%s', expected something different.", loc.toString());
@@ -250,4 +298,36 @@ public class Parser {
         return program;
     }
 
+    /**
+     * State of an expression that is being parsed. There is one frame for the
+     * whole expression and one for every bracketed expression that is still
+     * open.
+     */
+    private static final class Frame {
+        /**
+         * The prefixes (action names) that still wait for the ground expression
+         * they are applied to. They are applied from right to left.
+         */
+        private final List<String> prefixes = new ArrayList<>();
+
+        /**
+         * The choice expression parsed so far.
+         */
+        private CCSExpression choice;
+
+        /**
+         * Was an operand of the current choice expression parsed already?
+         */
+        private boolean hasChoice;
+
+        /**
+         * The parallel expression parsed so far.
+         */
+        private CCSExpression par;
+
+        /**
+         * Was an operand of the current parallel expression parsed already?
+         */
+        private boolean hasPar;
+    }
 }
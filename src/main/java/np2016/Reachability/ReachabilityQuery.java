@@ -0,0 +1,265 @@
+package np2016.Reachability;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Graph.Graph;
+import np2016.GraphSearch.BFSGraphVisitor;
+import np2016.Logic.Formula;
+
+/**
+ * Searches for a reachable state with a given property while the CCS
+ * semantics is searched. The visitor may be used by the sequential as well as
+ * the concurrent graph search; it stops the search as soon as a state is
+ * found (see {@link #isDone}).
+ * <p>
+ * The property is checked when a state is discovered. If it is about the
+ * enabled actions it is checked for every edge instead, so the state is found
+ * before its successors are discovered.
+ */
+public final class ReachabilityQuery implements BFSGraphVisitor<State, Transition> {
+
+    /**
+     * The property of the searched state or {@code null}.
+     */
+    private final Predicate<? super State> states;
+
+    /**
+     * The property of a transition of the searched state or {@code null}.
+     */
+    private final Predicate<? super Transition> transitions;
+
+    /**
+     * The start state of the search.
+     */
+    private volatile State start;
+
+    /**
+     * The tree edge that discovered each state.
+     */
+    private final Map<State, Transition> parents = new ConcurrentHashMap<>();
+
+    /**
+     * The witness found first.
+     */
+    private final AtomicReference<Witness> witness = new AtomicReference<>();
+
+    /**
+     * Constructs a query.
+     *
+     * @param states
+     *            the property of the searched state or {@code null}.
+     * @param transitions
+     *            the property of a transition of the searched state or
+     *            {@code null}.
+     */
+    private ReachabilityQuery(final Predicate<? super State> states,
+            final Predicate<? super Transition> transitions) {
+        this.states = states;
+        this.transitions = transitions;
+    }
+
+    /**
+     * Constructs a query for a state that enables the given action.
+     *
+     * @param action
+     *            the action, written like in an LTL formula (e.g. {@code a!}
+     *            or {@code tau}).
+     * @return the query.
+     */
+    public static ReachabilityQuery enabling(final String action) {
+        Formula atom = Formula.action(action);
+        return new ReachabilityQuery(null, t -> atom.matches(t.getInfo()));
+    }
+
+    /**
+     * Constructs a query for a state whose CCS term contains a match of the
+     * given pattern.
+     *
+     * @param pattern
+     *            the pattern.
+     * @return the query.
+     */
+    public static ReachabilityQuery matching(final Pattern pattern) {
+        return new ReachabilityQuery(s -> pattern.matcher(s.getInfo().toString()).find(), null);
+    }
+
+    /**
+     * Returns the witness found. Must be called after the search finished.
+     *
+     * @return the witness or {@code null} if no state has the property.
+     */
+    public Witness getWitness() {
+        return this.witness.get();
+    }
+
+    @Override
+    public boolean isDone() {
+        return this.witness.get() != null;
+    }
+
+    @Override
+    public void startVertex(final Graph<State, Transition> graph, final State vertex) {
+        this.start = vertex;
+        visit(vertex);
+    }
+
+    @Override
+    public void discoverVertex(final Graph<State, Transition> graph, final State vertex) {
+        // Do nothing, the concurrent search only reports tree edges.
+    }
+
+    @Override
+    public void finishVertex(final Graph<State, Transition> graph, final State vertex) {
+        // Do nothing.
+    }
+
+    @Override
+    public void terminalVertex(final Graph<State, Transition> graph, final State vertex) {
+        // Do nothing.
+    }
+
+    @Override
+    public void treeEdge(final Graph<State, Transition> graph, final Transition edge) {
+        this.parents.put(edge.getTarget(), edge);
+        visit(edge);
+        visit(edge.getTarget());
+    }
+
+    @Override
+    public void nonTreeEdge(final Graph<State, Transition> graph, final Transition edge) {
+        visit(edge);
+    }
+
+    /**
+     * Checks whether a discovered state has the property.
+     *
+     * @param state
+     *            the state.
+     */
+    private void visit(final State state) {
+        if (this.states != null && this.witness.get() == null && this.states.test(state)) {
+            this.witness.compareAndSet(null, new Witness(pathTo(state), state, null));
+        }
+    }
+
+    /**
+     * Checks whether an edge makes its start state have the property.
+     *
+     * @param edge
+     *            the edge.
+     */
+    private void visit(final Transition edge) {
+        if (this.transitions != null && this.witness.get() == null && this.transitions.test(edge)) {
+            this.witness.compareAndSet(null, new Witness(pathTo(edge.getStart()), edge.getStart(), edge));
+        }
+    }
+
+    /**
+     * Returns the path from the start state to the given state along the tree
+     * edges.
+     *
+     * @param state
+     *            the state.
+     * @return the path.
+     */
+    private List<Transition> pathTo(final State state) {
+        List<Transition> path = new ArrayList<>();
+        State x = state;
+        while (!x.equals(this.start)) {
+            Transition parent = this.parents.get(x);
+            path.add(parent);
+            x = parent.getStart();
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * A path from the initial state to a state with the property.
+     */
+    public static final class Witness {
+
+        /**
+         * The path.
+         */
+        private final List<Transition> path;
+
+        /**
+         * The state with the property.
+         */
+        private final State state;
+
+        /**
+         * The transition of the state that gives it the property or
+         * {@code null}.
+         */
+        private final Transition transition;
+
+        /**
+         * Constructs a witness.
+         *
+         * @param path
+         *            the path.
+         * @param state
+         *            the state with the property.
+         * @param transition
+         *            the transition that gives the state the property or
+         *            {@code null}.
+         */
+        Witness(final List<Transition> path, final State state, final Transition transition) {
+            this.path = Collections.unmodifiableList(path);
+            this.state = state;
+            this.transition = transition;
+        }
+
+        /**
+         * Returns the path from the initial state.
+         *
+         * @return the path.
+         */
+        public List<Transition> getPath() {
+            return this.path;
+        }
+
+        /**
+         * Returns the state with the property.
+         *
+         * @return the state.
+         */
+        public State getState() {
+            return this.state;
+        }
+
+        /**
+         * Formats the witness like a counterexample, e.g.
+         * {@code (X,enter).(Y,a)} for a state {@code Y} that enables
+         * {@code a} or {@code (X,enter).(Y)} for a state {@code Y} that
+         * matches a pattern.
+         *
+         * @return the formatted witness.
+         */
+        @Override
+        public String toString() {
+            StringBuilder b = new StringBuilder();
+            for (Transition t : this.path) {
+                b.append(String.format("(%s,%s)", t.getStart().getInfo(), t.getInfo()));
+            }
+            b.append('.');
+            if (this.transition != null) {
+                b.append(String.format("(%s,%s)", this.state.getInfo(), this.transition.getInfo()));
+            } else {
+                b.append(String.format("(%s)", this.state.getInfo()));
+            }
+            return b.toString();
+        }
+    }
+}
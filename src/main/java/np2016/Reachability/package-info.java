@@ -0,0 +1,6 @@
+/**
+ * Contains the reachability queries: a search of the CCS semantics for a
+ * state with a given property that stops as soon as such a state is found
+ * and reports a path to it.
+ */
+package np2016.Reachability;
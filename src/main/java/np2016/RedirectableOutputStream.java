@@ -0,0 +1,78 @@
+package np2016;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that forwards everything to a stream chosen by the writing
+ * thread. A thread can redirect its output (and the output of all threads it
+ * starts from then on) with {@link #redirect}. Threads that did not redirect
+ * their output write to the default stream.
+ * <p>
+ * Used by the server ({@link ExplorerServer}) to send the standard output and
+ * standard error of every job to the client that sent the job.
+ */
+final class RedirectableOutputStream extends OutputStream {
+
+    /**
+     * The stream of threads that did not redirect their output.
+     */
+    private final OutputStream defaultStream;
+
+    /**
+     * The stream of the current thread.
+     */
+    private final InheritableThreadLocal<OutputStream> target =
+            new InheritableThreadLocal<>();
+
+    /**
+     * Constructs a redirectable output stream.
+     *
+     * @param defaultStream
+     *            the stream of threads that did not redirect their output.
+     */
+    RedirectableOutputStream(final OutputStream defaultStream) {
+        this.defaultStream = defaultStream;
+    }
+
+    /**
+     * Redirects the output of the current thread.
+     *
+     * @param stream
+     *            the new stream of the current thread or {@code null} to use
+     *            the default stream again.
+     */
+    void redirect(final OutputStream stream) {
+        if (stream == null) {
+            this.target.remove();
+        } else {
+            this.target.set(stream);
+        }
+    }
+
+    /**
+     * Returns the stream of the current thread.
+     *
+     * @return the stream of the current thread.
+     */
+    private OutputStream current() {
+        OutputStream stream = this.target.get();
+        return stream == null ? this.defaultStream : stream;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        current().write(b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+            throws IOException {
+        current().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        current().flush();
+    }
+}
@@ -0,0 +1,279 @@
+package np2016;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import np2016.Parser.CCSProgram;
+
+/**
+ * Persistent cache for the results of the program (e.g. the JSON string of an
+ * explored LTS). Every result is stored in its own file inside the cache
+ * directory. The file name is a fingerprint of the normalized CCS program, the
+ * kind of the result and all options that influence the result.
+ * <p>
+ * The cache may be shared by several processes at the same time:
+ * <ul>
+ * <li>Entries are written to a temporary file first which is then atomically
+ * moved to its final name. Readers therefore either see a complete entry or no
+ * entry at all.</li>
+ * <li>Entries that vanish while being read (because another process evicted
+ * them) are treated as cache misses.</li>
+ * </ul>
+ * The size of the cache directory is bounded. After an entry was written the
+ * least recently used entries are removed until the directory fits into the
+ * configured size again. Reading an entry counts as a use.
+ */
+public final class ResultCache {
+
+    /**
+     * Version of the cache format. Change this whenever the way results are
+     * computed or stored changes, old entries are then never hit again.
+     */
+    private static final String FORMAT_VERSION = "np2016-cache-2";
+
+    /**
+     * File extension of cache entries.
+     */
+    private static final String ENTRY_SUFFIX = ".result";
+
+    /**
+     * File name prefix of entries that are currently being written.
+     */
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    /**
+     * Temporary files older than this (in milliseconds) are left overs of
+     * crashed processes and are removed during eviction.
+     */
+    private static final long STALE_TEMP_AGE = 60 * 60 * 1000;
+
+    /**
+     * Number of bytes in a MiB.
+     */
+    private static final long MIB = 1024 * 1024;
+
+    /**
+     * The cache directory.
+     */
+    private final Path directory;
+
+    /**
+     * Maximal size of all entries in bytes.
+     */
+    private final long maxSize;
+
+    /**
+     * Constructs a cache in the given directory. The directory is created if
+     * it does not exist yet.
+     *
+     * @param directory
+     *            the cache directory.
+     * @param maxSize
+     *            maximal size of all entries in bytes.
+     * @throws IOException
+     *             if the directory cannot be created.
+     */
+    public ResultCache(final Path directory, final long maxSize)
+            throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Constructs the cache specified by {@link Options#CACHE} and
+     * {@link Options#CACHE_SIZE}.
+     *
+     * @return the cache or {@code null} if no cache directory is given or it
+     *         cannot be used.
+     */
+    public static ResultCache fromOptions() {
+        if (Options.CACHE.getString() == null) {
+            return null;
+        }
+
+        try {
+            return new ResultCache(Paths.get(Options.CACHE.getString()),
+                    Options.CACHE_SIZE.getNumber() * MIB);
+        } catch (IOException e) {
+            System.err.println(String.format(
+                    "The cache directory %s cannot be used!",
+                    Options.CACHE.getString()));
+            return null;
+        }
+    }
+
+    /**
+     * Computes the cache key of a result.
+     *
+     * @param program
+     *            the CCS program the result belongs to.
+     * @param kind
+     *            the kind of the result (e.g. {@code "lts"}).
+     * @param options
+     *            the options that influence the result.
+     * @return the cache key.
+     */
+    public static String fingerprint(final CCSProgram program,
+            final String kind, final Options... options) {
+        StringBuilder b = new StringBuilder();
+        b.append(FORMAT_VERSION).append('\n');
+        b.append(kind).append('\n');
+        for (Options o : options) {
+            b.append(o.getName()).append('=').append(o.getValue()).append('\n');
+        }
+        b.append(program.toNormalizedString());
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(
+                    b.toString().getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder key = new StringBuilder();
+            for (byte h : hash) {
+                key.append(String.format("%02x", h));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Looks up a result.
+     *
+     * @param key
+     *            the cache key of the result.
+     * @return the cached result or {@code null} on a cache miss.
+     */
+    public String get(final String key) {
+        Path entry = this.directory.resolve(key + ENTRY_SUFFIX);
+
+        try {
+            byte[] content = Files.readAllBytes(entry);
+            Files.setLastModifiedTime(entry,
+                    FileTime.fromMillis(System.currentTimeMillis()));
+            return new String(content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // missing, evicted concurrently or unreadable
+            return null;
+        }
+    }
+
+    /**
+     * Stores a result. Errors are reported but otherwise ignored as the cache
+     * is only an optimization.
+     *
+     * @param key
+     *            the cache key of the result.
+     * @param value
+     *            the result.
+     */
+    public void put(final String key, final String value) {
+        Path entry = this.directory.resolve(key + ENTRY_SUFFIX);
+        Path temp = null;
+
+        try {
+            temp = Files.createTempFile(this.directory, TEMP_PREFIX, null);
+            Files.write(temp, value.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println(String.format(
+                    "The result could not be written to the cache (%s)!",
+                    e.getMessage()));
+            deleteQuietly(temp);
+            return;
+        }
+
+        evict();
+    }
+
+    /**
+     * Removes the least recently used entries until all entries fit into the
+     * maximal cache size. Also removes stale temporary files.
+     */
+    private void evict() {
+        List<Path> entries = new ArrayList<>();
+        List<FileTime> times = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        long total = 0;
+        long now = System.currentTimeMillis();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                try {
+                    if (name.endsWith(ENTRY_SUFFIX)) {
+                        FileTime time = Files.getLastModifiedTime(p);
+                        long size = Files.size(p);
+                        entries.add(p);
+                        times.add(time);
+                        sizes.add(size);
+                        total += size;
+                    } else if (name.startsWith(TEMP_PREFIX) &&
+                            now - Files.getLastModifiedTime(p).toMillis() > STALE_TEMP_AGE) {
+                        deleteQuietly(p);
+                    }
+                } catch (NoSuchFileException e) {
+                    // removed by another process in the meantime
+                    continue;
+                }
+            }
+        } catch (IOException e) {
+            return;
+        }
+
+        if (total <= this.maxSize) {
+            return;
+        }
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < entries.size(); ++i) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(times::get));
+
+        for (int i : order) {
+            if (total <= this.maxSize) {
+                break;
+            }
+            deleteQuietly(entries.get(i));
+            total -= sizes.get(i);
+        }
+    }
+
+    /**
+     * Deletes a file, ignoring all errors (e.g. if another process already
+     * deleted it).
+     *
+     * @param file
+     *            the file to delete or {@code null}.
+     */
+    private static void deleteQuietly(final Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // nothing we can do about it
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package np2016;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import np2016.CCSSemantics.CCSSemantics;
+import np2016.CCSSemantics.IncrementalSemantics;
+import np2016.CCSSemantics.LTS;
+import np2016.CCSSemantics.State;
+import np2016.CCSSemantics.Transition;
+import np2016.Diagnostic.Diagnostic;
+import np2016.Graph.Graph;
+import np2016.Parser.CCSProgram;
+
+/**
+ * Implements the {@code --watch} functionality. The input files are processed
+ * once and then watched for changes. Whenever a file changes it is parsed and
+ * processed again.
+ * <p>
+ * The last successfully explored program and LTS of every file are kept in
+ * memory. The LTS of a changed program is updated from the previous LTS (see
+ * {@link IncrementalSemantics}): the transitions of the states that do not
+ * depend on an edited recursion variable definition are copied, and only the
+ * other states and the new states they reach are explored. The update runs
+ * sequentially and without the metrics of the exploration engine; only the
+ * first exploration of a file uses the engine selected by
+ * {@link Options#THREADS}.
+ * <p>
+ * The result cache ({@link Options#CACHE}) is not used in watch mode.
+ */
+final class WatchMode {
+
+    /**
+     * Time in milliseconds to wait for further change events after a change
+     * was detected. Editors often write a file in several steps.
+     */
+    private static final long SETTLE_TIME = 200;
+
+    /**
+     * Helper for printing error and information messages related to positions
+     * in the input programs.
+     */
+    private final Diagnostic diagnostic;
+
+    /**
+     * The last successfully explored program of every file.
+     */
+    private final Map<Path, CCSProgram> programs = new HashMap<>();
+
+    /**
+     * The last explored LTS of every file.
+     */
+    private final Map<Path, LTS> ltss = new HashMap<>();
+
+    /**
+     * Constructs the watch mode.
+     *
+     * @param diagnostic
+     *            helper for printing error and information messages related to
+     *            positions in the input programs.
+     */
+    WatchMode(final Diagnostic diagnostic) {
+        this.diagnostic = diagnostic;
+    }
+
+    /**
+     * Processes the given files and then processes them again whenever they
+     * change. Only returns if the files cannot be watched.
+     *
+     * @param fileNames
+     *            names of the input files.
+     */
+    void run(final List<String> fileNames) {
+        Map<Path, String> files = new LinkedHashMap<>();
+        for (String fileName : fileNames) {
+            files.put(Paths.get(fileName).toAbsolutePath().normalize(), fileName);
+        }
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> directories = new LinkedHashSet<>();
+            for (Path file : files.keySet()) {
+                directories.add(file.getParent());
+            }
+            for (Path directory : directories) {
+                directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+
+            for (Map.Entry<Path, String> file : files.entrySet()) {
+                process(file.getKey(), file.getValue());
+            }
+
+            for (;;) {
+                Set<Path> changed = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                do {
+                    collectChanges(key, files, changed);
+                    key = watchService.poll(SETTLE_TIME, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                for (Path file : changed) {
+                    process(file, files.get(file));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(String.format(
+                    "The input files cannot be watched (%s)!", e.getMessage()));
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            System.err.println("Stopped watching the input files!");
+        }
+    }
+
+    /**
+     * Collects the watched files affected by the events of a watch key and
+     * resets the key.
+     *
+     * @param key
+     *            the signalled watch key.
+     * @param files
+     *            the watched files.
+     * @param changed
+     *            the set the changed files are added to.
+     */
+    private static void collectChanges(final WatchKey key,
+            final Map<Path, String> files, final Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost, check every file in the directory
+                for (Path file : files.keySet()) {
+                    if (file.getParent().equals(directory)) {
+                        changed.add(file);
+                    }
+                }
+                continue;
+            }
+
+            Path file = directory.resolve((Path) event.context());
+            if (files.containsKey(file)) {
+                changed.add(file);
+            }
+        }
+
+        key.reset();
+    }
+
+    /**
+     * Updates the LTS of an edited program. Failures of the update are
+     * reported on the command line.
+     *
+     * @param fileName
+     *            the name of the file as given on the command line.
+     * @param incremental
+     *            the incremental semantics of the edited program.
+     * @return the LTS of the edited program or {@code null} if the update
+     *         failed.
+     */
+    private static LTS update(final String fileName, final IncrementalSemantics incremental) {
+        try {
+            return incremental.explore();
+        } catch (RuntimeException e) {
+            System.err.println(String.format("The exploration of %s failed!", fileName));
+            System.err.println(e);
+            return null;
+        }
+    }
+
+    /**
+     * Parses and processes a file. The LTS is explored incrementally if the
+     * file was explored successfully before.
+     *
+     * @param file
+     *            the normalized path of the file.
+     * @param fileName
+     *            the name of the file as given on the command line.
+     */
+    private void process(final Path file, final String fileName) {
+        System.out.print(fileName);
+        System.out.println(":");
+
+        CCSProgram program = CCSExplorer.parseInputFile(this.diagnostic, fileName);
+        if (program == null) {
+            // keep the previous version for the next change
+            return;
+        }
+
+        CCSProgram previousProgram = this.programs.get(file);
+        IncrementalSemantics incremental = null;
+        LTS lts;
+        if (previousProgram == null) {
+            Graph<State, Transition> graph = new CCSSemantics(program);
+            // the CCS semantics has exactly one source
+            lts = CCSExplorer.explore(fileName, graph, graph.getSources().get(0));
+        } else {
+            incremental = new IncrementalSemantics(program, previousProgram,
+                    this.ltss.get(file));
+            lts = update(fileName, incremental);
+        }
+        if (lts == null) {
+            return;
+        }
+
+        this.programs.put(file, program);
+        this.ltss.put(file, lts);
+
+        if (incremental != null) {
+            long reused = incremental.getReusedStates();
+            System.err.println(String.format(
+                    "Reused the transitions of %d of %d states " +
+                    "(affected recursion variables: %s).",
+                    reused, reused + incremental.getComputedStates(),
+                    incremental.getAffected()));
+        }
+
+        CCSExplorer.printLTS(fileName, CCSExplorer.minimize(lts).toJSON());
+        if (Options.CRITICAL_SECTION.isSet()) {
+            // check the property on the LTS that is already explored
+            String verdict = CCSExplorer.checkCriticalSection(fileName, lts,
+                    lts.getInitialState());
+            if (verdict != null) {
+                System.out.println(verdict);
+            }
+        }
+        if (Options.LTL.getString() != null) {
+            String verdict = CCSExplorer.checkLTL(fileName, lts, lts.getInitialState());
+            if (verdict != null) {
+                System.out.println(verdict);
+            }
+        }
+        if (Options.DEADLOCK.isSet()) {
+            String verdict = CCSExplorer.checkDeadlock(fileName, lts, lts.getInitialState());
+            if (verdict != null) {
+                System.out.println(verdict);
+            }
+        }
+        for (Options query : new Options[] {Options.REACH_ACTION, Options.REACH_TERM}) {
+            if (query.getString() != null) {
+                String verdict = CCSExplorer.checkReach(fileName, lts, lts.getInitialState(), query);
+                if (verdict != null) {
+                    System.out.println(verdict);
+                }
+            }
+        }
+        if (Options.HML.getString() != null) {
+            System.out.println(CCSExplorer.checkHML(lts, lts.getInitialState()));
+        }
+    }
+}
@@ -4,6 +4,8 @@ import java.util.LinkedList;
 import java.util.Queue;
 
 import np2016.Graph.Node;
+import np2016.Monitoring.FlightEvents;
+import np2016.Monitoring.LockProbe;
 
 /**
  * Worklist is a monitor, that represent a data structure (LinkedList), where
@@ -20,10 +22,26 @@ public class WorkList<N extends Node<?>> {
 	 */
 	private Queue<N> queue;
 
+	/**
+	 * Measures the contention on this monitor.
+	 */
+	private LockProbe probe = LockProbe.DISABLED;
+
 	public WorkList() {
 		queue = new LinkedList<>();
 	}
 
+	/**
+	 * Sets the probe that measures the contention on this monitor. Must be
+	 * called before the worklist is shared between Threads.
+	 * 
+	 * @param probe
+	 *            the probe
+	 */
+	public void setProbe(LockProbe probe) {
+		this.probe = probe;
+	}
+
 	/**
 	 * Inserts the specified node into this worklist if it is possible to do so
 	 * immediately without violating capacity restrictions. When using a
@@ -33,8 +51,14 @@ public class WorkList<N extends Node<?>> {
 	 * @param vertex,
 	 *            The node
 	 */
-	synchronized public void offer(N vertex) {
-		queue.offer(vertex);
+	public void offer(N vertex) {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			queue.offer(vertex);
+			handoff("offer");
+			probe.released(t);
+		}
 	}
 
 	/**
@@ -43,8 +67,33 @@ public class WorkList<N extends Node<?>> {
 	 * 
 	 * @return a Node
 	 */
-	synchronized public N poll() {
-		return queue.poll();
+	public N poll() {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			N vertex = queue.poll();
+			if (vertex != null) {
+				handoff("poll");
+			}
+			probe.released(t);
+			return vertex;
+		}
+	}
+
+	/**
+	 * Emits a flight recorder event for a node that was added to or taken from
+	 * this worklist. Must be called while holding the monitor.
+	 * 
+	 * @param operation
+	 *            "offer" or "poll"
+	 */
+	private void handoff(String operation) {
+		FlightEvents.WorkQueue event = new FlightEvents.WorkQueue();
+		if (event.shouldCommit()) {
+			event.operation = operation;
+			event.queueSize = queue.size();
+			event.commit();
+		}
 	}
 
 	/**
@@ -52,8 +101,23 @@ public class WorkList<N extends Node<?>> {
 	 * 
 	 * @return boolean
 	 */
-	synchronized public boolean isEmpty() {
-		return queue.isEmpty();
+	public boolean isEmpty() {
+		long t = probe.enter();
+		synchronized (this) {
+			t = probe.acquired(t);
+			boolean empty = queue.isEmpty();
+			probe.released(t);
+			return empty;
+		}
+	}
+
+	/**
+	 * Returns the number of nodes in this worklist.
+	 * 
+	 * @return int
+	 */
+	synchronized public int size() {
+		return queue.size();
 	}
 
 }